@@ -23,9 +23,15 @@
 import javax.vecmath.Point2i;
 
 import org.terasology.cities.heightmap.HeightMap;
+import org.terasology.cities.model.RoadDistanceField;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Sectors;
+
+import com.google.common.base.Function;
 
 /**
- * Contains information on whether an area is blocked or not
+ * Contains information on whether an area is blocked or not. Every city is created
+ * with its own instance, which is used by a single thread only.
  * @author Martin Steiger
  */
 public class AreaInfo {
@@ -33,6 +39,7 @@ public class AreaInfo {
     private final HeightMap heightMap;  
     private final Path2D blockedArea = new Path2D.Double();
     private final CityTerrainComponent config;
+    private Function<? super Sector, RoadDistanceField> roadFields;
     
     /**
      * @param config the world config (sea level, etc)
@@ -53,6 +60,14 @@ public void addBlockedArea(Shape shape) {
         blockedArea.append(shape, false);
     }
 
+    /**
+     * Marks all blocks that are close to roads as blocked
+     * @param fields provides the road distance field for every sector
+     */
+    public void setBlockedRoads(Function<? super Sector, RoadDistanceField> fields) {
+        this.roadFields = fields;
+    }
+
     /**
      * @param rc the rectangle to check
      * @return true if the rect intersects blocked area or terrain obstacles
@@ -67,6 +82,10 @@ public boolean isBlocked(Rectangle rc) {
             }
         }
         
+        if (isRoadBlocked(rc)) {
+            return true;
+        }
+
         return blockedArea.intersects(rc);
     }
     
@@ -80,6 +99,11 @@ public boolean isBlocked(int x, int z) {
             return true;
         }
         
+        Function<? super Sector, RoadDistanceField> fields = roadFields;
+        if (fields != null && fields.apply(Sectors.getSectorForBlock(x, z)).isBlocked(x, z)) {
+            return true;
+        }
+
         return blockedArea.contains(x, z);
     }
 
@@ -91,6 +115,29 @@ public boolean isBlocked(Point2i pos) {
         return isBlocked(pos.x, pos.y);
     }
     
+    private boolean isRoadBlocked(Rectangle rc) {
+        Function<? super Sector, RoadDistanceField> fields = roadFields;
+        if (fields == null || rc.isEmpty()) {
+            return false;
+        }
+
+        // check the part of the rectangle in every sector that it touches
+        Sector min = Sectors.getSectorForBlock(rc.x, rc.y);
+        Sector max = Sectors.getSectorForBlock(rc.x + rc.width - 1, rc.y + rc.height - 1);
+
+        for (int sz = min.getCoords().y; sz <= max.getCoords().y; sz++) {
+            for (int sx = min.getCoords().x; sx <= max.getCoords().x; sx++) {
+                Rectangle sectorRect = new Rectangle(sx * Sector.SIZE, sz * Sector.SIZE, Sector.SIZE, Sector.SIZE);
+                Rectangle part = sectorRect.intersection(rc);
+                if (fields.apply(Sectors.getSector(sx, sz)).isBlocked(part)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
     private TerrainType getTerrainType(int x, int z) {
         int y = heightMap.apply(x, z);
         
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities;
+
+import org.terasology.world.block.Block;
+
+/**
+ * Describes the terrain surface of a chunk. For every column, it stores the
+ * height in world coords and the surface block. Columns whose surface is
+ * not inside the chunk have no surface block.
+ * @author Martin Steiger
+ */
+public final class ChunkSurface {
+
+    private final int sizeX;
+    private final int[] heights;
+    private final Block[] blocks;
+    private final boolean[] covered;
+
+    /**
+     * @param sizeX the chunk size in x direction
+     * @param sizeZ the chunk size in z direction
+     */
+    public ChunkSurface(int sizeX, int sizeZ) {
+        this.sizeX = sizeX;
+        this.heights = new int[sizeX * sizeZ];
+        this.blocks = new Block[sizeX * sizeZ];
+        this.covered = new boolean[sizeX * sizeZ];
+    }
+
+    /**
+     * @param x x in chunk coords
+     * @param z z in chunk coords
+     * @param height the surface height in world coords
+     * @param block the surface block
+     * @param isCovered true if the block on top of the surface is not air
+     */
+    public void set(int x, int z, int height, Block block, boolean isCovered) {
+        int idx = z * sizeX + x;
+        heights[idx] = height;
+        blocks[idx] = block;
+        covered[idx] = isCovered;
+    }
+
+    /**
+     * @param x x in chunk coords
+     * @param z z in chunk coords
+     * @return the surface height in world coords
+     */
+    public int getHeight(int x, int z) {
+        return heights[z * sizeX + x];
+    }
+
+    /**
+     * @param x x in chunk coords
+     * @param z z in chunk coords
+     * @return the surface block or <code>null</code> if the surface is not inside the chunk
+     */
+    public Block getBlock(int x, int z) {
+        return blocks[z * sizeX + x];
+    }
+
+    /**
+     * @param x x in chunk coords
+     * @param z z in chunk coords
+     * @return true if the block on top of the surface is not air
+     */
+    public boolean isCovered(int x, int z) {
+        return covered[z * sizeX + x];
+    }
+}
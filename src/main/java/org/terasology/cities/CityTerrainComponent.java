@@ -35,6 +35,9 @@ public class CityTerrainComponent implements Component {
     @Checkbox(label = "Symmetric World", description = "Check to create an axis-symmetric world")
     private boolean symmetric = true;
     
+    @Checkbox(label = "Town Overlays", description = "Check to rasterize every town only once and cache the result")
+    private boolean townOverlays = true;
+    
     /**
      * @return the sea level
      */
@@ -55,5 +58,12 @@ public int getSnowLine() {
     public boolean isSymmetric() {
         return symmetric;
     }
+
+    /**
+     * @return true if towns should be rasterized into cached overlays
+     */
+    public boolean isTownOverlays() {
+        return townOverlays;
+    }
     
 }
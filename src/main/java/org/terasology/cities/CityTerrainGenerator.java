@@ -16,7 +16,14 @@
 
 package org.terasology.cities;
 
+import com.google.common.base.Optional;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.Weigher;
 import com.google.common.collect.Sets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.terasology.cities.common.Orientation;
 import org.terasology.cities.heightmap.HeightMap;
 import org.terasology.cities.heightmap.HeightMaps;
@@ -26,13 +33,18 @@
 import org.terasology.cities.model.Sectors;
 import org.terasology.cities.raster.Brush;
 import org.terasology.cities.raster.ChunkBrush;
+import org.terasology.cities.raster.OverlayBrush;
 import org.terasology.cities.raster.RasterRegistry;
 import org.terasology.cities.raster.TerrainInfo;
-import org.terasology.cities.raster.standard.RoadRasterizer;
+import org.terasology.cities.raster.VoxelOverlay;
+import org.terasology.cities.raster.WriteCombiningBrush;
+import org.terasology.cities.raster.standard.RoadFieldRasterizer;
 import org.terasology.cities.raster.standard.StandardRegistry;
+import org.terasology.cities.symmetry.Symmetry;
 import org.terasology.world.chunks.CoreChunk;
 import org.terasology.world.generator.ChunkGenerationPass;
 
+import java.awt.Rectangle;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
@@ -44,18 +56,38 @@
  */
 public class CityTerrainGenerator implements ChunkGenerationPass {
 
+    private static final Logger logger = LoggerFactory.getLogger(CityTerrainGenerator.class);
+
+    /**
+     * The max. memory used by cached town overlays (in bytes)
+     */
+    private static final long MAX_OVERLAY_MEMORY = 64 * 1024 * 1024;
+
     private final HeightMap heightMap;
+    private final Optional<Symmetry> symmetry;
 
     private final BlockTheme theme = new BlockTheme();
     private WorldFacade facade;
 
+    private final LoadingCache<City, VoxelOverlay> overlays;
+    private boolean useOverlays;
+
     // private WorldBiomeProvider worldBiomeProvider;
 
     /**
      * @param heightMap the height map to use
      */
     public CityTerrainGenerator(HeightMap heightMap) {
+        this(heightMap, Optional.<Symmetry>absent());
+    }
+
+    /**
+     * @param heightMap the height map to use
+     * @param symmetry the symmetry of the height map
+     */
+    public CityTerrainGenerator(HeightMap heightMap, Optional<Symmetry> symmetry) {
         this.heightMap = heightMap;
+        this.symmetry = symmetry;
 
         theme.register(BlockTypes.ROAD_SURFACE, "core:Gravel");
         theme.register(BlockTypes.LOT_EMPTY, "core:dirt");
@@ -74,13 +106,37 @@ public CityTerrainGenerator(HeightMap heightMap) {
         theme.registerFamily(BlockTypes.FENCE, "Fences:Fence");
         // there is no fence gate :-(
         theme.registerFamily(BlockTypes.FENCE_GATE, "Engine:Air");
+
+        overlays = CacheBuilder.newBuilder()
+                .maximumWeight(MAX_OVERLAY_MEMORY)
+                .weigher(new Weigher<City, VoxelOverlay>() {
+                    @Override
+                    public int weigh(City key, VoxelOverlay value) {
+                        return value.getMemoryFootprint();
+                    }
+                })
+                .build(new CacheLoader<City, VoxelOverlay>() {
+                    @Override
+                    public VoxelOverlay load(City city) {
+                        return createOverlay(city);
+                    }
+                });
     }
 
     @Override
     public void setWorldSeed(String worldSeed) {
 
-        facade = new WorldFacade(worldSeed, heightMap);
+        if (facade != null) {
+            facade.shutdown();
+        }
 
+        CityTerrainComponent terrainConfig = WorldFacade.getWorldEntity().getComponent(CityTerrainComponent.class);
+
+        // mirrored sectors are only copied if the world is configured to be symmetric
+        Optional<Symmetry> worldSymmetry = terrainConfig.isSymmetric() ? symmetry : Optional.<Symmetry>absent();
+        facade = new WorldFacade(worldSeed, heightMap, worldSymmetry);
+        useOverlays = terrainConfig.isTownOverlays();
+        overlays.invalidateAll();
     }
 
     /**
@@ -106,35 +162,141 @@ public void generateChunk(CoreChunk chunk) {
 
         Sector sector = Sectors.getSectorForBlock(wx, wz);
 
-        Brush brush = new ChunkBrush(chunk, theme);
+        int minY = chunk.chunkToWorldPositionY(0);
+        int maxY = minY + chunk.getChunkSizeY();
+
+        Set<City> cities = getCities(sector, minY, maxY);
+        Set<Road> roads = getRoads(sector, minY, maxY);
+
+        // the chunk is entirely above or below all roads and cities
+        if (cities.isEmpty() && roads.isEmpty()) {
+            return;
+        }
+
+        Brush chunkBrush = new ChunkBrush(chunk, theme);
+        WriteCombiningBrush brush = new WriteCombiningBrush(chunkBrush);
 
         HeightMap cachedHm = HeightMaps.caching(heightMap, brush.getAffectedArea(), 1);
         TerrainInfo ti = new TerrainInfo(cachedHm);
 
-        drawCities(sector, ti, brush);
-        drawRoads(sector, ti, brush);
+        drawCities(cities, ti, brush);
+        if (!roads.isEmpty()) {
+            drawRoads(sector, ti, brush);
+        }
+
+        brush.flush();
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Wrote {} blocks in {} (overdraw factor {})",
+                    brush.getBlockCount(), chunk.getPosition(), String.format("%.2f", brush.getOverdrawFactor()));
+        }
     }
 
-    private void drawRoads(Sector sector, TerrainInfo ti, Brush brush) {
-        Set<Road> roads = facade.getRoads(sector);
+    /**
+     * @return the block theme that maps block types to actual blocks
+     */
+    public BlockTheme getTheme() {
+        return theme;
+    }
+
+    /**
+     * Rasterizes all roads and cities that intersect with the area and height range of the brush
+     * @param brush the brush (must not be larger than a sector)
+     * @param ti the terrain info for the brush area
+     * @return true if at least one road or city was drawn
+     */
+    public boolean draw(Brush brush, TerrainInfo ti) {
+        Rectangle area = brush.getAffectedArea();
+        Sector sector = Sectors.getSectorForBlock(area.x, area.y);
+
+        Set<City> cities = getCities(sector, brush.getMinHeight(), brush.getMaxHeight());
+        Set<Road> roads = getRoads(sector, brush.getMinHeight(), brush.getMaxHeight());
 
-        RoadRasterizer rr = new RoadRasterizer();
-        for (Road road : roads) {
-            rr.raster(brush, ti, road);
+        if (cities.isEmpty() && roads.isEmpty()) {
+            return false;
         }
+
+        drawCities(cities, ti, brush);
+        if (!roads.isEmpty()) {
+            drawRoads(sector, ti, brush);
+        }
+
+        return true;
+    }
+
+    private Set<Road> getRoads(Sector sector, int minY, int maxY) {
+        Set<Road> roads = Sets.newHashSet();
+
+        for (Road road : facade.getRoads(sector)) {
+            if (road.getHeightRange().intersects(minY, maxY)) {
+                roads.add(road);
+            }
+        }
+
+        return roads;
     }
 
-    private void drawCities(Sector sector, TerrainInfo ti, Brush brush) {
-        Set<City> cities = Sets.newHashSet(facade.getCities(sector));
+    private Set<City> getCities(Sector sector, int minY, int maxY) {
+        Set<City> all = Sets.newHashSet(facade.getCities(sector));
 
         for (Orientation dir : Orientation.values()) {
-            cities.addAll(facade.getCities(sector.getNeighbor(dir)));
+            all.addAll(facade.getCities(sector.getNeighbor(dir)));
         }
 
+        Set<City> cities = Sets.newHashSet();
+
+        for (City city : all) {
+            if (city.getHeightRange().intersects(minY, maxY)) {
+                cities.add(city);
+            }
+        }
+
+        return cities;
+    }
+
+    private void drawRoads(Sector sector, TerrainInfo ti, Brush brush) {
+        RoadFieldRasterizer rr = new RoadFieldRasterizer();
+        rr.raster(brush, ti, facade.getRoadField(sector));
+    }
+
+    private void drawCities(Set<City> cities, TerrainInfo ti, Brush brush) {
         RasterRegistry registry = StandardRegistry.getInstance();
 
         for (City city : cities) {
-            registry.rasterize(brush, ti, city);
+            if (useOverlays) {
+                copyOverlay(city, brush);
+            } else {
+                registry.rasterize(brush, ti, city);
+            }
+        }
+    }
+
+    private void copyOverlay(City city, Brush brush) {
+        if (!brush.getAffectedArea().intersects(city.getBounds())) {
+            return;
+        }
+
+        VoxelOverlay overlay = overlays.getUnchecked(city);
+
+        if (overlay.intersects(brush)) {
+            overlay.copyTo(brush);
+
+            // all chunks are done - the overlay is not needed anymore
+            if (overlay.markCopied(brush)) {
+                overlays.invalidate(city);
+            }
         }
     }
+
+    private VoxelOverlay createOverlay(City city) {
+        Rectangle area = city.getBounds();
+        OverlayBrush brush = new OverlayBrush(area);
+
+        HeightMap cachedHm = HeightMaps.caching(heightMap, area, 1);
+        TerrainInfo ti = new TerrainInfo(cachedHm);
+
+        StandardRegistry.getInstance().rasterize(brush, ti, city);
+
+        return brush.build();
+    }
 }
@@ -22,6 +22,7 @@
 import org.terasology.cities.heightmap.HeightMaps;
 import org.terasology.cities.heightmap.NoiseHeightMap;
 import org.terasology.cities.symmetry.Symmetries;
+import org.terasology.cities.symmetry.Symmetry;
 import org.terasology.core.world.generator.AbstractBaseWorldGenerator;
 import org.terasology.engine.SimpleUri;
 import org.terasology.entitySystem.Component;
@@ -37,6 +38,8 @@
 @RegisterWorldGenerator(id = "city", displayName = "City World")
 public class CityWorldGenerator extends AbstractBaseWorldGenerator {
 
+    private final Symmetry symmetry = Symmetries.alongNegativeDiagonal();
+
     private NoiseHeightMap noiseMap;
     private HeightMap heightMap;
     
@@ -51,12 +54,11 @@ public CityWorldGenerator(SimpleUri uri) {
     public void initialize() {
 
         noiseMap = new NoiseHeightMap();
-        heightMap = HeightMaps.symmetric(noiseMap, Symmetries.alongNegativeDiagonal());
+        heightMap = HeightMaps.symmetric(noiseMap, symmetry);
         
-        register(new HeightMapTerrainGenerator(heightMap));
+        // terrain, cities and flora are generated in a single pass
+        register(new FusedChunkGenerator(heightMap, Optional.of(symmetry)));
 //        register(new BoundaryGenerator(heightMap));
-        register(new CityTerrainGenerator(heightMap));
-        register(new FloraGeneratorFast(heightMap));
     }
     
     @Override
@@ -67,7 +69,7 @@ public void setWorldSeed(String seed) {
         
         if (heightMap == null) {
             noiseMap = new NoiseHeightMap();
-            heightMap = HeightMaps.symmetric(noiseMap, Symmetries.alongNegativeDiagonal());
+            heightMap = HeightMaps.symmetric(noiseMap, symmetry);
         }
         
         noiseMap.setSeed(seed);
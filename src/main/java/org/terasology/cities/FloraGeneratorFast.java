@@ -16,13 +16,12 @@
 
 package org.terasology.cities;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import org.terasology.cities.heightmap.HeightMap;
 import org.terasology.core.config.WorldGenerationConfig;
 import org.terasology.core.world.Biome;
 import org.terasology.registry.CoreRegistry;
-import org.terasology.utilities.random.FastRandom;
-import org.terasology.utilities.random.Random;
 import org.terasology.world.block.Block;
 import org.terasology.world.block.BlockManager;
 import org.terasology.world.chunks.CoreChunk;
@@ -31,11 +30,11 @@
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 /**
  * Generates flowers and high grass. It's fast, because it
- * uses a height map to find the terrain layer.
+ * uses a height map to find the terrain layer. Random values are
+ * derived from a hash of the column position.
  *
  * @author Martin Steiger
  */
@@ -48,92 +47,213 @@ public class FloraGeneratorFast implements ChunkGenerationPass {
             "core:DeadBush", "core:Dandelion", "core:Tulip",
             "core:Cotton1", "core:Cotton2", "core:Cotton3", "core:Cotton4", "core:Cotton5", "core:Cotton6"};
 
-    private Block grassBlock;
-    private Block tallGrass1;
-    private Block tallGrass2;
-    private Block tallGrass3;
-    private List<Block> flowers = Lists.newArrayList();
+    private final Block grassBlock;
+    private final Block tallGrass1;
+    private final Block tallGrass2;
+    private final Block tallGrass3;
+    private final List<Block> flowers;
 
-    private WorldGenerationConfig config = new WorldGenerationConfig();
+    private final float grassDensity;
 
-    private HeightMap heightMap;
+    private final HeightMap heightMap;
 
-    private String worldSeed;
+    private long worldSeed;
 
     /**
      * @param heightMap the height map to use
      */
     public FloraGeneratorFast(HeightMap heightMap) {
-        BlockManager blockManager = CoreRegistry.get(BlockManager.class);
-        grassBlock = blockManager.getBlock("core:Grass");
-        tallGrass1 = blockManager.getBlock("core:TallGrass1");
-        tallGrass2 = blockManager.getBlock("core:TallGrass2");
-        tallGrass3 = blockManager.getBlock("core:TallGrass3");
-        for (String blockUrn : FLOWER_BLOCKS) {
-            flowers.add(blockManager.getBlock(blockUrn));
-        }
+        this(heightMap, CoreRegistry.get(BlockManager.class));
+    }
+
+    private FloraGeneratorFast(HeightMap heightMap, BlockManager blockManager) {
+        this(heightMap, blockManager.getBlock("core:Grass"),
+                blockManager.getBlock("core:TallGrass1"),
+                blockManager.getBlock("core:TallGrass2"),
+                blockManager.getBlock("core:TallGrass3"),
+                getBlocks(blockManager, FLOWER_BLOCKS),
+                new WorldGenerationConfig().getGrassDensity(Biome.PLAINS));
+    }
 
+    /**
+     * @param heightMap the height map to use
+     * @param grassBlock the block that can be covered with flora
+     * @param tallGrass1 the most common tall grass block
+     * @param tallGrass2 the less common tall grass block
+     * @param tallGrass3 the least common tall grass block
+     * @param flowers the flower blocks
+     * @param grassDensity the fraction of grass blocks that receive flora
+     */
+    FloraGeneratorFast(HeightMap heightMap, Block grassBlock, Block tallGrass1, Block tallGrass2, Block tallGrass3,
+            List<Block> flowers, float grassDensity) {
         this.heightMap = heightMap;
+        this.grassBlock = grassBlock;
+        this.tallGrass1 = tallGrass1;
+        this.tallGrass2 = tallGrass2;
+        this.tallGrass3 = tallGrass3;
+        this.flowers = ImmutableList.copyOf(flowers);
+        this.grassDensity = grassDensity;
+    }
+
+    private static List<Block> getBlocks(BlockManager blockManager, String[] uris) {
+        List<Block> blocks = Lists.newArrayList();
+        for (String blockUrn : uris) {
+            blocks.add(blockManager.getBlock(blockUrn));
+        }
+        return blocks;
     }
 
     public void setWorldSeed(String seed) {
-        this.worldSeed = seed;
+        this.worldSeed = seed.hashCode();
     }
 
     @Override
     public void generateChunk(CoreChunk chunk) {
-        int seed = Objects.hash(worldSeed.hashCode(), chunk.getPosition());
+        generateChunk(chunk, readSurface(chunk));
+    }
+
+    /**
+     * Places flora on all uncovered grass blocks of the surface. The result of each column
+     * depends only on the world seed and the column's world coords, not on the iteration order.
+     * @param chunk the chunk
+     * @param surface the surface of the chunk
+     */
+    public void generateChunk(CoreChunk chunk, ChunkSurface surface) {
+        int minY = chunk.chunkToWorldPositionY(0);
+
+        for (int x = 0; x < chunk.getChunkSizeX(); x++) {
+            for (int z = 0; z < chunk.getChunkSizeZ(); z++) {
+                int wx = chunk.chunkToWorldPositionX(x);
+                int wz = chunk.chunkToWorldPositionZ(z);
+                Block plant = getPlant(surface, x, z, wx, wz);
+
+                if (plant != null) {
+                    int y = surface.getHeight(x, z) - minY;
+                    chunk.setBlock(x, y + 1, z, plant);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param surface the surface of the chunk
+     * @param x x in chunk coords
+     * @param z z in chunk coords
+     * @param wx x in world coords
+     * @param wz z in world coords
+     * @return the block that is placed on top of the surface or <code>null</code>
+     */
+    Block getPlant(ChunkSurface surface, int x, int z, int wx, int wz) {
+        Block block = surface.getBlock(x, z);
+
+        // check for grass and air above
+        if (block != null && block.equals(grassBlock) && !surface.isCovered(x, z)) {
+            return getGrassOrFlower(wx, wz);
+        }
+
+        return null;
+    }
+
+    /**
+     * Reads the surface blocks from the chunk, based on the height map
+     * @param chunk the chunk
+     * @return the surface descriptor
+     */
+    private ChunkSurface readSurface(CoreChunk chunk) {
+        ChunkSurface surface = new ChunkSurface(chunk.getChunkSizeX(), chunk.getChunkSizeZ());
+        int minY = chunk.chunkToWorldPositionY(0);
+        int maxY = minY + chunk.getChunkSizeY();
 
-        Random random = new FastRandom(seed);
         for (int x = 0; x < chunk.getChunkSizeX(); x++) {
             for (int z = 0; z < chunk.getChunkSizeZ(); z++) {
-                int y = heightMap.apply(x, z);
-                Block targetBlock = chunk.getBlock(x, y, z);
+                int wx = chunk.chunkToWorldPositionX(x);
+                int wz = chunk.chunkToWorldPositionZ(z);
+                int height = heightMap.apply(wx, wz);
 
-                // check for grass and air above
-                if (targetBlock.equals(grassBlock)) {
-                    Block blockOnTop = chunk.getBlock(x, y + 1, z);
+                // the surface and the block on top must be in this chunk
+                if (height >= minY && height + 1 < maxY) {
+                    int y = height - minY;
+                    Block block = chunk.getBlock(x, y, z);
 
-                    if (blockOnTop.equals(BlockManager.getAir())) {
-                        generateGrassAndFlowers(chunk, x, y, z, random);
-                    }
+                    // the block on top is relevant only for grass
+                    boolean covered = block.equals(grassBlock) && !chunk.getBlock(x, y + 1, z).equals(BlockManager.getAir());
+                    surface.set(x, z, height, block, covered);
                 }
             }
         }
+
+        return surface;
     }
 
     /**
-     * Generates grass or a flower on the given chunk.
+     * Selects grass or a flower for the given column.
      *
-     * @param c      The chunk
-     * @param x      Position on the x-axis
-     * @param y      Position on the y-axis
-     * @param z      Position on the z-axis
-     * @param random the RNG
+     * @param wx     Position on the x-axis in world coords
+     * @param wz     Position on the z-axis in world coords
+     * @return the block or <code>null</code> if nothing should be placed
      */
-    private void generateGrassAndFlowers(CoreChunk c, int x, int y, int z, Random random) {
-
-        if (random.nextFloat() < config.getGrassDensity(Biome.PLAINS)) {
-            /*
-             * Generate tall grass.
-             */
-            double rand = random.nextGaussian();
-
-            if (rand > -0.4 && rand < 0.4) {
-                c.setBlock(x, y + 1, z, tallGrass1);
-            } else if (rand > -0.6 && rand < 0.6) {
-                c.setBlock(x, y + 1, z, tallGrass2);
-            } else {
-                c.setBlock(x, y + 1, z, tallGrass3);
-            }
+    private Block getGrassOrFlower(int wx, int wz) {
+        long hash = hash(worldSeed, wx, wz);
 
-            /*
-             * Generate flowers.
-             */
-            if (random.nextGaussian() < -2) {
-                c.setBlock(x, y + 1, z, random.nextItem(flowers));
-            }
+        if (uniform(hash, 0) >= grassDensity) {
+            return null;
+        }
+
+        /*
+         * Generate flowers.
+         */
+        if (gaussian(hash, 3) < -2) {
+            int idx = (int) (uniform(hash, 5) * flowers.size());
+            return flowers.get(idx);
         }
+
+        /*
+         * Generate tall grass.
+         */
+        double rand = gaussian(hash, 1);
+
+        if (rand > -0.4 && rand < 0.4) {
+            return tallGrass1;
+        } else if (rand > -0.6 && rand < 0.6) {
+            return tallGrass2;
+        } else {
+            return tallGrass3;
+        }
+    }
+
+    private static long hash(long seed, int x, int z) {
+        return mix(mix(seed ^ (x * 0x9E3779B97F4A7C15L)) ^ (z * 0xC2B2AE3D27D4EB4FL));
+    }
+
+    /**
+     * The finalizer of MurmurHash3 (64 bit)
+     */
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * @return a value in [0..1) that is derived from the hash and the index
+     */
+    private static double uniform(long hash, int index) {
+        long h = mix(hash + index * 0x9E3779B97F4A7C15L);
+        return (h >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Box-Muller transform based on the uniform values at <code>index</code> and <code>index + 1</code>
+     * @return a normally distributed value that is derived from the hash and the index
+     */
+    private static double gaussian(long hash, int index) {
+        double u1 = 1.0 - uniform(hash, index);     // in (0..1]
+        double u2 = uniform(hash, index + 1);
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
     }
 
     @Override
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities;
+
+import java.awt.Rectangle;
+import java.util.Collections;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.cities.heightmap.HeightMap;
+import org.terasology.cities.heightmap.HeightMaps;
+import org.terasology.cities.raster.BlockCodes;
+import org.terasology.cities.raster.ChunkBrush;
+import org.terasology.cities.raster.TerrainInfo;
+import org.terasology.cities.raster.WriteCombiningBrush;
+import org.terasology.cities.symmetry.Symmetry;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.BlockManager;
+import org.terasology.world.chunks.CoreChunk;
+import org.terasology.world.generator.ChunkGenerationPass;
+
+import com.google.common.base.Optional;
+
+/**
+ * Combines {@link HeightMapTerrainGenerator}, {@link CityTerrainGenerator} and {@link FloraGeneratorFast}
+ * in a single pass. The height map is evaluated only once per column. Roads and cities are
+ * buffered first and then written column by column right after the terrain. Flora is placed
+ * based on a {@link ChunkSurface} that is built from the known terrain and city blocks
+ * instead of reading blocks back from the chunk.
+ * @author Martin Steiger
+ */
+public class FusedChunkGenerator implements ChunkGenerationPass {
+
+    private static final Logger logger = LoggerFactory.getLogger(FusedChunkGenerator.class);
+
+    private final HeightMap heightMap;
+
+    private final HeightMapTerrainGenerator terrainGen;
+    private final CityTerrainGenerator cityGen;
+    private final FloraGeneratorFast floraGen;
+
+    /**
+     * @param heightMap the height map to use
+     * @param symmetry the symmetry of the height map
+     */
+    public FusedChunkGenerator(HeightMap heightMap, Optional<Symmetry> symmetry) {
+        this.heightMap = heightMap;
+
+        terrainGen = new HeightMapTerrainGenerator(heightMap);
+        cityGen = new CityTerrainGenerator(heightMap, symmetry);
+        floraGen = new FloraGeneratorFast(heightMap);
+    }
+
+    @Override
+    public void setWorldSeed(String seed) {
+        terrainGen.setWorldSeed(seed);
+        cityGen.setWorldSeed(seed);
+        floraGen.setWorldSeed(seed);
+    }
+
+    /**
+     * Not sure what this method does - it does not seem to be used though
+     */
+    @Override
+    public Map<String, String> getInitParameters() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Not sure what this method does - it does not seem to be used though
+     */
+    @Override
+    public void setInitParameters(Map<String, String> initParameters) {
+        // ignore
+    }
+
+    @Override
+    public void generateChunk(CoreChunk chunk) {
+
+        // terrain and flora exist only in the bottom chunk
+        if (chunk.getPosition().y != 0) {
+            cityGen.generateChunk(chunk);
+            return;
+        }
+
+        WriteCombiningBrush brush = new WriteCombiningBrush(new ChunkBrush(chunk, cityGen.getTheme()));
+        Rectangle area = brush.getAffectedArea();
+
+        HeightMap cachedHm = HeightMaps.caching(heightMap, area, 1);
+        boolean hasCity = cityGen.draw(brush, new TerrainInfo(cachedHm));
+
+        ChunkSurface surface = new ChunkSurface(chunk.getChunkSizeX(), chunk.getChunkSizeZ());
+
+        for (int x = 0; x < chunk.getChunkSizeX(); x++) {
+            for (int z = 0; z < chunk.getChunkSizeZ(); z++) {
+                int wx = chunk.chunkToWorldPositionX(x);
+                int wz = chunk.chunkToWorldPositionZ(z);
+
+                int surfaceHeight = cachedHm.apply(wx, wz);
+
+                terrainGen.generateColumn(chunk, x, z, surfaceHeight);
+
+                // must be recorded before the buffered blocks are flushed
+                recordSurface(surface, brush, x, z, surfaceHeight);
+
+                if (hasCity) {
+                    brush.flushColumn(wx, wz);
+                }
+            }
+        }
+
+        if (hasCity) {
+            brush.flush();
+
+            if (logger.isDebugEnabled()) {
+                logger.debug("Wrote {} blocks in {} (overdraw factor {})",
+                        brush.getBlockCount(), chunk.getPosition(), String.format("%.2f", brush.getOverdrawFactor()));
+            }
+        }
+
+        floraGen.generateChunk(chunk, surface);
+    }
+
+    private void recordSurface(ChunkSurface surface, WriteCombiningBrush brush, int x, int z, int surfaceHeight) {
+        // the surface and the block on top must be in this chunk
+        if (surfaceHeight < brush.getMinHeight() || surfaceHeight + 1 >= brush.getMaxHeight()) {
+            return;
+        }
+
+        Rectangle area = brush.getAffectedArea();
+        int wx = area.x + x;
+        int wz = area.y + z;
+
+        Block block = getBlock(brush, wx, surfaceHeight, wz, surfaceHeight);
+        Block above = getBlock(brush, wx, surfaceHeight + 1, wz, surfaceHeight);
+
+        surface.set(x, z, surfaceHeight, block, !above.equals(BlockManager.getAir()));
+    }
+
+    private Block getBlock(WriteCombiningBrush brush, int wx, int wy, int wz, int surfaceHeight) {
+        short code = brush.getCode(wx, wy, wz);
+
+        if (code == BlockCodes.EMPTY) {
+            return terrainGen.getBlock(wy, surfaceHeight);
+        }
+
+        BlockTheme theme = cityGen.getTheme();
+
+        if (BlockCodes.hasSides(code)) {
+            return theme.apply(BlockCodes.getType(code), BlockCodes.getSides(code));
+        } else {
+            return theme.apply(BlockCodes.getType(code));
+        }
+    }
+}
@@ -16,9 +16,9 @@
 
 package org.terasology.cities;
 
-import com.google.common.base.Function;
+import org.terasology.cities.TerrainColumn.Layer;
+import org.terasology.cities.TerrainColumn.RunWriter;
 import org.terasology.cities.heightmap.HeightMap;
-import org.terasology.math.Vector2i;
 import org.terasology.registry.CoreRegistry;
 import org.terasology.world.block.Block;
 import org.terasology.world.block.BlockManager;
@@ -37,20 +37,21 @@
  */
 public class HeightMapTerrainGenerator implements ChunkGenerationPass {
 
-    private Function<Vector2i, Integer> heightMap;
+    /**
+     * Liquid data is immutable, so all water blocks can share the same instance
+     */
+    private static final LiquidData WATER_LIQUID = new LiquidData(LiquidType.WATER, LiquidData.MAX_LIQUID_DEPTH);
 
-    private final BlockManager blockManager = CoreRegistry.get(BlockManager.class);
+    private final HeightMap heightMap;
 
-    private final Block air = BlockManager.getAir();
-    private final Block mantle = blockManager.getBlock("core:MantleStone");
-    private final Block stone = blockManager.getBlock("core:Stone");
-    private final Block sand = blockManager.getBlock("core:Sand");
-    private final Block grass = blockManager.getBlock("core:Grass");
-    private final Block snow = blockManager.getBlock("core:Snow");
-    private final Block dirt = blockManager.getBlock("core:Dirt");
-    private final Block water = blockManager.getBlock("core:water");
+    /**
+     * Indexed by {@link Layer#ordinal()}
+     */
+    private final Block[] blocks = new Block[Layer.values().length];
 
-    private final CityTerrainComponent config;
+    private final TerrainColumn column;
+
+    private final RunWriter writer = new BlockRunWriter(blocks);
 
     /**
      * @param heightMap the height map to use
@@ -58,14 +59,24 @@ public class HeightMapTerrainGenerator implements ChunkGenerationPass {
     public HeightMapTerrainGenerator(HeightMap heightMap) {
         this.heightMap = heightMap;
 
-        config = WorldFacade.getWorldEntity().getComponent(CityTerrainComponent.class);
-
+        CityTerrainComponent config = WorldFacade.getWorldEntity().getComponent(CityTerrainComponent.class);
+        column = new TerrainColumn(config.getSeaLevel(), config.getSnowLine());
+
+        BlockManager blockManager = CoreRegistry.get(BlockManager.class);
+        blocks[Layer.AIR.ordinal()] = BlockManager.getAir();
+        blocks[Layer.MANTLE.ordinal()] = blockManager.getBlock("core:MantleStone");
+        blocks[Layer.STONE.ordinal()] = blockManager.getBlock("core:Stone");
+        blocks[Layer.SAND.ordinal()] = blockManager.getBlock("core:Sand");
+        blocks[Layer.GRASS.ordinal()] = blockManager.getBlock("core:Grass");
+        blocks[Layer.SNOW.ordinal()] = blockManager.getBlock("core:Snow");
+        blocks[Layer.DIRT.ordinal()] = blockManager.getBlock("core:Dirt");
+        blocks[Layer.WATER.ordinal()] = blockManager.getBlock("core:water");
     }
 
     /**
      * @return The height map
      */
-    public Function<Vector2i, Integer> getHeightMap() {
+    public HeightMap getHeightMap() {
         return heightMap;
     }
 
@@ -115,36 +126,62 @@ public void generateChunk(CoreChunk chunk) {
             return;
         }
 
-        int seaLevel = config.getSeaLevel();
-        int snowLine = config.getSnowLine();
-
         for (int x = 0; x < chunk.getChunkSizeX(); x++) {
             for (int z = 0; z < chunk.getChunkSizeZ(); z++) {
                 int wx = chunk.chunkToWorldPositionX(x);
                 int wz = chunk.chunkToWorldPositionZ(z);
 
-                int surfaceHeight = heightMap.apply(new Vector2i(wx, wz));
-
-                for (int y = chunk.getChunkSizeY() - 1; y >= 0; y--) {
-                    if (y == 0) {
-                        // bedrock/mantle
-                        chunk.setBlock(x, y, z, mantle);
-                    } else if (y <= seaLevel) { // Ocean
-                        chunk.setBlock(x, y, z, water);
-                        chunk.setLiquid(x, y, z, new LiquidData(LiquidType.WATER, LiquidData.MAX_LIQUID_DEPTH));
-                    } else if (y == seaLevel + 1 && y == surfaceHeight) {
-                        chunk.setBlock(x, y, z, sand);
-                    } else if (y < surfaceHeight && surfaceHeight < snowLine) {
-                        chunk.setBlock(x, y, z, dirt);
-                    } else if (y < surfaceHeight && surfaceHeight >= snowLine) {
-                        chunk.setBlock(x, y, z, stone);
-                    } else if (y == surfaceHeight && surfaceHeight < snowLine) {
-                        chunk.setBlock(x, y, z, grass);
-                    } else if (y == surfaceHeight && surfaceHeight >= snowLine) {
-                        chunk.setBlock(x, y, z, snow);
-                    } else {
-                        chunk.setBlock(x, y, z, air);
-                    }
+                int surfaceHeight = heightMap.apply(wx, wz);
+
+                generateColumn(chunk, x, z, surfaceHeight);
+            }
+        }
+    }
+
+    /**
+     * Fills a single column of a chunk at vertical chunk position 0. The layer boundaries
+     * are computed once per column and each layer is written as a run of equal blocks.
+     * Air blocks are not written, since the chunk is expected to be empty.
+     * @param chunk the (empty) chunk
+     * @param x x in chunk coords
+     * @param z z in chunk coords
+     * @param surfaceHeight the terrain height at that column
+     */
+    public void generateColumn(CoreChunk chunk, int x, int z, int surfaceHeight) {
+        column.write(chunk, x, z, chunk.getChunkSizeY(), surfaceHeight, writer);
+    }
+
+    /**
+     * @param y the height (chunk coords are world coords at vertical chunk position 0)
+     * @param surfaceHeight the terrain height of the column
+     * @return the terrain block at that height
+     */
+    public Block getBlock(int y, int surfaceHeight) {
+        return blocks[column.getLayer(y, surfaceHeight).ordinal()];
+    }
+
+    /**
+     * Writes runs of terrain blocks into chunks. It keeps no per-column state,
+     * so it can be shared by all columns and threads.
+     */
+    private static final class BlockRunWriter implements RunWriter {
+
+        private final Block[] blocks;
+
+        BlockRunWriter(Block[] blocks) {
+            this.blocks = blocks;
+        }
+
+        @Override
+        public void fill(CoreChunk chunk, int x, int z, int bottom, int top, Layer layer) {
+            Block block = blocks[layer.ordinal()];
+            for (int y = bottom; y < top; y++) {
+                chunk.setBlock(x, y, z, block);
+            }
+
+            if (layer == Layer.WATER) {
+                for (int y = bottom; y < top; y++) {
+                    chunk.setLiquid(x, y, z, WATER_LIQUID);
                 }
             }
         }
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities;
+
+import java.awt.Rectangle;
+import java.math.RoundingMode;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+
+import org.terasology.cities.common.CachingFunction;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Sectors;
+import org.terasology.cities.model.Site;
+import org.terasology.cities.model.SitePair;
+import org.terasology.cities.symmetry.Symmetry;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.math.IntMath;
+
+/**
+ * Defines a sparse network of long-distance connections (highways) on top of the local roads.
+ * The world is divided into regions of sectors. The largest site of every region is the region's
+ * hub and it is connected with the hubs of the four adjacent regions. A sector receives
+ * all highways that pass close to it, which only requires the hubs of the regions
+ * around the sector and its direct neighbors.
+ * @author Martin Steiger
+ */
+public class HighwayConnector implements Function<Sector, Set<SitePair>> {
+
+    /**
+     * The edge length of a region in sectors
+     */
+    static final int REGION_SIZE = 4;
+
+    private static final int[] DX = {1, 0, -1, 0};
+    private static final int[] DY = {0, 1, 0, -1};
+
+    private final Function<Sector, Set<Site>> siteMap;
+
+    private final Function<Point2i, Optional<Site>> hubs;
+
+    private final int margin;
+
+    private final Optional<Symmetry> symmetry;
+
+    /**
+     * @param siteMap defines sites in a sector
+     * @param margin the max. distance in blocks between a highway and the bounding box of its hubs
+     * (must not exceed the sector size, because only hubs of adjacent regions are considered)
+     */
+    public HighwayConnector(Function<Sector, Set<Site>> siteMap, int margin) {
+        this(siteMap, margin, Optional.<Symmetry>absent());
+    }
+
+    /**
+     * @param siteMap defines sites in a sector
+     * @param margin the max. distance in blocks between a highway and the bounding box of its hubs
+     * (must not exceed the sector size, because only hubs of adjacent regions are considered)
+     * @param symmetry the symmetry of the site map - mirrored regions pick the mirrored hub
+     */
+    public HighwayConnector(Function<Sector, Set<Site>> siteMap, int margin, Optional<Symmetry> symmetry) {
+        Preconditions.checkArgument(margin >= 0 && margin <= Sector.SIZE, "margin must be in [0..Sector.SIZE]");
+
+        this.siteMap = siteMap;
+        this.margin = margin;
+        this.symmetry = symmetry;
+
+        this.hubs = CachingFunction.wrap(new Function<Point2i, Optional<Site>>() {
+
+            @Override
+            public Optional<Site> apply(Point2i region) {
+                return findHub(region);
+            }
+        });
+    }
+
+    @Override
+    public Set<SitePair> apply(Sector sector) {
+        Point2i coords = sector.getCoords();
+        Rectangle sectorRect = new Rectangle(coords.x * Sector.SIZE, coords.y * Sector.SIZE, Sector.SIZE, Sector.SIZE);
+
+        // the regions of the sector and its direct neighbors
+        Set<Point2i> regions = Sets.newHashSet();
+        for (int y = coords.y - 1; y <= coords.y + 1; y++) {
+            for (int x = coords.x - 1; x <= coords.x + 1; x++) {
+                regions.add(getRegion(new Point2i(x, y)));
+            }
+        }
+
+        Set<SitePair> highways = Sets.newHashSet();
+
+        for (Point2i region : regions) {
+            Optional<Site> hub = hubs.apply(region);
+            if (!hub.isPresent()) {
+                continue;
+            }
+
+            for (int i = 0; i < DX.length; i++) {
+                Optional<Site> other = hubs.apply(new Point2i(region.x + DX[i], region.y + DY[i]));
+
+                if (other.isPresent() && isClose(hub.get(), other.get(), sectorRect)) {
+                    highways.add(new SitePair(hub.get(), other.get()));
+                }
+            }
+        }
+
+        return ImmutableSet.copyOf(highways);
+    }
+
+    /**
+     * @param region the region coordinates
+     * @return the hub of the region or <code>absent</code> if the region does not contain any sites
+     */
+    public Optional<Site> getHub(Point2i region) {
+        return hubs.apply(region);
+    }
+
+    private Optional<Site> findHub(Point2i region) {
+        Site best = null;
+
+        for (int y = 0; y < REGION_SIZE; y++) {
+            for (int x = 0; x < REGION_SIZE; x++) {
+                Sector sector = Sectors.getSector(region.x * REGION_SIZE + x, region.y * REGION_SIZE + y);
+                for (Site site : siteMap.apply(sector)) {
+                    if (best == null || isLarger(site, best)) {
+                        best = site;
+                    }
+                }
+            }
+        }
+
+        return Optional.fromNullable(best);
+    }
+
+    /**
+     * Breaks ties by position to be independent of the iteration order. The canonical
+     * (un-mirrored) positions are compared first, so that mirrored regions make the same choice.
+     */
+    private boolean isLarger(Site a, Site b) {
+        if (a.getRadius() != b.getRadius()) {
+            return a.getRadius() > b.getRadius();
+        }
+
+        Point2i pa = a.getPos();
+        Point2i pb = b.getPos();
+        Point2i ca = getCanonical(pa);
+        Point2i cb = getCanonical(pb);
+
+        if (!ca.equals(cb)) {
+            return isLess(ca, cb);
+        }
+
+        return isLess(pa, pb);
+    }
+
+    private Point2i getCanonical(Point2i pos) {
+        if (symmetry.isPresent() && symmetry.get().isMirrored(pos)) {
+            return symmetry.get().getMirrored(pos);
+        }
+        return pos;
+    }
+
+    private static boolean isLess(Point2i a, Point2i b) {
+        return a.x < b.x || (a.x == b.x && a.y < b.y);
+    }
+
+    private boolean isClose(Site a, Site b, Rectangle sectorRect) {
+        Point2i pa = a.getPos();
+        Point2i pb = b.getPos();
+        Rectangle bbox = new Rectangle(pa.x, pa.y, 0, 0);
+        bbox.add(pb.x, pb.y);
+        bbox.grow(margin, margin);
+
+        return bbox.intersects(sectorRect);
+    }
+
+    private static Point2i getRegion(Point2i sector) {
+        int rx = IntMath.divide(sector.x, REGION_SIZE, RoundingMode.FLOOR);
+        int ry = IntMath.divide(sector.y, REGION_SIZE, RoundingMode.FLOOR);
+        return new Point2i(rx, ry);
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities;
+
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+
+import org.terasology.cities.common.CachingFunction;
+import org.terasology.cities.common.DelaunayTriangulation;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Sectors;
+import org.terasology.cities.model.Site;
+import org.terasology.cities.model.SitePair;
+import org.terasology.cities.symmetry.Symmetry;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+import com.google.common.math.IntMath;
+
+/**
+ * Defines connections for a sector based on a road graph that is computed for a
+ * block of sectors (a region) at once. The graph is the relative neighborhood graph
+ * of all sites. Its edges are taken from the Delaunay triangulation and checked against all sites.
+ * Connections that are longer than the max. distance are dropped, unless they
+ * connect a site with its nearest neighbor.
+ * <p>
+ * Each region also triangulates a one-sector margin around it. Connections that cross
+ * region borders are kept only if both regions agree, so the result does not depend
+ * on which sector is asked first.
+ * </p>
+ * @author Martin Steiger
+ */
+public class RegionalSectorConnector implements Function<Sector, Set<SitePair>> {
+
+    /**
+     * The edge length of a region in sectors
+     */
+    static final int REGION_SIZE = 4;
+
+    private final Function<Sector, Set<Site>> siteMap;
+    private final long maxDistSq;
+
+    private final Optional<Symmetry> symmetry;
+
+    private final Function<Point2i, RegionGraph> regions;
+
+    /**
+     * @param siteMap defines sites in a sector
+     * @param maxDist the max. length of connections (unless nearest neighbors)
+     */
+    public RegionalSectorConnector(Function<Sector, Set<Site>> siteMap, double maxDist) {
+        this(siteMap, maxDist, Optional.<Symmetry>absent());
+    }
+
+    /**
+     * @param siteMap defines sites in a sector
+     * @param maxDist the max. length of connections (unless nearest neighbors)
+     * @param symmetry the symmetry of the site map - mirrored sites pick the mirrored nearest neighbor
+     */
+    public RegionalSectorConnector(Function<Sector, Set<Site>> siteMap, double maxDist, Optional<Symmetry> symmetry) {
+        this.siteMap = siteMap;
+        this.maxDistSq = (long) (maxDist * maxDist);
+        this.symmetry = symmetry;
+
+        this.regions = CachingFunction.wrap(new Function<Point2i, RegionGraph>() {
+
+            @Override
+            public RegionGraph apply(Point2i region) {
+                return createGraph(region);
+            }
+        });
+    }
+
+    @Override
+    public Set<SitePair> apply(Sector sector) {
+        Point2i region = getRegion(sector.getCoords());
+        RegionGraph graph = regions.apply(region);
+
+        Set<SitePair> connections = Sets.newHashSet();
+
+        for (Site site : siteMap.apply(sector)) {
+            for (Point2i otherPos : graph.edges.get(site.getPos())) {
+                Site other = graph.sites.get(otherPos);
+                Point2i otherRegion = getRegion(other.getSector().getCoords());
+
+                if (!otherRegion.equals(region)) {
+                    RegionGraph otherGraph = regions.apply(otherRegion);
+                    if (!otherGraph.edges.containsEntry(otherPos, site.getPos())) {
+                        continue;
+                    }
+                }
+
+                connections.add(new SitePair(site, other));
+            }
+        }
+
+        return connections;
+    }
+
+    private RegionGraph createGraph(Point2i region) {
+        int minX = region.x * REGION_SIZE;
+        int minY = region.y * REGION_SIZE;
+
+        List<Site> sites = Lists.newArrayList();
+        List<Point2i> points = Lists.newArrayList();
+        List<Boolean> inside = Lists.newArrayList();
+        ListMultimap<Point2i, Integer> sectorSites = ArrayListMultimap.create();
+
+        for (int y = minY - 1; y <= minY + REGION_SIZE; y++) {
+            for (int x = minX - 1; x <= minX + REGION_SIZE; x++) {
+                boolean innerSector = x >= minX && x < minX + REGION_SIZE && y >= minY && y < minY + REGION_SIZE;
+                for (Site site : siteMap.apply(Sectors.getSector(x, y))) {
+                    sectorSites.put(new Point2i(x, y), sites.size());
+                    sites.add(site);
+                    points.add(site.getPos());
+                    inside.add(innerSector);
+                }
+            }
+        }
+
+        DelaunayTriangulation dt = new DelaunayTriangulation(points);
+
+        int[] nearest = new int[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            nearest[i] = findNearest(dt, points, i);
+        }
+
+        Map<Point2i, Site> siteByPos = Maps.newHashMap();
+        SetMultimap<Point2i, Point2i> edges = HashMultimap.create();
+
+        for (int i = 0; i < points.size(); i++) {
+            siteByPos.put(points.get(i), sites.get(i));
+
+            if (!inside.get(i)) {
+                continue;
+            }
+
+            for (int j : dt.getNeighbors(i)) {
+                boolean isNearest = nearest[i] == j || nearest[j] == i;
+                boolean inRange = distSq(points.get(i), points.get(j)) <= maxDistSq;
+
+                if ((isNearest || inRange) && isRelativeNeighbor(sectorSites, points, i, j)) {
+                    edges.put(points.get(i), points.get(j));
+                }
+            }
+        }
+
+        return new RegionGraph(siteByPos, edges);
+    }
+
+    /**
+     * Checks if the lune of i and j is empty. A site in the lune is closer than |ij| to both
+     * points, so only the sectors that intersect with the bounding box of both circles are tested.
+     * Sites outside of the region and its margin are not considered.
+     */
+    private static boolean isRelativeNeighbor(ListMultimap<Point2i, Integer> sectorSites, List<Point2i> points, int i, int j) {
+        Point2i pi = points.get(i);
+        Point2i pj = points.get(j);
+        long dist = distSq(pi, pj);
+        int rad = (int) Math.ceil(Math.sqrt(dist));
+
+        int minX = IntMath.divide(Math.max(pi.x, pj.x) - rad, Sector.SIZE, RoundingMode.FLOOR);
+        int minY = IntMath.divide(Math.max(pi.y, pj.y) - rad, Sector.SIZE, RoundingMode.FLOOR);
+        int maxX = IntMath.divide(Math.min(pi.x, pj.x) + rad, Sector.SIZE, RoundingMode.FLOOR);
+        int maxY = IntMath.divide(Math.min(pi.y, pj.y) + rad, Sector.SIZE, RoundingMode.FLOOR);
+
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                for (int k : sectorSites.get(new Point2i(x, y))) {
+                    if (k != i && k != j) {
+                        Point2i pk = points.get(k);
+                        if (Math.max(distSq(pi, pk), distSq(pj, pk)) < dist) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private int findNearest(DelaunayTriangulation dt, List<Point2i> points, int i) {
+        Point2i pi = points.get(i);
+        int best = -1;
+        long bestDist = Long.MAX_VALUE;
+
+        for (int j : dt.getNeighbors(i)) {
+            Point2i pj = points.get(j);
+            long dist = distSq(pi, pj);
+
+            // break ties by position to be independent of the point order
+            if (dist < bestDist || (dist == bestDist && isLess(pj, points.get(best)))) {
+                best = j;
+                bestDist = dist;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Compares the canonical (un-mirrored) positions first, so that mirrored sites make the same choice
+     */
+    private boolean isLess(Point2i a, Point2i b) {
+        Point2i ca = getCanonical(a);
+        Point2i cb = getCanonical(b);
+
+        if (!ca.equals(cb)) {
+            return ca.x < cb.x || (ca.x == cb.x && ca.y < cb.y);
+        }
+
+        return a.x < b.x || (a.x == b.x && a.y < b.y);
+    }
+
+    private Point2i getCanonical(Point2i pos) {
+        if (symmetry.isPresent() && symmetry.get().isMirrored(pos)) {
+            return symmetry.get().getMirrored(pos);
+        }
+        return pos;
+    }
+
+    private static long distSq(Point2i a, Point2i b) {
+        long dx = a.x - b.x;
+        long dy = a.y - b.y;
+        return dx * dx + dy * dy;
+    }
+
+    private static Point2i getRegion(Point2i sector) {
+        int rx = IntMath.divide(sector.x, REGION_SIZE, RoundingMode.FLOOR);
+        int ry = IntMath.divide(sector.y, REGION_SIZE, RoundingMode.FLOOR);
+        return new Point2i(rx, ry);
+    }
+
+    /**
+     * The connections of all sites in a region, including the sites in the margin
+     */
+    private static final class RegionGraph {
+        private final Map<Point2i, Site> sites;
+        private final ImmutableSetMultimap<Point2i, Point2i> edges;
+
+        RegionGraph(Map<Point2i, Site> sites, SetMultimap<Point2i, Point2i> edges) {
+            this.sites = Maps.newHashMap(sites);
+            this.edges = ImmutableSetMultimap.copyOf(edges);
+        }
+    }
+}
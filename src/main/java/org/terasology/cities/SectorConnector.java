@@ -18,9 +18,9 @@
 
 import java.util.Set;
 
-import org.terasology.cities.common.UnorderedPair;
 import org.terasology.cities.model.Sector;
 import org.terasology.cities.model.Site;
+import org.terasology.cities.model.SitePair;
 
 import com.google.common.base.Function;
 import com.google.common.collect.Sets;
@@ -29,7 +29,7 @@
  * Defines connections for a sector
  * @author Martin Steiger
  */
-public class SectorConnector implements Function<Sector, Set<UnorderedPair<Site>>> {
+public class SectorConnector implements Function<Sector, Set<SitePair>> {
 
     private final Function<Sector, Set<Site>> siteMap;
     private final Function<Site, Set<Site>> connectedCities;
@@ -44,16 +44,16 @@ public SectorConnector(Function<Sector, Set<Site>> siteMap, Function<Site, Set<S
     }
 
     @Override
-    public Set<UnorderedPair<Site>> apply(Sector sector) {
+    public Set<SitePair> apply(Sector sector) {
         Set<Site> sites = Sets.newHashSet(siteMap.apply(sector));
 
-        Set<UnorderedPair<Site>> connections = Sets.newHashSet();
+        Set<SitePair> connections = Sets.newHashSet();
         
         for (Site site : sites) {
             Set<Site> conn = connectedCities.apply(site);
             
             for (Site other : conn) {
-                connections.add(new UnorderedPair<Site>(site, other));
+                connections.add(new SitePair(site, other));
             }
         }
         
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.vecmath.Point2i;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.cities.common.CachingFunction;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Sectors;
+
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Generates sectors in the background on a bounded pool of worker threads.
+ * Sectors that are closer to a player are generated first. Queued sectors are
+ * re-prioritized when players move and dropped when they are no longer close to any player.
+ * Sectors that are still in the generator's cache are skipped, so evicted sectors are
+ * generated again once they are requested.
+ * @author Martin Steiger
+ */
+public class SectorScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SectorScheduler.class);
+
+    private final CachingFunction<Sector, ?> generator;
+    private final int radius;
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ConcurrentMap<String, Sector> players = Maps.newConcurrentMap();
+    private final Map<Sector, SectorTask> pending = Maps.newHashMap();
+
+    /**
+     * @param generator the caching function that generates a sector
+     * @param threads the number of worker threads
+     * @param radius the max. distance to a player (in sectors) for a sector to be generated
+     */
+    public SectorScheduler(CachingFunction<Sector, ?> generator, int threads, int radius) {
+        this.generator = generator;
+        this.radius = radius;
+
+        ThreadFactoryBuilder tfb = new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setPriority(Thread.MIN_PRIORITY)
+                .setNameFormat("Cities-Sectors-%d");
+
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<Runnable>(), tfb.build());
+    }
+
+    /**
+     * Updates the position of a player. All sectors in the vicinity are scheduled for generation.
+     * @param id the player id
+     * @param sector the sector the player is in
+     */
+    public void updatePlayer(String id, Sector sector) {
+        Sector prev = players.put(id, sector);
+
+        if (!sector.equals(prev)) {
+            reschedule();
+        }
+    }
+
+    /**
+     * @param id the id of the player who has left
+     */
+    public void removePlayer(String id) {
+        if (players.remove(id) != null) {
+            reschedule();
+        }
+    }
+
+    /**
+     * Schedules a sector for generation. The priority is derived from the distance to the closest player.
+     * @param sector the sector to generate
+     */
+    public synchronized void request(Sector sector) {
+        if (executor.isShutdown() || pending.containsKey(sector) || generator.isCached(sector)) {
+            return;
+        }
+
+        SectorTask task = new SectorTask(sector, getDistance(sector), sequence.getAndIncrement());
+        pending.put(sector, task);
+        executor.execute(task);
+    }
+
+    /**
+     * Discards all queued sectors and stops the worker threads
+     */
+    public synchronized void shutdown() {
+        executor.shutdownNow();
+        pending.clear();
+    }
+
+    /**
+     * @return the number of sectors that are queued or currently being generated
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    private synchronized void reschedule() {
+        Iterator<SectorTask> it = pending.values().iterator();
+
+        while (it.hasNext()) {
+            SectorTask task = it.next();
+            int dist = getDistance(task.sector);
+
+            if (dist != task.distance && executor.remove(task)) {
+                if (dist > radius) {
+                    // the task is dropped - it will be computed on demand if it is needed after all
+                    it.remove();
+                } else {
+                    // the queue does not notice priority changes, so the task is re-inserted
+                    task.distance = dist;
+                    executor.execute(task);
+                }
+            }
+        }
+
+        for (Sector sector : players.values()) {
+            Point2i center = sector.getCoords();
+            for (int z = center.y - radius; z <= center.y + radius; z++) {
+                for (int x = center.x - radius; x <= center.x + radius; x++) {
+                    request(Sectors.getSector(x, z));
+                }
+            }
+        }
+    }
+
+    /**
+     * @param sector the sector
+     * @return the Chebyshev distance to the closest player in sectors or <code>Integer.MAX_VALUE</code>
+     */
+    private int getDistance(Sector sector) {
+        Point2i coords = sector.getCoords();
+        int min = Integer.MAX_VALUE;
+
+        for (Sector player : players.values()) {
+            Point2i pc = player.getCoords();
+            int dist = Math.max(Math.abs(pc.x - coords.x), Math.abs(pc.y - coords.y));
+            min = Math.min(min, dist);
+        }
+
+        return min;
+    }
+
+    private synchronized void complete(SectorTask task) {
+        pending.remove(task.sector);
+    }
+
+    private final class SectorTask implements Runnable, Comparable<SectorTask> {
+
+        private final Sector sector;
+        private final long seq;
+        private volatile int distance;
+
+        SectorTask(Sector sector, int distance, long seq) {
+            this.sector = sector;
+            this.distance = distance;
+            this.seq = seq;
+        }
+
+        @Override
+        public void run() {
+            try {
+                generator.apply(sector);
+            } catch (RuntimeException e) {
+                logger.warn("Could not generate sector {}", sector, e);
+            } finally {
+                complete(this);
+            }
+        }
+
+        @Override
+        public int compareTo(SectorTask other) {
+            if (distance != other.distance) {
+                return distance < other.distance ? -1 : 1;
+            }
+
+            // first come, first served
+            return Long.compare(seq, other.seq);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.cities;
+
+import org.terasology.world.chunks.CoreChunk;
+
+/**
+ * Defines the vertical layers of a terrain column at vertical chunk position 0.
+ * The layer boundaries are computed once per column, so that each layer can be written as a run.
+ * @author Martin Steiger
+ */
+final class TerrainColumn {
+
+    /**
+     * The terrain layers from bottom to top
+     */
+    enum Layer {
+        MANTLE,
+        WATER,
+        DIRT,
+        STONE,
+        SAND,
+        GRASS,
+        SNOW,
+        AIR
+    }
+
+    /**
+     * Receives runs of equal layer blocks. The column is passed along,
+     * so that a single writer instance can serve all columns.
+     */
+    interface RunWriter {
+
+        /**
+         * @param chunk the chunk that contains the column
+         * @param x x in chunk coords
+         * @param z z in chunk coords
+         * @param bottom the lowest height (inclusive)
+         * @param top the highest height (exclusive)
+         * @param layer the layer of all blocks in the run
+         */
+        void fill(CoreChunk chunk, int x, int z, int bottom, int top, Layer layer);
+    }
+
+    private final int seaLevel;
+    private final int snowLine;
+
+    /**
+     * @param seaLevel the height of the sea level
+     * @param snowLine the height of the snow line
+     */
+    TerrainColumn(int seaLevel, int snowLine) {
+        this.seaLevel = seaLevel;
+        this.snowLine = snowLine;
+    }
+
+    /**
+     * Writes all layers except for air from bottom to top
+     * @param chunk the chunk that contains the column
+     * @param x x in chunk coords
+     * @param z z in chunk coords
+     * @param sizeY the height of the column
+     * @param surfaceHeight the terrain height of the column
+     * @param writer receives the runs
+     */
+    void write(CoreChunk chunk, int x, int z, int sizeY, int surfaceHeight, RunWriter writer) {
+
+        // bedrock/mantle
+        writer.fill(chunk, x, z, 0, 1, Layer.MANTLE);
+
+        // ocean
+        int waterTop = Math.min(seaLevel + 1, sizeY);
+        if (waterTop > 1) {
+            writer.fill(chunk, x, z, 1, waterTop, Layer.WATER);
+        }
+
+        // everything below the sea level is water, the mantle is at 0
+        int groundBottom = Math.max(seaLevel + 1, 1);
+
+        if (surfaceHeight < groundBottom) {
+            return;
+        }
+
+        int groundTop = Math.min(surfaceHeight, sizeY);
+        if (groundTop > groundBottom) {
+            writer.fill(chunk, x, z, groundBottom, groundTop, getGroundLayer(surfaceHeight));
+        }
+
+        if (surfaceHeight < sizeY) {
+            writer.fill(chunk, x, z, surfaceHeight, surfaceHeight + 1, getSurfaceLayer(surfaceHeight));
+        }
+    }
+
+    /**
+     * @param y the height
+     * @param surfaceHeight the terrain height of the column
+     * @return the layer at that height
+     */
+    Layer getLayer(int y, int surfaceHeight) {
+        if (y == 0) {
+            return Layer.MANTLE;
+        } else if (y <= seaLevel) {
+            return Layer.WATER;
+        } else if (y < surfaceHeight) {
+            return getGroundLayer(surfaceHeight);
+        } else if (y == surfaceHeight) {
+            return getSurfaceLayer(surfaceHeight);
+        } else {
+            return Layer.AIR;
+        }
+    }
+
+    private Layer getGroundLayer(int surfaceHeight) {
+        return (surfaceHeight < snowLine) ? Layer.DIRT : Layer.STONE;
+    }
+
+    private Layer getSurfaceLayer(int surfaceHeight) {
+        if (surfaceHeight == seaLevel + 1) {
+            return Layer.SAND;
+        }
+
+        return (surfaceHeight < snowLine) ? Layer.GRASS : Layer.SNOW;
+    }
+}
@@ -16,50 +16,67 @@
 
 package org.terasology.cities;
 
-import java.awt.Point;
-import java.awt.Polygon;
 import java.awt.Rectangle;
 import java.awt.Shape;
-import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import javax.vecmath.Point2i;
-import javax.vecmath.Vector2d;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.cities.common.CachingFunction;
+import org.terasology.cities.common.HeightRange;
 import org.terasology.cities.common.Orientation;
-import org.terasology.cities.common.UnorderedPair;
 import org.terasology.cities.contour.Contour;
+import org.terasology.cities.contour.ContourSimplifier;
 import org.terasology.cities.contour.ContourTracer;
+import org.terasology.cities.generator.CostGridGenerator;
 import org.terasology.cities.generator.DefaultTownWallGenerator;
+import org.terasology.cities.generator.ElevationProfileGenerator;
+import org.terasology.cities.generator.HighwayGenerator;
+import org.terasology.cities.generator.JunctionRegistry;
 import org.terasology.cities.generator.LotGeneratorRandom;
+import org.terasology.cities.generator.RoadDistanceFieldGenerator;
 import org.terasology.cities.generator.RoadGeneratorSimple;
 import org.terasology.cities.generator.RoadModifierRandom;
-import org.terasology.cities.generator.RoadShapeGenerator;
+import org.terasology.cities.generator.RoadRouter;
+import org.terasology.cities.generator.RoadWaterFilter;
 import org.terasology.cities.generator.SimpleChurchGenerator;
 import org.terasology.cities.generator.SimpleFenceGenerator;
 import org.terasology.cities.generator.SimpleHousingGenerator;
-import org.terasology.cities.generator.SiteConnector;
-import org.terasology.cities.generator.SiteFinderRandom;
+import org.terasology.cities.generator.SiteFinderPoisson;
+import org.terasology.cities.generator.SymmetricSiteFinder;
 import org.terasology.cities.generator.TownWallShapeGenerator;
+import org.terasology.cities.generator.WaterMaskGenerator;
 import org.terasology.cities.heightmap.HeightMap;
 import org.terasology.cities.heightmap.HeightMaps;
 import org.terasology.cities.model.City;
-import org.terasology.cities.model.Junction;
+import org.terasology.cities.model.CostGrid;
+import org.terasology.cities.model.ElevationProfile;
 import org.terasology.cities.model.Lake;
+import org.terasology.cities.model.Lot;
 import org.terasology.cities.model.MedievalTown;
-import org.terasology.cities.model.NamedArea;
 import org.terasology.cities.model.Road;
+import org.terasology.cities.model.RoadDistanceField;
 import org.terasology.cities.model.Sector;
 import org.terasology.cities.model.SimpleFence;
 import org.terasology.cities.model.SimpleLot;
 import org.terasology.cities.model.Site;
+import org.terasology.cities.model.SitePair;
+import org.terasology.cities.model.WaterMask;
 import org.terasology.cities.model.bldg.SimpleBuilding;
 import org.terasology.cities.model.bldg.SimpleChurch;
 import org.terasology.cities.model.bldg.TownWall;
+import org.terasology.cities.raster.HeightRangeBrush;
+import org.terasology.cities.raster.TerrainInfo;
+import org.terasology.cities.raster.standard.RoadRasterizer;
+import org.terasology.cities.raster.standard.StandardRegistry;
+import org.terasology.cities.symmetry.ModelMirror;
+import org.terasology.cities.symmetry.SymmetricPairFunction;
+import org.terasology.cities.symmetry.SymmetricSectorFunction;
+import org.terasology.cities.symmetry.Symmetry;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.namegenerator.town.DebugTownTheme;
@@ -73,51 +90,92 @@
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
 import com.google.common.base.Objects;
+import com.google.common.base.Optional;
 import com.google.common.base.Stopwatch;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 /**
- * Provides many different getters to rasterize a world
+ * Provides many different getters to rasterize a world. All returned sets are immutable
+ * snapshots that can be shared between chunk generation threads.
  * @author Martin Steiger
  */
 public class WorldFacade {
 
     private static final Logger logger = LoggerFactory.getLogger(WorldFacade.class);
-    
-    private CachingFunction<Sector, Set<City>> decoratedCities;
 
-    private Function<Site, Set<Site>> connectedCities;
+    /**
+     * Sectors up to this distance (in sectors) from a player are generated in the background
+     */
+    private static final int PREFETCH_RADIUS = 1;
+
+    /**
+     * Leave at least one core for the chunk generator threads
+     */
+    private static final int WORKER_THREADS = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+
+    /**
+     * Lakes are traced on a grid of this size (in blocks)
+     */
+    private static final int LAKE_GRID = 8;
 
-    private Function<Sector, Set<UnorderedPair<Site>>> sectorConnections;
+    /**
+     * The max. deviation of the simplified lake and island contours in grid cells
+     */
+    private static final double LAKE_TOLERANCE = 1.0;
 
-    private Function<Point2i, Junction> junctions;
+    /**
+     * The maximum number of grid cells the road router expands per road
+     */
+    private static final int ROUTER_NODE_BUDGET = 40000;
+
+    /**
+     * The max. memory used by cached road distance fields (in bytes)
+     */
+    private static final long MAX_ROAD_FIELD_MEMORY = 32 * 1024 * 1024;
+
+    private CachingFunction<Sector, Set<City>> canonicalCities;
+
+    private CachingFunction<Sector, Set<City>> decoratedCities;
+
+    private Function<Sector, Set<SitePair>> sectorConnections;
+
+    private final JunctionRegistry junctions = new JunctionRegistry();
 
     private Function<Sector, Set<Road>> roadMap;
 
-    private Function<Sector, Shape> roadShapeFunc;
+    private Function<Sector, RoadDistanceField> roadFieldFunc;
 
     private Function<Sector, Set<Lake>> lakeMap;
 
+    private final SectorScheduler scheduler;
+
     /**
      * @param seed the seed value
      * @param heightMap the height map to use
      */
     public WorldFacade(final String seed, final HeightMap heightMap) {
+        this(seed, heightMap, Optional.<Symmetry>absent());
+    }
+
+    /**
+     * @param seed the seed value
+     * @param heightMap the height map to use
+     * @param symmetry the symmetry of the height map - mirrored sectors are copied from their counterparts
+     */
+    public WorldFacade(final String seed, final HeightMap heightMap, Optional<Symmetry> symmetry) {
 
         final CityTerrainComponent terrainConfig = WorldFacade.getWorldEntity().getComponent(CityTerrainComponent.class);
         final CitySpawnComponent spawnConfig = WorldFacade.getWorldEntity().getComponent(CitySpawnComponent.class);
         
-        junctions = new Function<Point2i, Junction>() {
+        final ModelMirror mirror = symmetry.isPresent() ? new ModelMirror(symmetry.get()) : null;
 
-            @Override
-            public Junction apply(Point2i input) {
-                return new Junction(input);
-            }
-            
-        };
-        junctions = CachingFunction.wrap(junctions);
-        
         lakeMap = CachingFunction.wrap(new Function<Sector, Set<Lake>>() {
+            private final ContourSimplifier lakeSimplifier = new ContourSimplifier(LAKE_TOLERANCE);
 
             @Override
             public Set<Lake> apply(Sector sector) {
@@ -128,7 +186,7 @@ public Set<Lake> apply(Sector sector) {
                 
                 int minSize = 16;
 
-                int scale = 8;
+                int scale = LAKE_GRID;
                 int size = Sector.SIZE / scale;
                 HeightMap orgHm = HeightMaps.scalingArea(heightMap, scale);
                 Point2i coords = sector.getCoords();
@@ -136,42 +194,43 @@ public Set<Lake> apply(Sector sector) {
                 Rectangle sectorRect = new Rectangle(coords.x * size, coords.y * size, size, size);
                 ContourTracer ct = new ContourTracer(orgHm, sectorRect, terrainConfig.getSeaLevel());
                 
+                // simplify lakes and islands together, so that they don't intersect
+                List<Contour> outer = ct.getOuterContours();
+                List<Contour> contours = Lists.newArrayList(outer);
+                contours.addAll(ct.getInnerContours());
+                contours = lakeSimplifier.simplify(contours);
+
+                // the tracer knows the enclosing lake of every island
+                ListMultimap<Integer, Contour> islands = ArrayListMultimap.create();
+                for (int i = outer.size(); i < contours.size(); i++) {
+                    int parent = ct.getParentIndex(i - outer.size());
+                    islands.put(parent, contours.get(i).scale(scale));
+                }
+
                 Set<Lake> lakes = Sets.newHashSet();
                 
-                for (Contour c : ct.getOuterContours()) {
-                    Contour scaledContour = c.scale(scale);
-                    Polygon polyLake = scaledContour.getPolygon();
+                for (int i = 0; i < outer.size(); i++) {
+                    Contour scaledContour = contours.get(i).scale(scale);
+                    Rectangle bounds = scaledContour.getPath().getBounds();
 
-                    if (polyLake.getBounds().width > minSize
-                     && polyLake.getBounds().height > minSize) {
+                    if (bounds.width > minSize && bounds.height > minSize) {
                         Lake lake = new Lake(scaledContour, ng.generateName());
                         
-                        for (Contour isl : ct.getInnerContours()) {
-                            Rectangle bboxIsland = isl.getPolygon().getBounds();
-                            
-                            if (polyLake.getBounds().contains(bboxIsland)) {
-                                if (allInside(polyLake, isl.getPoints())) {
-                                    lake.addIsland(isl);
-                                }
-                            }
+                        for (Contour isl : islands.get(i)) {
+                            lake.addIsland(isl);
                         }
                         
                         lakes.add(lake);
                     }
                 }
                 
-                return lakes;
-            }
-
-            private boolean allInside(Polygon polygon, Collection<Point> points) {
-                for (Point pt : points) {
-                    if (!polygon.contains(pt)) {
-                        return false;
-                    }
-                }
-                return true;
+                return ImmutableSet.copyOf(lakes);
             }
         });
+
+        if (symmetry.isPresent()) {
+            lakeMap = CachingFunction.wrap(new SymmetricSectorFunction<Set<Lake>>(lakeMap, symmetry.get(), mirror.lakes()));
+        }
         
         int minCitiesPerSector = spawnConfig.getMinCitiesPerSector();
         int maxCitiesPerSector = spawnConfig.getMaxCitiesPerSector();
@@ -181,30 +240,75 @@ private boolean allInside(Polygon polygon, Collection<Point> points) {
         AreaInfo globalAreaInfo = new AreaInfo(terrainConfig, heightMap);
         
         Function<? super Sector, AreaInfo> sectorInfos = Functions.constant(globalAreaInfo);
-        SiteFinderRandom cpr = new SiteFinderRandom(seed, sectorInfos, minCitiesPerSector, maxCitiesPerSector, minSize, maxSize);
-        final Function<Sector, Set<Site>> siteMap = CachingFunction.wrap(cpr);
+        SiteFinderPoisson cpr = new SiteFinderPoisson(seed, sectorInfos, minCitiesPerSector, maxCitiesPerSector, minSize, maxSize);
+        Function<Sector, Set<Site>> sites = CachingFunction.wrap(cpr);
+        if (symmetry.isPresent()) {
+            sites = CachingFunction.wrap(new SymmetricSiteFinder(sites, symmetry.get()));
+        }
+        final Function<Sector, Set<Site>> siteMap = sites;
         
         double maxDist = spawnConfig.getMaxConnectedCitiesDistance();
-        connectedCities = new SiteConnector(siteMap, maxDist);
-        connectedCities = CachingFunction.wrap(connectedCities);
-        
-        sectorConnections = new SectorConnector(siteMap, connectedCities);
+        sectorConnections = new RegionalSectorConnector(siteMap, maxDist, symmetry);
         sectorConnections = CachingFunction.wrap(sectorConnections);
 
-        Function<UnorderedPair<Site>, Road> rg = new Function<UnorderedPair<Site>, Road>() {
+        Function<Sector, WaterMask> waterMasks = CachingFunction.wrap(new WaterMaskGenerator(lakeMap, LAKE_GRID));
+        final RoadWaterFilter waterFilter = new RoadWaterFilter(waterMasks);
+
+        // each grid takes approx. 34KB and is shared by all roads that pass through the sector
+        Function<Sector, CostGrid> costGrids = CachingFunction.wrap(new CostGridGenerator(heightMap, waterMasks, LAKE_GRID), 200);
+        final RoadRouter router = new RoadRouter(costGrids, LAKE_GRID, ROUTER_NODE_BUDGET);
+
+        final Function<Road, Road> profiler = new Function<Road, Road>() {
+            private ElevationProfileGenerator epg = new ElevationProfileGenerator(heightMap);
+
+            @Override
+            public Road apply(Road road) {
+                ElevationProfile profile = epg.apply(road);
+                Road profiled = road.withElevation(HeightRange.ALL, profile);
+                HeightRange range = measureHeightRange(profiled, heightMap);
+                return road.withElevation(range, profile);
+            }
+        };
+
+        Function<SitePair, Road> rg = new Function<SitePair, Road>() {
             private RoadGeneratorSimple rgs = new RoadGeneratorSimple(junctions);
             private RoadModifierRandom rmr = new RoadModifierRandom(0.5);
 
             @Override
-            public Road apply(UnorderedPair<Site> input) {
-                Road road = rgs.apply(input);
-                rmr.apply(road);
-                return road;
+            public Road apply(SitePair input) {
+                Road straight = rgs.apply(input);
+                Point2i start = straight.getStart().getCoords();
+                Point2i end = straight.getEnd().getCoords();
+                Optional<List<Point2i>> route = router.route(start, end);
+
+                // fall back to the randomized straight road if no path was found
+                Road road = route.isPresent()
+                        ? new Road(straight.getStart(), straight.getEnd(), route.get(), straight.getWidth())
+                        : rmr.apply(straight);
+                return profiler.apply(road);
             }
             
         };
         
-        final Function<UnorderedPair<Site>, Road> cachedRoadgen = CachingFunction.wrap(rg);
+        HighwayGenerator highwayGen = new HighwayGenerator(junctions, router, waterMasks);
+        Function<SitePair, Road> hg = Functions.compose(profiler, highwayGen);
+
+        // the road generators add a reference to both junctions of every new road
+        Function<SitePair, Road> roadgen = CachingFunction.wrap(rg, 1000, junctions.roadReleaser());
+        Function<SitePair, Road> highwaygen = CachingFunction.wrap(hg, 100, junctions.roadReleaser());
+
+        if (symmetry.isPresent()) {
+            // only one of two mirrored connections is routed, so both have the same geometry
+            Function<Road, Road> mirrorRoad = mirror.roads(junctions);
+            roadgen = symmetricRoads(new SymmetricPairFunction<Road>(roadgen, symmetry.get(), mirrorRoad), 1000);
+            highwaygen = symmetricRoads(new SymmetricPairFunction<Road>(highwaygen, symmetry.get(), mirrorRoad), 100);
+        }
+
+        final Function<SitePair, Road> cachedRoadgen = roadgen;
+        final Function<SitePair, Road> cachedHighwaygen = highwaygen;
+
+        // sectors must know all highways that might pass through them
+        final Function<Sector, Set<SitePair>> highways = new HighwayConnector(siteMap, highwayGen.getMaxDeviation(), symmetry);
 
         roadMap = new Function<Sector, Set<Road>>() {
 
@@ -212,48 +316,55 @@ public Road apply(UnorderedPair<Site> input) {
             public Set<Road> apply(Sector sector) {
                 Set<Road> allRoads = Sets.newHashSet();
                 
-                Set<UnorderedPair<Site>> localConns = sectorConnections.apply(sector);
-                Set<UnorderedPair<Site>> allConns = Sets.newHashSet(localConns);
-                Set<Lake> allBlockedAreas = Sets.newHashSet(lakeMap.apply(sector));
+                Set<SitePair> allConns = Sets.newHashSet(sectorConnections.apply(sector));
                 
                 // add all neighbors, because their roads might be passing through
                 for (Orientation dir : Orientation.values()) {
                     Sector neighbor = sector.getNeighbor(dir);
 
                     allConns.addAll(sectorConnections.apply(neighbor));
-                    allBlockedAreas.addAll(lakeMap.apply(sector));
                 }
 
-                for (UnorderedPair<Site> conn : allConns) {
+                for (SitePair conn : allConns) {
                     Road road = cachedRoadgen.apply(conn);
                     
-                    if (!isBlocked(road, lakeMap.apply(sector))) {
+                    if (!waterFilter.isBlocked(road)) {
                         allRoads.add(road);
                     }
                 }
 
-                return allRoads;
-            }
-            
-            public boolean isBlocked(Road road, Set<? extends NamedArea> blockedAreas) {
-                for (Point2i pt : road.getPoints()) {
-                    Vector2d v = new Vector2d(pt.x, pt.y);
-                    for (NamedArea area : blockedAreas) {
-                        if (area.contains(v)) {
-                            return true;
+                // highways are precomputed for larger regions and only need to be filtered
+                for (SitePair conn : highways.apply(sector)) {
+                    if (!allConns.contains(conn)) {
+                        Road road = cachedHighwaygen.apply(conn);
+
+                        if (!waterFilter.isBlocked(road)) {
+                            allRoads.add(road);
                         }
                     }
                 }
 
-                return false;
+                Set<Road> roads = ImmutableSet.copyOf(allRoads);
+
+                // keep the junctions alive as long as the sector is cached
+                for (Road road : roads) {
+                    junctions.retain(road);
+                }
+
+                return roads;
             }
         };
-        
-        
-        roadMap = CachingFunction.wrap(roadMap);
 
-        roadShapeFunc = new RoadShapeGenerator(roadMap);
-        roadShapeFunc = CachingFunction.wrap(roadShapeFunc);
+        roadMap = CachingFunction.wrap(roadMap, 1000, junctions.roadsReleaser());
+
+        // fields only store the tiles close to roads, so their size varies a lot
+        roadFieldFunc = new RoadDistanceFieldGenerator(roadMap, heightMap);
+        roadFieldFunc = CachingFunction.wrap(roadFieldFunc, MAX_ROAD_FIELD_MEMORY, new Weigher<Sector, RoadDistanceField>() {
+            @Override
+            public int weigh(Sector key, RoadDistanceField value) {
+                return value.getMemoryFootprint();
+            }
+        });
         
         final DefaultTownWallGenerator twg = new DefaultTownWallGenerator(seed, heightMap);
         final LotGeneratorRandom housingLotGenerator = new LotGeneratorRandom(seed);
@@ -262,7 +373,7 @@ public boolean isBlocked(Road road, Set<? extends NamedArea> blockedAreas) {
         final SimpleFenceGenerator sfg = new SimpleFenceGenerator(seed);
         final SimpleChurchGenerator sacg = new SimpleChurchGenerator(seed, heightMap);
 
-        decoratedCities = CachingFunction.wrap(new Function<Sector, Set<City>>() {
+        canonicalCities = CachingFunction.wrap(new Function<Sector, Set<City>>() {
             
             @Override
             public Set<City> apply(Sector input) {
@@ -291,7 +402,7 @@ public Set<City> apply(Sector input) {
                     pRoads = Stopwatch.createStarted();
                 }
 
-                Shape roadShape = roadShapeFunc.apply(input);
+                roadFieldFunc.apply(input);
 
                 if (logger.isInfoEnabled()) {
                     logger.info("Generated roads for {} in {}ms.", input, pRoads.elapsed(TimeUnit.MILLISECONDS));
@@ -313,7 +424,7 @@ public Set<City> apply(Sector input) {
                     HeightMap cityAreaHeightMap = HeightMaps.caching(heightMap, cityArea, 4);
 
                     AreaInfo si = new AreaInfo(terrainConfig, cityAreaHeightMap); 
-                    si.addBlockedArea(roadShape);
+                    si.setBlockedRoads(roadFieldFunc);
                     
                     String name = nameGen.generateName(TownAffinityVector.create().prefix(0.2).postfix(0.2));
                     MedievalTown town = new MedievalTown(name, site.getPos(), site.getRadius());
@@ -354,17 +465,27 @@ public Set<City> apply(Sector input) {
                         logger.info("Generated city '{}' in {} in {}ms.", town, input, pSite.elapsed(TimeUnit.MILLISECONDS));
                     }
                     
-                    cities.add(town);
+                    cities.add(withHeightRange(town, measureHeightRange(town, heightMap)));
                 }
                 
                 if (logger.isInfoEnabled()) {
                     logger.info("Generated {} .. in {}ms.", input, pAll.elapsed(TimeUnit.MILLISECONDS));
                 }
 
-                return cities;
+                // the cities were assembled privately - publish them as an immutable snapshot
+                return ImmutableSet.copyOf(cities);
             }
         });
+
+        if (symmetry.isPresent()) {
+            decoratedCities = CachingFunction.wrap(
+                    new SymmetricSectorFunction<Set<City>>(canonicalCities, symmetry.get(), mirror.cities()));
+        } else {
+            decoratedCities = canonicalCities;
+        }
         
+        scheduler = new SectorScheduler(decoratedCities, WORKER_THREADS, PREFETCH_RADIUS);
+
         // this required by WorldEventReceiver
         CoreRegistry.put(WorldFacade.class, this);
     }
@@ -374,6 +495,30 @@ public Set<City> apply(Sector input) {
      */
     public void expungeCache() {
         decoratedCities.invalidateAll();
+        canonicalCities.invalidateAll();
+    }
+
+    /**
+     * Sectors close to the player are generated in the background, closest first
+     * @param id the player id
+     * @param sector the sector the player is currently in
+     */
+    public void updatePlayer(String id, Sector sector) {
+        scheduler.updatePlayer(id, sector);
+    }
+
+    /**
+     * @param id the id of the player who has left
+     */
+    public void removePlayer(String id) {
+        scheduler.removePlayer(id);
+    }
+
+    /**
+     * Stops all background generation
+     */
+    public void shutdown() {
+        scheduler.shutdown();
     }
 
     /**
@@ -384,6 +529,14 @@ public Set<Road> getRoads(Sector sector) {
         return roadMap.apply(sector);
     }
     
+    /**
+     * @param sector the sector
+     * @return the distance field of all roads in that sector
+     */
+    public RoadDistanceField getRoadField(Sector sector) {
+        return roadFieldFunc.apply(sector);
+    }
+
     /**
      * @param sector the sector
      * @return all cities in that sector
@@ -401,6 +554,59 @@ public Set<Lake> getLakes(Sector sector) {
     }
     
     
+    /**
+     * Caches the roads of a symmetric function. Mirrored roads reference the registered
+     * junctions of the mirror function, canonical roads receive an additional reference.
+     * @param func the symmetric road function
+     * @param maxSize the max. number of cached roads
+     * @return the caching function
+     */
+    private Function<SitePair, Road> symmetricRoads(final SymmetricPairFunction<Road> func, int maxSize) {
+        Function<SitePair, Road> retaining = new Function<SitePair, Road>() {
+
+            @Override
+            public Road apply(SitePair pair) {
+                Road road = func.apply(pair);
+                if (func.isCanonical(pair)) {
+                    junctions.retain(road);
+                }
+                return road;
+            }
+        };
+
+        return CachingFunction.wrap(retaining, maxSize, junctions.roadReleaser());
+    }
+
+    /**
+     * The height range is known only after the town has been assembled, so a copy
+     * that contains the same lots and town wall is created for publication.
+     */
+    private static MedievalTown withHeightRange(MedievalTown town, HeightRange heightRange) {
+        MedievalTown copy = new MedievalTown(town.getName(), town.getPos(), (int) town.getRadius(), heightRange);
+        if (town.getTownWall().isPresent()) {
+            copy.setTownWall(town.getTownWall().get());
+        }
+        for (Lot lot : town.getLots()) {
+            copy.add(lot);
+        }
+        return copy;
+    }
+
+    private static HeightRange measureHeightRange(City city, HeightMap heightMap) {
+        HeightRangeBrush brush = new HeightRangeBrush(city.getBounds());
+        StandardRegistry.getInstance().rasterize(brush, new TerrainInfo(heightMap), city);
+        return brush.getHeightRange();
+    }
+
+    private static HeightRange measureHeightRange(Road road, HeightMap heightMap) {
+        Rectangle area = road.getPath().getBounds();
+        int margin = (int) Math.ceil(road.getWidth());
+        area.grow(margin, margin);
+        HeightRangeBrush brush = new HeightRangeBrush(area);
+        new RoadRasterizer().raster(brush, new TerrainInfo(heightMap), road);
+        return brush.getHeightRange();
+    }
+
     public static EntityRef getWorldEntity() {
         EntityManager entityManager = CoreRegistry.get(EntityManager.class);
 
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.array;
+
+/**
+ * A compact 2D array of bits
+ * @author Martin Steiger
+ */
+public final class BitArray2D {
+
+    private final long[] words;
+    private final int width;
+    private final int height;
+
+    /**
+     * @param width the width
+     * @param height the height
+     */
+    public BitArray2D(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.words = new long[(width * height + 63) / 64];
+    }
+
+    /**
+     * @param x the x coord
+     * @param y the y coord
+     * @param value the value
+     */
+    public void set(int x, int y, boolean value) {
+        int idx = y * width + x;
+        if (value) {
+            words[idx >>> 6] |= 1L << idx;
+        } else {
+            words[idx >>> 6] &= ~(1L << idx);
+        }
+    }
+
+    /**
+     * @param x the x coord
+     * @param y the y coord
+     * @return the value
+     */
+    public boolean get(int x, int y) {
+        int idx = y * width + x;
+        return (words[idx >>> 6] & (1L << idx)) != 0;
+    }
+
+    /**
+     * @return the width of the array
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the height of the array
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the number of bits that are set
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
@@ -17,6 +17,8 @@
 package org.terasology.cities.common;
 
 import com.google.common.base.Function;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.Weigher;
 
 /**
  * Caches function calls (thread-safe)
@@ -33,6 +35,37 @@
     public static <F, T> CachingFunction<F, T> wrap(Function<? super F, ? extends T> function) {
         return new CachingFunctionGuava<F, T>(function, 1000);
     }
+
+    /**
+     * @param function the function to wrap
+     * @param maxSize the max. number of cached entries
+     * @return the caching function
+     */
+    public static <F, T> CachingFunction<F, T> wrap(Function<? super F, ? extends T> function, int maxSize) {
+        return new CachingFunctionGuava<F, T>(function, maxSize);
+    }
+
+    /**
+     * @param function the function to wrap
+     * @param maxSize the max. number of cached entries
+     * @param listener is notified whenever an entry is evicted or invalidated
+     * @return the caching function
+     */
+    public static <F, T> CachingFunction<F, T> wrap(Function<? super F, ? extends T> function, int maxSize,
+            RemovalListener<? super F, ? super T> listener) {
+        return new CachingFunctionGuava<F, T>(function, maxSize, listener);
+    }
+
+    /**
+     * @param function the function to wrap
+     * @param maxWeight the max. total weight of all cached entries
+     * @param weigher computes the weight of a cached entry
+     * @return the caching function
+     */
+    public static <F, T> CachingFunction<F, T> wrap(Function<? super F, ? extends T> function, long maxWeight,
+            Weigher<? super F, ? super T> weigher) {
+        return new CachingFunctionGuava<F, T>(function, maxWeight, weigher);
+    }
     
     /**
      * Discards any cached value for {@code input}.
@@ -44,4 +77,11 @@ public static <F, T> CachingFunction<F, T> wrap(Function<? super F, ? extends T>
      * Discards all entries in the cache
      */
     public abstract  void invalidateAll();
+
+    /**
+     * Does not compute the value and does not count as an access.
+     * @param input the function argument
+     * @return true if a value for {@code input} is currently cached
+     */
+    public abstract boolean isCached(F input);
 }
@@ -20,6 +20,8 @@
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.Weigher;
 
 /**
  * Caches function calls using guava's {@link LoadingCache}.
@@ -32,16 +34,32 @@
     private final LoadingCache<F, T> cache;
 
     CachingFunctionGuava(final Function<? super F, ? extends T> function, int maxSize) {
-        CacheLoader<F, T> loader = new CacheLoader<F, T>() {
+        this(function, maxSize, (RemovalListener<? super F, ? super T>) null);
+    }
+
+    CachingFunctionGuava(final Function<? super F, ? extends T> function, int maxSize, RemovalListener<? super F, ? super T> listener) {
+        CacheLoader<F, T> loader = createLoader(function);
+
+        if (listener != null) {
+            cache = CacheBuilder.newBuilder().maximumSize(maxSize).<F, T>removalListener(listener).build(loader);
+        } else {
+            cache = CacheBuilder.newBuilder().maximumSize(maxSize).build(loader);
+        }
+    }
+    
+    CachingFunctionGuava(final Function<? super F, ? extends T> function, long maxWeight, Weigher<? super F, ? super T> weigher) {
+        cache = CacheBuilder.newBuilder().maximumWeight(maxWeight).<F, T>weigher(weigher).build(createLoader(function));
+    }
+
+    private static <F, T> CacheLoader<F, T> createLoader(final Function<? super F, ? extends T> function) {
+        return new CacheLoader<F, T>() {
             @Override
             public T load(F key) {
                 return function.apply(key);
             }
         };
-
-        cache = CacheBuilder.newBuilder().maximumSize(maxSize).build(loader);
     }
-    
+
     @Override
     public T apply(F input) {
         // the cache loader does not throw checked exceptions, we can use getUnchecked() here
@@ -59,4 +77,9 @@ public void invalidate(F input) {
     public void invalidateAll() {
         cache.invalidateAll();
     }
+
+    @Override
+    public boolean isCached(F input) {
+        return cache.asMap().containsKey(input);
+    }
 }
@@ -74,4 +74,9 @@ public void invalidate(F input) {
     public void invalidateAll() {
         cache.clear();
     }
+
+    @Override
+    public boolean isCached(F input) {
+        return cache.containsKey(input);
+    }
 }
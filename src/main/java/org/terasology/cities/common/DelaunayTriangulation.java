@@ -0,0 +1,297 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.common;
+
+import java.awt.Rectangle;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Computes the Delaunay triangulation of a set of points. Points are inserted in sorted order
+ * (Bowyer-Watson). The containing triangle is found by walking from the previously inserted
+ * point, so the expected run time is O(n log n) for the sort plus short walks.
+ * Duplicate points are ignored.
+ * @author Martin Steiger
+ */
+public final class DelaunayTriangulation {
+
+    private final int count;
+    private final double[] px;
+    private final double[] py;
+
+    // triangle vertices (counter-clockwise) and the neighbor opposite to each vertex (-1 for none)
+    private int[] tv = new int[64 * 3];
+    private int[] tn = new int[64 * 3];
+    private boolean[] alive = new boolean[64];
+    private int triCount;
+
+    private final List<Set<Integer>> neighbors;
+
+    /**
+     * @param points the points to triangulate
+     */
+    public DelaunayTriangulation(List<Point2i> points) {
+        count = points.size();
+        px = new double[count + 3];
+        py = new double[count + 3];
+
+        Rectangle bbox = BoundingBox.getBoundingRect(points).or(new Rectangle());
+        double ox = bbox.getCenterX();
+        double oy = bbox.getCenterY();
+
+        // use coordinates relative to the center to keep the predicates precise
+        for (int i = 0; i < count; i++) {
+            px[i] = points.get(i).x - ox;
+            py[i] = points.get(i).y - oy;
+        }
+
+        neighbors = Lists.newArrayListWithCapacity(count);
+        for (int i = 0; i < count; i++) {
+            neighbors.add(Sets.<Integer>newTreeSet());
+        }
+
+        if (count < 2) {
+            return;
+        }
+
+        double size = Math.max(bbox.width, bbox.height) + 1;
+        triangulate(size * 64);
+    }
+
+    /**
+     * @return the number of input points
+     */
+    public int getPointCount() {
+        return count;
+    }
+
+    /**
+     * @param index the point index
+     * @return the indices of all points that share a Delaunay edge with the given point (sorted)
+     */
+    public Set<Integer> getNeighbors(int index) {
+        return Collections.unmodifiableSet(neighbors.get(index));
+    }
+
+    private void triangulate(double size) {
+        // the super triangle contains all points
+        int s0 = count;
+        int s1 = count + 1;
+        int s2 = count + 2;
+        px[s0] = -size;
+        py[s0] = -size;
+        px[s1] = size;
+        py[s1] = -size;
+        px[s2] = 0;
+        py[s2] = size;
+
+        addTriangle(s0, s1, s2, -1, -1, -1);
+
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+
+        Arrays.sort(order, new Comparator<Integer>() {
+
+            @Override
+            public int compare(Integer a, Integer b) {
+                int cmp = Double.compare(px[a], px[b]);
+                return (cmp != 0) ? cmp : Double.compare(py[a], py[b]);
+            }
+        });
+
+        int last = 0;
+        int prev = -1;
+        for (int idx : order) {
+            if (prev >= 0 && px[prev] == px[idx] && py[prev] == py[idx]) {
+                continue;       // duplicate
+            }
+
+            last = insert(idx, last);
+            prev = idx;
+        }
+
+        for (int t = 0; t < triCount; t++) {
+            if (alive[t]) {
+                for (int i = 0; i < 3; i++) {
+                    int a = tv[t * 3 + i];
+                    int b = tv[t * 3 + (i + 1) % 3];
+                    if (a < count && b < count) {
+                        neighbors.get(a).add(b);
+                        neighbors.get(b).add(a);
+                    }
+                }
+            }
+        }
+    }
+
+    private int insert(int p, int start) {
+        int tri = locate(p, start);
+
+        // collect all triangles whose circumcircle contains the point (the cavity)
+        Set<Integer> bad = Sets.newHashSet();
+        Deque<Integer> queue = new ArrayDeque<>();
+        bad.add(tri);
+        queue.add(tri);
+
+        while (!queue.isEmpty()) {
+            int t = queue.poll();
+            for (int i = 0; i < 3; i++) {
+                int n = tn[t * 3 + i];
+                if (n >= 0 && !bad.contains(n) && inCircle(n, p)) {
+                    bad.add(n);
+                    queue.add(n);
+                }
+            }
+        }
+
+        // connect the point with all boundary edges of the cavity
+        Map<Integer, Integer> byStart = Maps.newHashMap();
+        Map<Integer, Integer> byEnd = Maps.newHashMap();
+        List<Integer> created = Lists.newArrayList();
+
+        for (int t : bad) {
+            for (int i = 0; i < 3; i++) {
+                int n = tn[t * 3 + i];
+                if (n < 0 || !bad.contains(n)) {
+                    int a = tv[t * 3 + (i + 1) % 3];
+                    int b = tv[t * 3 + (i + 2) % 3];
+                    int nt = addTriangle(a, b, p, -1, -1, n);
+                    if (n >= 0) {
+                        replaceNeighbor(n, t, nt);
+                    }
+                    byStart.put(a, nt);
+                    byEnd.put(b, nt);
+                    created.add(nt);
+                }
+            }
+            alive[t] = false;
+        }
+
+        // link the new triangles (a, b, p) with each other
+        for (int nt : created) {
+            int a = tv[nt * 3];
+            int b = tv[nt * 3 + 1];
+            tn[nt * 3] = byStart.get(b);        // edge (b, p)
+            tn[nt * 3 + 1] = byEnd.get(a);      // edge (p, a)
+        }
+
+        return created.get(0);
+    }
+
+    private int locate(int p, int start) {
+        int t = start;
+        int maxSteps = triCount + 1;
+
+        for (int step = 0; step < maxSteps; step++) {
+            boolean moved = false;
+            for (int i = 0; i < 3 && !moved; i++) {
+                int a = tv[t * 3 + (i + 1) % 3];
+                int b = tv[t * 3 + (i + 2) % 3];
+                if (orient(a, b, p) < 0) {
+                    t = tn[t * 3 + i];
+                    moved = true;
+                }
+            }
+
+            if (!moved) {
+                return t;
+            }
+        }
+
+        // should not happen - fall back to a linear search
+        for (int tri = 0; tri < triCount; tri++) {
+            if (alive[tri] && contains(tri, p)) {
+                return tri;
+            }
+        }
+
+        throw new IllegalStateException("Point not inside triangulation: " + p);
+    }
+
+    private boolean contains(int t, int p) {
+        for (int i = 0; i < 3; i++) {
+            if (orient(tv[t * 3 + (i + 1) % 3], tv[t * 3 + (i + 2) % 3], p) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double orient(int a, int b, int c) {
+        return (px[b] - px[a]) * (py[c] - py[a]) - (py[b] - py[a]) * (px[c] - px[a]);
+    }
+
+    private boolean inCircle(int t, int p) {
+        int a = tv[t * 3];
+        int b = tv[t * 3 + 1];
+        int c = tv[t * 3 + 2];
+
+        double adx = px[a] - px[p];
+        double ady = py[a] - py[p];
+        double bdx = px[b] - px[p];
+        double bdy = py[b] - py[p];
+        double cdx = px[c] - px[p];
+        double cdy = py[c] - py[p];
+
+        double det = (adx * adx + ady * ady) * (bdx * cdy - cdx * bdy)
+                   - (bdx * bdx + bdy * bdy) * (adx * cdy - cdx * ady)
+                   + (cdx * cdx + cdy * cdy) * (adx * bdy - bdx * ady);
+
+        return det > 0;
+    }
+
+    private void replaceNeighbor(int t, int oldNeighbor, int newNeighbor) {
+        for (int i = 0; i < 3; i++) {
+            if (tn[t * 3 + i] == oldNeighbor) {
+                tn[t * 3 + i] = newNeighbor;
+            }
+        }
+    }
+
+    private int addTriangle(int a, int b, int c, int na, int nb, int nc) {
+        if (triCount == alive.length) {
+            alive = Arrays.copyOf(alive, triCount * 2);
+            tv = Arrays.copyOf(tv, triCount * 6);
+            tn = Arrays.copyOf(tn, triCount * 6);
+        }
+
+        int t = triCount++;
+        tv[t * 3] = a;
+        tv[t * 3 + 1] = b;
+        tv[t * 3 + 2] = c;
+        tn[t * 3] = na;
+        tn[t * 3 + 1] = nb;
+        tn[t * 3 + 2] = nc;
+        alive[t] = true;
+        return t;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.cities.common;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * An immutable vertical interval [min..max)
+ * @author Martin Steiger
+ */
+public final class HeightRange {
+
+    /**
+     * A range that does not contain any height
+     */
+    public static final HeightRange EMPTY = new HeightRange(0, 0);
+
+    /**
+     * A range that contains all heights
+     */
+    public static final HeightRange ALL = new HeightRange(Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+    private final int min;
+    private final int max;
+
+    /**
+     * @param min the lower bound (inclusive)
+     * @param max the upper bound (exclusive)
+     */
+    public HeightRange(int min, int max) {
+        Preconditions.checkArgument(min <= max, "min (%s) must not be larger than max (%s)", min, max);
+
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @return the lower bound (inclusive)
+     */
+    public int getMin() {
+        return min;
+    }
+
+    /**
+     * @return the upper bound (exclusive)
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * @return true if the range does not contain any height
+     */
+    public boolean isEmpty() {
+        return min == max;
+    }
+
+    /**
+     * @param bottom the lower bound (inclusive)
+     * @param top the upper bound (exclusive)
+     * @return true if this range overlaps [bottom..top)
+     */
+    public boolean intersects(int bottom, int top) {
+        return !isEmpty() && min < top && max > bottom;
+    }
+
+    /**
+     * @param other the other range
+     * @return the smallest range that contains both ranges
+     */
+    public HeightRange union(HeightRange other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+
+        if (isEmpty()) {
+            return other;
+        }
+
+        return new HeightRange(Math.min(min, other.min), Math.max(max, other.max));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * min + max;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        HeightRange other = (HeightRange) obj;
+        return min == other.min && max == other.max;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + min + ".." + max + ")";
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.common;
+
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import javax.vecmath.Point2i;
+
+/**
+ * An immutable sequence of integer points that are stored in a single, interleaved int array.
+ * Translated and scaled versions are views that share the array with the original.
+ * The bounding box is computed only once.
+ * @author Martin Steiger
+ */
+public final class IntPolyline {
+
+    /**
+     * A polyline without any points
+     */
+    public static final IntPolyline EMPTY = new IntPolyline(new int[0], 0, 1, 0, 0);
+
+    /**
+     * (x0, y0, x1, y1, ..) - might be longer than required
+     */
+    private final int[] coords;
+    private final int count;
+    private final int scale;
+    private final int offX;
+    private final int offY;
+
+    private volatile Rectangle bounds;
+
+    private IntPolyline(int[] coords, int count, int scale, int offX, int offY) {
+        this.coords = coords;
+        this.count = count;
+        this.scale = scale;
+        this.offX = offX;
+        this.offY = offY;
+    }
+
+    /**
+     * @param pts the points (they are copied)
+     * @return a new polyline
+     */
+    public static IntPolyline copyOf(Collection<Point2i> pts) {
+        Builder builder = new Builder(pts.size());
+        for (Point2i pt : pts) {
+            builder.add(pt.x, pt.y);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the number of points
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return true if there are no points
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @param index the point index
+     * @return the x coordinate of the point
+     */
+    public int getX(int index) {
+        checkIndex(index);
+        return coords[index * 2] * scale + offX;
+    }
+
+    /**
+     * @param index the point index
+     * @return the y coordinate of the point
+     */
+    public int getY(int index) {
+        checkIndex(index);
+        return coords[index * 2 + 1] * scale + offY;
+    }
+
+    /**
+     * @param index the point index
+     * @return a new point instance
+     */
+    public Point2i get(int index) {
+        return new Point2i(getX(index), getY(index));
+    }
+
+    /**
+     * @param tx the x translation
+     * @param ty the y translation
+     * @return a translated view on the same data
+     */
+    public IntPolyline translate(int tx, int ty) {
+        return new IntPolyline(coords, count, scale, offX + tx, offY + ty);
+    }
+
+    /**
+     * @param factor the scale factor
+     * @return a scaled view on the same data
+     */
+    public IntPolyline scale(int factor) {
+        return new IntPolyline(coords, count, scale * factor, offX * factor, offY * factor);
+    }
+
+    /**
+     * @return the bounding rectangle of all points (same as {@link BoundingBox#toRectangle()})
+     */
+    public Rectangle getBounds() {
+        if (count == 0) {
+            throw new IllegalStateException("Polyline is empty");
+        }
+
+        Rectangle rc = bounds;
+        if (rc == null) {
+            int minX = Integer.MAX_VALUE;
+            int minY = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE;
+            int maxY = Integer.MIN_VALUE;
+
+            for (int i = 0; i < count * 2; i += 2) {
+                minX = Math.min(minX, coords[i]);
+                maxX = Math.max(maxX, coords[i]);
+                minY = Math.min(minY, coords[i + 1]);
+                maxY = Math.max(maxY, coords[i + 1]);
+            }
+
+            rc = new Rectangle(minX * scale + offX, minY * scale + offY, (maxX - minX) * scale, (maxY - minY) * scale);
+            bounds = rc;
+        }
+
+        return new Rectangle(rc);
+    }
+
+    /**
+     * @return the sum of all segment lengths
+     */
+    public double getLength() {
+        double length = 0;
+        for (int i = 0; i < count - 1; i++) {
+            length += getSegmentLength(i);
+        }
+        return length;
+    }
+
+    /**
+     * @param index the index of the segment start point
+     * @return the distance between the point and its successor
+     */
+    public double getSegmentLength(int index) {
+        int dx = getX(index + 1) - getX(index);
+        int dy = getY(index + 1) - getY(index);
+        return Math.sqrt((double) dx * dx + (double) dy * dy);
+    }
+
+    /**
+     * @return a new AWT polygon with all points
+     */
+    public Polygon toPolygon() {
+        int[] xs = new int[count];
+        int[] ys = new int[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = getX(i);
+            ys[i] = getY(i);
+        }
+        return new Polygon(xs, ys, count);
+    }
+
+    /**
+     * @return an unmodifiable list view that creates a new point instance on every access
+     */
+    public List<Point2i> asList() {
+        return new AbstractList<Point2i>() {
+
+            @Override
+            public Point2i get(int index) {
+                return IntPolyline.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < count; i++) {
+            result = 31 * result + getX(i);
+            result = 31 * result + getY(i);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof IntPolyline)) {
+            return false;
+        }
+
+        IntPolyline other = (IntPolyline) obj;
+        if (count != other.count) {
+            return false;
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (getX(i) != other.getX(i) || getY(i) != other.getY(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "IntPolyline [" + count + " points]";
+    }
+
+    /**
+     * Collects points for a new {@link IntPolyline}. Building does not copy the data (unless
+     * it is trimmed), because points can only be appended and the polyline never reads beyond its own size.
+     */
+    public static final class Builder {
+        private int[] coords;
+        private int count;
+
+        /**
+         * Creates an empty builder
+         */
+        public Builder() {
+            this(8);
+        }
+
+        /**
+         * @param capacity the expected number of points
+         */
+        public Builder(int capacity) {
+            coords = new int[Math.max(2, capacity * 2)];
+        }
+
+        /**
+         * @param x the x coord
+         * @param y the y coord
+         * @return this
+         */
+        public Builder add(int x, int y) {
+            if (count * 2 == coords.length) {
+                coords = Arrays.copyOf(coords, Math.max(8, coords.length * 2));
+            }
+
+            coords[count * 2] = x;
+            coords[count * 2 + 1] = y;
+            count++;
+            return this;
+        }
+
+        /**
+         * @param line the points to append
+         * @return this
+         */
+        public Builder addAll(IntPolyline line) {
+            for (int i = 0; i < line.size(); i++) {
+                add(line.getX(i), line.getY(i));
+            }
+            return this;
+        }
+
+        /**
+         * @return the number of points so far
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * @return a polyline with all points that have been added so far
+         */
+        public IntPolyline build() {
+            // don't keep too much unused capacity alive
+            if (coords.length > count * 2 + 16) {
+                coords = Arrays.copyOf(coords, count * 2);
+            }
+            return new IntPolyline(coords, count, 1, 0, 0);
+        }
+    }
+}
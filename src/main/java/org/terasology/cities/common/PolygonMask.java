@@ -0,0 +1,156 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.common;
+
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.math.RoundingMode;
+import java.util.List;
+
+import org.terasology.cities.array.BitArray2D;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.math.IntMath;
+
+/**
+ * An immutable raster of a polygon with holes. Every cell is either completely inside,
+ * completely outside or on the border. Queries in inner and outer cells are answered
+ * directly, only border cells fall back to the exact polygon tests. The result is always
+ * the same as <code>outline.contains(x, y) && !hole.contains(x, y)</code> for all holes.
+ * @author Martin Steiger
+ */
+public final class PolygonMask {
+
+    private final Polygon outline;
+    private final List<Polygon> holes;
+
+    private final int originX;
+    private final int originY;
+    private final int cellSize;
+    private final BitArray2D inside;
+    private final BitArray2D border;
+
+    /**
+     * @param outline the outline polygon
+     * @param holes the holes in the polygon
+     * @param cellSize the edge length of a cell
+     */
+    public PolygonMask(Polygon outline, List<Polygon> holes, int cellSize) {
+        this.outline = outline;
+        this.holes = ImmutableList.copyOf(holes);
+        this.cellSize = cellSize;
+
+        Rectangle bounds = outline.getBounds();
+        this.originX = IntMath.divide(bounds.x, cellSize, RoundingMode.FLOOR) * cellSize;
+        this.originY = IntMath.divide(bounds.y, cellSize, RoundingMode.FLOOR) * cellSize;
+        int width = IntMath.divide(bounds.x + bounds.width, cellSize, RoundingMode.FLOOR) * cellSize - originX + cellSize;
+        int height = IntMath.divide(bounds.y + bounds.height, cellSize, RoundingMode.FLOOR) * cellSize - originY + cellSize;
+
+        this.inside = new BitArray2D(width / cellSize, height / cellSize);
+        this.border = new BitArray2D(width / cellSize, height / cellSize);
+
+        for (int cy = 0; cy < inside.getHeight(); cy++) {
+            for (int cx = 0; cx < inside.getWidth(); cx++) {
+                classify(cx, cy);
+            }
+        }
+    }
+
+    /**
+     * The cell is enlarged by half a unit, so that no polygon edge can touch a point that is
+     * in the cell without touching the test rectangle. Both tests are allowed to be conservative.
+     */
+    private void classify(int cx, int cy) {
+        double x = originX + cx * cellSize - 0.5;
+        double y = originY + cy * cellSize - 0.5;
+        double size = cellSize + 1;
+
+        if (!outline.intersects(x, y, size, size)) {
+            return;
+        }
+
+        boolean isInside = outline.contains(x, y, size, size);
+
+        for (Polygon hole : holes) {
+            if (hole.contains(x, y, size, size)) {
+                return;
+            }
+
+            if (hole.intersects(x, y, size, size)) {
+                isInside = false;
+            }
+        }
+
+        if (isInside) {
+            inside.set(cx, cy, true);
+        } else {
+            border.set(cx, cy, true);
+        }
+    }
+
+    /**
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return true if the point is inside the outline, but not in a hole
+     */
+    public boolean contains(double x, double y) {
+        int cx = (int) Math.floor((x - originX) / cellSize);
+        int cy = (int) Math.floor((y - originY) / cellSize);
+
+        if (cx < 0 || cy < 0 || cx >= inside.getWidth() || cy >= inside.getHeight()) {
+            return false;
+        }
+
+        if (border.get(cx, cy)) {
+            if (!outline.contains(x, y)) {
+                return false;
+            }
+
+            for (Polygon hole : holes) {
+                if (hole.contains(x, y)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        return inside.get(cx, cy);
+    }
+
+    /**
+     * @return the edge length of a cell
+     */
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * @return the number of cells that require exact polygon tests
+     */
+    public int getBorderCellCount() {
+        return border.cardinality();
+    }
+
+    /**
+     * @return the number of cells that are completely inside
+     */
+    public int getInsideCellCount() {
+        return inside.cardinality();
+    }
+}
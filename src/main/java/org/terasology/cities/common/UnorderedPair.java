@@ -54,7 +54,7 @@ public T getB() {
     @Override
     public int hashCode() {
         // hash code must be equal for [a, b] and [b, a]
-        return Math.max(Objects.hash(a, b), Objects.hash(b, a));
+        return Objects.hashCode(a) + Objects.hashCode(b);
     }
 
     @Override
@@ -18,12 +18,10 @@
 
 import java.awt.Point;
 import java.awt.Polygon;
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
 
-import com.google.common.collect.Lists;
+import org.terasology.cities.common.IntPolyline;
 
 /**
  * Stores information on a contour
@@ -32,91 +30,112 @@
 public class Contour {
 
     /**
-     * It would be nice a have a list implementation where contains() runs in O(1). 
-     * Unfortunately, LinkedHashSet removes duplicate entries. 
+     * Collects new points - <code>null</code> for translated and scaled views
      */
-    private final List<Point> points = new ArrayList<Point>();
-    private Collection<Point> simplifiedPoints;
+    private IntPolyline.Builder builder;
+    private IntPolyline points;
+    private IntPolyline simplifiedPoints;
     private Polygon polygon;
 
     /**
-     * @param n the point to add
+     * Creates an empty contour
      */
-    public void addPoint(Point n) {
-        points.add(new Point(n));
-        
-        simplifiedPoints = null;
-        polygon = null;
+    public Contour() {
+        builder = new IntPolyline.Builder();
+    }
+
+    private Contour(IntPolyline points, IntPolyline simplifiedPoints) {
+        this.points = points;
+        this.simplifiedPoints = simplifiedPoints;
     }
 
     /**
-     * @param pts the point collection to use
-     * @return an AWT polygon of the data
+     * @param n the point to add
      */
-    private static Polygon createPolygon(Collection<Point> pts) {
-        int m = pts.size();
-        
-        int[] xPoints = new int[m];
-        int[] yPoints = new int[m];
-        int idx = 0;
-        for (Point cpt : pts) {
-            xPoints[idx] = cpt.x;
-            yPoints[idx] = cpt.y;
-            idx++;
+    public void addPoint(Point n) {
+        if (builder == null) {
+            builder = new IntPolyline.Builder(points.size() + 1).addAll(points);
         }
-        return new Polygon(xPoints, yPoints, m);
+
+        builder.add(n.x, n.y);
+
+        points = null;
+        simplifiedPoints = null;
+        polygon = null;
     }
 
-    
     /**
      * Removes all points that lie on straight lines
      * @param pts the list of points
-     * @return a <b>new collection</b> containing the points
+     * @return a <b>new</b> polyline containing the points
      */
-    private static List<Point> simplify(List<Point> pts) {
+    private static IntPolyline simplify(IntPolyline pts) {
 
-        if (pts.size() < 2) {
-            return Lists.newArrayList(pts);
+        int count = pts.size();
+        if (count < 2) {
+            return new IntPolyline.Builder(count).addAll(pts).build();
         }
 
-        List<Point> result = Lists.newArrayList();
+        IntPolyline.Builder result = new IntPolyline.Builder();
 
-        Point first = pts.iterator().next();
-        Point last = pts.get(pts.size() - 1);
-        Point prev = last;
-        Point prevDir = new Point(first.x - last.x, first.y - last.y);
+        int prevX = pts.getX(count - 1);
+        int prevY = pts.getY(count - 1);
+        int prevDirX = pts.getX(0) - prevX;
+        int prevDirY = pts.getY(0) - prevY;
 
-        for (Point p : pts) {
-            Point newdir = new Point(p.x - prev.x, p.y - prev.y);
-            if (!newdir.equals(prevDir)) {
-                result.add(prev);
-                prevDir = newdir;
+        for (int i = 0; i < count; i++) {
+            int dirX = pts.getX(i) - prevX;
+            int dirY = pts.getY(i) - prevY;
+            if (dirX != prevDirX || dirY != prevDirY) {
+                result.add(prevX, prevY);
+                prevDirX = dirX;
+                prevDirY = dirY;
             }
-            prev = p;
+            prevX = pts.getX(i);
+            prevY = pts.getY(i);
         }
 
         // do the same with the last point in the collection
-        Point newdir = new Point(first.x - prev.x, first.y - prev.y);
-        if (!newdir.equals(prevDir)) {
-            result.add(prev);
+        int dirX = pts.getX(0) - prevX;
+        int dirY = pts.getY(0) - prevY;
+        if (dirX != prevDirX || dirY != prevDirY) {
+            result.add(prevX, prevY);
         }
 
-        return result;
+        return result.build();
     }
-    
+
+    /**
+     * @return all points as polyline
+     */
+    public IntPolyline getPath() {
+        if (points == null) {
+            points = builder.build();
+        }
+
+        return points;
+    }
+
     /**
      * @return an unmodifiable sorted view on the points
      */
     public Collection<Point> getPoints() {
-        return Collections.unmodifiableCollection(points);
+        return asPointList(getPath());
     }
 
     /**
      * @return a simplified version of the curve, containing only points at direction changes 
      */
     public Collection<Point> getSimplifiedCurve() {
+        return asPointList(getSimplifiedPath());
+    }
+
+    /**
+     * @return a simplified version of the curve, containing only points at direction changes 
+     */
+    public IntPolyline getSimplifiedPath() {
         if (simplifiedPoints == null) {
-            simplifiedPoints = simplify(points);
+            simplifiedPoints = simplify(getPath());
         }
 
         return simplifiedPoints;
@@ -127,7 +146,7 @@ public Collection<Point> getSimplifiedCurve() {
      */
     public Polygon getPolygon() {
         if (polygon == null) {
-            polygon = createPolygon(getSimplifiedCurve());
+            polygon = getSimplifiedPath().toPolygon();
         }
         
         return polygon;
@@ -158,29 +177,36 @@ public boolean isInside(double x, double y) {
     /**
      * @param tx the x translation
      * @param ty the y translation
-     * @return the scaled contour
+     * @return the translated contour (a view that shares the data)
      */
     public Contour translate(int tx, int ty) {
-        Contour c = new Contour();
-
-        for (Point pt : points) {
-            c.addPoint(new Point(pt.x + tx, pt.y + ty));
-        }
-        
-        return c;
+        // translation does not change the simplified curve
+        IntPolyline simplified = (simplifiedPoints != null) ? simplifiedPoints.translate(tx, ty) : null;
+        return new Contour(getPath().translate(tx, ty), simplified);
     }
     
     /**
      * @param scale the scale factor
-     * @return the scaled contour
+     * @return the scaled contour (a view that shares the data)
      */
     public Contour scale(int scale) {
-        Contour c = new Contour();
+        // (positive) scaling does not change the simplified curve
+        IntPolyline simplified = (simplifiedPoints != null && scale > 0) ? simplifiedPoints.scale(scale) : null;
+        return new Contour(getPath().scale(scale), simplified);
+    }
 
-        for (Point pt : points) {
-            c.addPoint(new Point(pt.x * scale, pt.y * scale));
-        }
-        
-        return c;
+    private static Collection<Point> asPointList(final IntPolyline line) {
+        return new AbstractList<Point>() {
+
+            @Override
+            public Point get(int index) {
+                return new Point(line.getX(index), line.getY(index));
+            }
+
+            @Override
+            public int size() {
+                return line.size();
+            }
+        };
     }
 }
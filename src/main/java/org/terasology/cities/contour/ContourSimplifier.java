@@ -0,0 +1,295 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.contour;
+
+import java.awt.Point;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import org.terasology.cities.common.IntPolyline;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Reduces the number of points of closed contours with the Douglas-Peucker algorithm.
+ * All contours of a set are simplified together so that their topology is preserved:
+ * a shortcut is rejected if it crosses another contour, crosses its own contour or
+ * if it would swallow another contour. If a simplified contour still intersects itself,
+ * the original points are used.
+ * @author Martin Steiger
+ */
+public class ContourSimplifier {
+
+    private final double tolerance;
+
+    /**
+     * @param tolerance the max. distance between the original and the simplified contour
+     */
+    public ContourSimplifier(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * @param contour the contour to simplify
+     * @return a new, simplified contour
+     */
+    public Contour simplify(Contour contour) {
+        return simplify(Lists.newArrayList(contour)).get(0);
+    }
+
+    /**
+     * @param contours the contours to simplify
+     * @return a list of new, simplified contours in the same order
+     */
+    public List<Contour> simplify(List<Contour> contours) {
+        List<IntPolyline> rings = Lists.newArrayList();
+        List<Rectangle> bounds = Lists.newArrayList();
+
+        for (Contour c : contours) {
+            // removing collinear points first does not change the shape
+            IntPolyline ring = c.getSimplifiedPath();
+            rings.add(ring);
+            bounds.add(ring.isEmpty() ? new Rectangle() : ring.getBounds());
+        }
+
+        for (int k = 0; k < rings.size(); k++) {
+            IntPolyline simplified = simplifyRing(rings, bounds, k);
+            if (isSimple(simplified)) {
+                // later rings test against the bounds, so they must shrink with the ring
+                rings.set(k, simplified);
+                bounds.set(k, simplified.isEmpty() ? new Rectangle() : simplified.getBounds());
+            }
+        }
+
+        List<Contour> result = Lists.newArrayListWithCapacity(rings.size());
+        for (IntPolyline ring : rings) {
+            Contour c = new Contour();
+            for (int i = 0; i < ring.size(); i++) {
+                c.addPoint(new Point(ring.getX(i), ring.getY(i)));
+            }
+            result.add(c);
+        }
+
+        return result;
+    }
+
+    private IntPolyline simplifyRing(List<IntPolyline> rings, List<Rectangle> bounds, int k) {
+        IntPolyline ring = rings.get(k);
+        int count = ring.size();
+
+        if (count < 4) {
+            return ring;
+        }
+
+        boolean[] keep = new boolean[count];
+
+        // split the ring at the point that is farthest from the first one
+        int far = 0;
+        long farDist = -1;
+        for (int i = 1; i < count; i++) {
+            long dx = ring.getX(i) - ring.getX(0);
+            long dy = ring.getY(i) - ring.getY(0);
+            if (dx * dx + dy * dy > farDist) {
+                farDist = dx * dx + dy * dy;
+                far = i;
+            }
+        }
+
+        keep[0] = true;
+        keep[far] = true;
+
+        // index count refers to the first point again
+        Deque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[] {0, far});
+        stack.push(new int[] {far, count});
+
+        while (!stack.isEmpty()) {
+            int[] range = stack.pop();
+            int a = range[0];
+            int b = range[1];
+
+            if (b - a < 2) {
+                continue;
+            }
+
+            int ax = ring.getX(a);
+            int ay = ring.getY(a);
+            int bx = ring.getX(b % count);
+            int by = ring.getY(b % count);
+
+            int split = a + 1;
+            double maxDist = -1;
+            for (int i = a + 1; i < b; i++) {
+                double dist = distanceToSegment(ring.getX(i), ring.getY(i), ax, ay, bx, by);
+                if (dist > maxDist) {
+                    maxDist = dist;
+                    split = i;
+                }
+            }
+
+            if (maxDist > tolerance || isObstructed(rings, bounds, k, a, b)) {
+                keep[split] = true;
+                stack.push(new int[] {a, split});
+                stack.push(new int[] {split, b});
+            }
+        }
+
+        IntPolyline.Builder builder = new IntPolyline.Builder();
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) {
+                builder.add(ring.getX(i), ring.getY(i));
+            }
+        }
+
+        // a ring needs at least three points
+        if (builder.size() < 3) {
+            return ring;
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @return true if the shortcut from a to b crosses any other part of the own ring or any other ring
+     * or if another ring lies between the shortcut and the original chain
+     */
+    private boolean isObstructed(List<IntPolyline> rings, List<Rectangle> bounds, int k, int a, int b) {
+        IntPolyline ring = rings.get(k);
+        int count = ring.size();
+        int ax = ring.getX(a);
+        int ay = ring.getY(a);
+        int bx = ring.getX(b % count);
+        int by = ring.getY(b % count);
+
+        // the segments of the own ring that are not replaced by the shortcut (excluding the adjacent ones)
+        for (int i = b + 1; i < a + count - 1; i++) {
+            int s = i % count;
+            int t = (i + 1) % count;
+            if (crosses(ax, ay, bx, by, ring.getX(s), ring.getY(s), ring.getX(t), ring.getY(t))) {
+                return true;
+            }
+        }
+
+        Rectangle chainBounds = new Rectangle(ax, ay, 0, 0);
+        for (int i = a + 1; i <= b; i++) {
+            chainBounds.add(ring.getX(i % count), ring.getY(i % count));
+        }
+
+        Polygon region = null;
+
+        for (int r = 0; r < rings.size(); r++) {
+            IntPolyline other = rings.get(r);
+            if (r == k || other.isEmpty() || !bounds.get(r).intersects(chainBounds) && !chainBounds.contains(bounds.get(r))) {
+                continue;
+            }
+
+            int size = other.size();
+            for (int i = 0; i < size; i++) {
+                int j = (i + 1) % size;
+                if (crosses(ax, ay, bx, by, other.getX(i), other.getY(i), other.getX(j), other.getY(j))) {
+                    return true;
+                }
+            }
+
+            // the other ring does not cross the shortcut - it can still be enclosed completely
+            if (chainBounds.contains(bounds.get(r))) {
+                if (region == null) {
+                    region = new Polygon();
+                    for (int i = a; i <= b; i++) {
+                        region.addPoint(ring.getX(i % count), ring.getY(i % count));
+                    }
+                }
+                if (region.contains(other.getX(0), other.getY(0))) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return true if no two non-adjacent segments cross
+     */
+    private static boolean isSimple(IntPolyline ring) {
+        int count = ring.size();
+        for (int i = 0; i < count; i++) {
+            int i1 = (i + 1) % count;
+            for (int j = i + 2; j < count; j++) {
+                int j1 = (j + 1) % count;
+                if (j1 == i) {
+                    continue;
+                }
+                if (crosses(ring.getX(i), ring.getY(i), ring.getX(i1), ring.getY(i1),
+                        ring.getX(j), ring.getY(j), ring.getX(j1), ring.getY(j1))
+                 || crosses(ring.getX(j), ring.getY(j), ring.getX(j1), ring.getY(j1),
+                        ring.getX(i), ring.getY(i), ring.getX(i1), ring.getY(i1))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Traced contours can touch themselves and their neighbors in their vertices, so only proper
+     * crossings count. To be on the safe side, the second segment crosses the first one also if one
+     * of its end points lies in the interior of the first segment.
+     * @return true if the second segment crosses the first one
+     */
+    static boolean crosses(long x1, long y1, long x2, long y2, long x3, long y3, long x4, long y4) {
+        long d1 = orientation(x3, y3, x4, y4, x1, y1);
+        long d2 = orientation(x3, y3, x4, y4, x2, y2);
+        long d3 = orientation(x1, y1, x2, y2, x3, y3);
+        long d4 = orientation(x1, y1, x2, y2, x4, y4);
+
+        if (((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0))) {
+            return true;
+        }
+
+        return (d3 == 0 && isInterior(x1, y1, x2, y2, x3, y3))
+            || (d4 == 0 && isInterior(x1, y1, x2, y2, x4, y4));
+    }
+
+    /**
+     * @return true if the collinear point c lies strictly between a and b
+     */
+    private static boolean isInterior(long ax, long ay, long bx, long by, long cx, long cy) {
+        long dot = (cx - ax) * (bx - ax) + (cy - ay) * (by - ay);
+        long lenSq = (bx - ax) * (bx - ax) + (by - ay) * (by - ay);
+        return dot > 0 && dot < lenSq;
+    }
+
+    private static long orientation(long ax, long ay, long bx, long by, long cx, long cy) {
+        return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+    }
+
+    private static double distanceToSegment(int px, int py, int ax, int ay, int bx, int by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lenSq = dx * dx + dy * dy;
+        double t = (lenSq > 0) ? ((px - ax) * dx + (py - ay) * dy) / lenSq : 0;
+        t = Math.max(0, Math.min(1, t));
+        double ex = ax + t * dx - px;
+        double ey = ay + t * dy - py;
+        return Math.sqrt(ex * ex + ey * ey);
+    }
+}
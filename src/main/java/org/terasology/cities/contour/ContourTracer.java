@@ -44,6 +44,11 @@ public class ContourTracer {
     private List<Contour> outerContours;
     private List<Contour> innerContours;
 
+    /**
+     * The index of the enclosing outer contour for each inner contour
+     */
+    private List<Integer> innerParents;
+
 
     // label values in labelArray can be:
     // 0 ... unlabeled
@@ -100,8 +105,6 @@ public int apply(int x, int z) {
      */
     public List<Contour> getOuterContours() {
         if (outerContours == null) {
-            outerContours = new ArrayList<>();
-            innerContours = new ArrayList<>();
             findAllContours();
         }
         
@@ -113,14 +116,26 @@ public List<Contour> getOuterContours() {
      */
     public List<Contour> getInnerContours() {
         if (innerContours == null) {
-            outerContours = new ArrayList<>();
-            innerContours = new ArrayList<>();
             findAllContours();
         }
         
         return innerContours;
     }
 
+    /**
+     * Every inner contour is a hole in exactly one region. That region's label is known
+     * while tracing, so no geometric tests are required.
+     * @param innerIndex the index of an inner contour in {@link #getInnerContours()}
+     * @return the index of the enclosing outer contour in {@link #getOuterContours()}
+     */
+    public int getParentIndex(int innerIndex) {
+        if (innerParents == null) {
+            findAllContours();
+        }
+
+        return innerParents.get(innerIndex);
+    }
+
     private Contour traceOuterContour(int cx, int cy, int label) {
         return traceContour(cx, cy, label, 0);
     }
@@ -204,6 +219,10 @@ private int findNextPoint(Point pt, int startDir) {
     }
     
     private void findAllContours() {
+        outerContours = new ArrayList<>();
+        innerContours = new ArrayList<>();
+        innerParents = new ArrayList<>();
+
         int label = 0; // current label
         int maxLabel = 0;
         
@@ -231,6 +250,8 @@ private void findAllContours() {
                                                      // contour
                             Contour ic = traceInnerContour(u - 1, v, label);
                             innerContours.add(ic);
+                            // outer contours are labeled in the order of their creation
+                            innerParents.add(label - 1);
                         }
                         label = 0;
                     }
@@ -16,9 +16,9 @@
 
 package org.terasology.cities.events;
 
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.vecmath.Vector2d;
 import javax.vecmath.Vector3f;
@@ -37,7 +37,9 @@
 import org.terasology.logic.console.Console;
 import org.terasology.logic.location.LocationComponent;
 import org.terasology.network.Client;
+import org.terasology.network.ClientComponent;
 import org.terasology.network.NetworkSystem;
+import org.terasology.network.events.DisconnectedEvent;
 import org.terasology.registry.CoreRegistry;
 import org.terasology.registry.In;
 import org.terasology.rendering.FontColor;
@@ -60,7 +62,12 @@ public class PlayerTracker extends BaseComponentSystem {
     @In
     private Console console;
     
-    private final Map<String, NamedArea> prevAreaMap = Maps.newHashMap();
+    private final ConcurrentMap<String, NamedArea> prevAreaMap = Maps.newConcurrentMap();
+
+    /**
+     * Maps client entities to player ids - the client might be gone when it disconnects
+     */
+    private final ConcurrentMap<EntityRef, String> clientIds = Maps.newConcurrentMap();
     
     /**
      * Called whenever a block is entered
@@ -83,11 +90,15 @@ public void onEnterBlock(OnEnterBlockEvent event, EntityRef entity) {
         
         String id = client.getId();
         String name = client.getName();
+
+        clientIds.put(client.getEntity(), id);
         
         // TODO: facade is null if a different WorldGenerator is used
         WorldFacade facade = CoreRegistry.get(WorldFacade.class);
         if (facade != null) {
 
+            facade.updatePlayer(id, sector);
+
             NamedArea prevArea = prevAreaMap.get(id);        // can be null !
             NamedArea newArea = null;
 
@@ -114,12 +125,38 @@ public void onEnterBlock(OnEnterBlockEvent event, EntityRef entity) {
                     entity.send(new OnLeaveAreaEvent(prevArea));
                 }
 
-                prevAreaMap.put(id, newArea);
+                // concurrent maps do not accept null values
+                if (newArea != null) {
+                    prevAreaMap.put(id, newArea);
+                } else {
+                    prevAreaMap.remove(id);
+                }
             }
             
         }
     }
     
+    /**
+     * Called whenever a player disconnects. Stops the prefetching of sectors around the player.
+     * @param event the event
+     * @param entity the client entity
+     */
+    @ReceiveEvent(components = ClientComponent.class)
+    public void onDisconnect(DisconnectedEvent event, EntityRef entity) {
+        String id = clientIds.remove(entity);
+
+        if (id == null) {
+            return;
+        }
+
+        prevAreaMap.remove(id);
+
+        WorldFacade facade = CoreRegistry.get(WorldFacade.class);
+        if (facade != null) {
+            facade.removePlayer(id);
+        }
+    }
+
     /**
      * Called whenever a named area is entered
      * @param event the event
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import java.awt.Rectangle;
+
+import javax.vecmath.Point2i;
+
+import org.terasology.cities.array.BitArray2D;
+import org.terasology.cities.heightmap.HeightMap;
+import org.terasology.cities.model.CostGrid;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.WaterMask;
+
+import com.google.common.base.Function;
+import com.google.common.primitives.Shorts;
+
+/**
+ * Samples the terrain of a sector at the cell centers and marks the cells
+ * that are covered by water. The result is a {@link CostGrid}.
+ * @author Martin Steiger
+ */
+public class CostGridGenerator implements Function<Sector, CostGrid> {
+
+    private final HeightMap heightMap;
+    private final Function<? super Sector, WaterMask> waterMasks;
+    private final int cellSize;
+
+    /**
+     * @param heightMap the terrain height map
+     * @param waterMasks provides the water mask of a sector
+     * @param cellSize the edge length of a cell in blocks (must be a divisor of the sector size)
+     */
+    public CostGridGenerator(HeightMap heightMap, Function<? super Sector, WaterMask> waterMasks, int cellSize) {
+        this.heightMap = heightMap;
+        this.waterMasks = waterMasks;
+        this.cellSize = cellSize;
+    }
+
+    @Override
+    public CostGrid apply(Sector sector) {
+        Point2i coords = sector.getCoords();
+        Rectangle area = new Rectangle(coords.x * Sector.SIZE, coords.y * Sector.SIZE, Sector.SIZE, Sector.SIZE);
+        int size = Sector.SIZE / cellSize;
+
+        WaterMask mask = waterMasks.apply(sector);
+        boolean hasLakes = mask.getLakeCount() > 0;
+
+        short[] heights = new short[size * size];
+        BitArray2D water = new BitArray2D(size, size);
+
+        for (int cz = 0; cz < size; cz++) {
+            for (int cx = 0; cx < size; cx++) {
+                int x = area.x + cx * cellSize + cellSize / 2;
+                int z = area.y + cz * cellSize + cellSize / 2;
+                heights[cz * size + cx] = Shorts.saturatedCast(heightMap.apply(x, z));
+
+                if (hasLakes && mask.isWater(x, z)) {
+                    water.set(cx, cz, true);
+                }
+            }
+        }
+
+        return new CostGrid(area, cellSize, heights, water);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import org.terasology.cities.common.IntPolyline;
+import org.terasology.cities.heightmap.HeightMap;
+import org.terasology.cities.model.ElevationProfile;
+import org.terasology.cities.model.Road;
+
+import com.google.common.base.Function;
+
+/**
+ * Samples the terrain along a road and smoothes the result into an {@link ElevationProfile}
+ * @author Martin Steiger
+ */
+public class ElevationProfileGenerator implements Function<Road, ElevationProfile> {
+
+    private final HeightMap heightMap;
+    private final double spacing;
+    private final int smoothRadius;
+
+    /**
+     * Uses a sample every 4 blocks and smoothes over +/- 12 blocks
+     * @param heightMap the terrain height map
+     */
+    public ElevationProfileGenerator(HeightMap heightMap) {
+        this(heightMap, 4.0, 3);
+    }
+
+    /**
+     * @param heightMap the terrain height map
+     * @param spacing the distance between two samples along the road
+     * @param smoothRadius the radius of the smoothing filter in samples (0 for none)
+     */
+    public ElevationProfileGenerator(HeightMap heightMap, double spacing, int smoothRadius) {
+        this.heightMap = heightMap;
+        this.spacing = spacing;
+        this.smoothRadius = smoothRadius;
+    }
+
+    @Override
+    public ElevationProfile apply(Road road) {
+        IntPolyline path = road.getPath();
+        double length = path.getLength();
+
+        // the last sample is at the end of the road, so the actual step is slightly smaller
+        int count = (int) Math.ceil(length / spacing) + 1;
+        double step = (count > 1) ? length / (count - 1) : spacing;
+        float[] heights = new float[count];
+
+        // walk along the segments and sample the terrain at regular intervals
+        int seg = 0;
+        double segStart = 0;
+        for (int i = 0; i < count; i++) {
+            double arc = Math.min(i * step, length);
+            double segLength = path.getSegmentLength(seg);
+
+            while (seg < path.size() - 2 && arc > segStart + segLength) {
+                segStart += segLength;
+                seg++;
+                segLength = path.getSegmentLength(seg);
+            }
+
+            int x0 = path.getX(seg);
+            int z0 = path.getY(seg);
+            double t = (segLength > 0) ? Math.min(1, (arc - segStart) / segLength) : 0;
+            int x = (int) Math.round(x0 + t * (path.getX(seg + 1) - x0));
+            int z = (int) Math.round(z0 + t * (path.getY(seg + 1) - z0));
+            heights[i] = heightMap.apply(x, z);
+        }
+
+        // two box filter passes approximate a triangle filter
+        for (int pass = 0; pass < 2; pass++) {
+            heights = smooth(heights, smoothRadius);
+        }
+
+        return new ElevationProfile(heights, step);
+    }
+
+    private static float[] smooth(float[] data, int radius) {
+        if (radius <= 0) {
+            return data;
+        }
+
+        float[] result = new float[data.length];
+        for (int i = 0; i < data.length; i++) {
+            int from = Math.max(0, i - radius);
+            int to = Math.min(data.length - 1, i + radius);
+            float sum = 0;
+            for (int j = from; j <= to; j++) {
+                sum += data[j];
+            }
+            result[i] = sum / (to - from + 1);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import java.math.RoundingMode;
+import java.util.List;
+
+import javax.vecmath.Point2i;
+
+import org.terasology.cities.common.Point2iUtils;
+import org.terasology.cities.model.Junction;
+import org.terasology.cities.model.Road;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Sectors;
+import org.terasology.cities.model.SitePair;
+import org.terasology.cities.model.WaterMask;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.math.IntMath;
+
+/**
+ * Creates wide roads between the hubs of two regions. Highways are too long to be routed
+ * at once, so they are split into legs of similar length. The way points between the legs
+ * are moved sideways until they are on dry land and every leg is routed separately.
+ * Legs that cannot be routed are straight.
+ * @author Martin Steiger
+ */
+public class HighwayGenerator implements Function<SitePair, Road> {
+
+    private final Function<Point2i, Junction> junctions;
+    private final RoadRouter router;
+    private final Function<Sector, WaterMask> waterMasks;
+    private final double legLength;
+    private final float width;
+
+    /**
+     * Uses legs of 512 blocks and a width of 7 blocks
+     * @param junctions gives junctions based on location
+     * @param router the router for the individual legs
+     * @param waterMasks provides the water mask of a sector
+     */
+    public HighwayGenerator(Function<Point2i, Junction> junctions, RoadRouter router, Function<Sector, WaterMask> waterMasks) {
+        this(junctions, router, waterMasks, 512, 7);
+    }
+
+    /**
+     * @param junctions gives junctions based on location
+     * @param router the router for the individual legs
+     * @param waterMasks provides the water mask of a sector
+     * @param legLength the approx. length of a leg in blocks
+     * @param width the road width
+     */
+    public HighwayGenerator(Function<Point2i, Junction> junctions, RoadRouter router, Function<Sector, WaterMask> waterMasks,
+            double legLength, float width) {
+        this.junctions = junctions;
+        this.router = router;
+        this.waterMasks = waterMasks;
+        this.legLength = legLength;
+        this.width = width;
+    }
+
+    /**
+     * Way points are moved up to half a leg length sideways. A leg is at most 1.5 leg lengths
+     * long, plus the offsets of both way points. The router can detour around every leg.
+     * @return the max. distance in blocks between a highway and the bounding box of its sites
+     */
+    public int getMaxDeviation() {
+        int sideways = (int) Math.ceil(legLength * 0.5);
+        int maxLegSpan = (int) Math.ceil(legLength * 1.5) + 2 * sideways;
+        return sideways + router.getMaxDetour(maxLegSpan) + (int) Math.ceil(width * 0.5);
+    }
+
+    @Override
+    public Road apply(SitePair pair) {
+        Point2i posA = pair.getA().getPos();
+        Point2i posB = pair.getB().getPos();
+
+        Junction junA = junctions.apply(posA);
+        Junction junB = junctions.apply(posB);
+
+        double dist = Point2iUtils.distance(posA, posB);
+        int legs = Math.max(1, (int) (dist / legLength + 0.5));
+
+        // the direction perpendicular to the straight line
+        double nx = (dist > 0) ? -(posB.y - posA.y) / dist : 0;
+        double nz = (dist > 0) ? (posB.x - posA.x) / dist : 0;
+
+        List<Point2i> points = Lists.newArrayList();
+        Point2i prev = posA;
+
+        for (int i = 1; i <= legs; i++) {
+            Point2i next = posB;
+            if (i < legs) {
+                Point2i ip = Point2iUtils.interpolate(posA, posB, i / (double) legs);
+                next = findDryLand(ip, nx, nz);
+            }
+
+            Optional<List<Point2i>> route = router.route(prev, next);
+            if (route.isPresent()) {
+                points.addAll(route.get());
+            }
+
+            if (i < legs) {
+                points.add(next);
+            }
+            prev = next;
+        }
+
+        return new Road(junA, junB, points, width);
+    }
+
+    /**
+     * Searches alternately on both sides of the straight line for a point that is not
+     * close to water, up to half a leg length away
+     */
+    private Point2i findDryLand(Point2i pos, double nx, double nz) {
+        int step = 8;
+        int maxSteps = (int) (legLength * 0.5 / step);
+
+        for (int i = 0; i <= maxSteps; i++) {
+            for (int sign = 1; sign >= -1; sign -= 2) {
+                int x = (int) Math.round(pos.x + sign * nx * i * step);
+                int z = (int) Math.round(pos.y + sign * nz * i * step);
+
+                if (isDry(x, z)) {
+                    return new Point2i(x, z);
+                }
+            }
+        }
+
+        return pos;
+    }
+
+    /**
+     * The router does not avoid water close to the end points of a leg, so the
+     * surroundings of a way point must be dry, too.
+     */
+    private boolean isDry(int x, int z) {
+        int dist = (int) Math.ceil(RoadWaterFilter.JUNCTION_CLEARANCE);
+        for (int dz = -dist; dz <= dist; dz += dist) {
+            for (int dx = -dist; dx <= dist; dx += dist) {
+                if (isWater(x + dx, z + dz)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isWater(int x, int z) {
+        int sx = IntMath.divide(x, Sector.SIZE, RoundingMode.FLOOR);
+        int sz = IntMath.divide(z, Sector.SIZE, RoundingMode.FLOOR);
+        WaterMask mask = waterMasks.apply(Sectors.getSector(sx, sz));
+        return mask.getLakeCount() > 0 && mask.isWater(x, z);
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import java.util.Map;
+
+import javax.vecmath.Point2i;
+
+import org.terasology.cities.model.Junction;
+import org.terasology.cities.model.Road;
+
+import com.google.common.base.Function;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.Maps;
+
+/**
+ * Provides one {@link Junction} instance per location as long as it is referenced.
+ * Every call to {@link #apply(Point2i)} and {@link #retain(Junction)} adds a reference that
+ * must be returned through {@link #release(Junction)}. Junctions without references are
+ * removed, so memory is reclaimed for regions that are no longer cached (thread-safe).
+ * @author Martin Steiger
+ */
+public final class JunctionRegistry implements Function<Point2i, Junction> {
+
+    private final Map<Long, Entry> entries = Maps.newHashMap();
+
+    /**
+     * Returns the junction at the given location and adds a reference to it
+     * @param pos the location
+     * @return the junction, created if necessary
+     */
+    @Override
+    public synchronized Junction apply(Point2i pos) {
+        Long key = pack(pos.x, pos.y);
+        Entry entry = entries.get(key);
+
+        if (entry == null) {
+            entry = new Entry(new Junction(pos));
+            entries.put(key, entry);
+        }
+
+        entry.refs++;
+        return entry.junction;
+    }
+
+    /**
+     * Adds a reference to the junction. The junction is registered again if it has been removed.
+     * @param junction the junction
+     * @throws IllegalStateException if a different junction instance is registered at that location
+     */
+    public synchronized void retain(Junction junction) {
+        Long key = pack(junction.getX(), junction.getY());
+        Entry entry = entries.get(key);
+
+        if (entry == null) {
+            entry = new Entry(junction);
+            entries.put(key, entry);
+        } else if (entry.junction != junction) {
+            throw new IllegalStateException("A different junction is registered at this location: " + junction);
+        }
+
+        entry.refs++;
+    }
+
+    /**
+     * Removes a reference from the junction. It is removed from the registry once no references are left.
+     * @param junction the junction
+     * @throws IllegalStateException if the junction is not registered
+     */
+    public synchronized void release(Junction junction) {
+        Long key = pack(junction.getX(), junction.getY());
+        Entry entry = entries.get(key);
+
+        if (entry == null || entry.junction != junction) {
+            throw new IllegalStateException("Junction is not registered: " + junction);
+        }
+
+        entry.refs--;
+
+        if (entry.refs == 0) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Adds a reference to both junctions of the road
+     * @param road the road
+     */
+    public void retain(Road road) {
+        retain(road.getStart());
+        retain(road.getEnd());
+    }
+
+    /**
+     * Removes a reference from both junctions of the road
+     * @param road the road
+     */
+    public void release(Road road) {
+        release(road.getStart());
+        release(road.getEnd());
+    }
+
+    /**
+     * @return the number of registered junctions
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return a listener that releases the junctions of a road when its cache entry is removed
+     */
+    public RemovalListener<Object, Road> roadReleaser() {
+        return new RemovalListener<Object, Road>() {
+
+            @Override
+            public void onRemoval(RemovalNotification<Object, Road> notification) {
+                if (notification.getValue() != null) {
+                    release(notification.getValue());
+                }
+            }
+        };
+    }
+
+    /**
+     * @return a listener that releases the junctions of all roads when their cache entry is removed
+     */
+    public RemovalListener<Object, Iterable<Road>> roadsReleaser() {
+        return new RemovalListener<Object, Iterable<Road>>() {
+
+            @Override
+            public void onRemoval(RemovalNotification<Object, Iterable<Road>> notification) {
+                if (notification.getValue() != null) {
+                    for (Road road : notification.getValue()) {
+                        release(road);
+                    }
+                }
+            }
+        };
+    }
+
+    private static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private static final class Entry {
+        private final Junction junction;
+        private int refs;
+
+        Entry(Junction junction) {
+            this.junction = junction;
+        }
+    }
+}
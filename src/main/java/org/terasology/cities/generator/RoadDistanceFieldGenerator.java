@@ -0,0 +1,199 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import java.awt.Rectangle;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+
+import org.terasology.cities.common.IntPolyline;
+import org.terasology.cities.heightmap.HeightMap;
+import org.terasology.cities.model.ElevationProfile;
+import org.terasology.cities.model.Road;
+import org.terasology.cities.model.RoadDistanceField;
+import org.terasology.cities.model.Sector;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+import com.google.common.math.IntMath;
+
+/**
+ * Computes a {@link RoadDistanceField} for all roads of a sector. Only the band around
+ * the roads that is blocked for other structures is computed, using the exact distance
+ * to every road segment. Like the former stroke at 3x the road width, every road blocks
+ * its own width beyond its edge. Tiles that do not touch the band are not stored.
+ * @author Martin Steiger
+ */
+public class RoadDistanceFieldGenerator implements Function<Sector, RoadDistanceField> {
+
+    /**
+     * Roads outside the sector that are closer than this are still taken into account
+     */
+    static final int MARGIN = 16;
+
+    private static final int TILE_SIZE = RoadDistanceField.TILE_SIZE;
+
+    private final Function<? super Sector, Set<Road>> roadFunc;
+    private final ElevationProfileGenerator profileGen;
+
+    /**
+     * @param roadFunc the road function
+     * @param heightMap the terrain height map (for roads without elevation profile)
+     */
+    public RoadDistanceFieldGenerator(Function<? super Sector, Set<Road>> roadFunc, HeightMap heightMap) {
+        this.roadFunc = roadFunc;
+        this.profileGen = new ElevationProfileGenerator(heightMap);
+    }
+
+    @Override
+    public RoadDistanceField apply(Sector sector) {
+        Point2i coords = sector.getCoords();
+        Rectangle area = new Rectangle(coords.x * Sector.SIZE - MARGIN, coords.y * Sector.SIZE - MARGIN,
+                Sector.SIZE + 2 * MARGIN, Sector.SIZE + 2 * MARGIN);
+
+        List<Segment> segments = Lists.newArrayList();
+
+        for (Road road : roadFunc.apply(sector)) {
+            float halfWidth = (float) road.getWidth() * 0.5f;
+
+            ElevationProfile profile = road.getProfile().isPresent() ? road.getProfile().get() : profileGen.apply(road);
+
+            IntPolyline path = road.getPath();
+
+            double arcStart = 0;
+            for (int i = 0; i < path.size() - 1; i++) {
+                Segment seg = new Segment(path, i, halfWidth, profile, arcStart);
+                segments.add(seg);
+                arcStart += seg.length;
+            }
+        }
+
+        int tilesX = area.width / TILE_SIZE;
+        int tilesZ = area.height / TILE_SIZE;
+        short[][] distances = new short[tilesX * tilesZ][];
+        short[][] heights = new short[tilesX * tilesZ][];
+        long[][] blocked = new long[tilesX * tilesZ][];
+
+        for (Segment seg : segments) {
+            double reach = seg.halfWidth * 3;
+            int minX = (int) Math.floor(Math.min(seg.x0, seg.x0 + seg.dx) - reach);
+            int minZ = (int) Math.floor(Math.min(seg.z0, seg.z0 + seg.dz) - reach);
+            int maxX = (int) Math.ceil(Math.max(seg.x0, seg.x0 + seg.dx) + reach);
+            int maxZ = (int) Math.ceil(Math.max(seg.z0, seg.z0 + seg.dz) + reach);
+
+            int tx0 = Math.max(0, IntMath.divide(minX - area.x, TILE_SIZE, RoundingMode.FLOOR));
+            int tz0 = Math.max(0, IntMath.divide(minZ - area.y, TILE_SIZE, RoundingMode.FLOOR));
+            int tx1 = Math.min(tilesX - 1, IntMath.divide(maxX - area.x, TILE_SIZE, RoundingMode.FLOOR));
+            int tz1 = Math.min(tilesZ - 1, IntMath.divide(maxZ - area.y, TILE_SIZE, RoundingMode.FLOOR));
+
+            // tiles whose center is farther away than this cannot be reached
+            double tileReach = reach + TILE_SIZE * Math.sqrt(0.5);
+
+            for (int tz = tz0; tz <= tz1; tz++) {
+                for (int tx = tx0; tx <= tx1; tx++) {
+                    int x0 = area.x + tx * TILE_SIZE;
+                    int z0 = area.y + tz * TILE_SIZE;
+                    double cx = x0 + TILE_SIZE * 0.5;
+                    double cz = z0 + TILE_SIZE * 0.5;
+                    if (seg.getDistance(cx, cz, seg.getLambda(cx, cz)) <= tileReach) {
+                        int tile = tz * tilesX + tx;
+                        if (distances[tile] == null) {
+                            distances[tile] = new short[TILE_SIZE * TILE_SIZE];
+                            heights[tile] = new short[TILE_SIZE * TILE_SIZE];
+                            blocked[tile] = new long[TILE_SIZE * TILE_SIZE / 64];
+                            Arrays.fill(distances[tile], RoadDistanceField.FAR);
+                        }
+                        rasterTile(seg, reach, x0, z0, distances[tile], heights[tile], blocked[tile]);
+                    }
+                }
+            }
+        }
+
+        return new RoadDistanceField(area, distances, heights, blocked);
+    }
+
+    private static void rasterTile(Segment seg, double reach, int x0, int z0, short[] distances, short[] heights,
+            long[] blocked) {
+        for (int z = 0; z < TILE_SIZE; z++) {
+            for (int x = 0; x < TILE_SIZE; x++) {
+                double lambda = seg.getLambda(x0 + x, z0 + z);
+                double dist = seg.getDistance(x0 + x, z0 + z, lambda);
+                if (dist > reach) {
+                    continue;
+                }
+
+                int idx = z * TILE_SIZE + x;
+                blocked[idx >> 6] |= 1L << idx;
+
+                double scaled = (dist - seg.halfWidth) * RoadDistanceField.SCALE;
+                short value = (short) Math.max(Short.MIN_VALUE, Math.round(scaled));
+                if (value < distances[idx]) {
+                    distances[idx] = value;
+                    heights[idx] = (short) seg.getHeight(lambda);
+                }
+            }
+        }
+    }
+
+    /**
+     * A straight piece of road centerline
+     */
+    private static final class Segment {
+        private final double x0;
+        private final double z0;
+        private final double dx;
+        private final double dz;
+        private final double length;
+        private final float halfWidth;
+        private final ElevationProfile profile;
+        private final double arcStart;
+
+        Segment(IntPolyline path, int index, float halfWidth, ElevationProfile profile, double arcStart) {
+            this.x0 = path.getX(index);
+            this.z0 = path.getY(index);
+            this.dx = path.getX(index + 1) - x0;
+            this.dz = path.getY(index + 1) - z0;
+            this.length = Math.sqrt(dx * dx + dz * dz);
+            this.halfWidth = halfWidth;
+            this.profile = profile;
+            this.arcStart = arcStart;
+        }
+
+        double getLambda(double x, double z) {
+            if (length == 0) {
+                return 0;
+            }
+            double lambda = ((x - x0) * dx + (z - z0) * dz) / (length * length);
+            return Math.max(0, Math.min(1, lambda));
+        }
+
+        double getDistance(double x, double z, double lambda) {
+            double ex = x0 + lambda * dx - x;
+            double ez = z0 + lambda * dz - z;
+            return Math.sqrt(ex * ex + ez * ez);
+        }
+
+        int getHeight(double lambda) {
+            return profile.getBlockHeight(arcStart + lambda * length);
+        }
+    }
+}
@@ -16,21 +16,24 @@
 
 package org.terasology.cities.generator;
 
+import java.util.List;
+
 import javax.vecmath.Point2i;
 
 import org.terasology.cities.common.Point2iUtils;
-import org.terasology.cities.common.UnorderedPair;
 import org.terasology.cities.model.Junction;
 import org.terasology.cities.model.Road;
 import org.terasology.cities.model.Site;
+import org.terasology.cities.model.SitePair;
 
 import com.google.common.base.Function;
+import com.google.common.collect.Lists;
 
 /**
  * Creates a simple, straight, road with no segments for a connection 
  * @author Martin Steiger
  */
-public class RoadGeneratorSimple implements Function<UnorderedPair<Site>, Road> {
+public class RoadGeneratorSimple implements Function<SitePair, Road> {
     
     private Function<Point2i, Junction> junctions;
     private double avgSegmentLength = 40;
@@ -43,7 +46,7 @@ public RoadGeneratorSimple(Function<Point2i, Junction> junctions) {
     }
     
     @Override
-    public Road apply(UnorderedPair<Site> pair) {
+    public Road apply(SitePair pair) {
 
         Site a = pair.getA();
         Site b = pair.getB();
@@ -53,9 +56,8 @@ public Road apply(UnorderedPair<Site> pair) {
 
         Junction junA = junctions.apply(posA);
         Junction junB = junctions.apply(posB);
-        Road road = new Road(junA, junB);
 
-        addSegments(road, avgSegmentLength);
+        List<Point2i> segments = createSegments(posA, posB, avgSegmentLength);
 
         // here we define width as the log of the smaller site's size
         double avgSize = Math.min(a.getRadius(), b.getRadius());
@@ -63,20 +65,19 @@ public Road apply(UnorderedPair<Site> pair) {
         width = (float) Math.floor(width * 0.5);
         
         // TODO: check and remove
-        road.setWidth(5.0f);
+        width = 5.0f;
 
-        return road;
+        return new Road(junA, junB, segments, width);
     }
 
     /**
-     * @param road the road
+     * @param coordsA the start point
+     * @param coordsB the end point
      * @param avgDist average length of a segment measured in sectors
-     * @return a road with segments
+     * @return the points between start and end
      */
-    protected Road addSegments(Road road, double avgDist) {
-        Point2i coordsA = road.getStart().getCoords();
-        Point2i coordsB = road.getEnd().getCoords();
-        
+    protected List<Point2i> createSegments(Point2i coordsA, Point2i coordsB, double avgDist) {
+        List<Point2i> points = Lists.newArrayList();
         double dist = Point2iUtils.distance(coordsA, coordsB);
 
         int segments = (int) (dist / avgDist + 0.5);
@@ -84,9 +85,9 @@ protected Road addSegments(Road road, double avgDist) {
         for (int i = 1; i < segments; i++) {
             Point2i p = Point2iUtils.interpolate(coordsA, coordsB, i / (double) segments);
 
-            road.add(p);
+            points.add(p);
         }
 
-        return road;
+        return points;
     }
 }
@@ -16,6 +16,7 @@
 
 package org.terasology.cities.generator;
 
+import java.util.List;
 import java.util.Objects;
 
 import javax.vecmath.Point2i;
@@ -28,8 +29,11 @@
 import org.terasology.utilities.random.FastRandom;
 import org.terasology.utilities.random.Random;
 
+import com.google.common.collect.Lists;
+
 /**
- * Applies an overlay of different random wavelets to all road segments
+ * Applies an overlay of different random wavelets to all road segments.
+ * The original road is not modified.
  * @author Martin Steiger
  */
 public class RoadModifierRandom  {
@@ -53,9 +57,10 @@ public RoadModifierRandom(double randomness) {
 
     /**
      * Applies a Gaussian random number to all segments
-     * @param road the road to modify
+     * @param road the original road
+     * @return a new road with modified segment points
      */
-    public void apply(Road road) {
+    public Road apply(Road road) {
         Point2i startPos = road.getStart().getCoords();
         Point2i endPos = road.getEnd().getCoords();
         Random r = new FastRandom(Objects.hash(startPos, endPos));
@@ -70,6 +75,7 @@ public void apply(Road road) {
         Wave w2 = Wave.getHat(0.25, new double[] {r.nextDouble() - 0.5, r.nextDouble() - 0.5, r.nextDouble() - 0.5, r.nextDouble() - 0.5});
 
         int cnt = road.getPoints().size();
+        List<Point2i> points = Lists.newArrayListWithCapacity(cnt);
         for (int i = 0; i < cnt; i++) {
             double ip = (i + 1.0) / (cnt + 1);
             Point2md seg = Point2d.ipol(start, end, ip);
@@ -81,9 +87,9 @@ public void apply(Road road) {
             int x = (int) (seg.getX() + 0.5);
             int y = (int) (seg.getY() + 0.5);
 
-            Point2i pt = road.getPoints().get(i); 
-            pt.x = x;
-            pt.y = y;
+            points.add(new Point2i(x, y));
         }
+
+        return new Road(road.getStart(), road.getEnd(), points, road.getWidth(), road.getHeightRange());
     }
 }
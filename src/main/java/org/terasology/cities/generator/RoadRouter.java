@@ -0,0 +1,481 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.vecmath.Point2i;
+
+import org.terasology.cities.model.CostGrid;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Sectors;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.math.IntMath;
+
+/**
+ * Finds terrain-aware road paths with A* on the coarse {@link CostGrid}s of the sectors.
+ * Steep steps are expensive and water cannot be crossed, except close to the junctions.
+ * The search is restricted to a window around the two end points and to a fixed number
+ * of expanded nodes, so the cost of a single road is bounded. The resulting cell path is
+ * straightened wherever a direct line is (almost) as cheap.
+ * @author Martin Steiger
+ */
+public class RoadRouter {
+
+    /**
+     * The cost factor for the squared grade (height difference per block)
+     */
+    static final double SLOPE_PENALTY = 100;
+
+    /**
+     * A straight shortcut may be this much more expensive than the path it replaces
+     */
+    static final double SHORTCUT_TOLERANCE = 1.05;
+
+    /**
+     * The minimum distance in cells between the search window border and the end points
+     */
+    private static final int MIN_MARGIN = 16;
+
+    private static final int[] DX = {1, 0, -1, 0, 1, -1, -1, 1};
+    private static final int[] DZ = {0, 1, 0, -1, 1, 1, -1, -1};
+
+    private final Function<? super Sector, CostGrid> costGrids;
+    private final int cellSize;
+    private final int maxNodes;
+
+    /**
+     * @param costGrids provides the cost grid of a sector
+     * @param cellSize the edge length of a cell in blocks (must match the cost grids)
+     * @param maxNodes the maximum number of nodes that are expanded per road
+     */
+    public RoadRouter(Function<? super Sector, CostGrid> costGrids, int cellSize, int maxNodes) {
+        this.costGrids = costGrids;
+        this.cellSize = cellSize;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * @param span the max. distance between the end points along x or z in blocks
+     * @return the max. distance in blocks between a route and the bounding box of its end points
+     */
+    public int getMaxDetour(int span) {
+        int cells = IntMath.divide(span, cellSize, RoundingMode.CEILING);
+        int margin = Math.max(MIN_MARGIN, cells / 2);
+        return (margin + 1) * cellSize;
+    }
+
+    /**
+     * @param from the start point in blocks
+     * @param to the end point in blocks
+     * @return the intermediate points in blocks or <code>absent</code> if no path
+     * was found within the node budget
+     */
+    public Optional<List<Point2i>> route(Point2i from, Point2i to) {
+        int sx = IntMath.divide(from.x, cellSize, RoundingMode.FLOOR);
+        int sz = IntMath.divide(from.y, cellSize, RoundingMode.FLOOR);
+        int gx = IntMath.divide(to.x, cellSize, RoundingMode.FLOOR);
+        int gz = IntMath.divide(to.y, cellSize, RoundingMode.FLOOR);
+
+        if (sx == gx && sz == gz) {
+            return Optional.of(Collections.<Point2i>emptyList());
+        }
+
+        int margin = Math.max(MIN_MARGIN, Math.max(Math.abs(gx - sx), Math.abs(gz - sz)) / 2);
+        Window wnd = new Window(Math.min(sx, gx) - margin, Math.min(sz, gz) - margin,
+                Math.abs(gx - sx) + 2 * margin + 1, Math.abs(gz - sz) + 2 * margin + 1);
+        wnd.load(from, to);
+
+        int start = wnd.index(sx, sz);
+        int goal = wnd.index(gx, gz);
+
+        int[] path = search(wnd, start, goal);
+
+        if (path == null) {
+            return Optional.absent();
+        }
+
+        return Optional.of(straighten(wnd, path));
+    }
+
+    /**
+     * @return the cell indices from start to goal or <code>null</code>
+     */
+    private int[] search(Window wnd, int start, int goal) {
+        int size = wnd.width * wnd.height;
+        float[] cost = new float[size];
+        int[] parent = new int[size];
+        boolean[] closed = new boolean[size];
+        Arrays.fill(cost, Float.POSITIVE_INFINITY);
+
+        int goalX = goal % wnd.width;
+        int goalZ = goal / wnd.width;
+
+        LongHeap open = new LongHeap();
+        cost[start] = 0;
+        parent[start] = -1;
+        open.push(key(heuristic(start % wnd.width, start / wnd.width, goalX, goalZ), start));
+
+        int expanded = 0;
+        while (!open.isEmpty()) {
+            int idx = (int) open.pop();
+
+            if (closed[idx]) {
+                continue;
+            }
+
+            if (idx == goal) {
+                return tracePath(parent, goal);
+            }
+
+            if (++expanded > maxNodes) {
+                return null;
+            }
+
+            closed[idx] = true;
+            int x = idx % wnd.width;
+            int z = idx / wnd.width;
+
+            for (int dir = 0; dir < DX.length; dir++) {
+                int nx = x + DX[dir];
+                int nz = z + DZ[dir];
+
+                if (nx < 0 || nz < 0 || nx >= wnd.width || nz >= wnd.height) {
+                    continue;
+                }
+
+                int nidx = nz * wnd.width + nx;
+                if (closed[nidx] || wnd.blocked[nidx]) {
+                    continue;
+                }
+
+                // don't squeeze diagonally between two blocked cells
+                if (dir >= 4 && (wnd.blocked[z * wnd.width + nx] || wnd.blocked[nz * wnd.width + x])) {
+                    continue;
+                }
+
+                double len = (dir >= 4) ? Math.sqrt(2) * cellSize : cellSize;
+                double dh = wnd.heights[nidx] - wnd.heights[idx];
+                float ncost = (float) (cost[idx] + stepCost(len, dh));
+
+                if (ncost < cost[nidx]) {
+                    cost[nidx] = ncost;
+                    parent[nidx] = idx;
+                    open.push(key(ncost + heuristic(nx, nz, goalX, goalZ), nidx));
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Greedily replaces parts of the path with straight lines (string pulling)
+     * @return the intermediate points in blocks
+     */
+    private List<Point2i> straighten(Window wnd, int[] path) {
+        double[] pathCost = new double[path.length];
+        for (int i = 1; i < path.length; i++) {
+            double len = wnd.distance(path[i - 1], path[i]) * cellSize;
+            double dh = wnd.heights[path[i]] - wnd.heights[path[i - 1]];
+            pathCost[i] = pathCost[i - 1] + stepCost(len, dh);
+        }
+
+        List<Point2i> points = Lists.newArrayList();
+        int anchor = 0;
+        while (anchor < path.length - 1) {
+            int next = anchor + 1;
+            while (next + 1 < path.length) {
+                double maxCost = (pathCost[next + 1] - pathCost[anchor]) * SHORTCUT_TOLERANCE;
+                if (!wnd.isPassable(path[anchor], path[next + 1], maxCost)) {
+                    break;
+                }
+                next++;
+            }
+
+            if (next < path.length - 1) {
+                points.add(wnd.toBlock(path[next]));
+            }
+            anchor = next;
+        }
+
+        return points;
+    }
+
+    private double heuristic(int x, int z, int goalX, int goalZ) {
+        int dx = Math.abs(goalX - x);
+        int dz = Math.abs(goalZ - z);
+        return (Math.max(dx, dz) + (Math.sqrt(2) - 1) * Math.min(dx, dz)) * cellSize;
+    }
+
+    static double stepCost(double len, double dh) {
+        double grade = dh / len;
+        return len * (1 + SLOPE_PENALTY * grade * grade);
+    }
+
+    private static int[] tracePath(int[] parent, int goal) {
+        int count = 0;
+        for (int idx = goal; idx >= 0; idx = parent[idx]) {
+            count++;
+        }
+
+        int[] path = new int[count];
+        for (int idx = goal; idx >= 0; idx = parent[idx]) {
+            path[--count] = idx;
+        }
+        return path;
+    }
+
+    /**
+     * Packs a non-negative priority and an index into a long that sorts by priority first
+     */
+    private static long key(double priority, int idx) {
+        return ((long) Float.floatToIntBits((float) priority) << 32) | idx;
+    }
+
+    /**
+     * A copy of the cost grid cells in the search window
+     */
+    private final class Window {
+        private final int minX;
+        private final int minZ;
+        private final int width;
+        private final int height;
+        private final short[] heights;
+        private final boolean[] blocked;
+
+        Window(int minX, int minZ, int width, int height) {
+            this.minX = minX;
+            this.minZ = minZ;
+            this.width = width;
+            this.height = height;
+            this.heights = new short[width * height];
+            this.blocked = new boolean[width * height];
+        }
+
+        /**
+         * Copies the cells from all sectors that intersect with the window
+         */
+        void load(Point2i from, Point2i to) {
+            int cellsPerSector = Sector.SIZE / cellSize;
+            int minSX = IntMath.divide(minX, cellsPerSector, RoundingMode.FLOOR);
+            int minSZ = IntMath.divide(minZ, cellsPerSector, RoundingMode.FLOOR);
+            int maxSX = IntMath.divide(minX + width - 1, cellsPerSector, RoundingMode.FLOOR);
+            int maxSZ = IntMath.divide(minZ + height - 1, cellsPerSector, RoundingMode.FLOOR);
+
+            double clearSq = RoadWaterFilter.JUNCTION_CLEARANCE * RoadWaterFilter.JUNCTION_CLEARANCE;
+
+            for (int secZ = minSZ; secZ <= maxSZ; secZ++) {
+                for (int secX = minSX; secX <= maxSX; secX++) {
+                    CostGrid grid = costGrids.apply(Sectors.getSector(secX, secZ));
+                    int offX = secX * cellsPerSector;
+                    int offZ = secZ * cellsPerSector;
+
+                    int x0 = Math.max(minX, offX);
+                    int z0 = Math.max(minZ, offZ);
+                    int x1 = Math.min(minX + width, offX + cellsPerSector);
+                    int z1 = Math.min(minZ + height, offZ + cellsPerSector);
+
+                    for (int z = z0; z < z1; z++) {
+                        for (int x = x0; x < x1; x++) {
+                            int idx = (z - minZ) * width + (x - minX);
+                            heights[idx] = (short) grid.getTerrainHeight(x - offX, z - offZ);
+
+                            if (grid.isWater(x - offX, z - offZ)) {
+                                // settlements are often close to the shore
+                                Point2i pos = toBlock(idx);
+                                blocked[idx] = distanceSq(pos, from) > clearSq && distanceSq(pos, to) > clearSq;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        int index(int x, int z) {
+            return (z - minZ) * width + (x - minX);
+        }
+
+        Point2i toBlock(int idx) {
+            int x = (minX + idx % width) * cellSize + cellSize / 2;
+            int z = (minZ + idx / width) * cellSize + cellSize / 2;
+            return new Point2i(x, z);
+        }
+
+        double distance(int idxA, int idxB) {
+            return Math.hypot(idxB % width - idxA % width, idxB / width - idxA / width);
+        }
+
+        /**
+         * Walks along the line between two cell centers in steps of half a cell.
+         * Heights are bilinearly interpolated between the cell centers.
+         * Blocked cells are tested exactly, in the same way as {@link RoadWaterFilter} does.
+         * @return true if the line does not touch blocked cells and is not more expensive than maxCost
+         */
+        boolean isPassable(int idxA, int idxB, double maxCost) {
+            double ax = idxA % width;
+            double az = idxA / width;
+            double dx = idxB % width - ax;
+            double dz = idxB / width - az;
+
+            if (touchesBlocked(ax, az, ax + dx, az + dz)) {
+                return false;
+            }
+
+            int steps = (int) Math.ceil(Math.hypot(dx, dz) * 2);
+            double len = Math.hypot(dx, dz) * cellSize / steps;
+
+            double total = 0;
+            double prevHeight = heights[idxA];
+            for (int i = 1; i <= steps; i++) {
+                double x = ax + dx * i / steps;
+                double z = az + dz * i / steps;
+                double h = interpolate(x, z);
+                total += stepCost(len, h - prevHeight);
+                prevHeight = h;
+
+                if (total > maxCost) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Visits all cells along the line between two cell centers (Amanatides and Woo)
+         */
+        private boolean touchesBlocked(double sx, double sz, double ex, double ez) {
+            int cx = (int) Math.round(sx);
+            int cz = (int) Math.round(sz);
+            int endX = (int) Math.round(ex);
+            int endZ = (int) Math.round(ez);
+
+            double dx = ex - sx;
+            double dz = ez - sz;
+            int stepX = (dx > 0) ? 1 : -1;
+            int stepZ = (dz > 0) ? 1 : -1;
+
+            // cell i covers [i - 0.5, i + 0.5]
+            double tDeltaX = (dx != 0) ? Math.abs(1.0 / dx) : Double.POSITIVE_INFINITY;
+            double tDeltaZ = (dz != 0) ? Math.abs(1.0 / dz) : Double.POSITIVE_INFINITY;
+            double tMaxX = (dx != 0) ? (cx + 0.5 * stepX - sx) / dx : Double.POSITIVE_INFINITY;
+            double tMaxZ = (dz != 0) ? (cz + 0.5 * stepZ - sz) / dz : Double.POSITIVE_INFINITY;
+
+            int maxSteps = Math.abs(endX - cx) + Math.abs(endZ - cz);
+
+            for (int i = 0; i <= maxSteps; i++) {
+                if (blocked[cz * width + cx]) {
+                    return true;
+                }
+
+                if (cx == endX && cz == endZ) {
+                    break;
+                }
+
+                if (tMaxX < tMaxZ) {
+                    tMaxX += tDeltaX;
+                    cx += stepX;
+                } else {
+                    tMaxZ += tDeltaZ;
+                    cz += stepZ;
+                }
+            }
+
+            return false;
+        }
+
+        private double interpolate(double x, double z) {
+            int x0 = Math.min((int) x, width - 2);
+            int z0 = Math.min((int) z, height - 2);
+            double fx = x - x0;
+            double fz = z - z0;
+
+            double h00 = heights[z0 * width + x0];
+            double h10 = heights[z0 * width + x0 + 1];
+            double h01 = heights[(z0 + 1) * width + x0];
+            double h11 = heights[(z0 + 1) * width + x0 + 1];
+
+            double h0 = h00 + fx * (h10 - h00);
+            double h1 = h01 + fx * (h11 - h01);
+            return h0 + fz * (h1 - h0);
+        }
+
+        private double distanceSq(Point2i a, Point2i b) {
+            double dx = a.x - b.x;
+            double dz = a.y - b.y;
+            return dx * dx + dz * dz;
+        }
+    }
+
+    /**
+     * A minimal binary min-heap of primitive longs
+     */
+    private static final class LongHeap {
+        private long[] data = new long[256];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(long value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+
+            int pos = size++;
+            while (pos > 0) {
+                int up = (pos - 1) / 2;
+                if (data[up] <= value) {
+                    break;
+                }
+                data[pos] = data[up];
+                pos = up;
+            }
+            data[pos] = value;
+        }
+
+        long pop() {
+            long top = data[0];
+            long last = data[--size];
+
+            int pos = 0;
+            int child = 1;
+            while (child < size) {
+                if (child + 1 < size && data[child + 1] < data[child]) {
+                    child++;
+                }
+                if (last <= data[child]) {
+                    break;
+                }
+                data[pos] = data[child];
+                pos = child;
+                child = pos * 2 + 1;
+            }
+            data[pos] = last;
+            return top;
+        }
+    }
+}
@@ -33,7 +33,6 @@
 import org.terasology.cities.model.Sector;
 
 import com.google.common.base.Function;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 /**
@@ -87,10 +86,8 @@ public Shape apply(Sector sector) {
     }
     
     private Shape getRoadShape(Road road) {
-        List<Point2i> pts = Lists.newArrayList(road.getPoints());
+        List<Point2i> pts = road.getPath().asList();
 
-        pts.add(0, road.getStart().getCoords());
-        pts.add(road.getEnd().getCoords());
 //        Path2D path = PathUtils.getBezierSplinePath(pts, 0.2);
         Path2D path = PathUtils.createSegmentPath(pts);
 
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import java.math.RoundingMode;
+
+import org.terasology.cities.common.IntPolyline;
+import org.terasology.cities.model.Road;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Sectors;
+import org.terasology.cities.model.WaterMask;
+
+import com.google.common.base.Function;
+import com.google.common.math.IntMath;
+
+/**
+ * Checks whether roads cross water. Every road segment is tested against the
+ * water masks of all sectors it touches, so the result does not depend on the sector that asks.
+ * Segments are shortened near the junctions, because settlements are often close to the shore.
+ * @author Martin Steiger
+ */
+public class RoadWaterFilter {
+
+    /**
+     * The distance from a junction in blocks that is not tested
+     */
+    static final double JUNCTION_CLEARANCE = 16;
+
+    private final Function<Sector, WaterMask> waterMasks;
+
+    /**
+     * @param waterMasks provides the water mask of a sector
+     */
+    public RoadWaterFilter(Function<Sector, WaterMask> waterMasks) {
+        this.waterMasks = waterMasks;
+    }
+
+    /**
+     * @param road the road to test
+     * @return true if at least one road segment crosses a water cell
+     */
+    public boolean isBlocked(Road road) {
+        IntPolyline path = road.getPath();
+        double totalLength = path.getLength();
+
+        double arc = 0;
+        for (int i = 0; i < path.size() - 1; i++) {
+            int x0 = path.getX(i);
+            int z0 = path.getY(i);
+            double len = path.getSegmentLength(i);
+
+            // only test the part of the segment that is not close to a junction
+            double from = Math.max(0, JUNCTION_CLEARANCE - arc);
+            double to = Math.min(len, totalLength - JUNCTION_CLEARANCE - arc);
+
+            if (from < to && len > 0) {
+                double dx = (path.getX(i + 1) - x0) / len;
+                double dz = (path.getY(i + 1) - z0) / len;
+                if (isBlocked(x0 + dx * from, z0 + dz * from, x0 + dx * to, z0 + dz * to)) {
+                    return true;
+                }
+            }
+
+            arc += len;
+        }
+
+        return false;
+    }
+
+    private boolean isBlocked(double x0, double z0, double x1, double z1) {
+        int minX = toSector(Math.min(x0, x1));
+        int minZ = toSector(Math.min(z0, z1));
+        int maxX = toSector(Math.max(x0, x1));
+        int maxZ = toSector(Math.max(z0, z1));
+
+        for (int sz = minZ; sz <= maxZ; sz++) {
+            for (int sx = minX; sx <= maxX; sx++) {
+                WaterMask mask = waterMasks.apply(Sectors.getSector(sx, sz));
+                if (mask.getLakeCount() > 0 && mask.intersects(x0, z0, x1, z1)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static int toSector(double blockCoord) {
+        return IntMath.divide((int) Math.floor(blockCoord), Sector.SIZE, RoundingMode.FLOOR);
+    }
+}
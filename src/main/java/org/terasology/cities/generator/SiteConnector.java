@@ -20,9 +20,11 @@
 
 import javax.vecmath.Point2i;
 
+import org.terasology.cities.common.CachingFunction;
 import org.terasology.cities.common.Orientation;
 import org.terasology.cities.common.Point2iUtils;
 import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Sectors;
 import org.terasology.cities.model.Site;
 
 import com.google.common.base.Function;
@@ -32,21 +34,33 @@
 /**
  * Defines connections of a site to other sites in the same and neighboring sectors.
  * All sites within a given radius are connected. If none are found the closest site
- * is connected.
+ * is connected. Range queries use a spatial hash of the sites of every sector.
  * @author Martin Steiger
  */
 public class SiteConnector implements Function<Site, Set<Site>> {
   
     private final Function<Sector, Set<Site>> siteMap;
+    private final Function<Sector, SiteIndex> siteIndices;
     private final double maxDist;
 
     /**
      * @param siteMap a function that defines sites
      * @param maxDist the maximum distance between two connected sites
      */
-    public SiteConnector(Function<Sector, Set<Site>> siteMap, double maxDist) {
+    public SiteConnector(final Function<Sector, Set<Site>> siteMap, double maxDist) {
         this.siteMap = siteMap;
         this.maxDist = maxDist;
+
+        final int cellSize = Math.max(1, (int) Math.ceil(maxDist));
+        this.siteIndices = CachingFunction.wrap(new Function<Sector, SiteIndex>() {
+
+            @Override
+            public SiteIndex apply(Sector sector) {
+                SiteIndex index = new SiteIndex(cellSize);
+                index.addAll(siteMap.apply(sector));
+                return index;
+            }
+        });
     }
     
     /**
@@ -56,6 +70,24 @@ public SiteConnector(Function<Sector, Set<Site>> siteMap, double maxDist) {
     @Override
     public Set<Site> apply(Site site) {
         
+        Set<Site> result = sitesInRange(site);
+        result.remove(site);
+
+        if (result.isEmpty()) {
+            Optional<Site> closest = getClosest(site, getNeighborhood(site));
+            if (closest.isPresent()) {
+                result.add(closest.get());
+            }
+        }
+        
+        return result;
+    }
+
+    /**
+     * @param site the site
+     * @return all sites in the same and the neighboring sectors, excluding the site itself
+     */
+    private Set<Site> getNeighborhood(Site site) {
         Sector sector = site.getSector();
         
         Set<Site> directNeighs = siteMap.apply(sector);
@@ -69,16 +101,7 @@ public Set<Site> apply(Site site) {
         
         sites.remove(site);
         
-        Set<Site> result = sitesInRange(site, sites);
-        
-        if (result.isEmpty()) {
-            Optional<Site> closest = getClosest(site, sites);
-            if (closest.isPresent()) {
-                result.add(closest.get());
-            }
-        }
-        
-        return result;
+        return sites;
     }
 
     /**
@@ -104,26 +127,25 @@ private Optional<Site> getClosest(Site site, Set<Site> sites) {
     }
 
     /**
+     * Queries only the sectors that intersect with the circle around the site
      * @param site the site
-     * @param neighbors a set of sites in the neighborhood
-     * @return all sites within maxDist
+     * @return all sites within maxDist (including the site itself)
      */
-    private Set<Site> sitesInRange(Site site, Set<Site> neighbors) {
+    private Set<Site> sitesInRange(Site site) {
         Set<Site> closeCities = Sets.newHashSet(); 
 
-        Point2i pos1 = site.getPos();
-
-        for (Site other : neighbors) {
-            Point2i pos2 = other.getPos();
-            double distSq = Point2iUtils.distanceSquared(pos1, pos2);
-
-            if (distSq < maxDist * maxDist) {
-                closeCities.add(other);
+        Point2i pos = site.getPos();
+        int rad = (int) Math.ceil(maxDist);
+        Sector min = Sectors.getSectorForBlock(pos.x - rad, pos.y - rad);
+        Sector max = Sectors.getSectorForBlock(pos.x + rad, pos.y + rad);
+
+        for (int sz = min.getCoords().y; sz <= max.getCoords().y; sz++) {
+            for (int sx = min.getCoords().x; sx <= max.getCoords().x; sx++) {
+                SiteIndex index = siteIndices.apply(Sectors.getSector(sx, sz));
+                closeCities.addAll(index.getSitesInRange(pos, maxDist));
             }
         }
         
         return closeCities;
     }
-
-
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import java.util.Objects;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.cities.AreaInfo;
+import org.terasology.cities.common.CachingFunction;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Sectors;
+import org.terasology.cities.model.Site;
+import org.terasology.math.TeraMath;
+import org.terasology.utilities.random.FastRandom;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Creates a set of sites for a given sector with a minimum distance between all sites,
+ * also across sector borders (Poisson disk sampling).
+ * <p>
+ * Sectors are assigned to one of four phases in a 2x2 pattern, so that neighboring sectors
+ * never share the same phase. A sector checks its candidates only against the sites of neighbors
+ * with a lower phase. Thus, the result depends only on the seed and not on the order in which
+ * sectors are requested. Sectors of the same phase can be computed in parallel.
+ * </p>
+ * @author Martin Steiger
+ */
+public class SiteFinderPoisson implements Function<Sector, Set<Site>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SiteFinderPoisson.class);
+
+    private static final int MIN_DIST_TO_OTHERS = 200;
+
+    private static final int MAX_TRIES = 30;
+
+    private final String seed;
+
+    private final int maxSize;
+    private final int minSize;
+
+    private final int minPerSector;
+    private final int maxPerSector;
+
+    private final Function<? super Sector, AreaInfo> sectorInfos;
+
+    private final CachingFunction<Sector, SiteIndex> tiles;
+
+    /**
+     * @param seed the seed
+     * @param sectorInfos a function for sector infos
+     * @param minPerSector minimum settlements per sector
+     * @param maxPerSector maximum settlements per sector
+     * @param minSize minimum settlement size
+     * @param maxSize maximum settlement size 
+     */
+    public SiteFinderPoisson(String seed, Function<? super Sector, AreaInfo> sectorInfos, int minPerSector, int maxPerSector, int minSize, int maxSize) {
+        this.seed = seed;
+        this.sectorInfos = sectorInfos;
+        this.minPerSector = minPerSector;
+        this.maxPerSector = maxPerSector;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+
+        tiles = CachingFunction.wrap(new Function<Sector, SiteIndex>() {
+
+            @Override
+            public SiteIndex apply(Sector sector) {
+                return createTile(sector);
+            }
+        });
+    }
+
+    /**
+     * @param sector the sector
+     * @return a set of sites
+     */
+    @Override
+    public Set<Site> apply(Sector sector) {
+        return ImmutableSet.copyOf(tiles.apply(sector).getSites());
+    }
+
+    private SiteIndex createTile(Sector sector) {
+        Point2i sc = sector.getCoords();
+        int phase = getPhase(sc);
+
+        // sites of neighbors with a lower phase are fixed already
+        SiteIndex constraints = new SiteIndex(MIN_DIST_TO_OTHERS);
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                Point2i nc = new Point2i(sc.x + dx, sc.y + dz);
+                if (getPhase(nc) < phase) {
+                    constraints.addAll(tiles.apply(Sectors.getSector(nc)).getSites());
+                }
+            }
+        }
+
+        // create deterministic random
+        int hash = Objects.hash(seed, sector);
+        FastRandom fr = new FastRandom(hash);
+
+        int count = fr.nextInt(minPerSector, maxPerSector);
+
+        logger.debug("Creating {} sites in {}", count, sector);
+
+        AreaInfo si = sectorInfos.apply(sector);
+        SiteIndex result = new SiteIndex(MIN_DIST_TO_OTHERS);
+
+        for (int i = 0; i < count; i++) {
+            boolean placed = false;
+
+            for (int tries = 0; tries < MAX_TRIES && !placed; tries++) {
+                double nx = sc.x + fr.nextDouble();
+                double nz = sc.y + fr.nextDouble();
+
+                // make smaller cities more probable than larger cities
+                double size = fr.nextDouble(Math.sqrt(minSize), Math.sqrt(maxSize));
+                size = size * size;
+
+                int cx = TeraMath.floorToInt(nx * Sector.SIZE + 0.5);
+                int cz = TeraMath.floorToInt(nz * Sector.SIZE + 0.5);
+                Point2i pos = new Point2i(cx, cz);
+
+                if (!result.hasSitesInRange(pos, MIN_DIST_TO_OTHERS)
+                 && !constraints.hasSitesInRange(pos, MIN_DIST_TO_OTHERS)
+                 && !si.isBlocked(pos)) {
+                    Site site = new Site(cx, cz, (int) size / 2);
+                    logger.debug("{} - Creating site {} at {}", sector, site, site.getPos());
+                    result.add(site);
+                    placed = true;
+                }
+            }
+
+            if (!placed) {
+                logger.debug("Could not place a new site at {}", sector);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @param sc the sector coordinates
+     * @return the phase in [0..3] - all 8 neighbors have a different phase
+     */
+    private static int getPhase(Point2i sc) {
+        return (sc.x & 1) + 2 * (sc.y & 1);
+    }
+}
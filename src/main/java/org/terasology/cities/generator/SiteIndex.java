@@ -0,0 +1,154 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+
+import org.terasology.cities.common.Point2iUtils;
+import org.terasology.cities.model.Site;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.math.IntMath;
+
+/**
+ * A spatial hash of sites. Range queries visit only the grid cells that
+ * intersect with the query circle. Not thread-safe while sites are added.
+ * @author Martin Steiger
+ */
+public final class SiteIndex {
+
+    private final int cellSize;
+    private final Map<Long, List<Site>> cells = Maps.newHashMap();
+    private final List<Site> sites = Lists.newArrayList();
+
+    /**
+     * @param cellSize the size of a grid cell in blocks (ideally close to the typical query distance)
+     */
+    public SiteIndex(int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be positive");
+        }
+
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * @param site the site to add
+     */
+    public void add(Site site) {
+        Point2i pos = site.getPos();
+        long key = key(cell(pos.x), cell(pos.y));
+
+        List<Site> list = cells.get(key);
+        if (list == null) {
+            list = Lists.newArrayListWithCapacity(2);
+            cells.put(key, list);
+        }
+
+        list.add(site);
+        sites.add(site);
+    }
+
+    /**
+     * @param all the sites to add
+     */
+    public void addAll(Iterable<Site> all) {
+        for (Site site : all) {
+            add(site);
+        }
+    }
+
+    /**
+     * @return an unmodifiable view on all sites in insertion order
+     */
+    public List<Site> getSites() {
+        return Collections.unmodifiableList(sites);
+    }
+
+    /**
+     * @param pos the center of the query circle
+     * @param dist the query radius
+     * @return all sites that are closer than <code>dist</code>
+     */
+    public Set<Site> getSitesInRange(Point2i pos, double dist) {
+        Set<Site> result = Sets.newHashSet();
+
+        int minX = cell((int) Math.floor(pos.x - dist));
+        int maxX = cell((int) Math.ceil(pos.x + dist));
+        int minZ = cell((int) Math.floor(pos.y - dist));
+        int maxZ = cell((int) Math.ceil(pos.y + dist));
+
+        for (int cz = minZ; cz <= maxZ; cz++) {
+            for (int cx = minX; cx <= maxX; cx++) {
+                List<Site> list = cells.get(key(cx, cz));
+                if (list != null) {
+                    for (Site site : list) {
+                        if (Point2iUtils.distanceSquared(pos, site.getPos()) < dist * dist) {
+                            result.add(site);
+                        }
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @param pos the center of the query circle
+     * @param dist the query radius
+     * @return true if at least one site is closer than <code>dist</code>
+     */
+    public boolean hasSitesInRange(Point2i pos, double dist) {
+        int minX = cell((int) Math.floor(pos.x - dist));
+        int maxX = cell((int) Math.ceil(pos.x + dist));
+        int minZ = cell((int) Math.floor(pos.y - dist));
+        int maxZ = cell((int) Math.ceil(pos.y + dist));
+
+        for (int cz = minZ; cz <= maxZ; cz++) {
+            for (int cx = minX; cx <= maxX; cx++) {
+                List<Site> list = cells.get(key(cx, cz));
+                if (list != null) {
+                    for (Site site : list) {
+                        if (Point2iUtils.distanceSquared(pos, site.getPos()) < dist * dist) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private int cell(int coord) {
+        return IntMath.divide(coord, cellSize, RoundingMode.FLOOR);
+    }
+
+    private static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+}
@@ -23,7 +23,6 @@
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.terasology.cities.common.Point2iUtils;
 import org.terasology.cities.model.Sector;
 import org.terasology.cities.model.Sectors;
 import org.terasology.cities.model.Site;
@@ -32,13 +31,19 @@
 import com.google.common.base.Function;
 
 /**
- * Creates a symmetric set of settlements based on a symmetric height map
+ * Creates a symmetric set of settlements based on a symmetric height map.
+ * Sites are taken from the canonical sectors and mirrored. A site is dropped if its
+ * mirror is too close to any canonical site (including itself), because the two would
+ * end up on opposite sides of the symmetry axis. Both sides of the axis apply the same
+ * test, so the result does not depend on which sector is asked first.
  * @author Martin Steiger
  */
 public class SymmetricSiteFinder implements Function<Sector, Set<Site>> {
 
     private static final Logger logger = LoggerFactory.getLogger(SymmetricSiteFinder.class);
 
+    private static final int MIN_DIST_TO_OTHERS = 200;
+
     private Function<Sector, Set<Site>> baseFinder;
 
     private Symmetry symmetry;
@@ -59,9 +64,6 @@ public SymmetricSiteFinder(Function<Sector, Set<Site>> baseFinder, Symmetry symm
      */
     @Override
     public Set<Site> apply(Sector sector) {
-        int minDist = 200;
-
-        // create deterministic random
         Point2i secPos = sector.getCoords();
 
         Point2i mirrSecPos = symmetry.getMirrored(secPos);
@@ -69,21 +71,12 @@ public Set<Site> apply(Sector sector) {
 
         if (secPos.equals(mirrSecPos)) {
             Set<Site> base = baseFinder.apply(sector);
+            SiteIndex canonical = getCanonicalSites(secPos);
 
             for (Site site : base) {
-                Point2i pos = site.getPos();
-
-                Point2i newPos = symmetry.getMirrored(pos);
-                Site mirrorSite = new Site(newPos.getX(), newPos.getY(), site.getRadius());
-
-                if (distanceToOthersOk(site, result, minDist) && distanceToOthersOk(mirrorSite, result, minDist)) {
-
-                    // check if distance to its own mirror site is ok
-                    double distSq = Point2iUtils.distanceSquared(pos, newPos);
-                    if (distSq > minDist * minDist) {
-                        result.add(mirrorSite);
-                        result.add(site);
-                    }
+                if (isFarFromMirror(site, canonical)) {
+                    result.add(site);
+                    result.add(getMirrored(site));
                 }
 
                 if (result.size() >= base.size()) {
@@ -95,15 +88,11 @@ public Set<Site> apply(Sector sector) {
         }
 
         if (!symmetry.isMirrored(secPos)) {
-            Set<Site> base = baseFinder.apply(sector);
-
-            for (Site site : base) {
-                Point2i pos = site.getPos();
-                Point2i newPos = symmetry.getMirrored(pos);
+            // the mirrors of all sites of this sector are in the mirrored sector
+            SiteIndex canonical = getCanonicalSites(mirrSecPos);
 
-                // check if distance to its own mirror site is ok
-                double distSq = Point2iUtils.distanceSquared(pos, newPos);
-                if (distSq > minDist * minDist) {
+            for (Site site : baseFinder.apply(sector)) {
+                if (isFarFromMirror(site, canonical)) {
                     result.add(site);
                 }
             }
@@ -111,17 +100,11 @@ public Set<Site> apply(Sector sector) {
 
         } else {
             Sector mirrorSector = Sectors.getSector(mirrSecPos);
-            Set<Site> base = baseFinder.apply(mirrorSector);
+            SiteIndex canonical = getCanonicalSites(secPos);
 
-            for (Site site : base) {
-                Point2i pos = site.getPos();
-                Point2i newPos = symmetry.getMirrored(pos);
-                Site mirrorSite = new Site(newPos.getX(), newPos.getY(), site.getRadius());
-
-                // check if distance to its own mirror site is ok
-                double distSq = Point2iUtils.distanceSquared(pos, newPos);
-                if (distSq > minDist * minDist) {
-                    result.add(mirrorSite);
+            for (Site site : baseFinder.apply(mirrorSector)) {
+                if (isFarFromMirror(site, canonical)) {
+                    result.add(getMirrored(site));
                 }
             }
 
@@ -130,17 +113,37 @@ public Set<Site> apply(Sector sector) {
         }
     }
 
-    private boolean distanceToOthersOk(Site city, Set<Site> others, double minDist) {
+    private Site getMirrored(Site site) {
+        Point2i newPos = symmetry.getMirrored(site.getPos());
+        return new Site(newPos.getX(), newPos.getY(), site.getRadius());
+    }
 
-        Point2i pos = city.getPos();
+    /**
+     * @param site a canonical site
+     * @param canonical all canonical sites around the mirrored position of the site
+     * @return true if no canonical site (including the site itself) is too close to the mirrored site
+     */
+    private boolean isFarFromMirror(Site site, SiteIndex canonical) {
+        Point2i mirrored = symmetry.getMirrored(site.getPos());
+        return !canonical.hasSitesInRange(mirrored, MIN_DIST_TO_OTHERS);
+    }
 
-        for (Site other : others) {
-            double distSq = Point2iUtils.distanceSquared(pos, other.getPos());
-            if (distSq < minDist * minDist) {
-                return false;
+    /**
+     * @param sc the sector coordinates
+     * @return the canonical (not mirrored) sites of the sector and its 8 neighbors
+     */
+    private SiteIndex getCanonicalSites(Point2i sc) {
+        SiteIndex index = new SiteIndex(MIN_DIST_TO_OTHERS);
+
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                Point2i nc = new Point2i(sc.x + dx, sc.y + dz);
+                if (!symmetry.isMirrored(nc) || nc.equals(symmetry.getMirrored(nc))) {
+                    index.addAll(baseFinder.apply(Sectors.getSector(nc)));
+                }
             }
         }
 
-        return true;
+        return index;
     }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import java.awt.Rectangle;
+import java.util.List;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+
+import org.terasology.cities.array.BitArray2D;
+import org.terasology.cities.common.PolygonMask;
+import org.terasology.cities.model.Lake;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.WaterMask;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+
+/**
+ * Rasterizes all lakes of a sector into a {@link WaterMask}. A cell is water
+ * if its center is inside a lake contour, but not on an island.
+ * @author Martin Steiger
+ */
+public class WaterMaskGenerator implements Function<Sector, WaterMask> {
+
+    private final Function<? super Sector, Set<Lake>> lakeFunc;
+    private final int cellSize;
+
+    /**
+     * @param lakeFunc provides the lakes of a sector
+     * @param cellSize the edge length of a cell in blocks (must be a divisor of the sector size)
+     */
+    public WaterMaskGenerator(Function<? super Sector, Set<Lake>> lakeFunc, int cellSize) {
+        this.lakeFunc = lakeFunc;
+        this.cellSize = cellSize;
+    }
+
+    @Override
+    public WaterMask apply(Sector sector) {
+        Point2i coords = sector.getCoords();
+        Rectangle area = new Rectangle(coords.x * Sector.SIZE, coords.y * Sector.SIZE, Sector.SIZE, Sector.SIZE);
+        int size = Sector.SIZE / cellSize;
+
+        BitArray2D cells = new BitArray2D(size, size);
+        List<Rectangle> lakeBounds = Lists.newArrayList();
+
+        for (Lake lake : lakeFunc.apply(sector)) {
+            PolygonMask mask = lake.getMask();
+            Rectangle bounds = lake.getContour().getPolygon().getBounds();
+            lakeBounds.add(bounds);
+
+            int minX = Math.max(0, (bounds.x - area.x) / cellSize);
+            int minZ = Math.max(0, (bounds.y - area.y) / cellSize);
+            int maxX = Math.min(size - 1, (bounds.x + bounds.width - area.x) / cellSize);
+            int maxZ = Math.min(size - 1, (bounds.y + bounds.height - area.y) / cellSize);
+
+            for (int cz = minZ; cz <= maxZ; cz++) {
+                for (int cx = minX; cx <= maxX; cx++) {
+                    double x = area.x + (cx + 0.5) * cellSize;
+                    double z = area.y + (cz + 0.5) * cellSize;
+                    if (mask.contains(x, z)) {
+                        cells.set(cx, cz, true);
+                    }
+                }
+            }
+        }
+
+        return new WaterMask(area, cellSize, cells, lakeBounds);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.cities.heightmap;
+
+import java.awt.Rectangle;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Stores a bottom (inclusive) and a top (exclusive) height for every column
+ * of a rectangular area in compact short arrays. Columns where bottom >= top are empty.
+ * Profiles are read-only and are filled through a {@link Builder}.
+ * @author Martin Steiger
+ */
+public final class HeightProfile {
+
+    private final Rectangle area;
+    private final short[] bottom;
+    private final short[] top;
+
+    private HeightProfile(Rectangle area, short[] bottom, short[] top) {
+        this.area = area;
+        this.bottom = bottom;
+        this.top = top;
+    }
+
+    /**
+     * @param x x in world coords (must be inside the area)
+     * @param z z in world coords (must be inside the area)
+     * @return the bottom height (inclusive)
+     */
+    public int getBottom(int x, int z) {
+        return bottom[index(area, x, z)];
+    }
+
+    /**
+     * @param x x in world coords (must be inside the area)
+     * @param z z in world coords (must be inside the area)
+     * @return the top height (exclusive)
+     */
+    public int getTop(int x, int z) {
+        return top[index(area, x, z)];
+    }
+
+    /**
+     * @return the area that is covered by the profile (a copy)
+     */
+    public Rectangle getArea() {
+        return new Rectangle(area);
+    }
+
+    private static int index(Rectangle area, int x, int z) {
+        return (z - area.y) * area.width + (x - area.x);
+    }
+
+    /**
+     * Collects the column heights for a new {@link HeightProfile}. Building does not copy the data,
+     * so the builder cannot be used afterwards.
+     */
+    public static final class Builder {
+        private final Rectangle area;
+        private short[] bottom;
+        private short[] top;
+
+        /**
+         * Creates a builder where all columns are empty
+         * @param area the area of the profile
+         */
+        public Builder(Rectangle area) {
+            this.area = new Rectangle(area);
+            this.bottom = new short[area.width * area.height];
+            this.top = new short[area.width * area.height];
+        }
+
+        /**
+         * @param x x in world coords
+         * @param z z in world coords
+         * @param bottomHeight the bottom height (inclusive)
+         * @param topHeight the top height (exclusive)
+         * @return this
+         */
+        public Builder set(int x, int z, int bottomHeight, int topHeight) {
+            Preconditions.checkState(bottom != null, "profile has already been built");
+
+            int idx = index(area, x, z);
+            bottom[idx] = (short) bottomHeight;
+            top[idx] = (short) topHeight;
+            return this;
+        }
+
+        /**
+         * @return a profile with all heights that have been set so far
+         */
+        public HeightProfile build() {
+            Preconditions.checkState(bottom != null, "profile has already been built");
+
+            HeightProfile profile = new HeightProfile(area, bottom, top);
+            bottom = null;
+            top = null;
+            return profile;
+        }
+    }
+}
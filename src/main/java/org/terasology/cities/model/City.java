@@ -16,12 +16,16 @@
 
 package org.terasology.cities.model;
 
+import java.awt.Rectangle;
+import java.util.Collections;
 import java.util.Objects;
 import java.util.Set;
 
 import javax.vecmath.Point2i;
 import javax.vecmath.Vector2d;
 
+import org.terasology.cities.common.HeightRange;
+
 import com.google.common.collect.Sets;
 
 /**
@@ -30,10 +34,16 @@
  */
 public class City implements NamedArea {
 
+    /**
+     * Additional space around the city radius for structures at the border, e.g. towers of the town wall
+     */
+    private static final int BORDER = 8;
+
     private final Point2i coords;
     private final Set<Lot> lots = Sets.newHashSet();
     private String name;
     private int radius;
+    private final HeightRange heightRange;
 
     /**
      * @param name the name of the city
@@ -41,9 +51,20 @@ public class City implements NamedArea {
      * @param coords the world coordinate in blocks
      */
     public City(String name, Point2i coords, int radius) {
+        this(name, coords, radius, HeightRange.ALL);
+    }
+
+    /**
+     * @param name the name of the city
+     * @param radius the city radius in blocks
+     * @param coords the world coordinate in blocks
+     * @param heightRange the vertical extent of all blocks of the city
+     */
+    public City(String name, Point2i coords, int radius, HeightRange heightRange) {
         this.radius = radius;
         this.name = name;
         this.coords = new Point2i(coords);
+        this.heightRange = heightRange;
     }
 
     /**
@@ -67,6 +88,14 @@ public double getDiameter() {
         return this.radius * 2;
     }
 
+    /**
+     * @return the square area that contains all blocks of the city (a new instance)
+     */
+    public Rectangle getBounds() {
+        int rad = radius + BORDER;
+        return new Rectangle(coords.x - rad, coords.y - rad, 2 * rad + 1, 2 * rad + 1);
+    }
+
     /**
      * @return the radius of the city (in blocks)
      */
@@ -75,19 +104,27 @@ public double getRadius() {
     }
     
     /**
-     * @return all lots that are part of the city
+     * @return an unmodifiable view on all lots that are part of the city
      */
     public Set<Lot> getLots() {
-        return lots;
+        return Collections.unmodifiableSet(lots);
     }
 
     /**
+     * Cities are assembled during generation and must not be modified after they have been published
      * @param lot the lot to add
      */
     public void add(Lot lot) {
         this.lots.add(lot);
     }
 
+    /**
+     * @return the vertical extent of all blocks of the city (including foundations)
+     */
+    public HeightRange getHeightRange() {
+        return heightRange;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(coords, radius);
@@ -95,7 +132,16 @@ public int hashCode() {
 
     @Override
     public boolean equals(Object obj) {
-        return Objects.equals(coords, radius);
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+
+        City other = (City) obj;
+        return Objects.equals(coords, other.coords) && radius == other.radius;
     }
 
     @Override
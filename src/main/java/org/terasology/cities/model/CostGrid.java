@@ -0,0 +1,102 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.model;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+import org.terasology.cities.array.BitArray2D;
+
+/**
+ * An immutable, coarse raster of a sector that road routers use to compute travel costs.
+ * Every cell stores the terrain height at its center and a water flag.
+ * @author Martin Steiger
+ */
+public final class CostGrid {
+
+    private final Rectangle area;
+    private final int cellSize;
+    private final short[] heights;
+    private final BitArray2D water;
+
+    /**
+     * @param area the area that is covered in blocks
+     * @param cellSize the edge length of a cell in blocks
+     * @param heights the heights at the cell centers (row by row)
+     * @param water the water cells
+     */
+    public CostGrid(Rectangle area, int cellSize, short[] heights, BitArray2D water) {
+        int width = area.width / cellSize;
+        int height = area.height / cellSize;
+
+        if (heights.length != width * height || water.getWidth() != width || water.getHeight() != height) {
+            throw new IllegalArgumentException("Grid size does not match the area");
+        }
+
+        this.area = new Rectangle(area);
+        this.cellSize = cellSize;
+        this.heights = Arrays.copyOf(heights, heights.length);
+        this.water = water;
+    }
+
+    /**
+     * @return the area that is covered in blocks
+     */
+    public Rectangle getArea() {
+        return new Rectangle(area);
+    }
+
+    /**
+     * @return the edge length of a cell in blocks
+     */
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * @return the number of cells in x direction
+     */
+    public int getWidth() {
+        return water.getWidth();
+    }
+
+    /**
+     * @return the number of cells in z direction
+     */
+    public int getHeight() {
+        return water.getHeight();
+    }
+
+    /**
+     * @param cx the cell x coordinate (relative to the area)
+     * @param cz the cell z coordinate (relative to the area)
+     * @return the terrain height at the cell center
+     */
+    public int getTerrainHeight(int cx, int cz) {
+        return heights[cz * getWidth() + cx];
+    }
+
+    /**
+     * @param cx the cell x coordinate (relative to the area)
+     * @param cz the cell z coordinate (relative to the area)
+     * @return true if the cell is covered by water
+     */
+    public boolean isWater(int cx, int cz) {
+        return water.get(cx, cz);
+    }
+}
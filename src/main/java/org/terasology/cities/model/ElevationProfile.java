@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.model;
+
+import java.util.Arrays;
+
+/**
+ * An immutable height profile along the arc length of a road. Heights are sampled
+ * at regular intervals and linearly interpolated in between.
+ * @author Martin Steiger
+ */
+public final class ElevationProfile {
+
+    private final float[] heights;
+    private final double spacing;
+
+    /**
+     * @param heights the heights at arc lengths 0, spacing, 2 * spacing, .. (at least one)
+     * @param spacing the distance between two samples along the road
+     */
+    public ElevationProfile(float[] heights, double spacing) {
+        if (heights.length == 0) {
+            throw new IllegalArgumentException("At least one height sample is required");
+        }
+
+        this.heights = Arrays.copyOf(heights, heights.length);
+        this.spacing = spacing;
+    }
+
+    /**
+     * @return the length of the profile along the road
+     */
+    public double getLength() {
+        return (heights.length - 1) * spacing;
+    }
+
+    /**
+     * @param arcLength the distance from the start of the road (clamped to the profile length)
+     * @return the interpolated height
+     */
+    public float getHeight(double arcLength) {
+        double pos = arcLength / spacing;
+
+        if (!(pos > 0)) {
+            return heights[0];
+        }
+
+        int idx = (int) pos;
+        if (idx >= heights.length - 1) {
+            return heights[heights.length - 1];
+        }
+
+        float frac = (float) (pos - idx);
+        return heights[idx] + frac * (heights[idx + 1] - heights[idx]);
+    }
+
+    /**
+     * @param arcLength the distance from the start of the road
+     * @return the interpolated height, rounded to the closest block
+     */
+    public int getBlockHeight(double arcLength) {
+        return (int) Math.floor(getHeight(arcLength) + 0.5f);
+    }
+}
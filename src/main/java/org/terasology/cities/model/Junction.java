@@ -16,19 +16,16 @@
 
 package org.terasology.cities.model;
 
-import java.util.Collections;
-import java.util.Set;
+import java.util.Objects;
 
 import javax.vecmath.Point2i;
 
-import com.google.common.collect.Sets;
-
 /**
- * A site where two or more roads meet
+ * A site where two or more roads meet. Junctions are immutable,
+ * they do not keep track of the roads that are connected to them.
  * @author "Martin Steiger"
  */
-public class Junction {
-    private final Set<Road> roads = Sets.newHashSet();
+public final class Junction {
     
     private final Point2i coords;
     
@@ -40,28 +37,44 @@ public Junction(Point2i coords) {
     }
     
     /**
-     * @return the position coordinates in sectors
+     * @return the position coordinates in sectors (a copy)
      */
     public Point2i getCoords() {
-        return coords;
+        return new Point2i(coords);
     }
 
     /**
-     * @param road the road to add to this junction
+     * @return the x coordinate
      */
-    public void addRoad(Road road) {
-        roads.add(road);
+    public int getX() {
+        return coords.x;
     }
-    
+
     /**
-     * @return an unmodifiable view on the connected roads (can be empty, but never <code>null</code>)
+     * @return the y coordinate
      */
-     public Set<Road> getRoads() {
-        return Collections.unmodifiableSet(roads);
+    public int getY() {
+        return coords.y;
+    }
+
+    @Override
+    public int hashCode() {
+        return coords.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return Objects.equals(coords, ((Junction) obj).coords);
     }
     
     @Override
     public String toString() {
-        return "Junction [" + coords + ", " + roads.size() + " roads]";
+        return "Junction [" + coords + "]";
     }
 }
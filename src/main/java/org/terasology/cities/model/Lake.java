@@ -16,15 +16,19 @@
 
 package org.terasology.cities.model;
 
+import java.awt.Polygon;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 import javax.vecmath.Vector2d;
 import javax.vecmath.Vector3f;
 
+import org.terasology.cities.common.PolygonMask;
 import org.terasology.cities.contour.Contour;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 /**
@@ -33,9 +37,16 @@
  */
 public class Lake implements NamedArea {
 
+    /**
+     * The edge length of a mask cell in blocks
+     */
+    public static final int MASK_CELL_SIZE = 8;
+
     private final Contour contour;
     private final Set<Contour> islands = Sets.newHashSet();
     private final String name;
+
+    private volatile PolygonMask mask;
     
     /**
      * @param contour the contour of the lake (never <code>null</code>)
@@ -54,11 +65,27 @@ public String getName() {
     }
 
     /**
-     * Islands are considered part of the lake
+     * Islands are not considered part of the lake
      */
     @Override
     public boolean contains(Vector2d pos) {
-        return contour.isInside(pos.x, pos.y);
+        return getMask().contains(pos.x, pos.y);
+    }
+
+    /**
+     * @return the raster of the lake area without the islands
+     */
+    public PolygonMask getMask() {
+        PolygonMask result = mask;
+        if (result == null) {
+            List<Polygon> holes = Lists.newArrayList();
+            for (Contour island : islands) {
+                holes.add(island.getPolygon());
+            }
+            result = new PolygonMask(contour.getPolygon(), holes, MASK_CELL_SIZE);
+            mask = result;
+        }
+        return result;
     }
     
     /**
@@ -73,6 +100,7 @@ public Contour getContour() {
      */
     public void addIsland(Contour cont) {
         islands.add(cont);
+        mask = null;
     }
     
     /**
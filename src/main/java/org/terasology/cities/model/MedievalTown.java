@@ -18,6 +18,7 @@
 
 import javax.vecmath.Point2i;
 
+import org.terasology.cities.common.HeightRange;
 import org.terasology.cities.model.bldg.TownWall;
 
 import com.google.common.base.Optional;
@@ -39,6 +40,16 @@ public MedievalTown(String name, Point2i coords, int radius) {
         super(name, coords, radius);
     }
 
+    /**
+     * @param name the name of the city
+     * @param radius the city radius in blocks
+     * @param coords the world coordinate in blocks
+     * @param heightRange the vertical extent of all blocks of the city
+     */
+    public MedievalTown(String name, Point2i coords, int radius, HeightRange heightRange) {
+        super(name, coords, radius, heightRange);
+    }
+
     /**
      * @return the town wall, if available
      */
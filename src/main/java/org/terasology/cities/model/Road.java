@@ -16,52 +16,102 @@
 
 package org.terasology.cities.model;
 
-import java.util.Collections;
 import java.util.List;
 
 import javax.vecmath.Point2i;
 
-import com.google.common.collect.Lists;
+import org.terasology.cities.common.HeightRange;
+import org.terasology.cities.common.IntPolyline;
+
+import com.google.common.base.Optional;
 
 /**
  * A road contains a start and an end junction point and a list of points between them.
  * The point list goes from start to end, but does not contain the start and end points.
+ * Roads are immutable and can be shared between threads.
  * @author Martin Steiger
  */
-public class Road {
+public final class Road {
 
-    private final List<Point2i> points = Lists.newArrayList();
+    /**
+     * All points from start to end (inclusive)
+     */
+    private final IntPolyline path;
     private final Junction end;
     private final Junction start;
-    private double width = 1.0f;
+    private final double width;
+    private final HeightRange heightRange;
+    private final Optional<ElevationProfile> profile;
 
     /**
-     * The point list goes from start to end, but does not contain them
+     * Creates a road that spans all heights
      * @param start the start point
      * @param end the end point
+     * @param points the points between start and end (they are copied)
+     * @param width the width of the road in blocks
      */
-    public Road(Junction start, Junction end) {
-        this.start = start;
-        this.end = end;
-        
-        start.addRoad(this);
-        end.addRoad(this);
+    public Road(Junction start, Junction end, List<Point2i> points, double width) {
+        this(start, end, points, width, HeightRange.ALL);
+    }
+
+    /**
+     * @param start the start point
+     * @param end the end point
+     * @param points the points between start and end (they are copied)
+     * @param width the width of the road in blocks
+     * @param heightRange the vertical extent of all blocks of the road
+     */
+    public Road(Junction start, Junction end, List<Point2i> points, double width, HeightRange heightRange) {
+        this(start, end, points, width, heightRange, Optional.<ElevationProfile>absent());
     }
 
     /**
+     * @param start the start point
+     * @param end the end point
+     * @param points the points between start and end (they are copied)
      * @param width the width of the road in blocks
+     * @param heightRange the vertical extent of all blocks of the road
+     * @param profile the surface height along the road
      */
-    public void setWidth(double width) {
+    public Road(Junction start, Junction end, List<Point2i> points, double width, HeightRange heightRange, ElevationProfile profile) {
+        this(start, end, points, width, heightRange, Optional.of(profile));
+    }
+
+    private Road(Junction start, Junction end, List<Point2i> points, double width, HeightRange heightRange,
+            Optional<ElevationProfile> profile) {
+        this.start = start;
+        this.end = end;
         this.width = width;
+        this.heightRange = heightRange;
+        this.profile = profile;
+
+        IntPolyline.Builder builder = new IntPolyline.Builder(points.size() + 2);
+        builder.add(start.getX(), start.getY());
+        for (Point2i pt : points) {
+            builder.add(pt.x, pt.y);
+        }
+        builder.add(end.getX(), end.getY());
+        this.path = builder.build();
     }
-    
+
+    private Road(Road other, HeightRange heightRange, Optional<ElevationProfile> profile) {
+        this.start = other.start;
+        this.end = other.end;
+        this.width = other.width;
+        this.path = other.path;
+        this.heightRange = heightRange;
+        this.profile = profile;
+    }
+
     /**
-     * @param pt a point on the road
+     * @param newHeightRange the vertical extent of all blocks of the road
+     * @param newProfile the surface height along the road
+     * @return a new road that shares the points with this road
      */
-    public void add(Point2i pt) {
-        points.add(pt);
+    public Road withElevation(HeightRange newHeightRange, ElevationProfile newProfile) {
+        return new Road(this, newHeightRange, Optional.of(newProfile));
     }
-    
+
     /**
      * @return the end
      */
@@ -77,10 +127,18 @@ public Junction getStart() {
     }
 
     /**
-     * @return an unmodifiable view on the segment points (can be empty, but never <code>null</code>)
+     * @return an immutable list of the segment points (can be empty, but never <code>null</code>).
+     * Every access creates a new point instance.
      */
     public List<Point2i> getPoints() {
-        return Collections.unmodifiableList(points);
+        return path.asList().subList(1, path.size() - 1);
+    }
+
+    /**
+     * @return all points of the road, including the start and end junction
+     */
+    public IntPolyline getPath() {
+        return path;
     }
     
     /**
@@ -89,9 +147,23 @@ public List<Point2i> getPoints() {
     public double getWidth() {
         return width;
     }
-    
+
+    /**
+     * @return the vertical extent of all blocks of the road (including foundations)
+     */
+    public HeightRange getHeightRange() {
+        return heightRange;
+    }
+
+    /**
+     * @return the surface height along the road or absent() if it has not been computed
+     */
+    public Optional<ElevationProfile> getProfile() {
+        return profile;
+    }
+
     @Override
     public String toString() {
-        return "Road [" + start + " -> " + end + ", " + (points.size() + 1) + " segments]";
+        return "Road [" + start + " -> " + end + ", " + (path.size() - 1) + " segments]";
     }
 }
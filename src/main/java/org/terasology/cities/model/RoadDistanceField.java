@@ -0,0 +1,187 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.model;
+
+import java.awt.Rectangle;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * An immutable raster that stores the signed distance to the closest road edge
+ * (negative inside the road) and the surface height of the closest road centerline.
+ * Distances are stored as fixed-point shorts with a resolution of 1/{@value #SCALE} blocks.
+ * Only tiles of {@value #TILE_SIZE}x{@value #TILE_SIZE} blocks that are close to a road are stored.
+ * Every road blocks a band of its own width beyond its edge for other structures.
+ * @author Martin Steiger
+ */
+public final class RoadDistanceField {
+
+    /**
+     * The number of distance units per block
+     */
+    public static final int SCALE = 8;
+
+    /**
+     * The edge length of a tile in blocks
+     */
+    public static final int TILE_SIZE = 16;
+
+    /**
+     * Marks blocks that are not close to any road
+     */
+    public static final short FAR = Short.MAX_VALUE;
+
+    private final Rectangle area;
+    private final int tilesX;
+    private final short[][] distances;
+    private final short[][] heights;
+    private final long[][] blocked;
+
+    /**
+     * @param area the area that is covered by the field (must be a multiple of {@value #TILE_SIZE})
+     * @param distances the signed distances in 1/{@value #SCALE} blocks per tile (row-major, <code>null</code> if far from roads)
+     * @param heights the road surface heights per tile (row-major, <code>null</code> if far from roads)
+     * @param blocked one bit per block of a tile that is blocked for other structures (row-major, <code>null</code> if far from roads)
+     */
+    public RoadDistanceField(Rectangle area, short[][] distances, short[][] heights, long[][] blocked) {
+        Preconditions.checkArgument(area.width % TILE_SIZE == 0 && area.height % TILE_SIZE == 0,
+                "area must be a multiple of the tile size");
+        this.area = new Rectangle(area);
+        this.tilesX = area.width / TILE_SIZE;
+        this.distances = distances;
+        this.heights = heights;
+        this.blocked = blocked;
+    }
+
+    /**
+     * @return the area that is covered by the field
+     */
+    public Rectangle getArea() {
+        return new Rectangle(area);
+    }
+
+    /**
+     * @param x the x coordinate
+     * @param z the z coordinate
+     * @return the signed distance to the closest road edge in blocks or {@link Float#POSITIVE_INFINITY} if far from roads
+     */
+    public float getDistance(int x, int z) {
+        short dist = getRaw(x, z);
+        if (dist == FAR) {
+            return Float.POSITIVE_INFINITY;
+        }
+
+        return dist / (float) SCALE;
+    }
+
+    /**
+     * @param x the x coordinate
+     * @param z the z coordinate
+     * @return true if the block is part of a road surface
+     */
+    public boolean isRoad(int x, int z) {
+        return getRaw(x, z) <= 0;
+    }
+
+    /**
+     * @param x the x coordinate
+     * @param z the z coordinate
+     * @return the surface height of the closest road (only defined close to roads)
+     */
+    public int getHeight(int x, int z) {
+        short[] tile = heights[tileIndex(x, z)];
+        return (tile == null) ? 0 : tile[index(x, z)];
+    }
+
+    /**
+     * @param x the x coordinate
+     * @param z the z coordinate
+     * @return true if the block is too close to a road to be built on
+     */
+    public boolean isBlocked(int x, int z) {
+        if (!area.contains(x, z)) {
+            return false;
+        }
+
+        long[] tile = blocked[tileIndex(x, z)];
+        return tile != null && isSet(tile, index(x, z));
+    }
+
+    /**
+     * @param rc the rectangle to check
+     * @return true if at least one block in the rectangle is blocked
+     */
+    public boolean isBlocked(Rectangle rc) {
+        Rectangle isect = area.intersection(rc);
+        for (int z = isect.y; z < isect.y + isect.height; z++) {
+            for (int x = isect.x; x < isect.x + isect.width; x++) {
+                long[] tile = blocked[tileIndex(x, z)];
+                if (tile == null) {
+                    // skip the rest of the tile row
+                    x += TILE_SIZE - 1 - (x - area.x) % TILE_SIZE;
+                    continue;
+                }
+                if (isSet(tile, index(x, z))) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the approx. memory consumption in bytes
+     */
+    public int getMemoryFootprint() {
+        int bytes = (distances.length + heights.length + blocked.length) * 8;
+        for (int i = 0; i < distances.length; i++) {
+            if (distances[i] != null) {
+                bytes += distances[i].length * 2;
+            }
+            if (heights[i] != null) {
+                bytes += heights[i].length * 2;
+            }
+            if (blocked[i] != null) {
+                bytes += blocked[i].length * 8;
+            }
+        }
+        return bytes;
+    }
+
+    private static boolean isSet(long[] bits, int idx) {
+        return (bits[idx >> 6] & (1L << idx)) != 0;
+    }
+
+    private short getRaw(int x, int z) {
+        if (!area.contains(x, z)) {
+            return FAR;
+        }
+
+        short[] tile = distances[tileIndex(x, z)];
+        return (tile == null) ? FAR : tile[index(x, z)];
+    }
+
+    private int tileIndex(int x, int z) {
+        return ((z - area.y) / TILE_SIZE) * tilesX + (x - area.x) / TILE_SIZE;
+    }
+
+    private int index(int x, int z) {
+        return ((z - area.y) % TILE_SIZE) * TILE_SIZE + (x - area.x) % TILE_SIZE;
+    }
+}
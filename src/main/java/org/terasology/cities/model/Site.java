@@ -67,7 +67,16 @@ public int hashCode() {
 
     @Override
     public boolean equals(Object obj) {
-        return Objects.equals(coords, radius);
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+
+        Site other = (Site) obj;
+        return Objects.equals(coords, other.coords) && radius == other.radius;
     }
 
     @Override
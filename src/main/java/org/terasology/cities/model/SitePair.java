@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.model;
+
+import javax.vecmath.Point2i;
+
+/**
+ * An immutable pair of two sites in canonical order, so that [a, b] and [b, a]
+ * result in the same instance state. It is meant to be used as cache key:
+ * the site positions are packed into longs and the hash code is computed only once.
+ * @author Martin Steiger
+ */
+public final class SitePair {
+
+    private final Site a;
+    private final Site b;
+
+    private final long keyA;
+    private final long keyB;
+    private final int hash;
+
+    /**
+     * @param s1 one site
+     * @param s2 the other site
+     */
+    public SitePair(Site s1, Site s2) {
+        long k1 = pack(s1.getPos());
+        long k2 = pack(s2.getPos());
+
+        boolean swap = k1 > k2 || (k1 == k2 && s1.getRadius() > s2.getRadius());
+
+        this.a = swap ? s2 : s1;
+        this.b = swap ? s1 : s2;
+        this.keyA = swap ? k2 : k1;
+        this.keyB = swap ? k1 : k2;
+
+        long mixed = keyA * 31 + keyB;
+        this.hash = (int) (mixed ^ (mixed >>> 32));
+    }
+
+    /**
+     * @return the site with the smaller position (x first, then y)
+     */
+    public Site getA() {
+        return a;
+    }
+
+    /**
+     * @return the site with the larger position (x first, then y)
+     */
+    public Site getB() {
+        return b;
+    }
+
+    private static long pack(Point2i pos) {
+        // flip the sign bit of y so that the packed values are ordered by x, then y
+        return ((long) pos.x << 32) | ((pos.y ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof SitePair)) {
+            return false;
+        }
+
+        SitePair that = (SitePair) obj;
+
+        return keyA == that.keyA && keyB == that.keyB
+            && a.getRadius() == that.a.getRadius()
+            && b.getRadius() == that.b.getRadius();
+    }
+
+    @Override
+    public String toString() {
+        return "[" + a + ", " + b + "]";
+    }
+}
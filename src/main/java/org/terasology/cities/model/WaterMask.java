@@ -0,0 +1,220 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.model;
+
+import java.awt.Rectangle;
+import java.math.RoundingMode;
+import java.util.List;
+
+import org.terasology.cities.array.BitArray2D;
+
+import com.google.common.math.IntMath;
+
+/**
+ * An immutable, coarse raster of all lakes in an area, together with the lakes' bounding boxes.
+ * Segment tests are pruned by the bounding boxes first and then walk the raster cells
+ * that the segment passes through. Queries do not allocate memory.
+ * @author Martin Steiger
+ */
+public final class WaterMask {
+
+    private final int originX;
+    private final int originZ;
+    private final int cellSize;
+    private final BitArray2D cells;
+
+    /**
+     * minX, minZ, maxX, maxZ (exclusive) in blocks for each lake
+     */
+    private final int[] bounds;
+
+    /**
+     * @param area the area that is covered in blocks
+     * @param cellSize the edge length of a cell in blocks
+     * @param cells the water cells
+     * @param lakeBounds the bounding boxes of all lakes in blocks
+     */
+    public WaterMask(Rectangle area, int cellSize, BitArray2D cells, List<Rectangle> lakeBounds) {
+        this.originX = area.x;
+        this.originZ = area.y;
+        this.cellSize = cellSize;
+        this.cells = cells;
+        this.bounds = new int[lakeBounds.size() * 4];
+
+        for (int i = 0; i < lakeBounds.size(); i++) {
+            Rectangle rc = lakeBounds.get(i);
+            bounds[i * 4 + 0] = rc.x;
+            bounds[i * 4 + 1] = rc.y;
+            bounds[i * 4 + 2] = rc.x + rc.width;
+            bounds[i * 4 + 3] = rc.y + rc.height;
+        }
+    }
+
+    /**
+     * @return the edge length of a cell in blocks
+     */
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * @return the number of lakes
+     */
+    public int getLakeCount() {
+        return bounds.length / 4;
+    }
+
+    /**
+     * @param x the x coordinate in blocks
+     * @param z the z coordinate in blocks
+     * @return true if the block is in a water cell
+     */
+    public boolean isWater(int x, int z) {
+        int cx = IntMath.divide(x - originX, cellSize, RoundingMode.FLOOR);
+        int cz = IntMath.divide(z - originZ, cellSize, RoundingMode.FLOOR);
+
+        return isWaterCell(cx, cz);
+    }
+
+    /**
+     * @param x0 the start x coordinate in blocks
+     * @param z0 the start z coordinate in blocks
+     * @param x1 the end x coordinate in blocks
+     * @param z1 the end z coordinate in blocks
+     * @return true if the line segment touches at least one water cell
+     */
+    public boolean intersects(double x0, double z0, double x1, double z1) {
+        if (!hitsLakeBounds(x0, z0, x1, z1)) {
+            return false;
+        }
+
+        // convert to cell coordinates
+        double ax = (x0 - originX) / cellSize;
+        double az = (z0 - originZ) / cellSize;
+        double dx = (x1 - originX) / cellSize - ax;
+        double dz = (z1 - originZ) / cellSize - az;
+
+        // clip the segment against the raster (Liang-Barsky)
+        double t0 = 0;
+        double t1 = 1;
+
+        for (int i = 0; i < 4; i++) {
+            double p;
+            double q;
+            switch (i) {
+                case 0:
+                    p = -dx;
+                    q = ax;
+                    break;
+                case 1:
+                    p = dx;
+                    q = cells.getWidth() - ax;
+                    break;
+                case 2:
+                    p = -dz;
+                    q = az;
+                    break;
+                default:
+                    p = dz;
+                    q = cells.getHeight() - az;
+                    break;
+            }
+
+            if (p == 0) {
+                if (q < 0) {
+                    return false;
+                }
+            } else if (p < 0) {
+                t0 = Math.max(t0, q / p);
+            } else {
+                t1 = Math.min(t1, q / p);
+            }
+        }
+
+        if (t0 > t1) {
+            return false;
+        }
+
+        return traverse(ax + t0 * dx, az + t0 * dz, ax + t1 * dx, az + t1 * dz);
+    }
+
+    /**
+     * Visits all cells along the segment (Amanatides and Woo)
+     */
+    private boolean traverse(double sx, double sz, double ex, double ez) {
+        int cx = (int) Math.floor(sx);
+        int cz = (int) Math.floor(sz);
+        int endX = (int) Math.floor(ex);
+        int endZ = (int) Math.floor(ez);
+
+        double dx = ex - sx;
+        double dz = ez - sz;
+        int stepX = (dx > 0) ? 1 : -1;
+        int stepZ = (dz > 0) ? 1 : -1;
+
+        double tDeltaX = (dx != 0) ? Math.abs(1.0 / dx) : Double.POSITIVE_INFINITY;
+        double tDeltaZ = (dz != 0) ? Math.abs(1.0 / dz) : Double.POSITIVE_INFINITY;
+        double tMaxX = (dx != 0) ? ((stepX > 0 ? cx + 1 : cx) - sx) / dx : Double.POSITIVE_INFINITY;
+        double tMaxZ = (dz != 0) ? ((stepZ > 0 ? cz + 1 : cz) - sz) / dz : Double.POSITIVE_INFINITY;
+
+        int maxSteps = Math.abs(endX - cx) + Math.abs(endZ - cz) + 1;
+
+        for (int i = 0; i <= maxSteps; i++) {
+            if (isWaterCell(cx, cz)) {
+                return true;
+            }
+
+            if (cx == endX && cz == endZ) {
+                break;
+            }
+
+            if (tMaxX < tMaxZ) {
+                tMaxX += tDeltaX;
+                cx += stepX;
+            } else {
+                tMaxZ += tDeltaZ;
+                cz += stepZ;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean hitsLakeBounds(double x0, double z0, double x1, double z1) {
+        double minX = Math.min(x0, x1);
+        double minZ = Math.min(z0, z1);
+        double maxX = Math.max(x0, x1);
+        double maxZ = Math.max(z0, z1);
+
+        for (int i = 0; i < bounds.length; i += 4) {
+            if (maxX >= bounds[i] && minX <= bounds[i + 2] && maxZ >= bounds[i + 1] && minZ <= bounds[i + 3]) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isWaterCell(int cx, int cz) {
+        if (cx < 0 || cz < 0 || cx >= cells.getWidth() || cz >= cells.getHeight()) {
+            return false;
+        }
+
+        return cells.get(cx, cz);
+    }
+}
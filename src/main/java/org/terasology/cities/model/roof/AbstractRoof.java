@@ -18,6 +18,7 @@
 
 import java.awt.Shape;
 
+import org.terasology.cities.heightmap.HeightProfile;
 
 /**
  * An abstract base class for different roof types
@@ -28,6 +29,8 @@ public abstract class AbstractRoof implements Roof {
     private int baseHeight;
     private Shape shape;
 
+    private volatile HeightProfile profile;
+
     /**
      * @param shape the roof area
      * @param baseHeight the base height of the roof
@@ -51,4 +54,22 @@ public int getBaseHeight() {
     public Shape getArea() {
         return this.shape;
     }
+
+    /**
+     * The profile is computed on first access and then cached
+     * @return the bottom (inclusive) and top (exclusive) height of the roof for every column
+     */
+    public HeightProfile getProfile() {
+        HeightProfile result = profile;
+        if (result == null) {
+            result = createProfile();
+            profile = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return a new height profile of the roof
+     */
+    protected abstract HeightProfile createProfile();
 }
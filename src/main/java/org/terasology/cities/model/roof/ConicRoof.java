@@ -16,10 +16,14 @@
 
 package org.terasology.cities.model.roof;
 
+import java.awt.Rectangle;
 import java.awt.geom.Ellipse2D;
 
 import javax.vecmath.Point2i;
 
+import org.terasology.cities.heightmap.HeightProfile;
+import org.terasology.math.TeraMath;
+
 /**
  * A conic (circular base area) roof
  * @author Martin Steiger
@@ -50,5 +54,30 @@ public Ellipse2D getArea() {
     public int getPitch() {
         return pitch;
     }
+
+    @Override
+    protected HeightProfile createProfile() {
+        Ellipse2D area = getArea();
+        int centerX = (int) (area.getCenterX() + 0.5);
+        int centerY = (int) (area.getCenterY() + 0.5);
+        int rad = (int) (area.getWidth() * 0.5);
+
+        HeightProfile.Builder profile = new HeightProfile.Builder(new Rectangle(centerX - rad, centerY - rad, 2 * rad + 1, 2 * rad + 1));
+
+        for (int rz = -rad; rz <= rad; rz++) {
+            for (int rx = -rad; rx <= rad; rx++) {
+                if (rx * rx + rz * rz <= (rad + 0.5) * (rad + 0.5)) {
+
+                    // relative distance to border of the roof
+                    double dist = rad - Math.sqrt(rx * rx + rz * rz);
+
+                    int y = TeraMath.floorToInt(getBaseHeight() + dist * pitch);
+                    profile.set(centerX + rx, centerY + rz, y, y + 1);
+                }
+            }
+        }
+
+        return profile.build();
+    }
     
 }
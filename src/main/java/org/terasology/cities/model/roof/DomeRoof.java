@@ -18,6 +18,8 @@
 
 import java.awt.Rectangle;
 
+import org.terasology.cities.heightmap.HeightProfile;
+
 /**
  * A dome roof
  * @author Martin Steiger
@@ -44,5 +46,58 @@ public int getHeight() {
         return this.height;
     }
 
+//    The surface of an ellipsoid is defined as the set of points(x, y, z) that ..
+//    
+//     x^2     y^2     z^2
+//    ----- + ----- + ----- = 1
+//     a^2     b^2     c^2
+//    
+//
+//             (      x^2     z^2  )
+//   y^2 = b^2 ( 1 - ----- - ----- )
+//             (      a^2     c^2  )
+//    
+
+    @Override
+    protected HeightProfile createProfile() {
+        Rectangle area = getArea();
+        HeightProfile.Builder profile = new HeightProfile.Builder(area);
+        int baseHeight = getBaseHeight();
+
+        for (int z = area.y; z < area.y + area.height; z++) {
+            for (int x = area.x; x < area.x + area.width; x++) {
+                double y = getY(area, x + 0.5, z + 0.5);        // measure at block center
+
+                int top = baseHeight + (int) Math.max(1, y);
+                int bottom = baseHeight;
+
+                boolean border = x == area.x || z == area.y
+                        || x == area.x + area.width - 1 || z == area.y + area.height - 1;
+
+                if (!border) {
+                    bottom += (int) Math.max(0, y - 2);
+                }
+
+                profile.set(x, z, bottom, top);
+            }
+        }
+
+        return profile.build();
+    }
+
+    private double getY(Rectangle area, double rx, double rz) {
+        
+        double x = rx - area.x - area.width * 0.5;   // distance from the center
+        double z = rz - area.y - area.height * 0.5;
+        
+        double a = area.width * 0.5;
+        double b = height;
+        double c = area.height * 0.5;
+    
+        double y2 = b * b * (1 - (x * x) / (a * a) - (z * z) / (c * c));
+    
+        return Math.sqrt(y2);
+    }
+
     
 }
@@ -18,6 +18,8 @@
 
 import java.awt.Rectangle;
 
+import org.terasology.cities.heightmap.HeightProfile;
+
 /**
  * A flat roof with an extruded border (terrace roof)
  * @author Martin Steiger
@@ -45,4 +47,31 @@ public FlatRoof(Rectangle rc, int baseHeight, int borderHeight) {
     public int getBorderHeight(int lx, int lz) {
         return borderHeight;
     }
+
+    @Override
+    protected HeightProfile createProfile() {
+        Rectangle area = getArea();
+        HeightProfile.Builder profile = new HeightProfile.Builder(area);
+        int bottom = getBaseHeight();
+
+        for (int rz = 0; rz < area.height; rz++) {
+            for (int rx = 0; rx < area.width; rx++) {
+                int y = bottom + 1;       // at least one block thick
+
+                // distance to border of the roof
+                int borderDistX = Math.min(rx, area.width - 1 - rx);
+                int borderDistZ = Math.min(rz, area.height - 1 - rz);
+
+                int dist = Math.min(borderDistX, borderDistZ);
+
+                if (dist == 0) {
+                    y += getBorderHeight(rx, rz);
+                }
+
+                profile.set(area.x + rx, area.y + rz, bottom, y);
+            }
+        }
+
+        return profile.build();
+    }
 }
@@ -18,6 +18,9 @@
 
 import java.awt.Rectangle;
 
+import org.terasology.cities.heightmap.HeightProfile;
+import org.terasology.math.TeraMath;
+
 /**
  * A hip roof
  * @author Martin Steiger
@@ -63,4 +66,32 @@ public double getPitch() {
         return this.pitch;
     }
 
+    @Override
+    protected HeightProfile createProfile() {
+        Rectangle area = getArea();
+        HeightProfile.Builder profile = new HeightProfile.Builder(area);
+        int thickness = (int) pitch;
+
+        // this is the ground truth
+        // maxHeight = baseHeight + Math.min(cur.width, cur.height) * pitch / 2;
+
+        for (int rz = 0; rz < area.height; rz++) {
+            for (int rx = 0; rx < area.width; rx++) {
+
+                // distance to border of the roof
+                int borderDistX = Math.min(rx, area.width - 1 - rx);
+                int borderDistZ = Math.min(rz, area.height - 1 - rz);
+
+                int dist = Math.min(borderDistX, borderDistZ);
+
+                int y = TeraMath.floorToInt(getBaseHeight() + dist * pitch);
+                y = Math.min(y, maxHeight);
+
+                profile.set(area.x + rx, area.y + rz, y, y + thickness);
+            }
+        }
+
+        return profile.build();
+    }
+
 }
@@ -19,6 +19,10 @@
 import java.awt.Rectangle;
 
 import org.terasology.cities.common.Orientation;
+import org.terasology.cities.common.Rectangles;
+import org.terasology.cities.heightmap.HeightProfile;
+import org.terasology.math.TeraMath;
+import org.terasology.math.Vector2i;
 
 import com.google.common.base.Preconditions;
 
@@ -31,6 +35,8 @@ public class PentRoof extends RectangularRoof {
     private final double pitch;
     private final Orientation orientation;
 
+    private volatile HeightProfile gableProfile;
+
     /**
      * @param rc the roof shape
      * @param baseHeight the base height of the roof
@@ -59,5 +65,73 @@ public double getPitch() {
     public Orientation getOrientation() {
         return orientation;
     }
-    
+
+    /**
+     * The gables fill the space between the roof base height and the roof surface along the walls.
+     * The profile is computed on first access and then cached.
+     * @return the height profile of the gables
+     */
+    public HeightProfile getGableProfile() {
+        HeightProfile result = gableProfile;
+        if (result == null) {
+            result = createGableProfile();
+            gableProfile = result;
+        }
+        return result;
+    }
+
+    @Override
+    protected HeightProfile createProfile() {
+        Rectangle area = getArea();
+        HeightProfile.Builder profile = new HeightProfile.Builder(area);
+        Vector2i dir = orientation.getDir();
+        int thickness = TeraMath.ceilToInt(pitch);
+
+        for (int z = area.y; z < area.y + area.height; z++) {
+            for (int x = area.x; x < area.x + area.width; x++) {
+                int rx = x - area.x;
+                int rz = z - area.y;
+
+                if (dir.x < 0) {
+                    rx -= area.width;
+                }
+
+                if (dir.y < 0) {
+                    rz -= area.height;
+                }
+
+                int hx = rx * dir.x;
+                int hz = rz * dir.y;
+
+                int y = getBaseHeight() + TeraMath.floorToInt(Math.max(hx, hz) * pitch);
+
+                profile.set(x, z, y, y + thickness);
+            }
+        }
+
+        return profile.build();
+    }
+
+    private HeightProfile createGableProfile() {
+        Rectangle area = getArea();
+        Rectangle wallRect = Rectangles.expandRect(area, -1);
+        HeightProfile roofProfile = getProfile();
+        HeightProfile.Builder profile = new HeightProfile.Builder(area);
+
+        for (int z = area.y; z < area.y + area.height; z++) {
+            for (int x = area.x; x < area.x + area.width; x++) {
+                boolean onZ = (x == wallRect.x || x == wallRect.x + wallRect.width - 1);
+                boolean zOk = (z >= wallRect.y && z <= wallRect.y + wallRect.height - 1);
+
+                boolean onX = (z == wallRect.y || z == wallRect.y + wallRect.height - 1);
+                boolean xOk = (x >= wallRect.x && x <= wallRect.x + wallRect.width - 1);
+
+                if ((onZ && zOk) || (onX && xOk)) {
+                    profile.set(x, z, getBaseHeight(), roofProfile.getBottom(x, z));
+                }
+            }
+        }
+
+        return profile.build();
+    }
 }
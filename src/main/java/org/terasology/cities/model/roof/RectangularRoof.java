@@ -22,7 +22,7 @@
  * A roof with rectangular shape
  * @author Martin Steiger
  */
-public class RectangularRoof extends AbstractRoof {
+public abstract class RectangularRoof extends AbstractRoof {
     
     /**
      * @param rc the roof area
@@ -24,6 +24,7 @@
 import java.awt.Rectangle;
 
 import org.terasology.cities.common.Orientation;
+import org.terasology.cities.heightmap.HeightProfile;
 
 import com.google.common.base.Preconditions;
 
@@ -37,6 +38,8 @@ public class SaddleRoof extends RectangularRoof {
     
     private final Orientation orientation;
 
+    private volatile HeightProfile gableProfile;
+
     /**
      * @param shape the roof shape
      * @param baseHeight the base height of the roof
@@ -73,4 +76,76 @@ public Orientation getOrientation() {
         return orientation;
     }
 
+    /**
+     * The gables fill the space between the roof base height and the roof surface at the building border.
+     * The profile is computed on first access and then cached.
+     * @return the height profile of the gables
+     */
+    public HeightProfile getGableProfile() {
+        HeightProfile result = gableProfile;
+        if (result == null) {
+            result = createGableProfile();
+            gableProfile = result;
+        }
+        return result;
+    }
+
+    @Override
+    protected HeightProfile createProfile() {
+        Rectangle area = getArea();
+        HeightProfile.Builder profile = new HeightProfile.Builder(area);
+        boolean alongX = isAlongX();
+
+        for (int rz = 0; rz < area.height; rz++) {
+            for (int rx = 0; rx < area.width; rx++) {
+                int y = getBaseHeight();
+
+                // distance to border of the roof
+                int borderDistX = Math.min(rx, area.width - 1 - rx);
+                int borderDistZ = Math.min(rz, area.height - 1 - rz);
+
+                if (alongX) {
+                    y += borderDistZ / pitch;
+                } else {
+                    y += borderDistX / pitch;
+                }
+
+                profile.set(area.x + rx, area.y + rz, y - 1, y);
+            }
+        }
+
+        return profile.build();
+    }
+
+    private HeightProfile createGableProfile() {
+        Rectangle area = getArea();
+        HeightProfile roofProfile = getProfile();
+        HeightProfile.Builder profile = new HeightProfile.Builder(area);
+        boolean alongX = isAlongX();
+
+        for (int z = area.y; z < area.y + area.height; z++) {
+            for (int x = area.x; x < area.x + area.width; x++) {
+                boolean gable;
+                if (alongX) {
+                    int left = area.x + 1;                     // building border is +1
+                    int right = area.x + area.width - 1 - 1;   // building border is -1
+                    gable = (x == left || x == right);
+                } else {
+                    int top = area.y + 1;                      // building border is +1
+                    int bottom = area.y + area.height - 1 - 1; // building border is -1
+                    gable = (z == top || z == bottom);
+                }
+
+                if (gable) {
+                    profile.set(x, z, getBaseHeight(), roofProfile.getBottom(x, z));
+                }
+            }
+        }
+
+        return profile.build();
+    }
+
+    private boolean isAlongX() {
+        return orientation == EAST || orientation == WEST;
+    }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.cities.raster;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.terasology.cities.BlockTypes;
+import org.terasology.math.Side;
+import org.terasology.math.SideBitFlag;
+
+/**
+ * Packs a {@link BlockTypes} and an optional set of connected sides into a short.
+ * Code <code>0</code> is reserved for "nothing written".
+ * @author Martin Steiger
+ */
+public final class BlockCodes {
+
+    /**
+     * The code that indicates that no block was written
+     */
+    public static final short EMPTY = 0;
+
+    private static final int TYPE_MASK = 0x1F;
+    private static final int SIDE_FLAG = 0x20;
+    private static final int SIDE_SHIFT = 6;
+
+    private static final BlockTypes[] TYPES = BlockTypes.values();
+
+    private static final Set<Side>[] SIDES = createSideSets();
+
+    static {
+        if (TYPES.length >= TYPE_MASK) {
+            throw new IllegalStateException("Too many block types to encode: " + TYPES.length);
+        }
+    }
+
+    private BlockCodes() {
+        // private
+    }
+
+    /**
+     * @param type the block type
+     * @return the block code
+     */
+    public static short encode(BlockTypes type) {
+        return (short) (type.ordinal() + 1);
+    }
+
+    /**
+     * @param type the block type
+     * @param sides the connected sides
+     * @return the block code
+     */
+    public static short encode(BlockTypes type, Set<Side> sides) {
+        int flags = SideBitFlag.getSides(sides) & 0x3F;
+        return (short) ((type.ordinal() + 1) | SIDE_FLAG | (flags << SIDE_SHIFT));
+    }
+
+    /**
+     * @param code the block code (must not be {@link #EMPTY})
+     * @return the block type
+     */
+    public static BlockTypes getType(short code) {
+        return TYPES[(code & TYPE_MASK) - 1];
+    }
+
+    /**
+     * @param code the block code
+     * @return true if the code has a set of connected sides attached
+     */
+    public static boolean hasSides(short code) {
+        return (code & SIDE_FLAG) != 0;
+    }
+
+    /**
+     * @param code the block code
+     * @return the (unmodifiable) set of connected sides
+     */
+    public static Set<Side> getSides(short code) {
+        return SIDES[(code >> SIDE_SHIFT) & 0x3F];
+    }
+
+    /**
+     * Forwards a single block to the given brush
+     * @param brush the target brush
+     * @param x x in world coords
+     * @param y y in world coords
+     * @param z z in world coords
+     * @param code the block code (must not be {@link #EMPTY})
+     */
+    public static void apply(Brush brush, int x, int y, int z, short code) {
+        if (hasSides(code)) {
+            brush.setBlock(x, y, z, getType(code), getSides(code));
+        } else {
+            brush.setBlock(x, y, z, getType(code));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Side>[] createSideSets() {
+        Set<Side>[] sets = new Set[64];
+        for (int i = 0; i < sets.length; i++) {
+            EnumSet<Side> sides = SideBitFlag.getSides((byte) i);
+            sets[i] = Collections.unmodifiableSet(sides);
+        }
+        return sets;
+    }
+}
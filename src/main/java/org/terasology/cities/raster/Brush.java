@@ -25,6 +25,7 @@
 import org.terasology.cities.BlockTypes;
 import org.terasology.cities.common.LineUtilities;
 import org.terasology.cities.heightmap.HeightMap;
+import org.terasology.cities.heightmap.HeightProfile;
 import org.terasology.cities.heightmap.HeightMaps;
 import org.terasology.math.Side;
 import org.terasology.math.TeraMath;
@@ -59,13 +60,15 @@ public void fillShape(Shape shape, HeightMap hmBottom, HeightMap hmTop, BlockTyp
         }
         
         Rectangle rc = getIntersectionArea(shape.getBounds());
+        int minY = getMinHeight();
+        int maxY = getMaxHeight();
 
         for (int z = rc.y; z < rc.y + rc.height; z++) {
             for (int x = rc.x; x < rc.x + rc.width; x++) {
             
                 if (shape.contains(x, z)) {
-                    int y1 = hmBottom.apply(x, z);
-                    int y2 = hmTop.apply(x, z);
+                    int y1 = Math.max(minY, hmBottom.apply(x, z));
+                    int y2 = Math.min(maxY, hmTop.apply(x, z));
                     
                     for (int y = y1; y < y2; y++) {
                         setBlock(x, y, z, type);
@@ -162,11 +165,14 @@ public void fillRect(Rectangle rect, HeightMap hmBottom, HeightMap hmTop, BlockT
             return;
         }
 
+        int minY = getMinHeight();
+        int maxY = getMaxHeight();
+
         for (int z = rc.y; z < rc.y + rc.height; z++) {
             for (int x = rc.x; x < rc.x + rc.width; x++) {
 
-                int y1 = hmBottom.apply(x, z);
-                int y2 = hmTop.apply(x, z);
+                int y1 = Math.max(minY, hmBottom.apply(x, z));
+                int y2 = Math.min(maxY, hmTop.apply(x, z));
 
                 for (int y = y1; y < y2; y++) {
                     setBlock(x, y, z, type);
@@ -174,6 +180,34 @@ public void fillRect(Rectangle rect, HeightMap hmBottom, HeightMap hmTop, BlockT
             }
         }
     }
+    /**
+     * Fills all columns of a height profile
+     * @param profile the profile that defines bottom (inclusive) and top (exclusive) height per column
+     * @param type the block type
+     */
+    public void fillProfile(HeightProfile profile, BlockTypes type) {
+        Rectangle rc = getIntersectionArea(profile.getArea());
+
+        if (rc.isEmpty()) {
+            return;
+        }
+
+        int minY = getMinHeight();
+        int maxY = getMaxHeight();
+
+        for (int z = rc.y; z < rc.y + rc.height; z++) {
+            for (int x = rc.x; x < rc.x + rc.width; x++) {
+
+                int y1 = Math.max(minY, profile.getBottom(x, z));
+                int y2 = Math.min(maxY, profile.getTop(x, z));
+
+                for (int y = y1; y < y2; y++) {
+                    setBlock(x, y, z, type);
+                }
+            }
+        }
+    }
+
     /**
      * @param shape the shape to test
      * @return true if the shape can be affected by this brush
@@ -281,8 +315,14 @@ private void drawClippedLine(HeightMap hmBottom, HeightMap hmTop, int x1, int z1
         int x = x1;
         int z = z1;
         
+        int minY = getMinHeight();
+        int maxY = getMaxHeight();
+
         while (true) {
-            for (int y = hmBottom.apply(x, z); y < hmTop.apply(x, z); y++) {
+            int y1 = Math.max(minY, hmBottom.apply(x, z));
+            int y2 = Math.min(maxY, hmTop.apply(x, z));
+
+            for (int y = y1; y < y2; y++) {
                 setBlock(x, y, z, type);
             }
 
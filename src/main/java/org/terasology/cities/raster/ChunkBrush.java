@@ -16,9 +16,6 @@
 
 package org.terasology.cities.raster;
 
-import com.google.common.base.Preconditions;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.terasology.cities.BlockTheme;
 import org.terasology.cities.BlockTypes;
 import org.terasology.math.Side;
@@ -34,8 +31,6 @@
  */
 public class ChunkBrush extends Brush {
 
-    private static final Logger logger = LoggerFactory.getLogger(ChunkBrush.class);
-
     private final CoreChunk chunk;
     private final BlockTheme blockType;
     private final Rectangle affectedArea;
@@ -106,40 +101,13 @@ protected void setBlock(int x, int y, int z, Block block) {
         int ly = y - wy;
         int lz = z - wz;
 
-        // TODO: remove
-        final boolean debugging = true;
-        final boolean warnOnly = true;
-        if (debugging) {
-            boolean xOk = lx >= 0 && lx < chunk.getChunkSizeX();
-            boolean yOk = ly >= 0 && ly < chunk.getChunkSizeY();
-            boolean zOk = lz >= 0 && lz < chunk.getChunkSizeZ();
-
-            if (warnOnly) {
-                if (!xOk) {
-                    logger.warn("X value of {} not in range [{}..{}]", x, wx, wx + chunk.getChunkSizeX() - 1);
-                    return;
-                }
-
-                if (!yOk) {
-                    logger.warn("Y value of {} not in range [{}..{}]", y, wy, wy + chunk.getChunkSizeY() - 1);
-                    return;
-                }
-
-                if (!zOk) {
-                    logger.warn("Z value of {} not in range [{}..{}]", z, wz, wz + chunk.getChunkSizeZ() - 1);
-                    return;
-                }
-            } else {
-                Preconditions.checkArgument(xOk, "X value of %s not in range [%s..%s]", x, wx, wx + chunk.getChunkSizeX() - 1);
-                Preconditions.checkArgument(yOk, "Y value of %s not in range [%s..%s]", y, wy, wy + chunk.getChunkSizeY() - 1);
-                Preconditions.checkArgument(zOk, "Z value of %s not in range [%s..%s]", z, wz, wz + chunk.getChunkSizeZ() - 1);
-
-                // an exception will be thrown, so no code below this line will be executed
-            }
+        // blocks outside the chunk are silently ignored
+        if (lx < 0 || lx >= chunk.getChunkSizeX()
+         || ly < 0 || ly >= chunk.getChunkSizeY()
+         || lz < 0 || lz >= chunk.getChunkSizeZ()) {
+            return;
         }
 
-
         chunk.setBlock(lx, ly, lz, block);
-
     }
 }
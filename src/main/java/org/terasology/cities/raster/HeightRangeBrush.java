@@ -0,0 +1,131 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.cities.raster;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.util.Set;
+
+import org.terasology.cities.BlockTypes;
+import org.terasology.cities.common.HeightRange;
+import org.terasology.cities.heightmap.HeightMap;
+import org.terasology.cities.heightmap.HeightProfile;
+import org.terasology.math.Side;
+
+/**
+ * Does not write any blocks, but measures the vertical extent of everything that is drawn.
+ * Fill operations are evaluated per column, not per block.
+ * @author Martin Steiger
+ */
+public class HeightRangeBrush extends Brush {
+
+    private final Rectangle area;
+
+    private int minY = Integer.MAX_VALUE;
+    private int maxY = Integer.MIN_VALUE;
+
+    /**
+     * @param area the area that is measured
+     */
+    public HeightRangeBrush(Rectangle area) {
+        this.area = area;
+    }
+
+    @Override
+    public void fillShape(Shape shape, HeightMap hmBottom, HeightMap hmTop, BlockTypes type) {
+        if (!shape.intersects(area)) {
+            return;
+        }
+
+        Rectangle rc = getIntersectionArea(shape.getBounds());
+
+        for (int z = rc.y; z < rc.y + rc.height; z++) {
+            for (int x = rc.x; x < rc.x + rc.width; x++) {
+                if (shape.contains(x, z)) {
+                    addSpan(hmBottom.apply(x, z), hmTop.apply(x, z));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void fillRect(Rectangle rect, HeightMap hmBottom, HeightMap hmTop, BlockTypes type) {
+        Rectangle rc = getIntersectionArea(rect);
+
+        for (int z = rc.y; z < rc.y + rc.height; z++) {
+            for (int x = rc.x; x < rc.x + rc.width; x++) {
+                addSpan(hmBottom.apply(x, z), hmTop.apply(x, z));
+            }
+        }
+    }
+
+    @Override
+    public void fillProfile(HeightProfile profile, BlockTypes type) {
+        Rectangle rc = getIntersectionArea(profile.getArea());
+
+        for (int z = rc.y; z < rc.y + rc.height; z++) {
+            for (int x = rc.x; x < rc.x + rc.width; x++) {
+                addSpan(profile.getBottom(x, z), profile.getTop(x, z));
+            }
+        }
+    }
+
+    private void addSpan(int bottom, int top) {
+        if (bottom < top) {
+            minY = Math.min(minY, bottom);
+            maxY = Math.max(maxY, top);
+        }
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z, BlockTypes type) {
+        if (area.contains(x, z)) {
+            addSpan(y, y + 1);
+        }
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z, BlockTypes type, Set<Side> side) {
+        setBlock(x, y, z, type);
+    }
+
+    /**
+     * @return the vertical extent of everything that was drawn so far
+     */
+    public HeightRange getHeightRange() {
+        if (minY > maxY) {
+            return HeightRange.EMPTY;
+        }
+
+        return new HeightRange(minY, maxY);
+    }
+
+    @Override
+    public int getMaxHeight() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int getMinHeight() {
+        return Integer.MIN_VALUE;
+    }
+
+    @Override
+    public Rectangle getAffectedArea() {
+        return area;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.cities.raster;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.Set;
+
+import org.terasology.cities.BlockTypes;
+import org.terasology.math.Side;
+
+/**
+ * Records all blocks of an area into per-column buffers
+ * and compacts them into a {@link VoxelOverlay}. Later writes replace earlier ones.
+ * @author Martin Steiger
+ */
+public class OverlayBrush extends Brush {
+
+    private final Rectangle area;
+
+    private final short[][] columns;
+    private final int[] columnBase;
+
+    /**
+     * @param area the area that is recorded
+     */
+    public OverlayBrush(Rectangle area) {
+        this.area = new Rectangle(area);
+        this.columns = new short[area.width * area.height][];
+        this.columnBase = new int[area.width * area.height];
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z, BlockTypes type) {
+        record(x, y, z, BlockCodes.encode(type));
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z, BlockTypes type, Set<Side> side) {
+        record(x, y, z, BlockCodes.encode(type, side));
+    }
+
+    private void record(int x, int y, int z, short code) {
+        int lx = x - area.x;
+        int lz = z - area.y;
+
+        if (lx < 0 || lz < 0 || lx >= area.width || lz >= area.height) {
+            return;
+        }
+
+        if (y < getMinHeight() || y >= getMaxHeight()) {
+            return;
+        }
+
+        int idx = lz * area.width + lx;
+        short[] col = columns[idx];
+
+        if (col == null) {
+            col = new short[8];
+            columns[idx] = col;
+            columnBase[idx] = y;
+        }
+
+        int base = columnBase[idx];
+
+        if (y < base) {
+            int grow = Math.max(base - y, col.length / 2);
+            short[] larger = new short[col.length + grow];
+            System.arraycopy(col, 0, larger, grow, col.length);
+            col = larger;
+            base -= grow;
+            columns[idx] = col;
+            columnBase[idx] = base;
+        } else if (y - base >= col.length) {
+            col = Arrays.copyOf(col, Math.max(y - base + 1, col.length * 3 / 2));
+            columns[idx] = col;
+        }
+
+        col[y - base] = code;
+    }
+
+    /**
+     * @return the compacted run-length encoded representation of all recorded blocks
+     */
+    public VoxelOverlay build() {
+        int[] offsets = new int[columns.length + 1];
+
+        int runCount = 0;
+        for (int i = 0; i < columns.length; i++) {
+            offsets[i] = runCount;
+            runCount += countRuns(columns[i]);
+        }
+        offsets[columns.length] = runCount;
+
+        short[] runs = new short[runCount * VoxelOverlay.RUN_LENGTH];
+        int minY = Integer.MAX_VALUE;
+        int maxY = Integer.MIN_VALUE;
+
+        int pos = 0;
+        for (int i = 0; i < columns.length; i++) {
+            short[] col = columns[i];
+            if (col == null) {
+                continue;
+            }
+
+            int base = columnBase[i];
+            int y = 0;
+            while (y < col.length) {
+                short code = col[y];
+                int start = y;
+                while (y < col.length && col[y] == code) {
+                    y++;
+                }
+
+                if (code != BlockCodes.EMPTY) {
+                    runs[pos++] = (short) (base + start);
+                    runs[pos++] = (short) (y - start);
+                    runs[pos++] = code;
+                    minY = Math.min(minY, base + start);
+                    maxY = Math.max(maxY, base + y);
+                }
+            }
+        }
+
+        return new VoxelOverlay(area, offsets, runs, minY, maxY);
+    }
+
+    private static int countRuns(short[] col) {
+        if (col == null) {
+            return 0;
+        }
+
+        int count = 0;
+        short prev = BlockCodes.EMPTY;
+        for (short code : col) {
+            if (code != prev && code != BlockCodes.EMPTY) {
+                count++;
+            }
+            prev = code;
+        }
+        return count;
+    }
+
+    @Override
+    public int getMaxHeight() {
+        return Short.MAX_VALUE;
+    }
+
+    @Override
+    public int getMinHeight() {
+        return Short.MIN_VALUE;
+    }
+
+    @Override
+    public Rectangle getAffectedArea() {
+        return area;
+    }
+}
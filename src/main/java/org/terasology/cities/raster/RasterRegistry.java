@@ -25,14 +25,33 @@
 import com.google.common.collect.Maps;
 
 /**
- * A registration that controls who is responsible for which class of the model 
+ * A registration that controls who is responsible for which class of the model.
+ * Lookups are resolved once per class and then cached in a {@link ClassValue}.
  * @author Martin Steiger
  */
 public class RasterRegistry {
 
     private static final Logger logger = LoggerFactory.getLogger(RasterRegistry.class);
 
-    private final Map<Class<?>, Rasterizer<?>> map = Maps.newHashMap();
+    /**
+     * Indicates that no rasterizer is registered for a class 
+     */
+    private static final Rasterizer<Object> NONE = new Rasterizer<Object>() {
+        @Override
+        public void raster(Brush brush, TerrainInfo ti, Object element) {
+            logger.debug("No rasterizer found for object {} -- skipping", element);
+        }
+    };
+
+    private final Map<Class<?>, Rasterizer<?>> map = Maps.newConcurrentMap();
+
+    private final ClassValue<Rasterizer<?>> dispatch = new ClassValue<Rasterizer<?>>() {
+        @Override
+        protected Rasterizer<?> computeValue(Class<?> type) {
+            Rasterizer<?> raster = map.get(type);
+            return (raster != null) ? raster : NONE;
+        }
+    };
 
     /**
      * @param eleClass the domain model element
@@ -44,6 +63,7 @@ public <T> void register(Class<T> eleClass, Rasterizer<? super T> rasterizer) {
         }
 
         map.put(eleClass, rasterizer);
+        dispatch.remove(eleClass);
     }
 
     /**
@@ -60,19 +80,19 @@ public <T> Optional<Rasterizer<T>> getRasterizer(T obj) {
     }
 
     /**
-     * A convenience wrapper
+     * A convenience wrapper that does not allocate any memory
      * @param brush the brush to use
      * @param ti the terrain info
      * @param obj the object to rasterize
      */
     public <T> void rasterize(Brush brush, TerrainInfo ti, T obj) {
-        Optional<Rasterizer<T>> opt = getRasterizer(obj);
-        if (opt.isPresent()) {
-            Rasterizer<T> r = opt.get();
-            r.raster(brush, ti, obj);
-        } else {
-            logger.debug("No rasterizer found for object {} -- skipping", obj);
+        if (obj == null) {
+            logger.warn("Object is null -- skipping");
+            return;
         }
+
+        Rasterizer<T> r = (Rasterizer<T>) dispatch.get(obj.getClass());
+        r.raster(brush, ti, obj);
     }
 
     /**
@@ -80,8 +100,12 @@ public <T> void rasterize(Brush brush, TerrainInfo ti, T obj) {
      * @return the rasterizer, if available
      */
     public <T> Optional<Rasterizer<T>> getRasterizer(Class<T> objClass) {
-        Rasterizer<T> raster = (Rasterizer<T>) map.get(objClass);
+        Rasterizer<T> raster = (Rasterizer<T>) dispatch.get(objClass);
+
+        if (raster == NONE) {
+            return Optional.absent();
+        }
 
-        return Optional.fromNullable(raster);
+        return Optional.of(raster);
     }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.cities.raster;
+
+import java.awt.Rectangle;
+import java.math.RoundingMode;
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+import com.google.common.math.IntMath;
+
+/**
+ * An immutable, sparse block overlay that stores run-length encoded block columns.
+ * It is created by {@link OverlayBrush} and can be copied into any other {@link Brush}.
+ * It also keeps track of the brush areas (chunks) it has already been copied to.
+ * @author Martin Steiger
+ */
+public final class VoxelOverlay {
+
+    /**
+     * The number of shorts per run: (y, length, code)
+     */
+    static final int RUN_LENGTH = 3;
+
+    private final Rectangle area;
+    private final int[] offsets;
+    private final short[] runs;
+    private final int minY;
+    private final int maxY;
+
+    private final Set<Long> copied = Sets.newConcurrentHashSet();
+
+    VoxelOverlay(Rectangle area, int[] offsets, short[] runs, int minY, int maxY) {
+        this.area = area;
+        this.offsets = offsets;
+        this.runs = runs;
+        this.minY = minY;
+        this.maxY = maxY;
+    }
+
+    /**
+     * @return the area that is covered by this overlay
+     */
+    public Rectangle getArea() {
+        return new Rectangle(area);
+    }
+
+    /**
+     * @return true if the overlay does not contain any blocks
+     */
+    public boolean isEmpty() {
+        return runs.length == 0;
+    }
+
+    /**
+     * @return the approx. memory consumption in bytes
+     */
+    public int getMemoryFootprint() {
+        return runs.length * 2 + offsets.length * 4;
+    }
+
+    /**
+     * Copies all blocks that are in the brush's area and height range into the brush
+     * @param brush the target brush
+     */
+    public void copyTo(Brush brush) {
+        copyTo(brush, 0, 0, 0);
+    }
+
+    /**
+     * Copies all blocks that are in the brush's area and height range into the brush,
+     * translated by the given offset
+     * @param brush the target brush
+     * @param dx the offset in x direction
+     * @param dy the offset in y direction
+     * @param dz the offset in z direction
+     */
+    public void copyTo(Brush brush, int dx, int dy, int dz) {
+        if (isEmpty()) {
+            return;
+        }
+
+        Rectangle target = new Rectangle(area.x + dx, area.y + dz, area.width, area.height);
+        Rectangle rc = brush.getIntersectionArea(target);
+        // the brush height range in overlay coords (avoid int overflows)
+        int bottom = (int) Math.max(Short.MIN_VALUE, (long) brush.getMinHeight() - dy);
+        int top = (int) Math.min(Short.MAX_VALUE, (long) brush.getMaxHeight() - dy);
+
+        if (rc.isEmpty() || bottom >= maxY || top <= minY) {
+            return;
+        }
+
+        for (int z = rc.y; z < rc.y + rc.height; z++) {
+            for (int x = rc.x; x < rc.x + rc.width; x++) {
+                int idx = (z - target.y) * area.width + (x - target.x);
+
+                for (int r = offsets[idx]; r < offsets[idx + 1]; r++) {
+                    int pos = r * RUN_LENGTH;
+                    int y1 = Math.max(runs[pos], bottom) + dy;
+                    int y2 = Math.min(runs[pos] + runs[pos + 1], top) + dy;
+                    short code = runs[pos + 2];
+
+                    for (int y = y1; y < y2; y++) {
+                        BlockCodes.apply(brush, x, y, z, code);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param brush the brush
+     * @return true if the brush area and height range intersect with the overlay
+     */
+    public boolean intersects(Brush brush) {
+        return !isEmpty()
+            && brush.getMinHeight() < maxY && brush.getMaxHeight() > minY
+            && brush.getAffectedArea().intersects(area);
+    }
+
+    /**
+     * Marks the area of the given brush as copied. All brushes are expected to have
+     * the same (chunk) size and are aligned to a grid of that size.
+     * @param brush the brush that the overlay was copied to
+     * @return true if all brush areas that intersect with the overlay have been copied
+     */
+    public boolean markCopied(Brush brush) {
+        Rectangle rc = brush.getAffectedArea();
+        int sizeY = brush.getMaxHeight() - brush.getMinHeight();
+
+        int cx = IntMath.divide(rc.x, rc.width, RoundingMode.FLOOR);
+        int cy = IntMath.divide(brush.getMinHeight(), sizeY, RoundingMode.FLOOR);
+        int cz = IntMath.divide(rc.y, rc.height, RoundingMode.FLOOR);
+
+        long key = ((cx & 0x1FFFFFL) << 42) | ((cy & 0x1FFFFFL) << 21) | (cz & 0x1FFFFFL);
+        copied.add(key);
+
+        int countX = count(area.x, area.x + area.width, rc.width);
+        int countZ = count(area.y, area.y + area.height, rc.height);
+        int countY = count(minY, maxY, sizeY);
+
+        return copied.size() >= countX * countY * countZ;
+    }
+
+    /**
+     * @return the number of grid cells of the given size that intersect with [min..max)
+     */
+    private static int count(int min, int max, int size) {
+        return IntMath.divide(max - 1, size, RoundingMode.FLOOR) - IntMath.divide(min, size, RoundingMode.FLOOR) + 1;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.cities.raster;
+
+import java.awt.Rectangle;
+import java.util.Set;
+
+import org.terasology.cities.BlockTypes;
+import org.terasology.math.Side;
+
+/**
+ * Buffers all blocks in a primitive array and forwards them to the underlying brush
+ * only when {@link #flush()} is called. Later writes replace earlier ones, so every
+ * block is written at most once to the underlying brush.
+ * @author Martin Steiger
+ */
+public class WriteCombiningBrush extends Brush {
+
+    private final Brush target;
+    private final Rectangle area;
+    private final int minHeight;
+    private final int maxHeight;
+
+    private final short[] buffer;
+    private final boolean[] dirty;
+
+    private int writeCount;
+    private int pendingBlockCount;
+    private int flushedWriteCount;
+    private int flushedBlockCount;
+
+    /**
+     * @param target the brush that receives the combined writes
+     */
+    public WriteCombiningBrush(Brush target) {
+        this.target = target;
+        this.area = new Rectangle(target.getAffectedArea());
+        this.minHeight = target.getMinHeight();
+        this.maxHeight = target.getMaxHeight();
+        this.buffer = new short[area.width * area.height * (maxHeight - minHeight)];
+        this.dirty = new boolean[area.width * area.height];
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z, BlockTypes type) {
+        write(x, y, z, BlockCodes.encode(type));
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z, BlockTypes type, Set<Side> side) {
+        write(x, y, z, BlockCodes.encode(type, side));
+    }
+
+    private void write(int x, int y, int z, short code) {
+        int lx = x - area.x;
+        int ly = y - minHeight;
+        int lz = z - area.y;
+
+        if (lx < 0 || lz < 0 || lx >= area.width || lz >= area.height || ly < 0 || y >= maxHeight) {
+            return;
+        }
+
+        int column = lz * area.width + lx;
+        buffer[column * (maxHeight - minHeight) + ly] = code;
+        dirty[column] = true;
+        writeCount++;
+    }
+
+    /**
+     * @param x x in world coords
+     * @param y y in world coords
+     * @param z z in world coords
+     * @return the buffered block code at that position or {@link BlockCodes#EMPTY}
+     */
+    public short getCode(int x, int y, int z) {
+        int lx = x - area.x;
+        int ly = y - minHeight;
+        int lz = z - area.y;
+
+        if (lx < 0 || lz < 0 || lx >= area.width || lz >= area.height || ly < 0 || y >= maxHeight) {
+            return BlockCodes.EMPTY;
+        }
+
+        return buffer[(lz * area.width + lx) * (maxHeight - minHeight) + ly];
+    }
+
+    /**
+     * Writes the buffered blocks of a single column to the underlying brush and clears them.
+     * The column is then skipped in the next call to {@link #flush()}.
+     * @param x x in world coords
+     * @param z z in world coords
+     */
+    public void flushColumn(int x, int z) {
+        int column = (z - area.y) * area.width + (x - area.x);
+
+        if (!dirty[column]) {
+            return;
+        }
+
+        dirty[column] = false;
+        int idx = column * (maxHeight - minHeight);
+
+        for (int y = minHeight; y < maxHeight; y++) {
+            short code = buffer[idx];
+            if (code != BlockCodes.EMPTY) {
+                BlockCodes.apply(target, x, y, z, code);
+                buffer[idx] = BlockCodes.EMPTY;
+                pendingBlockCount++;
+            }
+            idx++;
+        }
+    }
+
+    /**
+     * Writes all buffered blocks to the underlying brush and clears the buffer
+     */
+    public void flush() {
+        for (int z = area.y; z < area.y + area.height; z++) {
+            for (int x = area.x; x < area.x + area.width; x++) {
+                flushColumn(x, z);
+            }
+        }
+
+        flushedWriteCount = writeCount;
+        flushedBlockCount = pendingBlockCount;
+        writeCount = 0;
+        pendingBlockCount = 0;
+    }
+
+    /**
+     * @return the number of buffered block writes before the last call to {@link #flush()} 
+     */
+    public int getWriteCount() {
+        return flushedWriteCount;
+    }
+
+    /**
+     * @return the number of blocks that were written to the underlying brush in the last call to {@link #flush()}
+     */
+    public int getBlockCount() {
+        return flushedBlockCount;
+    }
+
+    /**
+     * @return the ratio between buffered writes and blocks that were actually written in the last flush
+     * (1 if there was no overdraw at all)
+     */
+    public double getOverdrawFactor() {
+        if (flushedBlockCount == 0) {
+            return 1.0;
+        }
+
+        return (double) flushedWriteCount / flushedBlockCount;
+    }
+
+    @Override
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    @Override
+    public int getMinHeight() {
+        return minHeight;
+    }
+
+    @Override
+    public Rectangle getAffectedArea() {
+        return area;
+    }
+}
@@ -31,6 +31,17 @@
  */
 public class CityRasterizer implements Rasterizer<MedievalTown> {
 
+    private final RasterRegistry registry;
+    private final SimpleTownWallRasterizer townWallRasterizer;
+
+    /**
+     * @param registry the registry that is used to rasterize contained elements
+     */
+    public CityRasterizer(RasterRegistry registry) {
+        this.registry = registry;
+        this.townWallRasterizer = new SimpleTownWallRasterizer(registry);
+    }
+
     @Override
     public void raster(Brush brush, TerrainInfo ti, MedievalTown city) {
 
@@ -44,14 +55,12 @@ public void raster(Brush brush, TerrainInfo ti, MedievalTown city) {
             return;
         }
 
-        RasterRegistry registry = StandardRegistry.getInstance();
-        
         for (Lot lot : city.getLots()) {
             registry.rasterize(brush, ti, lot);
         }
         
         if (city.getTownWall().isPresent()) {
-            new SimpleTownWallRasterizer().raster(brush, ti, city.getTownWall().get());
+            townWallRasterizer.raster(brush, ti, city.getTownWall().get());
         }
     }
 }
@@ -16,16 +16,11 @@
 
 package org.terasology.cities.raster.standard;
 
-import java.awt.geom.Ellipse2D;
-
 import org.terasology.cities.BlockTypes;
-import org.terasology.cities.heightmap.HeightMap;
-import org.terasology.cities.heightmap.HeightMapAdapter;
 import org.terasology.cities.model.roof.ConicRoof;
 import org.terasology.cities.raster.Brush;
 import org.terasology.cities.raster.Rasterizer;
 import org.terasology.cities.raster.TerrainInfo;
-import org.terasology.math.TeraMath;
 
 /**
  * Converts a {@link ConicRoof} into blocks
@@ -34,33 +29,11 @@
 public class ConicRoofRasterizer implements Rasterizer<ConicRoof> {
     
     @Override
-    public void raster(Brush brush, TerrainInfo ti, final ConicRoof roof) {
-        final Ellipse2D area = roof.getArea();
-
-        if (!brush.affects(area)) {
+    public void raster(Brush brush, TerrainInfo ti, ConicRoof roof) {
+        if (!brush.affects(roof.getArea())) {
             return;
         }
-        
-        final int centerX = (int) (area.getCenterX() + 0.5);
-        final int centerY = (int) (area.getCenterY() + 0.5);
-        final int rad = (int) (area.getWidth() * 0.5);
-        
-        HeightMap hm = new HeightMapAdapter() {
-
-            @Override
-            public int apply(int x, int z) {
-                int rx = x - centerX;
-                int rz = z - centerY;
 
-                // relative distance to border of the roof
-                double dist = rad - Math.sqrt(rx * rx + rz * rz);
-
-                int y = TeraMath.floorToInt(roof.getBaseHeight() + dist * roof.getPitch());
-                return y;
-            }
-        };
-
-        brush.fillCircle(centerX, centerY, rad, hm, BlockTypes.ROOF_HIP);
+        brush.fillProfile(roof.getProfile(), BlockTypes.ROOF_HIP);
     }
-
 }
@@ -16,12 +16,7 @@
 
 package org.terasology.cities.raster.standard;
 
-import java.awt.Rectangle;
-
 import org.terasology.cities.BlockTypes;
-import org.terasology.cities.heightmap.HeightMap;
-import org.terasology.cities.heightmap.HeightMapAdapter;
-import org.terasology.cities.heightmap.HeightMaps;
 import org.terasology.cities.model.roof.FlatRoof;
 import org.terasology.cities.raster.Brush;
 import org.terasology.cities.raster.Rasterizer;
@@ -34,39 +29,11 @@
 public class FlatRoofRasterizer implements Rasterizer<FlatRoof> {
     
     @Override
-    public void raster(Brush brush, TerrainInfo ti, final FlatRoof roof) {
-        final Rectangle area = roof.getArea();
-
-        if (!brush.affects(area)) {
+    public void raster(Brush brush, TerrainInfo ti, FlatRoof roof) {
+        if (!brush.affects(roof.getArea())) {
             return;
         }
-        
-        HeightMap topHm = new HeightMapAdapter() {
-
-            @Override
-            public int apply(int x, int z) {
-                int rx = x - area.x;
-                int rz = z - area.y;
-
-                int y = roof.getBaseHeight() + 1;       // at least one block thick
 
-                // distance to border of the roof
-                int borderDistX = Math.min(rx, area.width - 1 - rx);
-                int borderDistZ = Math.min(rz, area.height - 1 - rz);
-
-                int dist = Math.min(borderDistX, borderDistZ);
-                
-                if (dist == 0) {
-                    y += roof.getBorderHeight(rx, rz);
-                }
-                
-                return y;
-            }
-        };
-
-        HeightMap bottomHm = HeightMaps.constant(roof.getBaseHeight());
-        
-        brush.fillRect(area, bottomHm, topHm, BlockTypes.ROOF_FLAT);
+        brush.fillProfile(roof.getProfile(), BlockTypes.ROOF_FLAT);
     }
-
 }
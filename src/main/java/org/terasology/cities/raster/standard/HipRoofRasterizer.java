@@ -16,17 +16,11 @@
 
 package org.terasology.cities.raster.standard;
 
-import java.awt.Rectangle;
-
 import org.terasology.cities.BlockTypes;
-import org.terasology.cities.heightmap.HeightMap;
-import org.terasology.cities.heightmap.HeightMapAdapter;
-import org.terasology.cities.heightmap.HeightMaps;
 import org.terasology.cities.model.roof.HipRoof;
 import org.terasology.cities.raster.Brush;
 import org.terasology.cities.raster.Rasterizer;
 import org.terasology.cities.raster.TerrainInfo;
-import org.terasology.math.TeraMath;
 
 /**
  * Converts a {@link HipRoof} into blocks
@@ -35,35 +29,11 @@
 public class HipRoofRasterizer implements Rasterizer<HipRoof> {
     
     @Override
-    public void raster(Brush brush, TerrainInfo ti, final HipRoof roof) {
-        final Rectangle area = roof.getArea();
-
-        if (!brush.affects(area)) {
+    public void raster(Brush brush, TerrainInfo ti, HipRoof roof) {
+        if (!brush.affects(roof.getArea())) {
             return;
         }
-        
-        // this is the ground truth
-        // maxHeight = baseHeight + Math.min(cur.width, cur.height) * pitch / 2;
-        
-        HeightMap hm = new HeightMapAdapter() {
-
-            @Override
-            public int apply(int x, int z) {
-                int rx = x - area.x;
-                int rz = z - area.y;
-
-                // distance to border of the roof
-                int borderDistX = Math.min(rx, area.width - 1 - rx);
-                int borderDistZ = Math.min(rz, area.height - 1 - rz);
 
-                int dist = Math.min(borderDistX, borderDistZ);
-
-                int y = TeraMath.floorToInt(roof.getBaseHeight() + dist * roof.getPitch());
-                return Math.min(y, roof.getMaxHeight());
-            }
-        };
-
-        brush.fillRect(area, hm, HeightMaps.offset(hm, (int) roof.getPitch()), BlockTypes.ROOF_HIP);
+        brush.fillProfile(roof.getProfile(), BlockTypes.ROOF_HIP);
     }
-
 }
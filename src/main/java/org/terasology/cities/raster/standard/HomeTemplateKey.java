@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.cities.raster.standard;
+
+import java.awt.Rectangle;
+import java.util.Collections;
+import java.util.List;
+
+import org.terasology.cities.model.bldg.SimpleDoor;
+import org.terasology.cities.model.bldg.SimpleHome;
+import org.terasology.cities.model.bldg.SimpleWindow;
+import org.terasology.cities.model.bldg.Window;
+import org.terasology.cities.model.roof.DomeRoof;
+import org.terasology.cities.model.roof.HipRoof;
+import org.terasology.cities.model.roof.PentRoof;
+import org.terasology.cities.model.roof.RectangularRoof;
+import org.terasology.cities.model.roof.Roof;
+import org.terasology.cities.model.roof.SaddleRoof;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+
+/**
+ * Describes the geometry of a {@link SimpleHome} relative to its layout origin and base height.
+ * Two homes with equal keys differ only by translation. The key keeps a reference to one
+ * sample home that can be used to create the template.
+ * @author Martin Steiger
+ */
+final class HomeTemplateKey {
+
+    private static final Ordering<Iterable<Integer>> WINDOW_ORDER = Ordering.<Integer>natural().lexicographical();
+
+    private final List<Object> values;
+    private final SimpleHome sample;
+
+    private HomeTemplateKey(List<Object> values, SimpleHome sample) {
+        this.values = values;
+        this.sample = sample;
+    }
+
+    /**
+     * @param home the home
+     * @return the template key or absent if the home contains elements that are not supported
+     */
+    public static Optional<HomeTemplateKey> create(SimpleHome home) {
+        Rectangle rc = home.getLayout();
+        int ox = rc.x;
+        int oy = home.getBaseHeight();
+        int oz = rc.y;
+
+        ImmutableList.Builder<Object> builder = ImmutableList.builder();
+        builder.add(rc.width, rc.height, home.getWallHeight());
+
+        SimpleDoor door = home.getDoor();
+        addRect(builder, door.getRect(), ox, oz);
+        builder.add(door.getBaseHeight() - oy, door.getTopHeight() - oy);
+
+        List<List<Integer>> windows = Lists.newArrayList();
+        for (Window wnd : home.getWindows()) {
+            if (!(wnd instanceof SimpleWindow)) {
+                return Optional.absent();
+            }
+            SimpleWindow sw = (SimpleWindow) wnd;
+            Rectangle wr = sw.getRect();
+            windows.add(ImmutableList.of(wr.x - ox, wr.y - oz, wr.width, wr.height, sw.getBaseHeight() - oy, sw.getTopHeight() - oy));
+        }
+        Collections.sort(windows, WINDOW_ORDER);
+        builder.add(windows);
+
+        Roof roof = home.getRoof();
+        if (!(roof instanceof RectangularRoof)) {
+            return Optional.absent();
+        }
+
+        RectangularRoof rr = (RectangularRoof) roof;
+        builder.add(roof.getClass());
+        addRect(builder, rr.getArea(), ox, oz);
+        builder.add(rr.getBaseHeight() - oy);
+
+        if (roof instanceof HipRoof) {
+            HipRoof hip = (HipRoof) roof;
+            int maxHeight = hip.getMaxHeight();
+            builder.add(hip.getPitch(), (maxHeight == Integer.MAX_VALUE) ? maxHeight : maxHeight - oy);
+        } else if (roof instanceof DomeRoof) {
+            builder.add(((DomeRoof) roof).getHeight());
+        } else if (roof instanceof SaddleRoof) {
+            SaddleRoof saddle = (SaddleRoof) roof;
+            builder.add(saddle.getOrientation(), saddle.getPitch());
+        } else if (roof instanceof PentRoof) {
+            PentRoof pent = (PentRoof) roof;
+            builder.add(pent.getOrientation(), pent.getPitch());
+        } else {
+            return Optional.absent();
+        }
+
+        return Optional.of(new HomeTemplateKey(builder.build(), home));
+    }
+
+    private static void addRect(ImmutableList.Builder<Object> builder, Rectangle rc, int ox, int oz) {
+        builder.add(rc.x - ox, rc.y - oz, rc.width, rc.height);
+    }
+
+    /**
+     * @return a home that matches this key
+     */
+    public SimpleHome getSample() {
+        return sample;
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return values.equals(((HomeTemplateKey) obj).values);
+    }
+}
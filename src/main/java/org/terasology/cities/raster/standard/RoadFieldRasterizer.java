@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.raster.standard;
+
+import java.awt.Rectangle;
+
+import org.terasology.cities.BlockTypes;
+import org.terasology.cities.heightmap.HeightMap;
+import org.terasology.cities.model.RoadDistanceField;
+import org.terasology.cities.raster.Brush;
+import org.terasology.cities.raster.Rasterizer;
+import org.terasology.cities.raster.TerrainInfo;
+
+/**
+ * Draws road surfaces on the terrain based on a {@link RoadDistanceField}
+ * @author Martin Steiger
+ */
+public class RoadFieldRasterizer implements Rasterizer<RoadDistanceField> {
+
+    @Override
+    public void raster(Brush brush, TerrainInfo ti, RoadDistanceField field) {
+        Rectangle rc = brush.getIntersectionArea(field.getArea());
+        HeightMap hm = ti.getHeightMap();
+
+        for (int z = rc.y; z < rc.y + rc.height; z++) {
+            for (int x = rc.x; x < rc.x + rc.width; x++) {
+                if (field.isRoad(x, z)) {
+                    int road = field.getHeight(x, z);
+                    int terrain = hm.apply(x, z);
+
+                    // clear area above floor level
+                    fill(brush, x, z, road, terrain + 1, BlockTypes.AIR);
+                    fill(brush, x, z, road, road + 1, BlockTypes.ROAD_SURFACE);
+                    fill(brush, x, z, terrain, road, BlockTypes.BUILDING_FOUNDATION);
+                }
+            }
+        }
+    }
+
+    private static void fill(Brush brush, int x, int z, int bottom, int top, BlockTypes type) {
+        int y1 = Math.max(brush.getMinHeight(), bottom);
+        int y2 = Math.min(brush.getMaxHeight(), top);
+
+        for (int y = y1; y < y2; y++) {
+            brush.setBlock(x, y, z, type);
+        }
+    }
+}
@@ -17,27 +17,20 @@
 package org.terasology.cities.raster.standard;
 
 import java.awt.BasicStroke;
-import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.geom.Line2D;
-import java.util.List;
-
-import javax.vecmath.Point2i;
-import javax.vecmath.Point3d;
 
 import org.terasology.cities.BlockTypes;
-import org.terasology.cities.common.BoundingBox;
-import org.terasology.cities.common.Plane2d;
+import org.terasology.cities.common.IntPolyline;
+import org.terasology.cities.generator.ElevationProfileGenerator;
 import org.terasology.cities.heightmap.HeightMap;
 import org.terasology.cities.heightmap.HeightMapAdapter;
 import org.terasology.cities.heightmap.HeightMaps;
+import org.terasology.cities.model.ElevationProfile;
 import org.terasology.cities.model.Road;
 import org.terasology.cities.raster.Brush;
 import org.terasology.cities.raster.Rasterizer;
 import org.terasology.cities.raster.TerrainInfo;
-import org.terasology.math.TeraMath;
-
-import com.google.common.collect.Lists;
 
 /**
  * Draws road shapes on the terrain surface
@@ -47,14 +40,10 @@ public class RoadRasterizer implements Rasterizer<Road> {
 
     @Override
     public void raster(Brush brush, TerrainInfo ti, Road road) {
-        List<Point2i> pts = Lists.newArrayList(road.getPoints());
+        IntPolyline path = road.getPath();
 
-        pts.add(0, road.getStart().getCoords());
-        pts.add(road.getEnd().getCoords());
-        
         // if not affected, exit now 
-        Rectangle rc = BoundingBox.getBoundingRect(pts).get();
-        if (!brush.affects(rc)) {
+        if (!brush.affects(path.getBounds())) {
             return;
         }
 
@@ -63,25 +52,23 @@ public void raster(Brush brush, TerrainInfo ti, Road road) {
         int join = BasicStroke.JOIN_ROUND;  // connected path segments
         BasicStroke thick = new BasicStroke(strokeWidth, cap, join);
 
-        for (int i = 0; i < pts.size() - 1; i++) {
-            Point2i p0 = pts.get(i + 0);
-            Point2i p1 = pts.get(i + 1);
+        ElevationProfile profile = road.getProfile().isPresent()
+                ? road.getProfile().get()
+                : new ElevationProfileGenerator(ti.getHeightMap()).apply(road);
+
+        double arcStart = 0;
+        for (int i = 0; i < path.size() - 1; i++) {
+            int x0 = path.getX(i);
+            int z0 = path.getY(i);
+            int x1 = path.getX(i + 1);
+            int z1 = path.getY(i + 1);
 
-            Line2D line = new Line2D.Double(p0.x, p0.y, p1.x, p1.y);
+            Line2D line = new Line2D.Double(x0, z0, x1, z1);
             Shape shape = thick.createStrokedShape(line);
 
-            Point3d start = new Point3d(p0.x, p0.y, ti.getHeightMap().apply(p0.x, p0.y));
-            Point3d end = new Point3d(p1.x, p1.y, ti.getHeightMap().apply(p1.x, p1.y));
-            
-            final Plane2d plane = new Plane2d(start, end);
-            HeightMap hm = new HeightMapAdapter() {
-                
-                @Override
-                public int apply(int x, int z) {
-                    return TeraMath.ceilToInt(plane.getZ(x, z));
-                }
-            };
-            
+            HeightMap hm = new ProfileHeightMap(profile, x0, z0, x1, z1, arcStart);
+            arcStart += path.getSegmentLength(i);
+
             // clear area above floor level
             brush.fillShape(shape, hm, HeightMaps.offset(ti.getHeightMap(), 1), BlockTypes.AIR);
             brush.fillShape(shape, hm, 1, BlockTypes.ROAD_SURFACE);
@@ -89,4 +76,33 @@ public int apply(int x, int z) {
         }
     }
 
+    /**
+     * Projects (x, z) onto the segment and looks up the road height at that arc length
+     */
+    private static final class ProfileHeightMap extends HeightMapAdapter {
+        private final ElevationProfile profile;
+        private final int x0;
+        private final int z0;
+        private final double dx;
+        private final double dz;
+        private final double lengthSq;
+        private final double arcStart;
+
+        ProfileHeightMap(ElevationProfile profile, int x0, int z0, int x1, int z1, double arcStart) {
+            this.profile = profile;
+            this.x0 = x0;
+            this.z0 = z0;
+            this.dx = x1 - x0;
+            this.dz = z1 - z0;
+            this.lengthSq = dx * dx + dz * dz;
+            this.arcStart = arcStart;
+        }
+
+        @Override
+        public int apply(int x, int z) {
+            double lambda = (lengthSq > 0) ? ((x - x0) * dx + (z - z0) * dz) / lengthSq : 0;
+            lambda = Math.max(0, Math.min(1, lambda));
+            return profile.getBlockHeight(arcStart + lambda * Math.sqrt(lengthSq));
+        }
+    }
 }
@@ -35,6 +35,15 @@
  * @author Martin Steiger
  */
 public class RoundHouseRasterizer implements Rasterizer<RoundHouse> {
+
+    private final RasterRegistry registry;
+
+    /**
+     * @param registry the registry that is used to rasterize contained elements
+     */
+    public RoundHouseRasterizer(RasterRegistry registry) {
+        this.registry = registry;
+    }
     
     @Override
     public void raster(final Brush brush, TerrainInfo ti, final RoundHouse house) {
@@ -87,8 +96,6 @@ public void draw(int x, int z) {
         SimpleDoor door = house.getDoor();
         brush.fillRect(door.getRect(), door.getBaseHeight() + 1, door.getTopHeight() + 1, BlockTypes.AIR);
 
-        RasterRegistry registry = StandardRegistry.getInstance();
-
         // windows
         for (Window wnd : house.getWindows()) {
             registry.rasterize(brush, ti, wnd);
@@ -16,15 +16,7 @@
 
 package org.terasology.cities.raster.standard;
 
-import static org.terasology.cities.common.Orientation.EAST;
-import static org.terasology.cities.common.Orientation.WEST;
-
-import java.awt.Rectangle;
-
 import org.terasology.cities.BlockTypes;
-import org.terasology.cities.heightmap.HeightMap;
-import org.terasology.cities.heightmap.HeightMapAdapter;
-import org.terasology.cities.heightmap.HeightMaps;
 import org.terasology.cities.model.roof.SaddleRoof;
 import org.terasology.cities.raster.Brush;
 import org.terasology.cities.raster.Rasterizer;
@@ -37,66 +29,12 @@
 public class SaddleRoofRasterizer implements Rasterizer<SaddleRoof> {
     
     @Override
-    public void raster(Brush brush, TerrainInfo ti, final SaddleRoof roof) {
-        final Rectangle area = roof.getArea();
-
-        if (!brush.affects(area)) {
+    public void raster(Brush brush, TerrainInfo ti, SaddleRoof roof) {
+        if (!brush.affects(roof.getArea())) {
             return;
         }
-        
-        final boolean alongX = roof.getOrientation() == EAST || roof.getOrientation() == WEST;
-        
-        final HeightMap topHm = new HeightMapAdapter() {
-
-            @Override
-            public int apply(int x, int z) {
-                int rx = x - area.x;
-                int rz = z - area.y;
-
-                int y = roof.getBaseHeight();
-
-                // distance to border of the roof
-                int borderDistX = Math.min(rx, area.width - 1 - rx);
-                int borderDistZ = Math.min(rz, area.height - 1 - rz);
-
-                if (alongX) {
-                    y += borderDistZ / roof.getPitch();
-                } else {
-                    y += borderDistX / roof.getPitch();
-                }
-                
-                return y;
-            }
-        };
-
-        final HeightMap bottomHm = HeightMaps.offset(topHm, -1);
-        
-        brush.fillRect(area, bottomHm, topHm, BlockTypes.ROOF_SADDLE);
-        
-        HeightMap gableBottomHm = new HeightMapAdapter() {
 
-            @Override
-            public int apply(int x, int z) {
-                int h0 = roof.getBaseHeight();
-                if (alongX) {
-                    int left = area.x + 1;                     // building border is +1
-                    int right = area.x + area.width - 1 - 1;   // building border is -1
-                    
-                    if (x == left || x == right) {
-                        return h0;
-                    }
-                } else {
-                    int top = area.y + 1;                      // building border is +1
-                    int bottom = area.y + area.height - 1 - 1; // building border is -1
-                    if (z == top || z == bottom) {
-                        return h0;
-                    }
-                }
-                
-                return bottomHm.apply(x, z);        // return top-height to get a no-op
-            }
-        };
-        
-        brush.fillRect(area, gableBottomHm, bottomHm, BlockTypes.ROOF_GABLE);
+        brush.fillProfile(roof.getProfile(), BlockTypes.ROOF_SADDLE);
+        brush.fillProfile(roof.getGableProfile(), BlockTypes.ROOF_GABLE);
     }
 }
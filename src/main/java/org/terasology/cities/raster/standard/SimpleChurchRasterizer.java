@@ -35,16 +35,22 @@
  */
 public class SimpleChurchRasterizer extends AbstractRasterizer<SimpleChurch> {
 
+    private final RasterRegistry registry;
+
+    /**
+     * @param registry the registry that is used to rasterize contained elements
+     */
+    public SimpleChurchRasterizer(RasterRegistry registry) {
+        this.registry = registry;
+    }
+
     @Override
     public void raster(Brush brush, TerrainInfo ti, SimpleChurch blg) {
         
         for (BuildingPart bp : blg.getParts()) {
             rasterBuildingPart(brush, ti, (SimpleBuildingPart)bp);
-            rasterBuildingPart(brush, ti, (SimpleBuildingPart)bp);
         }
         
-        RasterRegistry registry = StandardRegistry.getInstance();
-
         // windows
         for (Window wnd : blg.getWindows()) {
             registry.rasterize(brush, ti, wnd);
@@ -66,8 +72,6 @@ private void rasterBuildingPart(Brush brush, TerrainInfo ti, SimpleBuildingPart
         Roof roof = part.getRoof();
         
         if (brush.affects(roof.getArea())) {
-            RasterRegistry registry = StandardRegistry.getInstance();
-
             registry.rasterize(brush, ti, roof);
         }
     }
@@ -23,30 +23,116 @@
 import org.terasology.cities.model.bldg.SimpleHome;
 import org.terasology.cities.model.bldg.Window;
 import org.terasology.cities.raster.Brush;
+import org.terasology.cities.raster.OverlayBrush;
 import org.terasology.cities.raster.RasterRegistry;
 import org.terasology.cities.raster.TerrainInfo;
+import org.terasology.cities.raster.VoxelOverlay;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.Weigher;
 
 /**
- * Converts a {@link SimpleHome} into blocks
+ * Converts a {@link SimpleHome} into blocks. Walls, door, windows and roof are rasterized
+ * only once per distinct home geometry into a voxel template that is shared by all towns.
+ * Only the terrain-dependent foundation is created for every home.
  * @author Martin Steiger
  */
 public class SimpleHomeRasterizer extends AbstractRasterizer<SimpleHome> {
 
+    /**
+     * The max. memory used by cached templates (in bytes)
+     */
+    private static final long MAX_TEMPLATE_MEMORY = 16 * 1024 * 1024;
+
+    private final RasterRegistry registry;
+
+    private final LoadingCache<HomeTemplateKey, HomeTemplate> templates;
+
+    /**
+     * @param registry the registry that is used to rasterize contained elements
+     */
+    public SimpleHomeRasterizer(RasterRegistry registry) {
+        this.registry = registry;
+
+        templates = CacheBuilder.newBuilder()
+                .maximumWeight(MAX_TEMPLATE_MEMORY)
+                .weigher(new Weigher<HomeTemplateKey, HomeTemplate>() {
+                    @Override
+                    public int weigh(HomeTemplateKey key, HomeTemplate value) {
+                        return value.overlay.getMemoryFootprint();
+                    }
+                })
+                .build(new CacheLoader<HomeTemplateKey, HomeTemplate>() {
+                    @Override
+                    public HomeTemplate load(HomeTemplateKey key) {
+                        return createTemplate(key.getSample());
+                    }
+                });
+    }
+
     @Override
     public void raster(Brush brush, TerrainInfo ti, SimpleHome blg) {
+        Optional<HomeTemplateKey> key = HomeTemplateKey.create(blg);
+
+        if (!key.isPresent()) {
+            rasterDirect(brush, ti, blg);
+            return;
+        }
+
+        Rectangle rc = blg.getLayout();
+
+        if (brush.affects(rc)) {
+            prepareFloor(brush, rc, ti.getHeightMap(), blg.getBaseHeight(), BlockTypes.BUILDING_FLOOR);
+        }
+
+        HomeTemplate template = templates.getUnchecked(key.get());
+        int dx = rc.x - template.originX;
+        int dy = blg.getBaseHeight() - template.originY;
+        int dz = rc.y - template.originZ;
+        template.overlay.copyTo(brush, dx, dy, dz);
+    }
+
+    /**
+     * Rasterizes the home without using a template
+     * @param brush the brush to use
+     * @param ti the terrain info
+     * @param blg the home
+     */
+    void rasterDirect(Brush brush, TerrainInfo ti, SimpleHome blg) {
+        Rectangle rc = blg.getLayout();
+
+        if (brush.affects(rc)) {
+            prepareFloor(brush, rc, ti.getHeightMap(), blg.getBaseHeight(), BlockTypes.BUILDING_FLOOR);
+        }
+
+        rasterStructure(brush, ti, blg);
+    }
+
+    private HomeTemplate createTemplate(SimpleHome blg) {
+        Rectangle rc = blg.getLayout();
+        Rectangle area = rc.union(blg.getRoof().getArea().getBounds());
+
+        OverlayBrush brush = new OverlayBrush(area);
+
+        // the structure does not depend on the terrain
+        rasterStructure(brush, null, blg);
+
+        return new HomeTemplate(brush.build(), rc.x, blg.getBaseHeight(), rc.y);
+    }
+
+    private void rasterStructure(Brush brush, TerrainInfo ti, SimpleHome blg) {
         Rectangle rc = blg.getLayout();
-        
-        RasterRegistry registry = StandardRegistry.getInstance();
 
         if (brush.affects(rc)) {
         
             int baseHeight = blg.getBaseHeight();
             int wallHeight = blg.getWallHeight();
     
-            prepareFloor(brush, rc, ti.getHeightMap(), baseHeight, BlockTypes.BUILDING_FLOOR);
-            
             // create walls
-            brush.frame(rc, baseHeight, blg.getBaseHeight() + wallHeight, BlockTypes.BUILDING_WALL);
+            brush.frame(rc, baseHeight, baseHeight + wallHeight, BlockTypes.BUILDING_WALL);
     
             // door
             SimpleDoor door = blg.getDoor();
@@ -63,4 +149,20 @@ public void raster(Brush brush, TerrainInfo ti, SimpleHome blg) {
         registry.rasterize(brush, ti, blg.getRoof());
     }
 
+    /**
+     * A rasterized home at a reference position
+     */
+    private static final class HomeTemplate {
+        private final VoxelOverlay overlay;
+        private final int originX;
+        private final int originY;
+        private final int originZ;
+
+        HomeTemplate(VoxelOverlay overlay, int originX, int originY, int originZ) {
+            this.overlay = overlay;
+            this.originX = originX;
+            this.originY = originY;
+            this.originZ = originZ;
+        }
+    }
 }
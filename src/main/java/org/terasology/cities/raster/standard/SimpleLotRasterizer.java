@@ -17,6 +17,7 @@
 package org.terasology.cities.raster.standard;
 
 import org.terasology.cities.BlockTypes;
+import org.terasology.cities.model.SimpleFence;
 import org.terasology.cities.model.SimpleLot;
 import org.terasology.cities.model.bldg.Building;
 import org.terasology.cities.raster.Brush;
@@ -30,6 +31,18 @@
  */
 public class SimpleLotRasterizer implements Rasterizer<SimpleLot> {
 
+    private final RasterRegistry registry;
+    private final Rasterizer<? super SimpleFence> fenceRasterizer;
+
+    /**
+     * @param registry the registry that is used to rasterize buildings
+     * @param fenceRasterizer the rasterizer for lot fences
+     */
+    public SimpleLotRasterizer(RasterRegistry registry, Rasterizer<? super SimpleFence> fenceRasterizer) {
+        this.registry = registry;
+        this.fenceRasterizer = fenceRasterizer;
+    }
+
     @Override
     public void raster(Brush brush, TerrainInfo ti, SimpleLot lot) {
 
@@ -37,8 +50,6 @@ public void raster(Brush brush, TerrainInfo ti, SimpleLot lot) {
             return;
         }
 
-        RasterRegistry registry = StandardRegistry.getInstance();
-        
         brush.fillRect(lot.getShape(), ti.getHeightMap(), BlockTypes.LOT_EMPTY);
         
         // draw buildings
@@ -49,7 +60,7 @@ public void raster(Brush brush, TerrainInfo ti, SimpleLot lot) {
 
         // draw fence
         if (lot.getFence().isPresent()) {
-            registry.rasterize(brush, ti, lot.getFence().get());
+            fenceRasterizer.raster(brush, ti, lot.getFence().get());
         }
         
         
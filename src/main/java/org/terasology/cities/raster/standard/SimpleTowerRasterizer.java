@@ -30,6 +30,15 @@
  */
 public class SimpleTowerRasterizer extends AbstractRasterizer<SimpleTower> {
 
+    private final RasterRegistry registry;
+
+    /**
+     * @param registry the registry that is used to rasterize contained elements
+     */
+    public SimpleTowerRasterizer(RasterRegistry registry) {
+        this.registry = registry;
+    }
+
     @Override
     public void raster(Brush brush, TerrainInfo ti, SimpleTower tower) {
 
@@ -46,7 +55,6 @@ public void raster(Brush brush, TerrainInfo ti, SimpleTower tower) {
             brush.frame(rc, baseHeight, baseHeight + wallHeight, BlockTypes.BUILDING_WALL);
         }
         
-        RasterRegistry registry = StandardRegistry.getInstance();
         registry.rasterize(brush, ti, tower.getRoof());
     }
 
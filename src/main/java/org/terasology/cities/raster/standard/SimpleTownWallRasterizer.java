@@ -30,10 +30,17 @@
  */
 public class SimpleTownWallRasterizer implements Rasterizer<TownWall> {
 
+    private final RasterRegistry registry;
+
+    /**
+     * @param registry the registry that is used to rasterize contained elements
+     */
+    public SimpleTownWallRasterizer(RasterRegistry registry) {
+        this.registry = registry;
+    }
+
     @Override
     public void raster(Brush brush, TerrainInfo ti, TownWall tw) {
-        RasterRegistry registry = StandardRegistry.getInstance();
-
         for (WallSegment ws : tw.getWalls()) {
             registry.rasterize(brush, ti, ws);
         }
@@ -45,23 +45,27 @@ public final class StandardRegistry extends RasterRegistry {
     private static final StandardRegistry INSTANCE = new StandardRegistry();
     
     private StandardRegistry() {
-        register(MedievalTown.class, new CityRasterizer());
-        register(SimpleLot.class, new SimpleLotRasterizer());
-        register(SimpleHome.class, new SimpleHomeRasterizer());
+        SimpleFenceRasterizer fenceRasterizer = new SimpleFenceRasterizer();
+        FlatRoofRasterizer flatRoofRasterizer = new FlatRoofRasterizer();
+
+        // composite rasterizers dispatch their (polymorphic) children through this registry
+        register(MedievalTown.class, new CityRasterizer(this));
+        register(SimpleLot.class, new SimpleLotRasterizer(this, fenceRasterizer));
+        register(SimpleHome.class, new SimpleHomeRasterizer(this));
         register(SimpleWindow.class, new SimpleWindowRasterizer());
         register(HipRoof.class, new HipRoofRasterizer());
-        register(FlatRoof.class, new FlatRoofRasterizer());
+        register(FlatRoof.class, flatRoofRasterizer);
         register(SaddleRoof.class, new SaddleRoofRasterizer());
         register(DomeRoof.class, new DomeRoofRasterizer());
         register(PentRoof.class, new PentRoofRasterizer());
         register(ConicRoof.class, new ConicRoofRasterizer());
-        register(BattlementRoof.class, new FlatRoofRasterizer());   // not sure if this is a good idea
-        register(SimpleFence.class, new SimpleFenceRasterizer());
-        register(SimpleTower.class, new SimpleTowerRasterizer());
-        register(RoundHouse.class, new RoundHouseRasterizer());
+        register(BattlementRoof.class, flatRoofRasterizer);   // not sure if this is a good idea
+        register(SimpleFence.class, fenceRasterizer);
+        register(SimpleTower.class, new SimpleTowerRasterizer(this));
+        register(RoundHouse.class, new RoundHouseRasterizer(this));
         register(SolidWallSegment.class, new SolidWallSegmentRasterizer());
         register(GateWallSegment.class, new GateWallSegmentRasterizer());
-        register(SimpleChurch.class, new SimpleChurchRasterizer());
+        register(SimpleChurch.class, new SimpleChurchRasterizer(this));
     }
 
     /**
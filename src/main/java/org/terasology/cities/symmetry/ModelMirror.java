@@ -0,0 +1,508 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.symmetry;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+
+import org.terasology.cities.common.IntPolyline;
+import org.terasology.cities.common.Orientation;
+import org.terasology.cities.contour.Contour;
+import org.terasology.cities.model.City;
+import org.terasology.cities.model.Junction;
+import org.terasology.cities.model.Lake;
+import org.terasology.cities.model.Lot;
+import org.terasology.cities.model.MedievalTown;
+import org.terasology.cities.model.Road;
+import org.terasology.cities.model.SimpleFence;
+import org.terasology.cities.model.SimpleLot;
+import org.terasology.cities.model.bldg.AbstractBuilding;
+import org.terasology.cities.model.bldg.Building;
+import org.terasology.cities.model.bldg.BuildingPart;
+import org.terasology.cities.model.bldg.GateWallSegment;
+import org.terasology.cities.model.bldg.MultipartBuilding;
+import org.terasology.cities.model.bldg.RoundHouse;
+import org.terasology.cities.model.bldg.SimpleBuilding;
+import org.terasology.cities.model.bldg.SimpleBuildingPart;
+import org.terasology.cities.model.bldg.SimpleChurch;
+import org.terasology.cities.model.bldg.SimpleDoor;
+import org.terasology.cities.model.bldg.SimpleHome;
+import org.terasology.cities.model.bldg.SimpleTower;
+import org.terasology.cities.model.bldg.SimpleWindow;
+import org.terasology.cities.model.bldg.SolidWallSegment;
+import org.terasology.cities.model.bldg.Tower;
+import org.terasology.cities.model.bldg.TownWall;
+import org.terasology.cities.model.bldg.WallSegment;
+import org.terasology.cities.model.bldg.Window;
+import org.terasology.cities.model.roof.BattlementRoof;
+import org.terasology.cities.model.roof.ConicRoof;
+import org.terasology.cities.model.roof.DomeRoof;
+import org.terasology.cities.model.roof.FlatRoof;
+import org.terasology.cities.model.roof.HipRoof;
+import org.terasology.cities.model.roof.PentRoof;
+import org.terasology.cities.model.roof.Roof;
+import org.terasology.cities.model.roof.SaddleRoof;
+import org.terasology.math.Vector2i;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+/**
+ * Creates mirrored copies of model elements. Integer coordinates are treated as block
+ * positions and are mirrored like the height map, areas are mirrored as a whole.
+ * @author Martin Steiger
+ */
+public final class ModelMirror {
+
+    private final Symmetry symmetry;
+
+    /**
+     * Maps block areas (not block positions)
+     */
+    private final AffineTransform transform;
+
+    /**
+     * @param symmetry the symmetry
+     */
+    public ModelMirror(Symmetry symmetry) {
+        this.symmetry = symmetry;
+
+        Point2i origin = symmetry.getMirrored(0, 0);
+        Point2i ex = symmetry.getMirrored(1, 0);
+        Point2i ez = symmetry.getMirrored(0, 1);
+        ex.sub(origin);
+        ez.sub(origin);
+
+        // the block (0, 0) covers [0..1]x[0..1] and is mapped around its center
+        double tx = origin.x + 0.5 - 0.5 * (ex.x + ez.x);
+        double tz = origin.y + 0.5 - 0.5 * (ex.y + ez.y);
+        this.transform = new AffineTransform(ex.x, ex.y, ez.x, ez.y, tx, tz);
+    }
+
+    /**
+     * @return a function that mirrors sets of cities
+     */
+    public Function<Set<City>, Set<City>> cities() {
+        return new Function<Set<City>, Set<City>>() {
+
+            @Override
+            public Set<City> apply(Set<City> input) {
+                ImmutableSet.Builder<City> builder = ImmutableSet.builder();
+                for (City city : input) {
+                    builder.add(mirror(city));
+                }
+                return builder.build();
+            }
+        };
+    }
+
+    /**
+     * @param junctions provides the junctions at the mirrored locations
+     * @return a function that mirrors roads
+     */
+    public Function<Road, Road> roads(final Function<? super Point2i, Junction> junctions) {
+        return new Function<Road, Road>() {
+
+            @Override
+            public Road apply(Road road) {
+                return mirror(road, junctions);
+            }
+        };
+    }
+
+    /**
+     * @return a function that mirrors sets of lakes
+     */
+    public Function<Set<Lake>, Set<Lake>> lakes() {
+        return new Function<Set<Lake>, Set<Lake>>() {
+
+            @Override
+            public Set<Lake> apply(Set<Lake> input) {
+                ImmutableSet.Builder<Lake> builder = ImmutableSet.builder();
+                for (Lake lake : input) {
+                    builder.add(mirror(lake));
+                }
+                return builder.build();
+            }
+        };
+    }
+
+    /**
+     * @param pos the block position
+     * @return the mirrored block position
+     */
+    public Point2i mirror(Point2i pos) {
+        return symmetry.getMirrored(pos);
+    }
+
+    /**
+     * @param pos the block position
+     * @return the mirrored block position
+     */
+    public Vector2i mirror(Vector2i pos) {
+        Point2i pt = symmetry.getMirrored(pos.x, pos.y);
+        return new Vector2i(pt.x, pt.y);
+    }
+
+    /**
+     * @param rc the block area
+     * @return the mirrored block area
+     */
+    public Rectangle mirror(Rectangle rc) {
+        return transform.createTransformedShape(rc).getBounds();
+    }
+
+    /**
+     * @param shape the area
+     * @return the mirrored area
+     */
+    public Shape mirror(Shape shape) {
+        return transform.createTransformedShape(shape);
+    }
+
+    /**
+     * @param orient the orientation
+     * @return the mirrored orientation
+     */
+    public Orientation mirror(Orientation orient) {
+        Vector2i dir = orient.getDir();
+        double[] pts = {dir.x, dir.y};
+        transform.deltaTransform(pts, 0, pts, 0, 1);
+
+        for (Orientation o : Orientation.values()) {
+            if (o.getDir().x == (int) pts[0] && o.getDir().y == (int) pts[1]) {
+                return o;
+            }
+        }
+
+        throw new IllegalStateException("Not a valid mirror transformation: " + transform);
+    }
+
+    /**
+     * @param road the road
+     * @param junctions provides the junctions at the mirrored locations
+     * @return the mirrored road
+     */
+    public Road mirror(Road road, Function<? super Point2i, Junction> junctions) {
+        Junction start = junctions.apply(mirror(road.getStart().getCoords()));
+        Junction end = junctions.apply(mirror(road.getEnd().getCoords()));
+
+        List<Point2i> points = Lists.newArrayList();
+        for (Point2i pt : road.getPoints()) {
+            points.add(mirror(pt));
+        }
+
+        // mirroring preserves the arc length, so the profile can be re-used
+        if (road.getProfile().isPresent()) {
+            return new Road(start, end, points, road.getWidth(), road.getHeightRange(), road.getProfile().get());
+        } else {
+            return new Road(start, end, points, road.getWidth(), road.getHeightRange());
+        }
+    }
+
+    /**
+     * @param lake the lake
+     * @return the mirrored lake, including all islands
+     */
+    public Lake mirror(Lake lake) {
+        Lake result = new Lake(mirror(lake.getContour()), lake.getName());
+
+        for (Contour island : lake.getIslandContours()) {
+            result.addIsland(mirror(island));
+        }
+
+        return result;
+    }
+
+    /**
+     * The point order is reversed to preserve the winding of the contour
+     * @param contour the contour
+     * @return a new contour with the mirrored points of the simplified path
+     */
+    public Contour mirror(Contour contour) {
+        IntPolyline path = contour.getSimplifiedPath();
+        Contour result = new Contour();
+
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Point2i pt = symmetry.getMirrored(path.getX(i), path.getY(i));
+            result.addPoint(new Point(pt.x, pt.y));
+        }
+
+        return result;
+    }
+
+    /**
+     * @param city the city
+     * @return the mirrored city including all lots and buildings
+     */
+    public City mirror(City city) {
+        Point2i pos = mirror(city.getPos());
+        int radius = (int) city.getRadius();
+        City result;
+
+        if (city instanceof MedievalTown) {
+            MedievalTown town = new MedievalTown(city.getName(), pos, radius, city.getHeightRange());
+            Optional<TownWall> townWall = ((MedievalTown) city).getTownWall();
+            if (townWall.isPresent()) {
+                town.setTownWall(mirror(townWall.get()));
+            }
+            result = town;
+        } else {
+            result = new City(city.getName(), pos, radius, city.getHeightRange());
+        }
+
+        for (Lot lot : city.getLots()) {
+            result.add(mirror(lot));
+        }
+
+        return result;
+    }
+
+    /**
+     * @param lot the lot
+     * @return the mirrored lot including all buildings
+     */
+    public Lot mirror(Lot lot) {
+        Lot result;
+
+        if (lot instanceof SimpleLot) {
+            SimpleLot simpleLot = (SimpleLot) lot;
+            SimpleLot mirrored = new SimpleLot(mirror(simpleLot.getShape()));
+            if (simpleLot.getFence().isPresent()) {
+                mirrored.setFence(mirror(simpleLot.getFence().get()));
+            }
+            result = mirrored;
+        } else {
+            result = new Lot(mirror(lot.getShape()));
+        }
+
+        for (Building bldg : lot.getBuildings()) {
+            result.addBuilding(mirror(bldg));
+        }
+
+        return result;
+    }
+
+    /**
+     * @param fence the fence
+     * @return the mirrored fence
+     */
+    public SimpleFence mirror(SimpleFence fence) {
+        return new SimpleFence(mirror(fence.getRect()), mirror(fence.getGateOrientation()), mirror(fence.getGate()));
+    }
+
+    /**
+     * @param townWall the town wall
+     * @return the mirrored town wall including all towers
+     */
+    public TownWall mirror(TownWall townWall) {
+        TownWall result = new TownWall();
+
+        for (WallSegment seg : townWall.getWalls()) {
+            result.addWall(mirror(seg));
+        }
+
+        for (Tower tower : townWall.getTowers()) {
+            result.addTower((Tower) mirror(tower));
+        }
+
+        return result;
+    }
+
+    /**
+     * @param seg the wall segment
+     * @return the mirrored wall segment
+     */
+    public WallSegment mirror(WallSegment seg) {
+        Vector2i start = mirror(seg.getStart());
+        Vector2i end = mirror(seg.getEnd());
+        int thickness = seg.getWallThickness();
+
+        if (seg instanceof GateWallSegment) {
+            return new GateWallSegment(start, end, thickness, ((GateWallSegment) seg).getWallHeight());
+        }
+
+        if (seg instanceof SolidWallSegment) {
+            return new SolidWallSegment(start, end, thickness, ((SolidWallSegment) seg).getWallHeight());
+        }
+
+        return new WallSegment(start, end, thickness);
+    }
+
+    /**
+     * @param bldg the building
+     * @return the mirrored building including all windows
+     */
+    public Building mirror(Building bldg) {
+        if (bldg instanceof SimpleChurch) {
+            SimpleChurch church = (SimpleChurch) bldg;
+            SimpleChurch result = new SimpleChurch(mirror(church.getNave()), mirror(church.getTower()), mirror(church.getDoor()));
+
+            // additional parts such as the side aisles
+            for (BuildingPart part : church.getParts()) {
+                if (part != church.getNave() && part != church.getTower()) {
+                    result.addPart(mirror(part));
+                }
+            }
+
+            for (Window wnd : church.getWindows()) {
+                result.addWindow(mirror(wnd));
+            }
+            return result;
+        }
+
+        if (bldg instanceof MultipartBuilding) {
+            throw new IllegalArgumentException("Unsupported building type: " + bldg.getClass());
+        }
+
+        AbstractBuilding result;
+
+        if (bldg instanceof SimpleHome) {
+            SimpleHome home = (SimpleHome) bldg;
+            result = new SimpleHome(mirror(home.getLayout()), mirror(home.getRoof()),
+                    home.getBaseHeight(), home.getWallHeight(), mirror(home.getDoor()));
+        } else if (bldg instanceof SimpleTower) {
+            SimpleTower tower = (SimpleTower) bldg;
+            result = new SimpleTower(mirror(tower.getLayout()), tower.getBaseHeight(), tower.getWallHeight());
+        } else if (bldg instanceof SimpleBuilding) {
+            SimpleBuilding simple = (SimpleBuilding) bldg;
+            result = new SimpleBuilding(mirror(simple.getLayout()), mirror(simple.getRoof()),
+                    simple.getBaseHeight(), simple.getWallHeight());
+        } else if (bldg instanceof RoundHouse) {
+            RoundHouse house = (RoundHouse) bldg;
+            Rectangle2D bounds = mirrorBounds(house.getLayout());
+            RoundHouse mirrored = new RoundHouse(getCenter(bounds), getRadius(bounds),
+                    house.getBaseHeight(), house.getWallHeight());
+            if (house.getDoor() != null) {
+                mirrored.setDoor(mirror(house.getDoor()));
+            }
+            result = mirrored;
+        } else {
+            throw new IllegalArgumentException("Unsupported building type: " + bldg.getClass());
+        }
+
+        for (Window wnd : ((AbstractBuilding) bldg).getWindows()) {
+            result.addWindow(mirror(wnd));
+        }
+
+        return result;
+    }
+
+    /**
+     * @param part the building part
+     * @return the mirrored building part
+     */
+    public SimpleBuildingPart mirror(BuildingPart part) {
+        if (!(part instanceof SimpleBuildingPart)) {
+            throw new IllegalArgumentException("Unsupported building part type: " + part.getClass());
+        }
+
+        SimpleBuildingPart simple = (SimpleBuildingPart) part;
+        return new SimpleBuildingPart(mirror(simple.getLayout()), simple.getBaseHeight(), simple.getTopHeight(), mirror(simple.getRoof()));
+    }
+
+    /**
+     * @param door the door
+     * @return the mirrored door
+     */
+    public SimpleDoor mirror(SimpleDoor door) {
+        return new SimpleDoor(mirror(door.getOrientation()), mirror(door.getRect()), door.getBaseHeight(), door.getTopHeight());
+    }
+
+    /**
+     * @param wnd the window
+     * @return the mirrored window
+     */
+    public Window mirror(Window wnd) {
+        if (!(wnd instanceof SimpleWindow)) {
+            throw new IllegalArgumentException("Unsupported window type: " + wnd.getClass());
+        }
+
+        SimpleWindow simple = (SimpleWindow) wnd;
+        return new SimpleWindow(mirror(simple.getOrientation()), mirror(simple.getRect()), simple.getBaseHeight(), simple.getTopHeight());
+    }
+
+    /**
+     * @param roof the roof
+     * @return the mirrored roof (the orientation of pent and saddle roofs is mirrored as well)
+     */
+    public Roof mirror(Roof roof) {
+        if (roof instanceof BattlementRoof) {
+            BattlementRoof flat = (BattlementRoof) roof;
+            return new BattlementRoof(mirror(flat.getArea()), flat.getBaseHeight(), flat.getBorderHeight(0, 0));
+        }
+
+        if (roof instanceof FlatRoof) {
+            FlatRoof flat = (FlatRoof) roof;
+            return new FlatRoof(mirror(flat.getArea()), flat.getBaseHeight(), flat.getBorderHeight(0, 0));
+        }
+
+        if (roof instanceof HipRoof) {
+            HipRoof hip = (HipRoof) roof;
+            return new HipRoof(mirror(hip.getArea()), hip.getBaseHeight(), hip.getPitch(), hip.getMaxHeight());
+        }
+
+        if (roof instanceof DomeRoof) {
+            DomeRoof dome = (DomeRoof) roof;
+            return new DomeRoof(mirror(dome.getArea()), dome.getBaseHeight(), dome.getHeight());
+        }
+
+        if (roof instanceof PentRoof) {
+            PentRoof pent = (PentRoof) roof;
+            return new PentRoof(mirror(pent.getArea()), pent.getBaseHeight(), mirror(pent.getOrientation()), pent.getPitch());
+        }
+
+        if (roof instanceof SaddleRoof) {
+            SaddleRoof saddle = (SaddleRoof) roof;
+            return new SaddleRoof(mirror(saddle.getArea()), saddle.getBaseHeight(), mirror(saddle.getOrientation()), saddle.getPitch());
+        }
+
+        if (roof instanceof ConicRoof) {
+            ConicRoof conic = (ConicRoof) roof;
+            Rectangle2D bounds = mirrorBounds(conic.getArea());
+            return new ConicRoof(getCenter(bounds), getRadius(bounds), conic.getBaseHeight(), conic.getPitch());
+        }
+
+        throw new IllegalArgumentException("Unsupported roof type: " + roof.getClass());
+    }
+
+    /**
+     * Circles are centered on a lattice point (not on a block), so they are mirrored as areas
+     */
+    private Rectangle2D mirrorBounds(Ellipse2D ellipse) {
+        return transform.createTransformedShape(ellipse).getBounds2D();
+    }
+
+    private static Point2i getCenter(Rectangle2D bounds) {
+        return new Point2i((int) Math.round(bounds.getCenterX()), (int) Math.round(bounds.getCenterY()));
+    }
+
+    private static int getRadius(Rectangle2D bounds) {
+        return (int) Math.round(bounds.getWidth() * 0.5);
+    }
+}
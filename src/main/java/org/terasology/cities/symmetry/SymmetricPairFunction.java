@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.symmetry;
+
+import javax.vecmath.Point2i;
+
+import org.terasology.cities.model.Site;
+import org.terasology.cities.model.SitePair;
+
+import com.google.common.base.Function;
+
+/**
+ * Computes only one of a connection and its mirrored counterpart and mirrors the result
+ * for the other one. Both sides therefore share the exact same geometry, even across the
+ * symmetry axis. The base function should be cached, since it is called for both pairs.
+ * @author Martin Steiger
+ * @param <T> the model type
+ */
+public class SymmetricPairFunction<T> implements Function<SitePair, T> {
+
+    private final Function<? super SitePair, ? extends T> baseFunc;
+    private final Symmetry symmetry;
+    private final Function<? super T, ? extends T> mirror;
+
+    /**
+     * @param baseFunc computes the model of canonical pairs
+     * @param symmetry the symmetry of the world
+     * @param mirror creates a mirrored copy of a model
+     */
+    public SymmetricPairFunction(Function<? super SitePair, ? extends T> baseFunc, Symmetry symmetry,
+            Function<? super T, ? extends T> mirror) {
+        this.baseFunc = baseFunc;
+        this.symmetry = symmetry;
+        this.mirror = mirror;
+    }
+
+    @Override
+    public T apply(SitePair pair) {
+        SitePair mirrored = getMirrored(pair);
+
+        if (!isCanonical(pair, mirrored)) {
+            return mirror.apply(baseFunc.apply(mirrored));
+        }
+
+        return baseFunc.apply(pair);
+    }
+
+    /**
+     * @param pair the site pair
+     * @return the mirrored site pair
+     */
+    public SitePair getMirrored(SitePair pair) {
+        return new SitePair(getMirrored(pair.getA()), getMirrored(pair.getB()));
+    }
+
+    /**
+     * @param pair the site pair
+     * @return true if the model of the pair is computed by the base function, false if it is mirrored
+     */
+    public boolean isCanonical(SitePair pair) {
+        return isCanonical(pair, getMirrored(pair));
+    }
+
+    /**
+     * The canonical pair of the two is the one that has the smaller first site (or
+     * the smaller second site, if the first sites are equal). Pairs that are mirrored
+     * onto themselves are canonical.
+     * @param pair the site pair
+     * @param mirrored the mirrored site pair
+     * @return true if the pair is canonical
+     */
+    private static boolean isCanonical(SitePair pair, SitePair mirrored) {
+        int cmp = compare(pair.getA().getPos(), mirrored.getA().getPos());
+        if (cmp == 0) {
+            cmp = compare(pair.getB().getPos(), mirrored.getB().getPos());
+        }
+        return cmp <= 0;
+    }
+
+    private static int compare(Point2i p1, Point2i p2) {
+        if (p1.x != p2.x) {
+            return p1.x < p2.x ? -1 : 1;
+        }
+        if (p1.y != p2.y) {
+            return p1.y < p2.y ? -1 : 1;
+        }
+        return 0;
+    }
+
+    private Site getMirrored(Site site) {
+        Point2i pos = symmetry.getMirrored(site.getPos());
+        return new Site(pos.x, pos.y, site.getRadius());
+    }
+}
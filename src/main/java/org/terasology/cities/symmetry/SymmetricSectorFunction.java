@@ -0,0 +1,65 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.symmetry;
+
+import javax.vecmath.Point2i;
+
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Sectors;
+
+import com.google.common.base.Function;
+
+/**
+ * Generates only sectors on the canonical (not mirrored) side of a symmetric world.
+ * Mirrored sectors are created by transforming the model of their canonical counterpart.
+ * Sectors that are mirrored onto themselves are generated as usual.
+ * The base function should be cached, since it is called for both sides.
+ * @author Martin Steiger
+ * @param <T> the model type
+ */
+public class SymmetricSectorFunction<T> implements Function<Sector, T> {
+
+    private final Function<? super Sector, ? extends T> baseFunc;
+    private final Symmetry symmetry;
+    private final Function<? super T, ? extends T> mirror;
+
+    /**
+     * @param baseFunc generates the model of canonical sectors
+     * @param symmetry the symmetry of the world
+     * @param mirror creates a mirrored copy of a model
+     */
+    public SymmetricSectorFunction(Function<? super Sector, ? extends T> baseFunc, Symmetry symmetry,
+            Function<? super T, ? extends T> mirror) {
+        this.baseFunc = baseFunc;
+        this.symmetry = symmetry;
+        this.mirror = mirror;
+    }
+
+    @Override
+    public T apply(Sector sector) {
+        Point2i coords = sector.getCoords();
+        Point2i mirrCoords = symmetry.getMirrored(coords);
+
+        if (coords.equals(mirrCoords) || !symmetry.isMirrored(coords)) {
+            return baseFunc.apply(sector);
+        }
+
+        T base = baseFunc.apply(Sectors.getSector(mirrCoords));
+        return mirror.apply(base);
+    }
+}
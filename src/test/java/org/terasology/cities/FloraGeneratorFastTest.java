@@ -0,0 +1,157 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.cities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+import org.terasology.cities.heightmap.HeightMaps;
+import org.terasology.world.block.Block;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Tests {@link FloraGeneratorFast} with a {@link ChunkSurface}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class FloraGeneratorFastTest {
+
+    private static final int SIZE = 16;
+
+    private final Block grass = new Block();
+    private final Block dirt = new Block();
+    private final Block tallGrass1 = new Block();
+    private final Block tallGrass2 = new Block();
+    private final Block tallGrass3 = new Block();
+    private final List<Block> flowers = ImmutableList.of(new Block(), new Block(), new Block());
+
+    @Test
+    public void testDeterministicPerColumn() {
+        FloraGeneratorFast gen = createGenerator("seed", 0.5f);
+
+        // two chunks that overlap by half their size
+        Map<Point2i, Block> first = placeFlora(gen, createGrassSurface(), 0, 0, false);
+        Map<Point2i, Block> second = placeFlora(gen, createGrassSurface(), SIZE / 2, SIZE / 2, true);
+
+        int overlap = 0;
+        for (Point2i pos : second.keySet()) {
+            if (first.containsKey(pos)) {
+                assertSame(first.get(pos), second.get(pos));
+                overlap++;
+            }
+        }
+        assertEquals(SIZE * SIZE / 4, overlap);
+
+        // a new generator with the same seed must produce the same result
+        FloraGeneratorFast other = createGenerator("seed", 0.5f);
+        assertEquals(first, placeFlora(other, createGrassSurface(), 0, 0, true));
+
+        // a different seed should produce a different result
+        FloraGeneratorFast changed = createGenerator("other seed", 0.5f);
+        assertFalse(first.equals(placeFlora(changed, createGrassSurface(), 0, 0, false)));
+    }
+
+    @Test
+    public void testDensity() {
+        FloraGeneratorFast gen = createGenerator("seed", 0.5f);
+
+        int count = 0;
+        int total = 0;
+        for (int cz = -4; cz < 4; cz++) {
+            for (int cx = -4; cx < 4; cx++) {
+                for (Block plant : placeFlora(gen, createGrassSurface(), cx * SIZE, cz * SIZE, false).values()) {
+                    if (plant != null) {
+                        count++;
+                    }
+                    total++;
+                }
+            }
+        }
+
+        assertEquals(0.5, count / (double) total, 0.05);
+        Map<Point2i, Block> none = placeFlora(createGenerator("seed", 0f), createGrassSurface(), 0, 0, false);
+        assertEquals(Collections.singleton(null), Sets.newHashSet(none.values()));
+    }
+
+    @Test
+    public void testOnlyUncoveredGrass() {
+        FloraGeneratorFast gen = createGenerator("seed", 1f);
+
+        ChunkSurface surface = new ChunkSurface(SIZE, SIZE);
+        surface.set(0, 0, 10, grass, false);
+        surface.set(1, 0, 10, grass, true);
+        surface.set(2, 0, 10, dirt, false);
+
+        assertTrue(isPlant(gen.getPlant(surface, 0, 0, 0, 0)));
+        assertNull(gen.getPlant(surface, 1, 0, 1, 0));
+        assertNull(gen.getPlant(surface, 2, 0, 2, 0));
+
+        // surface not inside the chunk
+        assertNull(gen.getPlant(surface, 3, 0, 3, 0));
+    }
+
+    private boolean isPlant(Block block) {
+        return block == tallGrass1 || block == tallGrass2 || block == tallGrass3 || flowers.contains(block);
+    }
+
+    private FloraGeneratorFast createGenerator(String seed, float density) {
+        FloraGeneratorFast gen = new FloraGeneratorFast(HeightMaps.constant(10), grass,
+                tallGrass1, tallGrass2, tallGrass3, flowers, density);
+        gen.setWorldSeed(seed);
+        return gen;
+    }
+
+    private ChunkSurface createGrassSurface() {
+        ChunkSurface surface = new ChunkSurface(SIZE, SIZE);
+        for (int z = 0; z < SIZE; z++) {
+            for (int x = 0; x < SIZE; x++) {
+                surface.set(x, z, 10, grass, false);
+            }
+        }
+        return surface;
+    }
+
+    /**
+     * @param reverse iterate over the columns in reverse order
+     * @return the plant (or <code>null</code>) for every column in world coords
+     */
+    private Map<Point2i, Block> placeFlora(FloraGeneratorFast gen, ChunkSurface surface, int wx0, int wz0, boolean reverse) {
+        Map<Point2i, Block> plants = Maps.newHashMap();
+        for (int i = 0; i < SIZE * SIZE; i++) {
+            int idx = reverse ? SIZE * SIZE - 1 - i : i;
+            int x = idx % SIZE;
+            int z = idx / SIZE;
+            Block plant = gen.getPlant(surface, x, z, wx0 + x, wz0 + z);
+            assertTrue(plant == null || isPlant(plant));
+            plants.put(new Point2i(wx0 + x, wz0 + z), plant);
+        }
+        return plants;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+import org.terasology.cities.common.CachingFunction;
+import org.terasology.cities.common.Point2iUtils;
+import org.terasology.cities.model.RandomSiteMap;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Sectors;
+import org.terasology.cities.model.Site;
+import org.terasology.cities.model.SitePair;
+import org.terasology.cities.symmetry.Symmetries;
+import org.terasology.cities.symmetry.Symmetry;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.math.IntMath;
+
+/**
+ * Tests {@link HighwayConnector}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class HighwayConnectorTest {
+
+    private static final int MARGIN = 900;
+
+    // leave some sectors empty
+    private final Function<Sector, Set<Site>> siteMap = CachingFunction.wrap(new RandomSiteMap(0, 2, 20, 79));
+
+    @Test
+    public void testHub() {
+        HighwayConnector connector = new HighwayConnector(siteMap, MARGIN);
+        int size = HighwayConnector.REGION_SIZE;
+
+        int maxRadius = 0;
+        for (int y = size; y < 2 * size; y++) {
+            for (int x = -size; x < 0; x++) {
+                for (Site site : siteMap.apply(Sectors.getSector(x, y))) {
+                    maxRadius = Math.max(maxRadius, site.getRadius());
+                }
+            }
+        }
+
+        Optional<Site> hub = connector.getHub(new Point2i(-1, 1));
+        assertTrue(hub.isPresent());
+        assertEquals(maxRadius, hub.get().getRadius());
+        assertEquals(new Point2i(-1, 1), getRegion(hub.get().getPos()));
+    }
+
+    @Test
+    public void testEmptyRegion() {
+        Function<Sector, Set<Site>> empty = new Function<Sector, Set<Site>>() {
+
+            @Override
+            public Set<Site> apply(Sector input) {
+                return Sets.newHashSet();
+            }
+        };
+
+        HighwayConnector connector = new HighwayConnector(empty, MARGIN);
+        assertFalse(connector.getHub(new Point2i(0, 0)).isPresent());
+        assertTrue(connector.apply(Sectors.getSector(0, 0)).isEmpty());
+    }
+
+    /**
+     * Highways connect adjacent regions and are reported by all sectors within the margin
+     */
+    @Test
+    public void testCoverage() {
+        HighwayConnector connector = new HighwayConnector(siteMap, MARGIN);
+
+        int count = 0;
+        for (int y = -6; y <= 6; y++) {
+            for (int x = -6; x <= 6; x++) {
+                for (SitePair highway : connector.apply(Sectors.getSector(x, y))) {
+                    Point2i a = getRegion(highway.getA().getPos());
+                    Point2i b = getRegion(highway.getB().getPos());
+                    assertEquals(1, Math.abs(a.x - b.x) + Math.abs(a.y - b.y));
+
+                    Point2i posA = highway.getA().getPos();
+                    Point2i posB = highway.getB().getPos();
+                    int steps = (int) (Point2iUtils.distance(posA, posB) / 64);
+                    for (int i = 0; i <= steps; i++) {
+                        Point2i pt = Point2iUtils.interpolate(posA, posB, i / (double) steps);
+                        for (int d = -MARGIN; d <= MARGIN; d += MARGIN) {
+                            assertTrue(connector.apply(Sectors.getSectorForBlock(pt.x + d, pt.y)).contains(highway));
+                            assertTrue(connector.apply(Sectors.getSectorForBlock(pt.x, pt.y + d)).contains(highway));
+                        }
+                    }
+                    count++;
+                }
+            }
+        }
+
+        assertTrue(count > 0);
+    }
+
+    /**
+     * Two sites of the same size have the same x coordinate, so they are ordered differently
+     * once they are mirrored. The mirrored region must still pick the mirrored hub.
+     */
+    @Test
+    public void testMirroredTies() {
+        Symmetry sym = Symmetries.alongNegativeDiagonal();
+
+        Point2i a = new Point2i(100, 500);
+        Point2i b = new Point2i(100, 900);
+
+        final List<Site> all = Lists.newArrayList();
+        for (Point2i pos : Lists.newArrayList(a, b, sym.getMirrored(a), sym.getMirrored(b))) {
+            all.add(new Site(pos.x, pos.y, 40));
+        }
+
+        Function<Sector, Set<Site>> mirroredSites = new Function<Sector, Set<Site>>() {
+
+            @Override
+            public Set<Site> apply(Sector sector) {
+                Set<Site> sites = Sets.newHashSet();
+                for (Site site : all) {
+                    if (site.getSector().equals(sector)) {
+                        sites.add(site);
+                    }
+                }
+                return sites;
+            }
+        };
+
+        HighwayConnector connector = new HighwayConnector(mirroredSites, MARGIN, Optional.of(sym));
+
+        Point2i hub = connector.getHub(getRegion(a)).get().getPos();
+        Point2i mirroredHub = connector.getHub(getRegion(sym.getMirrored(a))).get().getPos();
+
+        assertEquals(sym.getMirrored(hub), mirroredHub);
+    }
+
+    private static Point2i getRegion(Point2i pos) {
+        int size = Sector.SIZE * HighwayConnector.REGION_SIZE;
+        return new Point2i(IntMath.divide(pos.x, size, RoundingMode.FLOOR), IntMath.divide(pos.y, size, RoundingMode.FLOOR));
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+import org.terasology.cities.common.CachingFunction;
+import org.terasology.cities.common.Point2iUtils;
+import org.terasology.cities.model.RandomSiteMap;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Sectors;
+import org.terasology.cities.model.Site;
+import org.terasology.cities.model.SitePair;
+import org.terasology.cities.symmetry.Symmetries;
+import org.terasology.cities.symmetry.Symmetry;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+
+/**
+ * Tests {@link RegionalSectorConnector}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class RegionalSectorConnectorTest {
+
+    private static final double MAX_DIST = 800;
+
+    private final Function<Sector, Set<Site>> siteMap = CachingFunction.wrap(new RandomSiteMap(4, 11, 50, 50));
+
+    /**
+     * Connections across sector and region borders must be reported by both sectors
+     */
+    @Test
+    public void testSymmetric() {
+        RegionalSectorConnector connector = new RegionalSectorConnector(siteMap, MAX_DIST);
+
+        SetMultimap<Point2i, Point2i> edges = collect(connector, -6, 6);
+
+        for (Point2i a : edges.keySet()) {
+            if (isInside(a, -6, 6)) {
+                for (Point2i b : edges.get(a)) {
+                    if (isInside(b, -6, 6)) {
+                        assertTrue(a + " - " + b, edges.containsEntry(b, a));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares the result with a brute-force relative neighborhood graph
+     */
+    @Test
+    public void testRelativeNeighborhoodGraph() {
+        RegionalSectorConnector connector = new RegionalSectorConnector(siteMap, MAX_DIST);
+
+        List<Point2i> all = Lists.newArrayList();
+        for (int y = -10; y < 10; y++) {
+            for (int x = -10; x < 10; x++) {
+                for (Site site : siteMap.apply(Sectors.getSector(x, y))) {
+                    all.add(site.getPos());
+                }
+            }
+        }
+
+        Map<Point2i, Point2i> nearest = Maps.newHashMap();
+        for (Point2i a : all) {
+            nearest.put(a, nearest(all, a));
+        }
+
+        SetMultimap<Point2i, Point2i> edges = collect(connector, -5, 5);
+        SetMultimap<Point2i, Point2i> expected = HashMultimap.create();
+
+        for (Point2i a : all) {
+            if (!isInside(a, -5, 5)) {
+                continue;
+            }
+
+            for (Point2i b : all) {
+                boolean inRange = Point2iUtils.distance(a, b) <= MAX_DIST || nearest.get(a) == b || nearest.get(b) == a;
+                if (a != b && inRange && isRelativeNeighbor(all, a, b)) {
+                    expected.put(a, b);
+                }
+            }
+        }
+
+        for (Point2i a : expected.keySet()) {
+            assertEquals(a.toString(), expected.get(a), edges.get(a));
+        }
+
+        for (Point2i a : all) {
+            if (isInside(a, -5, 5)) {
+                assertTrue("site not connected: " + a, edges.containsKey(a));
+            }
+        }
+    }
+
+    /**
+     * A site has two nearest neighbors at the same distance, which are ordered differently by
+     * their coordinates once they are mirrored. The mirrored site must still pick the mirrored neighbor.
+     */
+    @Test
+    public void testMirroredTies() {
+        final Symmetry sym = Symmetries.alongNegativeDiagonal();
+
+        // c and a are 300 blocks away from s, but have closer neighbors c2 and a2
+        Point2i s = new Point2i(1000, 1000);
+        List<Point2i> canonical = Lists.newArrayList(s,
+                new Point2i(700, 1000), new Point2i(650, 920),
+                new Point2i(1300, 1000), new Point2i(1350, 1080));
+
+        final List<Site> all = Lists.newArrayList();
+        for (Point2i pos : canonical) {
+            Point2i mirrored = sym.getMirrored(pos);
+            all.add(new Site(pos.x, pos.y, 50));
+            all.add(new Site(mirrored.x, mirrored.y, 50));
+        }
+
+        Function<Sector, Set<Site>> mirroredSites = new Function<Sector, Set<Site>>() {
+
+            @Override
+            public Set<Site> apply(Sector sector) {
+                Set<Site> sites = Sets.newHashSet();
+                for (Site site : all) {
+                    if (site.getSector().equals(sector)) {
+                        sites.add(site);
+                    }
+                }
+                return sites;
+            }
+        };
+
+        RegionalSectorConnector connector = new RegionalSectorConnector(mirroredSites, 100, Optional.of(sym));
+
+        SetMultimap<Point2i, Point2i> edges = collect(connector, -3, 3);
+        assertEquals(1, edges.get(s).size());
+
+        Set<Point2i> mirroredEdges = Sets.newHashSet();
+        for (Point2i other : edges.get(s)) {
+            mirroredEdges.add(sym.getMirrored(other));
+        }
+
+        assertEquals(mirroredEdges, edges.get(sym.getMirrored(s)));
+    }
+
+    private SetMultimap<Point2i, Point2i> collect(RegionalSectorConnector connector, int min, int max) {
+        SetMultimap<Point2i, Point2i> edges = HashMultimap.create();
+
+        for (int y = min; y < max; y++) {
+            for (int x = min; x < max; x++) {
+                for (SitePair pair : connector.apply(Sectors.getSector(x, y))) {
+                    edges.put(pair.getA().getPos(), pair.getB().getPos());
+                    edges.put(pair.getB().getPos(), pair.getA().getPos());
+                }
+            }
+        }
+
+        return edges;
+    }
+
+    private static boolean isInside(Point2i pos, int min, int max) {
+        return pos.x >= min * Sector.SIZE && pos.x < max * Sector.SIZE
+            && pos.y >= min * Sector.SIZE && pos.y < max * Sector.SIZE;
+    }
+
+    private static boolean isRelativeNeighbor(List<Point2i> all, Point2i a, Point2i b) {
+        double dist = Point2iUtils.distance(a, b);
+        for (Point2i c : all) {
+            if (c != a && c != b && Math.max(Point2iUtils.distance(a, c), Point2iUtils.distance(b, c)) < dist) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Point2i nearest(List<Point2i> all, Point2i a) {
+        Point2i best = null;
+        for (Point2i c : all) {
+            if (c != a && (best == null || Point2iUtils.distance(a, c) < Point2iUtils.distance(a, best))) {
+                best = c;
+            }
+        }
+        return best;
+    }
+}
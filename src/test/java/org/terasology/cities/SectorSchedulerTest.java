@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+import org.terasology.cities.common.CachingFunction;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Sectors;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+
+/**
+ * Tests {@link SectorScheduler}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class SectorSchedulerTest {
+
+    private final List<Sector> generated = Collections.synchronizedList(Lists.<Sector>newArrayList());
+    private final CountDownLatch blocker = new CountDownLatch(1);
+
+    private final CachingFunction<Sector, Sector> generator = CachingFunction.wrap(new Function<Sector, Sector>() {
+
+        @Override
+        public Sector apply(Sector sector) {
+            try {
+                // keep the single worker busy until all sectors are queued
+                blocker.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            generated.add(sector);
+            return sector;
+        }
+    });
+
+    @Test
+    public void testClosestFirst() throws InterruptedException {
+        SectorScheduler scheduler = new SectorScheduler(generator, 1, 2);
+
+        scheduler.updatePlayer("a", Sectors.getSector(0, 0));
+        assertEquals(25, scheduler.getPendingCount());
+
+        blocker.countDown();
+        waitFor(scheduler);
+
+        assertEquals(25, generated.size());
+
+        // the first sector was started before the others were queued
+        int prev = 0;
+        for (Sector sector : generated.subList(1, generated.size())) {
+            int dist = dist(sector.getCoords(), new Point2i(0, 0));
+            assertTrue(dist >= prev);
+            prev = dist;
+        }
+
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testDropDistant() throws InterruptedException {
+        SectorScheduler scheduler = new SectorScheduler(generator, 1, 1);
+
+        scheduler.updatePlayer("a", Sectors.getSector(0, 0));
+        scheduler.updatePlayer("a", Sectors.getSector(10, 10));
+
+        // one sector around (0, 0) is running, the rest was dropped
+        assertEquals(1 + 9, scheduler.getPendingCount());
+
+        blocker.countDown();
+        waitFor(scheduler);
+
+        assertEquals(10, generated.size());
+        for (Sector sector : generated.subList(1, generated.size())) {
+            assertTrue(dist(sector.getCoords(), new Point2i(10, 10)) <= 1);
+        }
+
+        scheduler.shutdown();
+    }
+
+    /**
+     * Sectors that were evicted from the cache are generated again
+     */
+    @Test
+    public void testEvicted() throws InterruptedException {
+        SectorScheduler scheduler = new SectorScheduler(generator, 1, 1);
+        blocker.countDown();
+
+        scheduler.updatePlayer("a", Sectors.getSector(0, 0));
+        waitFor(scheduler);
+        assertEquals(9, generated.size());
+
+        generator.invalidate(Sectors.getSector(1, 1));
+
+        // the sectors around (1, 0) that are still cached are not generated again
+        scheduler.updatePlayer("a", Sectors.getSector(1, 0));
+        waitFor(scheduler);
+
+        assertEquals(9 + 3 + 1, generated.size());
+        assertEquals(2, Collections.frequency(generated, Sectors.getSector(1, 1)));
+
+        scheduler.shutdown();
+    }
+
+    private static int dist(Point2i a, Point2i b) {
+        return Math.max(Math.abs(a.x - b.x), Math.abs(a.y - b.y));
+    }
+
+    private static void waitFor(SectorScheduler scheduler) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (scheduler.getPendingCount() > 0 && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+    }
+}
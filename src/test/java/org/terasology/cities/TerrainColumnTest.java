@@ -0,0 +1,118 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.cities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.terasology.cities.TerrainColumn.Layer;
+import org.terasology.cities.TerrainColumn.RunWriter;
+import org.terasology.world.chunks.CoreChunk;
+
+/**
+ * Tests {@link TerrainColumn}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class TerrainColumnTest {
+
+    @Test
+    public void testRunsMatchLayering() {
+        int[][] configs = {{2, 40}, {1, 20}, {6, 60}, {4, 5}, {3, 3}};
+
+        for (int[] cfg : configs) {
+            int seaLevel = cfg[0];
+            int snowLine = cfg[1];
+            TerrainColumn column = new TerrainColumn(seaLevel, snowLine);
+
+            for (int sizeY : new int[] {8, 64, 256}) {
+                for (int surface = -3; surface < sizeY + 3; surface++) {
+                    Layer[] runs = writeRuns(column, sizeY, surface);
+
+                    for (int y = 0; y < sizeY; y++) {
+                        Layer expected = getLayer(y, surface, seaLevel, snowLine);
+                        String msg = String.format("sea %d, snow %d, surface %d, y %d", seaLevel, snowLine, surface, y);
+
+                        // air is not written
+                        assertEquals(msg, (expected == Layer.AIR) ? null : expected, runs[y]);
+                        assertEquals(msg, expected, column.getLayer(y, surface));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNoAirRuns() {
+        TerrainColumn column = new TerrainColumn(2, 40);
+        Layer[] runs = writeRuns(column, 64, 80);
+
+        assertEquals(Layer.MANTLE, runs[0]);
+        assertEquals(Layer.WATER, runs[2]);
+        assertEquals(Layer.STONE, runs[63]);
+
+        runs = writeRuns(column, 64, 10);
+        assertEquals(Layer.GRASS, runs[10]);
+        assertNull(runs[11]);
+    }
+
+    /**
+     * Writes the runs into an array and checks that each height is written at most once
+     */
+    private static Layer[] writeRuns(TerrainColumn column, final int sizeY, int surface) {
+        final Layer[] layers = new Layer[sizeY];
+        column.write(null, 0, 0, sizeY, surface, new RunWriter() {
+
+            @Override
+            public void fill(CoreChunk chunk, int x, int z, int bottom, int top, Layer layer) {
+                assertTrue(bottom >= 0 && bottom < top && top <= sizeY);
+                for (int y = bottom; y < top; y++) {
+                    assertNull(layers[y]);
+                }
+                Arrays.fill(layers, bottom, top, layer);
+            }
+        });
+        return layers;
+    }
+
+    /**
+     * The original per-block layering
+     */
+    private static Layer getLayer(int y, int surfaceHeight, int seaLevel, int snowLine) {
+        if (y == 0) {
+            return Layer.MANTLE;
+        } else if (y <= seaLevel) {
+            return Layer.WATER;
+        } else if (y == seaLevel + 1 && y == surfaceHeight) {
+            return Layer.SAND;
+        } else if (y < surfaceHeight && surfaceHeight < snowLine) {
+            return Layer.DIRT;
+        } else if (y < surfaceHeight && surfaceHeight >= snowLine) {
+            return Layer.STONE;
+        } else if (y == surfaceHeight && surfaceHeight < snowLine) {
+            return Layer.GRASS;
+        } else if (y == surfaceHeight && surfaceHeight >= snowLine) {
+            return Layer.SNOW;
+        } else {
+            return Layer.AIR;
+        }
+    }
+}
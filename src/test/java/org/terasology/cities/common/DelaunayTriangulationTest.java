@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+/**
+ * Tests {@link DelaunayTriangulation}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class DelaunayTriangulationTest {
+
+    @Test
+    public void testSquare() {
+        List<Point2i> pts = Lists.newArrayList(new Point2i(0, 0), new Point2i(10, 0), new Point2i(10, 11), new Point2i(0, 10));
+        DelaunayTriangulation dt = new DelaunayTriangulation(pts);
+
+        // the shorter diagonal (0, 2) is not Delaunay, because (1, 3) is
+        assertEquals(ImmutableSet.of(1, 3), dt.getNeighbors(0));
+        assertEquals(ImmutableSet.of(0, 2, 3), dt.getNeighbors(1));
+        assertEquals(ImmutableSet.of(1, 3), dt.getNeighbors(2));
+        assertEquals(ImmutableSet.of(0, 1, 2), dt.getNeighbors(3));
+    }
+
+    @Test
+    public void testDegenerate() {
+        assertEquals(0, new DelaunayTriangulation(Collections.<Point2i>emptyList()).getPointCount());
+        assertEquals(Collections.emptySet(), new DelaunayTriangulation(Lists.newArrayList(new Point2i(5, 5))).getNeighbors(0));
+
+        List<Point2i> line = Lists.newArrayList(new Point2i(0, 0), new Point2i(20, 0), new Point2i(10, 0), new Point2i(10, 0));
+        DelaunayTriangulation dt = new DelaunayTriangulation(line);
+
+        assertEquals(ImmutableSet.of(2), dt.getNeighbors(0));
+        assertEquals(ImmutableSet.of(2), dt.getNeighbors(1));
+        assertEquals(ImmutableSet.of(0, 1), dt.getNeighbors(2));
+        assertEquals(Collections.emptySet(), dt.getNeighbors(3));     // duplicate
+    }
+
+    /**
+     * The Gabriel graph is a subgraph of the Delaunay triangulation
+     */
+    @Test
+    public void testContainsGabrielGraph() {
+        Random random = new Random(1234);
+        List<Point2i> pts = Lists.newArrayList();
+        for (int i = 0; i < 300; i++) {
+            pts.add(new Point2i(random.nextInt(5000) - 2500, random.nextInt(5000)));
+        }
+
+        DelaunayTriangulation dt = new DelaunayTriangulation(pts);
+
+        int edges = 0;
+        for (int i = 0; i < pts.size(); i++) {
+            edges += dt.getNeighbors(i).size();
+            for (int j = 0; j < pts.size(); j++) {
+                if (i != j && isGabrielEdge(pts, i, j)) {
+                    assertTrue(dt.getNeighbors(i).contains(j));
+                }
+            }
+        }
+
+        // a planar triangulation has at most 3n - 6 edges
+        assertTrue(edges / 2 <= 3 * pts.size() - 6);
+        assertTrue(edges / 2 >= 2 * pts.size());
+    }
+
+    private static boolean isGabrielEdge(List<Point2i> pts, int i, int j) {
+        Point2i a = pts.get(i);
+        Point2i b = pts.get(j);
+        for (Point2i c : pts) {
+            if (c != a && c != b) {
+                long dot = (long) (a.x - c.x) * (b.x - c.x) + (long) (a.y - c.y) * (b.y - c.y);
+                if (dot < 0) {          // c is inside the circle with diameter ab
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
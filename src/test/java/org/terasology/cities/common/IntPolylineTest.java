@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Rectangle;
+import java.util.List;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests {@link IntPolyline}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class IntPolylineTest {
+
+    private final List<Point2i> pts = ImmutableList.of(new Point2i(1, 2), new Point2i(4, 6), new Point2i(-3, 6));
+
+    @Test
+    public void testCopy() {
+        IntPolyline line = IntPolyline.copyOf(pts);
+
+        assertEquals(3, line.size());
+        assertEquals(pts, line.asList());
+        assertEquals(-3, line.getX(2));
+        assertEquals(6, line.getY(2));
+        assertEquals(12.0, line.getLength(), 0.0001);
+        assertEquals(new Rectangle(-3, 2, 7, 4), line.getBounds());
+        assertEquals(IntPolyline.copyOf(pts), line);
+        assertEquals(IntPolyline.copyOf(pts).hashCode(), line.hashCode());
+    }
+
+    @Test
+    public void testViews() {
+        IntPolyline line = IntPolyline.copyOf(pts);
+
+        IntPolyline moved = line.translate(10, -2).scale(2);
+        assertEquals(new Point2i(22, 0), moved.get(0));
+        assertEquals(new Point2i(14, 8), moved.get(2));
+        assertEquals(new Rectangle(14, 0, 14, 8), moved.getBounds());
+
+        // the original is not affected
+        assertEquals(pts, line.asList());
+    }
+
+    @Test
+    public void testBuilder() {
+        IntPolyline.Builder builder = new IntPolyline.Builder(1);
+        assertTrue(builder.build().isEmpty());
+
+        builder.add(1, 2);
+        IntPolyline first = builder.build();
+
+        for (int i = 0; i < 100; i++) {
+            builder.add(i, i);
+        }
+
+        assertEquals(1, first.size());
+        assertEquals(new Point2i(1, 2), first.get(0));
+        assertEquals(101, builder.build().size());
+        assertEquals(new Point2i(99, 99), builder.build().get(100));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndex() {
+        new IntPolyline.Builder().add(1, 1).build().getX(1);
+    }
+}
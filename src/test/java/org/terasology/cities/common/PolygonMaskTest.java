@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Polygon;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests {@link PolygonMask}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class PolygonMaskTest {
+
+    @Test
+    public void testSquare() {
+        Polygon square = new Polygon(new int[] {-16, 16, 16, -16}, new int[] {-16, -16, 16, 16}, 4);
+        PolygonMask mask = new PolygonMask(square, Collections.<Polygon>emptyList(), 8);
+
+        // cells that touch an edge are border cells
+        assertEquals(4, mask.getInsideCellCount());
+        assertEquals(21, mask.getBorderCellCount());
+        assertAgrees(mask, square, Collections.<Polygon>emptyList(), -24, -24, 48);
+    }
+
+    @Test
+    public void testWithHoles() {
+        Polygon outline = new Polygon(new int[] {-64, 0, 72, 40, -8}, new int[] {-40, -80, -8, 64, 48}, 5);
+        Polygon hole1 = new Polygon(new int[] {-16, 8, 0}, new int[] {-16, -24, 8}, 3);
+        Polygon hole2 = new Polygon(new int[] {24, 40, 40, 24}, new int[] {16, 16, 32, 32}, 4);
+        List<Polygon> holes = ImmutableList.of(hole1, hole2);
+
+        PolygonMask mask = new PolygonMask(outline, holes, 8);
+
+        assertTrue(mask.getInsideCellCount() > 0);
+        assertAgrees(mask, outline, holes, -72, -88, 152);
+
+        Random r = new Random(1234);
+        for (int i = 0; i < 10000; i++) {
+            double x = -80 + r.nextDouble() * 160;
+            double y = -90 + r.nextDouble() * 160;
+            assertEquals(expected(outline, holes, x, y), mask.contains(x, y));
+        }
+    }
+
+    private static void assertAgrees(PolygonMask mask, Polygon outline, List<Polygon> holes, int minX, int minY, int size) {
+        for (int y = minY; y < minY + size; y++) {
+            for (int x = minX; x < minX + size; x++) {
+                assertEquals("(" + x + ", " + y + ")", expected(outline, holes, x, y), mask.contains(x, y));
+            }
+        }
+    }
+
+    private static boolean expected(Polygon outline, List<Polygon> holes, double x, double y) {
+        if (!outline.contains(x, y)) {
+            return false;
+        }
+        for (Polygon hole : holes) {
+            if (hole.contains(x, y)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
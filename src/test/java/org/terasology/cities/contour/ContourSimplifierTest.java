@@ -0,0 +1,143 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.contour;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.util.List;
+
+import org.junit.Test;
+import org.terasology.cities.common.IntPolyline;
+import org.terasology.cities.heightmap.HeightMap;
+import org.terasology.cities.heightmap.HeightMapAdapter;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests {@link ContourSimplifier}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class ContourSimplifierTest {
+
+    /**
+     * A round lake with a radius of 40 and a round island with a radius of 8 close to its shore
+     */
+    private final HeightMap lakeMap = new HeightMapAdapter() {
+
+        @Override
+        public int apply(int x, int z) {
+            boolean lake = Math.hypot(x - 50, z - 50) < 40;
+            boolean island = Math.hypot(x - 78, z - 50) < 8;
+            return (lake && !island) ? 0 : 10;
+        }
+    };
+
+    @Test
+    public void testTolerance() {
+        List<Contour> contours = trace();
+        ContourSimplifier simplifier = new ContourSimplifier(1.0);
+        List<Contour> simplified = simplifier.simplify(contours);
+
+        assertEquals(contours.size(), simplified.size());
+
+        for (int i = 0; i < contours.size(); i++) {
+            int before = contours.get(i).getPoints().size();
+            int after = simplified.get(i).getPoints().size();
+            assertTrue(after * 2 < before);
+            assertTrue(after >= 3);
+
+            IntPolyline ring = simplified.get(i).getPath();
+            for (Point pt : contours.get(i).getPoints()) {
+                assertTrue(distanceToRing(pt, ring) <= 1.0 + 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void testTopology() {
+        List<Contour> contours = trace();
+
+        // a large tolerance would let the island and the shore intersect
+        for (double tolerance : new double[] {1.0, 4.0, 10.0, 30.0}) {
+            ContourSimplifier simplifier = new ContourSimplifier(tolerance);
+            List<Contour> simplified = simplifier.simplify(contours);
+
+            IntPolyline lake = simplified.get(0).getPath();
+            IntPolyline island = simplified.get(1).getPath();
+
+            assertFalse(intersect(lake, island));
+            assertFalse(intersect(island, lake));
+
+            Polygon lakePoly = lake.toPolygon();
+            assertTrue(lakePoly.contains(island.getX(0), island.getY(0)));
+        }
+    }
+
+    @Test
+    public void testSmallRing() {
+        Contour c = new Contour();
+        c.addPoint(new Point(0, 0));
+        c.addPoint(new Point(1, 0));
+        c.addPoint(new Point(1, 1));
+
+        assertEquals(3, new ContourSimplifier(10).simplify(c).getPoints().size());
+    }
+
+    private List<Contour> trace() {
+        ContourTracer ct = new ContourTracer(lakeMap, new Rectangle(0, 0, 100, 100), 5);
+        List<Contour> contours = Lists.newArrayList(ct.getOuterContours());
+        contours.addAll(ct.getInnerContours());
+
+        assertEquals(2, contours.size());
+        return contours;
+    }
+
+    private static boolean intersect(IntPolyline a, IntPolyline b) {
+        for (int i = 0; i < a.size(); i++) {
+            int i1 = (i + 1) % a.size();
+            for (int j = 0; j < b.size(); j++) {
+                int j1 = (j + 1) % b.size();
+                if (ContourSimplifier.crosses(a.getX(i), a.getY(i), a.getX(i1), a.getY(i1),
+                        b.getX(j), b.getY(j), b.getX(j1), b.getY(j1))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static double distanceToRing(Point pt, IntPolyline ring) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < ring.size(); i++) {
+            int j = (i + 1) % ring.size();
+            double dx = ring.getX(j) - ring.getX(i);
+            double dy = ring.getY(j) - ring.getY(i);
+            double lenSq = dx * dx + dy * dy;
+            double t = (lenSq > 0) ? ((pt.x - ring.getX(i)) * dx + (pt.y - ring.getY(i)) * dy) / lenSq : 0;
+            t = Math.max(0, Math.min(1, t));
+            min = Math.min(min, Math.hypot(ring.getX(i) + t * dx - pt.x, ring.getY(i) + t * dy - pt.y));
+        }
+        return min;
+    }
+}
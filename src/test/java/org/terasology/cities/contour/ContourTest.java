@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.contour;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link Contour}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class ContourTest {
+
+    @Test
+    public void testViews() {
+        Contour c = new Contour();
+        c.addPoint(new Point(0, 0));
+        c.addPoint(new Point(1, 0));
+        c.addPoint(new Point(2, 0));
+        c.addPoint(new Point(2, 1));
+        c.addPoint(new Point(2, 2));
+        c.addPoint(new Point(0, 2));
+        c.addPoint(new Point(0, 1));
+
+        assertEquals(4, c.getSimplifiedCurve().size());
+
+        Contour scaled = c.scale(8).translate(5, 5);
+        assertEquals(7, scaled.getPoints().size());
+        assertEquals(4, scaled.getSimplifiedCurve().size());
+        assertTrue(scaled.getPoints().contains(new Point(21, 13)));
+        assertTrue(scaled.isInside(10, 10));
+        assertFalse(c.isInside(10, 10));
+
+        // adding points to a view must not change the original
+        scaled.addPoint(new Point(100, 100));
+        assertEquals(8, scaled.getPoints().size());
+        assertEquals(7, c.getPoints().size());
+    }
+}
@@ -17,6 +17,7 @@
 package org.terasology.cities.contour;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.awt.Point;
 import java.awt.Rectangle;
@@ -163,6 +164,50 @@ public void testSimplification() {
         assertEquals(shouldBe, simplePts);
     }
     
+    /**
+     * Inner contours (islands) know their enclosing outer contour (lake)
+     */
+    @Test
+    public void testParents() {
+        List<String> data = Arrays.asList(
+            "               ",
+            " XXXXXX  XXXXX ",
+            " X  XXX  XX XX ",
+            " X  XXX  XXXXX ",
+            " XXXXXX  XXXXX ",
+            " XXX XX        ",
+            " XXXXXX  XXXX  ",
+            "         X  X  ",
+            "         XXXX  ",
+            "               ");
+
+        Rectangle rc = new Rectangle(0, 0, data.get(0).length(), data.size());
+        ConvertingHeightMap hm = new ConvertingHeightMap(HeightMaps.stringBased(data));
+        hm.addConversion(Integer.valueOf('X'), 0);
+        hm.addConversion(Integer.valueOf(' '), 10);
+
+        ContourTracer ct = new ContourTracer(hm, rc, 5);
+        List<Contour> outer = ct.getOuterContours();
+        List<Contour> inner = ct.getInnerContours();
+
+        assertEquals(3, outer.size());
+        assertEquals(4, inner.size());
+
+        for (int i = 0; i < inner.size(); i++) {
+            Rectangle lake = outer.get(ct.getParentIndex(i)).getPath().getBounds();
+            for (Point pt : inner.get(i).getPoints()) {
+                assertTrue(pt.x >= lake.x && pt.x <= lake.x + lake.width);
+                assertTrue(pt.y >= lake.y && pt.y <= lake.y + lake.height);
+            }
+        }
+
+        // the first lake has two islands, the others have one each
+        assertEquals(0, ct.getParentIndex(0));
+        assertEquals(1, ct.getParentIndex(1));
+        assertEquals(0, ct.getParentIndex(2));
+        assertEquals(2, ct.getParentIndex(3));
+    }
+
     private List<String> drawContour(Collection<Contour> cts, int width, int height) {
         
         char[] glyphs = {'X', 'O', 'H', 'V', 'S', 'I'};
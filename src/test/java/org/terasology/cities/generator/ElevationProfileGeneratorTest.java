@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+import org.terasology.cities.heightmap.HeightMap;
+import org.terasology.cities.heightmap.HeightMapAdapter;
+import org.terasology.cities.model.ElevationProfile;
+import org.terasology.cities.model.Junction;
+import org.terasology.cities.model.Road;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests {@link ElevationProfileGenerator}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class ElevationProfileGeneratorTest {
+
+    @Test
+    public void testArcLength() {
+        HeightMap ramp = new HeightMapAdapter() {
+
+            @Override
+            public int apply(int x, int z) {
+                return x / 4 + z / 4;
+            }
+        };
+
+        // 300 blocks along x, then 400 blocks along z
+        Road road = new Road(new Junction(new Point2i(0, 0)), new Junction(new Point2i(300, 400)),
+                ImmutableList.of(new Point2i(300, 0)), 5.0);
+
+        ElevationProfile profile = new ElevationProfileGenerator(ramp).apply(road);
+
+        assertEquals(700, profile.getLength(), 0.001);
+
+        // smoothing preserves a linear slope away from the ends
+        assertEquals(25, profile.getHeight(100), 0.5);
+        assertEquals(100, profile.getHeight(400), 0.5);
+        assertEquals(150, profile.getHeight(600), 0.5);
+
+        // clamped to the ends
+        assertEquals(profile.getHeight(0), profile.getHeight(-10), 0.0);
+        assertEquals(profile.getHeight(700), profile.getHeight(800), 0.0);
+    }
+
+    @Test
+    public void testSmoothing() {
+        HeightMap spike = new HeightMapAdapter() {
+
+            @Override
+            public int apply(int x, int z) {
+                return (x >= 198 && x <= 202) ? 50 : 10;
+            }
+        };
+
+        Road road = new Road(new Junction(new Point2i(0, 0)), new Junction(new Point2i(400, 0)),
+                Collections.<Point2i>emptyList(), 5.0);
+
+        ElevationProfile raw = new ElevationProfileGenerator(spike, 4.0, 0).apply(road);
+        ElevationProfile smooth = new ElevationProfileGenerator(spike).apply(road);
+
+        assertEquals(50, raw.getHeight(200), 0.0);
+        assertTrue(smooth.getHeight(200) < 20);
+        assertTrue(smooth.getHeight(190) > 10);
+        assertEquals(10, smooth.getBlockHeight(100));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.Collections;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+import org.terasology.cities.contour.Contour;
+import org.terasology.cities.heightmap.HeightMaps;
+import org.terasology.cities.model.CostGrid;
+import org.terasology.cities.model.Junction;
+import org.terasology.cities.model.Lake;
+import org.terasology.cities.model.Road;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Site;
+import org.terasology.cities.model.SitePair;
+import org.terasology.cities.model.WaterMask;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests {@link HighwayGenerator}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class HighwayGeneratorTest {
+
+    /**
+     * A lake that covers the middle way point of a highway from (100, 300) to (1900, 300)
+     */
+    private final Function<Sector, Set<Lake>> lakes = new Function<Sector, Set<Lake>>() {
+
+        @Override
+        public Set<Lake> apply(Sector sector) {
+            if (sector.getCoords().equals(new Point2i(0, 0))) {
+                return ImmutableSet.of(new Lake(contour(800, 100, 1020, 100, 1020, 600, 800, 600), "Lake"));
+            }
+            return Collections.emptySet();
+        }
+    };
+
+    private final Function<Sector, WaterMask> masks = new WaterMaskGenerator(lakes, 8);
+
+    private final Function<Point2i, Junction> junctions = new Function<Point2i, Junction>() {
+
+        @Override
+        public Junction apply(Point2i input) {
+            return new Junction(input);
+        }
+    };
+
+    @Test
+    public void testAroundLake() {
+        Function<Sector, CostGrid> grids = new CostGridGenerator(HeightMaps.constant(10), masks, 8);
+        RoadRouter router = new RoadRouter(grids, 8, 20000);
+        HighwayGenerator gen = new HighwayGenerator(junctions, router, masks);
+
+        Road road = gen.apply(new SitePair(new Site(100, 300, 50), new Site(1900, 300, 50)));
+
+        assertEquals(7.0, road.getWidth(), 0.0);
+        assertFalse(road.getPoints().isEmpty());
+        assertFalse(new RoadWaterFilter(masks).isBlocked(road));
+
+        Road straight = new Road(road.getStart(), road.getEnd(), Collections.<Point2i>emptyList(), 7.0);
+        assertTrue(new RoadWaterFilter(masks).isBlocked(straight));
+    }
+
+    @Test
+    public void testMaxDeviation() {
+        Function<Sector, CostGrid> grids = new CostGridGenerator(HeightMaps.constant(10), masks, 8);
+        RoadRouter router = new RoadRouter(grids, 8, 20000);
+        HighwayGenerator gen = new HighwayGenerator(junctions, router, masks);
+
+        Road road = gen.apply(new SitePair(new Site(100, 300, 50), new Site(1900, 300, 50)));
+
+        Rectangle bbox = new Rectangle(100, 300, 0, 0);
+        bbox.add(1900, 300);
+        int dev = gen.getMaxDeviation();
+        bbox.grow(dev, dev);
+
+        for (Point2i pt : road.getPoints()) {
+            assertTrue(bbox.contains(pt.x, pt.y));
+        }
+
+        assertTrue(dev <= Sector.SIZE);
+    }
+
+    private static Contour contour(int... coords) {
+        Contour c = new Contour();
+        for (int i = 0; i < coords.length; i += 2) {
+            c.addPoint(new Point(coords[i], coords[i + 1]));
+        }
+        return c;
+    }
+}
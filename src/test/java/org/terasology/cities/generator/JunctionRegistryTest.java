@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+import org.terasology.cities.common.CachingFunction;
+import org.terasology.cities.model.Junction;
+import org.terasology.cities.model.Road;
+import org.terasology.cities.model.Site;
+import org.terasology.cities.model.SitePair;
+
+/**
+ * Tests {@link JunctionRegistry}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class JunctionRegistryTest {
+
+    @Test
+    public void testReferenceCount() {
+        JunctionRegistry registry = new JunctionRegistry();
+
+        Junction a = registry.apply(new Point2i(-3, 7));
+        assertSame(a, registry.apply(new Point2i(-3, 7)));
+        assertEquals(1, registry.size());
+
+        registry.release(a);
+        assertEquals(1, registry.size());
+
+        registry.release(a);
+        assertEquals(0, registry.size());
+
+        assertNotSame(a, registry.apply(new Point2i(-3, 7)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRetainOtherInstance() {
+        JunctionRegistry registry = new JunctionRegistry();
+        registry.apply(new Point2i(1, 2));
+        registry.retain(new Junction(new Point2i(1, 2)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testReleaseUnknown() {
+        new JunctionRegistry().release(new Junction(new Point2i(1, 2)));
+    }
+
+    /**
+     * The road cache evicts a road that is still used by a cached sector.
+     * A new road for the same sites must get the same junction instances.
+     */
+    @Test
+    public void testRoadCacheEviction() {
+        JunctionRegistry registry = new JunctionRegistry();
+        CachingFunction<SitePair, Road> roads = CachingFunction.wrap(new RoadGeneratorSimple(registry), 10, registry.roadReleaser());
+
+        SitePair pair = new SitePair(new Site(0, 0, 10), new Site(500, 100, 10));
+        Road road = roads.apply(pair);
+
+        // a cached sector keeps a reference
+        registry.retain(road);
+
+        roads.invalidate(pair);
+        assertEquals(2, registry.size());
+
+        Road again = roads.apply(pair);
+        assertNotSame(road, again);
+        assertSame(road.getStart(), again.getStart());
+        assertSame(road.getEnd(), again.getEnd());
+
+        // the sector and the road cache are released -> memory is reclaimed
+        registry.release(road);
+        roads.invalidateAll();
+        assertEquals(0, registry.size());
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.BasicStroke;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+import org.terasology.cities.common.HeightRange;
+import org.terasology.cities.common.PathUtils;
+import org.terasology.cities.heightmap.HeightMap;
+import org.terasology.cities.heightmap.HeightMapAdapter;
+import org.terasology.cities.model.ElevationProfile;
+import org.terasology.cities.model.Junction;
+import org.terasology.cities.model.Road;
+import org.terasology.cities.model.RoadDistanceField;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Sectors;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+/**
+ * Tests {@link RoadDistanceFieldGenerator}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class RoadDistanceFieldGeneratorTest {
+
+    private final HeightMap heightMap = new HeightMapAdapter() {
+
+        @Override
+        public int apply(int x, int z) {
+            return x / 10;
+        }
+    };
+
+    private final Road road = new Road(new Junction(new Point2i(100, 100)), new Junction(new Point2i(700, 500)),
+            ImmutableList.of(new Point2i(300, 150), new Point2i(500, 420)), 5.0);
+
+    @Test
+    public void testMatchesStrokedShape() {
+        RoadDistanceField field = createField(road, Sectors.getSector(0, 0));
+
+        List<Point2i> pts = Lists.newArrayList(road.getPoints());
+        pts.add(0, road.getStart().getCoords());
+        pts.add(road.getEnd().getCoords());
+        Path2D path = PathUtils.createSegmentPath(pts);
+        Shape shape = new BasicStroke(5f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND).createStrokedShape(path);
+
+        int roadCount = 0;
+        int mismatch = 0;
+        for (int z = 0; z < Sector.SIZE; z++) {
+            for (int x = 0; x < Sector.SIZE; x++) {
+                boolean expected = shape.contains(x, z);
+                if (expected) {
+                    roadCount++;
+                }
+                if (expected != field.isRoad(x, z)) {
+                    mismatch++;
+                }
+            }
+        }
+
+        assertTrue(roadCount > 2000);
+        assertTrue("mismatch: " + mismatch + " of " + roadCount, mismatch < roadCount / 50);
+    }
+
+    @Test
+    public void testBlockingAndHeight() {
+        RoadDistanceField field = createField(road, Sectors.getSector(0, 0));
+
+        // the first segment is almost horizontal
+        assertTrue(field.isRoad(200, 125));
+        assertTrue(field.isBlocked(200, 132));
+        assertFalse(field.isBlocked(200, 140));
+        assertEquals(field.getDistance(200, 125), -2.5, 0.5);
+
+        // height of the centerline
+        assertEquals(heightMap.apply(200, 125), field.getHeight(200, 125), 1);
+        assertEquals(heightMap.apply(600, 460), field.getHeight(600, 460), 1);
+        assertEquals(heightMap.apply(600, 460), field.getHeight(600, 457), 1);
+    }
+
+    @Test
+    public void testMargin() {
+        // the road is in the neighbor sector, but close to the border
+        int x = Sector.SIZE + 1;
+        Road border = new Road(new Junction(new Point2i(x, 100)), new Junction(new Point2i(x, 300)),
+                Collections.<Point2i>emptyList(), 5.0);
+
+        RoadDistanceField field = createField(border, Sectors.getSector(0, 0));
+
+        assertTrue(field.isRoad(Sector.SIZE - 1, 200));
+        assertTrue(field.isBlocked(Sector.SIZE - 5, 200));
+        assertFalse(field.isBlocked(Sector.SIZE - 20, 200));
+    }
+
+    @Test
+    public void testUsesProfile() {
+        ElevationProfile profile = new ElevationProfile(new float[] {70, 80}, 200);
+        Road flat = new Road(new Junction(new Point2i(100, 100)), new Junction(new Point2i(300, 100)),
+                Collections.<Point2i>emptyList(), 5.0, HeightRange.ALL, profile);
+
+        RoadDistanceField field = createField(flat, Sectors.getSector(0, 0));
+
+        assertEquals(70, field.getHeight(100, 101));
+        assertEquals(75, field.getHeight(200, 99));
+        assertEquals(80, field.getHeight(302, 100));
+    }
+
+    @Test
+    public void testBlockingPerRoad() {
+        Road highway = new Road(new Junction(new Point2i(100, 600)), new Junction(new Point2i(900, 600)),
+                Collections.<Point2i>emptyList(), 7.0);
+        Road lane = new Road(new Junction(new Point2i(100, 800)), new Junction(new Point2i(900, 800)),
+                Collections.<Point2i>emptyList(), 2.0);
+
+        Function<Object, Set<Road>> roads = Functions.<Set<Road>>constant(ImmutableSet.of(highway, lane));
+        RoadDistanceField field = new RoadDistanceFieldGenerator(roads, heightMap).apply(Sectors.getSector(0, 0));
+
+        // every road blocks its own width beyond its edge
+        assertTrue(field.isBlocked(500, 600 + 10));
+        assertFalse(field.isBlocked(500, 600 + 12));
+        assertTrue(field.isBlocked(500, 800 + 3));
+        assertFalse(field.isBlocked(500, 800 + 4));
+        assertFalse(field.isBlocked(new Rectangle(400, 804, 20, 20)));
+    }
+
+    @Test
+    public void testSparse() {
+        RoadDistanceField field = createField(road, Sectors.getSector(0, 0));
+
+        // far away from the road
+        assertEquals(Float.POSITIVE_INFINITY, field.getDistance(900, 100), 0.0);
+        assertFalse(field.isBlocked(new Rectangle(800, 0, 200, 200)));
+        assertTrue(field.isBlocked(new Rectangle(190, 100, 20, 20)));
+
+        Rectangle area = field.getArea();
+        int fullSize = area.width * area.height * 4;
+        assertTrue(field.getMemoryFootprint() < fullSize / 10);
+    }
+
+    private RoadDistanceField createField(Road r, Sector sector) {
+        Function<Object, Set<Road>> roads = Functions.<Set<Road>>constant(Collections.singleton(r));
+        return new RoadDistanceFieldGenerator(roads, heightMap).apply(sector);
+    }
+}
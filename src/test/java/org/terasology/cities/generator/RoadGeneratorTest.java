@@ -28,7 +28,6 @@
 import org.terasology.cities.CityTerrainComponent;
 import org.terasology.cities.SectorConnector;
 import org.terasology.cities.common.CachingFunction;
-import org.terasology.cities.common.UnorderedPair;
 import org.terasology.cities.heightmap.HeightMap;
 import org.terasology.cities.heightmap.HeightMaps;
 import org.terasology.cities.model.Junction;
@@ -36,6 +35,7 @@
 import org.terasology.cities.model.Sector;
 import org.terasology.cities.model.Sectors;
 import org.terasology.cities.model.Site;
+import org.terasology.cities.model.SitePair;
 
 import com.google.common.base.Function;
 import com.google.common.base.Stopwatch;
@@ -84,18 +84,17 @@ public AreaInfo apply(Sector input) {
 
         double maxDist = 800;
         Function<Site, Set<Site>> cc = new SiteConnector(cpr, maxDist);
-        Function<Sector, Set<UnorderedPair<Site>>> sc = new SectorConnector(cpr, cc);
+        Function<Sector, Set<SitePair>> sc = new SectorConnector(cpr, cc);
         sc = CachingFunction.wrap(sc);
 
-        Function<UnorderedPair<Site>, Road> rg = new Function<UnorderedPair<Site>, Road>() {
+        Function<SitePair, Road> rg = new Function<SitePair, Road>() {
             private RoadGeneratorSimple rgs = new RoadGeneratorSimple(junctions);
             private RoadModifierRandom rmr = new RoadModifierRandom(0.01);
 
             @Override
-            public Road apply(UnorderedPair<Site> input) {
+            public Road apply(SitePair input) {
                 Road road = rgs.apply(input);
-                rmr.apply(road);
-                return road;
+                return rmr.apply(road);
             }
             
         };
@@ -116,10 +115,10 @@ public Road apply(UnorderedPair<Site> input) {
             for (int z = 0; z < sectors; z++) {
                 Sector sector = Sectors.getSector(x, z);
                 
-                Set<UnorderedPair<Site>> conns = sc.apply(sector);
+                Set<SitePair> conns = sc.apply(sector);
                 hits += conns.size();
                 
-                for (UnorderedPair<Site> conn : conns) {
+                for (SitePair conn : conns) {
                     rg.apply(conn);
                 }
             }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+import org.terasology.cities.common.HeightRange;
+import org.terasology.cities.model.Junction;
+import org.terasology.cities.model.Road;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests {@link RoadModifierRandom}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class RoadModifierRandomTest {
+
+    @Test
+    public void testOriginalUnchanged() {
+        Junction start = new Junction(new Point2i(0, 0));
+        Junction end = new Junction(new Point2i(400, 0));
+        List<Point2i> points = ImmutableList.of(new Point2i(100, 0), new Point2i(200, 0), new Point2i(300, 0));
+        Road road = new Road(start, end, points, 3.0, new HeightRange(5, 10));
+
+        Road modified = new RoadModifierRandom(0.5).apply(road);
+
+        assertEquals(points, road.getPoints());
+        assertEquals(points.size(), modified.getPoints().size());
+        assertSame(start, modified.getStart());
+        assertSame(end, modified.getEnd());
+        assertEquals(3.0, modified.getWidth(), 0.0);
+        assertEquals(new HeightRange(5, 10), modified.getHeightRange());
+    }
+}
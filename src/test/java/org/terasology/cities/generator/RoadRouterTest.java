@@ -0,0 +1,139 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+import org.terasology.cities.contour.Contour;
+import org.terasology.cities.heightmap.HeightMap;
+import org.terasology.cities.heightmap.HeightMapAdapter;
+import org.terasology.cities.heightmap.HeightMaps;
+import org.terasology.cities.model.CostGrid;
+import org.terasology.cities.model.Junction;
+import org.terasology.cities.model.Lake;
+import org.terasology.cities.model.Road;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.WaterMask;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests {@link RoadRouter}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class RoadRouterTest {
+
+    /**
+     * A lake in sector (0, 0) that blocks the direct line from (100, 300) to (600, 300)
+     */
+    private final Function<Sector, Set<Lake>> lakes = new Function<Sector, Set<Lake>>() {
+
+        @Override
+        public Set<Lake> apply(Sector sector) {
+            if (sector.getCoords().equals(new Point2i(0, 0))) {
+                return ImmutableSet.of(new Lake(contour(300, 150, 400, 150, 400, 450, 300, 450), "Lake"));
+            }
+            return Collections.emptySet();
+        }
+    };
+
+    private final Function<Sector, WaterMask> masks = new WaterMaskGenerator(lakes, 8);
+
+    @Test
+    public void testFlat() {
+        RoadRouter router = createRouter(HeightMaps.constant(10), 10000);
+
+        Optional<List<Point2i>> route = router.route(new Point2i(-300, 500), new Point2i(200, 900));
+        assertTrue(route.isPresent());
+        assertTrue(route.get().isEmpty());
+    }
+
+    @Test
+    public void testLake() {
+        RoadRouter router = createRouter(HeightMaps.constant(10), 10000);
+        Point2i from = new Point2i(100, 300);
+        Point2i to = new Point2i(600, 300);
+
+        Optional<List<Point2i>> route = router.route(from, to);
+        assertTrue(route.isPresent());
+        assertFalse(route.get().isEmpty());
+
+        RoadWaterFilter filter = new RoadWaterFilter(masks);
+        assertTrue(filter.isBlocked(road(from, to, Collections.<Point2i>emptyList())));
+        assertFalse(filter.isBlocked(road(from, to, route.get())));
+    }
+
+    @Test
+    public void testHill() {
+        // a steep cone around (400, 300)
+        HeightMap hill = new HeightMapAdapter() {
+
+            @Override
+            public int apply(int x, int z) {
+                double dist = Math.hypot(x - 400, z - 300);
+                return (int) Math.max(10, 110 - dist);
+            }
+        };
+
+        RoadRouter router = createRouter(hill, 10000);
+        Optional<List<Point2i>> route = router.route(new Point2i(200, 300), new Point2i(600, 300));
+        assertTrue(route.isPresent());
+        assertFalse(route.get().isEmpty());
+
+        for (Point2i pt : route.get()) {
+            assertTrue(hill.apply(pt) < 60);
+        }
+    }
+
+    @Test
+    public void testBudget() {
+        RoadRouter router = createRouter(HeightMaps.constant(10), 20);
+
+        Optional<List<Point2i>> route = router.route(new Point2i(100, 300), new Point2i(600, 300));
+        assertFalse(route.isPresent());
+    }
+
+    private RoadRouter createRouter(HeightMap heightMap, int maxNodes) {
+        Function<Sector, CostGrid> grids = new CostGridGenerator(heightMap, masks, 8);
+        return new RoadRouter(grids, 8, maxNodes);
+    }
+
+    private static Road road(Point2i from, Point2i to, List<Point2i> points) {
+        return new Road(new Junction(from), new Junction(to), points, 5.0);
+    }
+
+    private static Contour contour(int... coords) {
+        Contour c = new Contour();
+        for (int i = 0; i < coords.length; i += 2) {
+            c.addPoint(new Point(coords[i], coords[i + 1]));
+        }
+        return c;
+    }
+}
@@ -30,7 +30,6 @@
 import org.terasology.cities.SectorConnector;
 import org.terasology.cities.common.CachingFunction;
 import org.terasology.cities.common.Orientation;
-import org.terasology.cities.common.UnorderedPair;
 import org.terasology.cities.heightmap.HeightMap;
 import org.terasology.cities.heightmap.HeightMaps;
 import org.terasology.cities.model.Junction;
@@ -38,6 +37,7 @@
 import org.terasology.cities.model.Sector;
 import org.terasology.cities.model.Sectors;
 import org.terasology.cities.model.Site;
+import org.terasology.cities.model.SitePair;
 
 import com.google.common.base.Function;
 import com.google.common.base.Stopwatch;
@@ -87,17 +87,16 @@ public AreaInfo apply(Sector input) {
 
         double maxDist = 800;
         Function<Site, Set<Site>> cc = new SiteConnector(cpr, maxDist);
-        final Function<Sector, Set<UnorderedPair<Site>>> sc = CachingFunction.wrap(new SectorConnector(cpr, cc));
+        final Function<Sector, Set<SitePair>> sc = CachingFunction.wrap(new SectorConnector(cpr, cc));
 
-        final Function<UnorderedPair<Site>, Road> rg = CachingFunction.wrap(new Function<UnorderedPair<Site>, Road>() {
+        final Function<SitePair, Road> rg = CachingFunction.wrap(new Function<SitePair, Road>() {
             private RoadGeneratorSimple rgs = new RoadGeneratorSimple(junctions);
             private RoadModifierRandom rmr = new RoadModifierRandom(0.01);
 
             @Override
-            public Road apply(UnorderedPair<Site> input) {
+            public Road apply(SitePair input) {
                 Road road = rgs.apply(input);
-                rmr.apply(road);
-                return road;
+                return rmr.apply(road);
             }
             
         });
@@ -108,8 +107,8 @@ public Road apply(UnorderedPair<Site> input) {
             public Set<Road> apply(Sector sector) {
                 Set<Road> allRoads = Sets.newHashSet();
                 
-                Set<UnorderedPair<Site>> localConns = sc.apply(sector);
-                Set<UnorderedPair<Site>> allConns = Sets.newHashSet(localConns);
+                Set<SitePair> localConns = sc.apply(sector);
+                Set<SitePair> allConns = Sets.newHashSet(localConns);
                 
                 // add all neighbors, because their roads might be passing through
                 for (Orientation dir : Orientation.values()) {
@@ -118,7 +117,7 @@ public Set<Road> apply(Sector sector) {
                     allConns.addAll(sc.apply(neighbor));
                 }
 
-                for (UnorderedPair<Site> conn : allConns) {
+                for (SitePair conn : allConns) {
                     Road road = rg.apply(conn);
                     allRoads.add(road);
                 }
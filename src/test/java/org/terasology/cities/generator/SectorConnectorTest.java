@@ -29,12 +29,12 @@
 import org.terasology.cities.SectorConnector;
 import org.terasology.cities.common.CachingFunction;
 import org.terasology.cities.common.Point2iUtils;
-import org.terasology.cities.common.UnorderedPair;
 import org.terasology.cities.heightmap.HeightMap;
 import org.terasology.cities.heightmap.HeightMaps;
 import org.terasology.cities.model.Sector;
 import org.terasology.cities.model.Sectors;
 import org.terasology.cities.model.Site;
+import org.terasology.cities.model.SitePair;
 
 import com.google.common.base.Function;
 import com.google.common.base.Stopwatch;
@@ -91,12 +91,12 @@ public AreaInfo apply(Sector input) {
             for (int z = 0; z < sectors; z++) {
                 Sector sector = Sectors.getSector(x, z);
                 
-                Set<UnorderedPair<Site>> conns = sc.apply(sector);
+                Set<SitePair> conns = sc.apply(sector);
                 hits += conns.size();
                 
                 // if only one connection exists, it may be longer -> keep cities connected
                 if (conns.size() > 1) {
-                    for (UnorderedPair<Site> conn : conns) {
+                    for (SitePair conn : conns) {
                         assertTrue("distance > maxDist", Point2iUtils.distance(conn.getA().getPos(), conn.getB().getPos()) <= maxDist);
                     }
                 }
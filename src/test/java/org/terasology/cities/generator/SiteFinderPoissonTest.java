@@ -0,0 +1,118 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+import org.terasology.cities.AreaInfo;
+import org.terasology.cities.CityTerrainComponent;
+import org.terasology.cities.common.Point2iUtils;
+import org.terasology.cities.heightmap.HeightMaps;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Sectors;
+import org.terasology.cities.model.Site;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Tests {@link SiteFinderPoisson}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class SiteFinderPoissonTest {
+
+    private final Function<Object, AreaInfo> sectorInfos =
+            Functions.constant(new AreaInfo(new CityTerrainComponent(), HeightMaps.constant(10)));
+
+    @Test
+    public void testMinDistanceAcrossSectors() {
+        SiteFinderPoisson finder = new SiteFinderPoisson("asd", sectorInfos, 3, 8, 10, 100);
+
+        List<Site> all = Lists.newArrayList();
+        for (int z = -3; z < 3; z++) {
+            for (int x = -3; x < 3; x++) {
+                all.addAll(finder.apply(Sectors.getSector(x, z)));
+            }
+        }
+
+        // at least 3 sites per sector
+        assertTrue(all.size() >= 6 * 6 * 3);
+
+        for (int i = 0; i < all.size(); i++) {
+            for (int j = i + 1; j < all.size(); j++) {
+                double dist = Point2iUtils.distance(all.get(i).getPos(), all.get(j).getPos());
+                assertTrue(dist >= 200);
+            }
+        }
+    }
+
+    @Test
+    public void testOrderIndependence() {
+        SiteFinderPoisson forward = new SiteFinderPoisson("asd", sectorInfos, 3, 8, 10, 100);
+        SiteFinderPoisson backward = new SiteFinderPoisson("asd", sectorInfos, 3, 8, 10, 100);
+
+        for (int x = 0; x < 4; x++) {
+            forward.apply(Sectors.getSector(x, 0));
+        }
+
+        for (int x = 3; x >= 0; x--) {
+            Set<Site> a = forward.apply(Sectors.getSector(x, 0));
+            Set<Site> b = backward.apply(Sectors.getSector(x, 0));
+
+            assertEquals(a.size(), b.size());
+            assertEquals(positions(a), positions(b));
+        }
+    }
+
+    @Test
+    public void testSiteIndex() {
+        SiteIndex index = new SiteIndex(100);
+        Site a = new Site(-150, 20, 10);
+        Site b = new Site(40, 20, 10);
+        Site c = new Site(1000, 1000, 10);
+        index.add(a);
+        index.add(b);
+        index.add(c);
+
+        Set<Site> range = index.getSitesInRange(new Point2i(0, 20), 160);
+        assertEquals(2, range.size());
+        assertTrue(range.contains(a));
+        assertTrue(range.contains(b));
+        assertTrue(index.hasSitesInRange(new Point2i(990, 990), 20));
+        assertFalse(index.hasSitesInRange(new Point2i(0, 0), 10));
+    }
+
+    private static Set<Point2i> positions(Set<Site> sites) {
+        Set<Point2i> result = Sets.newHashSet();
+        for (Site site : sites) {
+            result.add(site.getPos());
+        }
+        return result;
+    }
+}
@@ -20,6 +20,7 @@
 import static org.junit.Assert.assertTrue;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import javax.vecmath.Point2i;
@@ -29,6 +30,7 @@
 import org.terasology.cities.AreaInfo;
 import org.terasology.cities.CityTerrainComponent;
 import org.terasology.cities.common.CachingFunction;
+import org.terasology.cities.common.Point2iUtils;
 import org.terasology.cities.heightmap.HeightMap;
 import org.terasology.cities.heightmap.HeightMaps;
 import org.terasology.cities.heightmap.NoiseHeightMap;
@@ -40,6 +42,7 @@
 
 import com.google.common.base.Function;
 import com.google.common.collect.Collections2;
+import com.google.common.collect.Lists;
 
 /**
  * Tests {@link SiteFinderRandom}
@@ -108,6 +111,43 @@ public void testSame() {
         assertMirrored(sitesA, sitesA);
     }
     
+    /**
+     * Sites on opposite sides of the symmetry axis must respect the min. distance, too
+     */
+    @Test
+    public void testMinDistance() {
+        Symmetry sym = Symmetries.alongNegativeDiagonal();
+        final CityTerrainComponent config = new CityTerrainComponent();
+        final HeightMap heightMap = HeightMaps.constant(config.getSeaLevel() + 10);
+        Function<Sector, AreaInfo> sectorInfos = new Function<Sector, AreaInfo>() {
+
+            @Override
+            public AreaInfo apply(Sector input) {
+                return new AreaInfo(config, heightMap);
+            }
+        };
+
+        // many small sites, so that some of them are close to the symmetry axis
+        SiteFinderPoisson poisson = new SiteFinderPoisson("axis", sectorInfos, 20, 30, 10, 20);
+        SymmetricSiteFinder finder = new SymmetricSiteFinder(CachingFunction.wrap(poisson), sym);
+
+        List<Point2i> all = Lists.newArrayList();
+        for (int y = -3; y < 3; y++) {
+            for (int x = -3; x < 3; x++) {
+                all.addAll(Collections2.transform(finder.apply(Sectors.getSector(x, y)), site2pos));
+            }
+        }
+
+        assertTrue(all.size() > 100);
+
+        for (int i = 0; i < all.size(); i++) {
+            for (int j = i + 1; j < all.size(); j++) {
+                double dist = Point2iUtils.distance(all.get(i), all.get(j));
+                assertTrue(all.get(i) + " - " + all.get(j), dist >= 200);
+            }
+        }
+    }
+
     private void assertMirrored(Set<Site> sitesA, Set<Site> sitesB) {
         Collection<Point2i> posA = Collections2.transform(sitesA, site2pos);
         Collection<Point2i> posB = Collections2.transform(sitesB, site2pos);
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+import java.util.Collections;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+import org.terasology.cities.contour.Contour;
+import org.terasology.cities.model.Junction;
+import org.terasology.cities.model.Lake;
+import org.terasology.cities.model.Road;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Sectors;
+import org.terasology.cities.model.WaterMask;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests {@link WaterMaskGenerator} and {@link RoadWaterFilter}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class WaterMaskGeneratorTest {
+
+    /**
+     * An L-shaped lake in sector (0, 0) and a square lake in sector (1, 0)
+     */
+    private final Function<Sector, Set<Lake>> lakes = new Function<Sector, Set<Lake>>() {
+
+        @Override
+        public Set<Lake> apply(Sector sector) {
+            if (sector.getCoords().equals(new Point2i(0, 0))) {
+                return ImmutableSet.of(new Lake(contour(200, 200, 400, 200, 400, 240, 240, 240, 240, 400, 200, 400), "L"));
+            }
+            if (sector.getCoords().equals(new Point2i(1, 0))) {
+                return ImmutableSet.of(new Lake(contour(1200, 100, 1300, 100, 1300, 200, 1200, 200), "Square"));
+            }
+            return Collections.emptySet();
+        }
+    };
+
+    private final Function<Sector, WaterMask> masks = new Function<Sector, WaterMask>() {
+        private final WaterMaskGenerator gen = new WaterMaskGenerator(lakes, 8);
+
+        @Override
+        public WaterMask apply(Sector sector) {
+            return gen.apply(sector);
+        }
+    };
+
+    @Test
+    public void testMask() {
+        WaterMask mask = masks.apply(Sectors.getSector(0, 0));
+
+        assertEquals(1, mask.getLakeCount());
+        assertTrue(mask.isWater(210, 210));
+        assertTrue(mask.isWater(390, 220));
+        assertTrue(mask.isWater(220, 390));
+        assertFalse(mask.isWater(390, 390));
+        assertFalse(mask.isWater(100, 100));
+        assertFalse(mask.isWater(-100, 210));
+    }
+
+    @Test
+    public void testSegments() {
+        WaterMask mask = masks.apply(Sectors.getSector(0, 0));
+
+        assertTrue(mask.intersects(100, 220, 500, 220));
+        assertTrue(mask.intersects(220, 500, 220, 100));
+
+        // inside the bounding box, but not on water
+        assertFalse(mask.intersects(300, 300, 390, 390));
+        assertFalse(mask.intersects(300, 390, 390, 300));
+
+        // outside the bounding box
+        assertFalse(mask.intersects(0, 500, 500, 500));
+
+        // starts outside the sector
+        assertTrue(mask.intersects(-500, 210, 300, 210));
+        assertFalse(mask.intersects(-500, 210, -100, 210));
+    }
+
+    @Test
+    public void testRoads() {
+        RoadWaterFilter filter = new RoadWaterFilter(masks);
+
+        assertTrue(filter.isBlocked(road(100, 220, 500, 220)));
+        assertFalse(filter.isBlocked(road(100, 100, 500, 100)));
+
+        // the junction is just inside the lake
+        assertFalse(filter.isBlocked(road(205, 100, 205, 205)));
+
+        // crosses the lake in the neighbor sector
+        assertTrue(filter.isBlocked(road(900, 150, 1400, 150)));
+
+        // the intermediate point is not in the water, but the segment crosses it
+        Road detour = new Road(new Junction(new Point2i(100, 300)), new Junction(new Point2i(100, 100)),
+                ImmutableList.of(new Point2i(500, 220)), 5.0);
+        assertTrue(filter.isBlocked(detour));
+    }
+
+    private static Road road(int x0, int z0, int x1, int z1) {
+        return new Road(new Junction(new Point2i(x0, z0)), new Junction(new Point2i(x1, z1)),
+                Collections.<Point2i>emptyList(), 5.0);
+    }
+
+    private static Contour contour(int... coords) {
+        Contour c = new Contour();
+        for (int i = 0; i < coords.length; i += 2) {
+            c.addPoint(new Point(coords[i], coords[i + 1]));
+        }
+        return c;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.model;
+
+import java.util.Random;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Sets;
+
+/**
+ * Places random sites in every sector, based only on the sector coordinates - for testing.
+ * The result is not cached, so every call creates new instances.
+ * @author Martin Steiger
+ */
+public class RandomSiteMap implements Function<Sector, Set<Site>> {
+
+    private final int minCount;
+    private final int maxCount;
+    private final int minRadius;
+    private final int maxRadius;
+
+    /**
+     * @param minCount the min. number of sites per sector (inclusive)
+     * @param maxCount the max. number of sites per sector (inclusive)
+     * @param minRadius the min. site radius (inclusive)
+     * @param maxRadius the max. site radius (inclusive)
+     */
+    public RandomSiteMap(int minCount, int maxCount, int minRadius, int maxRadius) {
+        this.minCount = minCount;
+        this.maxCount = maxCount;
+        this.minRadius = minRadius;
+        this.maxRadius = maxRadius;
+    }
+
+    @Override
+    public Set<Site> apply(Sector sector) {
+        Point2i coords = sector.getCoords();
+        Random random = new Random(coords.x * 31 + coords.y * 1327);
+        Set<Site> sites = Sets.newHashSet();
+
+        int count = minCount + random.nextInt(maxCount - minCount + 1);
+        for (int i = 0; i < count; i++) {
+            int x = coords.x * Sector.SIZE + random.nextInt(Sector.SIZE);
+            int z = coords.y * Sector.SIZE + random.nextInt(Sector.SIZE);
+            int radius = (maxRadius > minRadius) ? minRadius + random.nextInt(maxRadius - minRadius + 1) : minRadius;
+            sites.add(new Site(x, z, radius));
+        }
+        return sites;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+import org.terasology.cities.RegionalSectorConnector;
+import org.terasology.cities.common.CachingFunction;
+import org.terasology.cities.common.Orientation;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Sets;
+
+/**
+ * Tests {@link SitePair}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class SitePairTest {
+
+    @Test
+    public void testCanonical() {
+        Site a = new Site(-5, 100, 20);
+        Site b = new Site(-5, -100, 30);
+
+        SitePair ab = new SitePair(a, b);
+        SitePair ba = new SitePair(b, a);
+
+        assertSame(b, ab.getA());
+        assertSame(b, ba.getA());
+        assertEquals(ab, ba);
+        assertEquals(ab.hashCode(), ba.hashCode());
+
+        // different instances with equal content
+        assertEquals(ab, new SitePair(new Site(-5, 100, 20), new Site(-5, -100, 30)));
+        assertFalse(ab.equals(new SitePair(new Site(-5, 100, 21), b)));
+        assertFalse(ab.equals(new SitePair(new Site(-5, 101, 20), b)));
+    }
+
+    @Test
+    public void testSiteEquals() {
+        assertEquals(new Site(3, 4, 5), new Site(3, 4, 5));
+        assertEquals(new Site(3, 4, 5).hashCode(), new Site(3, 4, 5).hashCode());
+        assertFalse(new Site(3, 4, 5).equals(new Site(3, 4, 6)));
+        assertFalse(new Site(3, 4, 5).equals(new Site(4, 3, 5)));
+        assertEquals(new City("a", new Point2i(1, 2), 3), new City("b", new Point2i(1, 2), 3));
+    }
+
+    /**
+     * Neighboring sectors report the same connections with different site instances.
+     * The road cache must compute each road only once.
+     */
+    @Test
+    public void testCacheHits() {
+        // not cached - creates new instances every time
+        Function<Sector, Set<Site>> siteMap = new RandomSiteMap(3, 3, 30, 30);
+
+        final AtomicInteger computed = new AtomicInteger();
+        Function<SitePair, Integer> roads = CachingFunction.wrap(new Function<SitePair, Integer>() {
+
+            @Override
+            public Integer apply(SitePair input) {
+                return computed.incrementAndGet();
+            }
+        });
+
+        RegionalSectorConnector connector = new RegionalSectorConnector(siteMap, 1000);
+
+        Set<SitePair> distinct = Sets.newHashSet();
+        int lookups = 0;
+
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 3; y++) {
+                // every sector also asks for its neighbors' connections (as the road map does)
+                for (Orientation dir : Orientation.values()) {
+                    Sector sector = Sectors.getSector(x, y).getNeighbor(dir);
+                    for (SitePair pair : connector.apply(sector)) {
+                        roads.apply(pair);
+                        distinct.add(pair);
+                        lookups++;
+                    }
+                }
+            }
+        }
+
+        assertTrue(lookups > distinct.size());
+        assertEquals(distinct.size(), computed.get());
+    }
+}
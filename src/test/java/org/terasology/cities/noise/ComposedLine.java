@@ -27,11 +27,11 @@
 import org.terasology.cities.common.Point2cd;
 import org.terasology.cities.common.Point2d;
 import org.terasology.cities.common.Point2md;
-import org.terasology.cities.common.UnorderedPair;
 import org.terasology.cities.generator.RoadGeneratorSimple;
 import org.terasology.cities.model.Junction;
 import org.terasology.cities.model.Road;
 import org.terasology.cities.model.Site;
+import org.terasology.cities.model.SitePair;
 
 import com.google.common.base.Function;
 
@@ -74,7 +74,7 @@ public Junction apply(Point2i input) {
                 Point2d end = new Point2cd(450, 200);
                 Site a = new Site(50, 100, 1);
                 Site b = new Site(450, 200, 1);
-                Road road = new RoadGeneratorSimple(junctions).apply(new UnorderedPair<Site>(a, b));
+                Road road = new RoadGeneratorSimple(junctions).apply(new SitePair(a, b));
                 
                 Random r = new Random();
                 Wave w0 = Wave.getSine(1.0, new double[] {r.nextDouble() - 0.5});
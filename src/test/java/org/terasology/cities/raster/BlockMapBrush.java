@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.cities.raster;
+
+import java.awt.Rectangle;
+import java.util.Map;
+import java.util.Set;
+
+import javax.vecmath.Point3i;
+
+import org.terasology.cities.BlockTypes;
+import org.terasology.math.Side;
+
+import com.google.common.collect.Maps;
+
+/**
+ * A {@link Brush} that stores all blocks in a map - for testing
+ * @author Martin Steiger
+ */
+public class BlockMapBrush extends Brush {
+
+    private final Map<Point3i, BlockTypes> blocks = Maps.newHashMap();
+    private final Rectangle area;
+    private final int minHeight;
+    private final int maxHeight;
+    private int writes;
+
+    /**
+     * @param area the affected area
+     * @param minHeight the min. height (inclusive)
+     * @param maxHeight the max. height (exclusive)
+     */
+    public BlockMapBrush(Rectangle area, int minHeight, int maxHeight) {
+        this.area = area;
+        this.minHeight = minHeight;
+        this.maxHeight = maxHeight;
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z, BlockTypes type) {
+        if (area.contains(x, z) && y >= minHeight && y < maxHeight) {
+            blocks.put(new Point3i(x, y, z), type);
+        }
+        writes++;
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z, BlockTypes type, Set<Side> side) {
+        setBlock(x, y, z, type);
+    }
+
+    /**
+     * @param x x in world coords
+     * @param y y in world coords
+     * @param z z in world coords
+     * @return the block type or <code>null</code>
+     */
+    public BlockTypes getBlock(int x, int y, int z) {
+        return blocks.get(new Point3i(x, y, z));
+    }
+
+    /**
+     * @return all blocks
+     */
+    public Map<Point3i, BlockTypes> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * @return the number of setBlock() calls
+     */
+    public int getWriteCount() {
+        return writes;
+    }
+
+    @Override
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    @Override
+    public int getMinHeight() {
+        return minHeight;
+    }
+
+    @Override
+    public Rectangle getAffectedArea() {
+        return area;
+    }
+}
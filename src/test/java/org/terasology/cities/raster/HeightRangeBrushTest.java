@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.cities.raster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Rectangle;
+import java.awt.geom.Ellipse2D;
+
+import org.junit.Test;
+import org.terasology.cities.BlockTypes;
+import org.terasology.cities.common.HeightRange;
+import org.terasology.cities.heightmap.HeightMaps;
+
+/**
+ * Tests {@link HeightRangeBrush} and the vertical clipping of {@link Brush}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class HeightRangeBrushTest {
+
+    @Test
+    public void testMeasure() {
+        HeightRangeBrush brush = new HeightRangeBrush(new Rectangle(0, 0, 32, 32));
+
+        assertTrue(brush.getHeightRange().isEmpty());
+
+        brush.fillRect(new Rectangle(2, 2, 5, 5), -4, 10, BlockTypes.BUILDING_FOUNDATION);
+        brush.fillShape(new Ellipse2D.Double(10, 10, 8, 8), HeightMaps.constant(12), 3, BlockTypes.ROOF_DOME);
+        brush.setBlock(20, 17, 20, BlockTypes.FENCE);
+
+        // outside of the area
+        brush.setBlock(40, 50, 40, BlockTypes.FENCE);
+        brush.fillRect(new Rectangle(-10, -10, 5, 5), -20, 40, BlockTypes.AIR);
+
+        assertEquals(new HeightRange(-4, 18), brush.getHeightRange());
+    }
+
+    @Test
+    public void testRange() {
+        HeightRange range = new HeightRange(5, 10);
+
+        assertTrue(range.intersects(9, 20));
+        assertTrue(range.intersects(0, 6));
+        assertFalse(range.intersects(10, 20));
+        assertFalse(range.intersects(0, 5));
+        assertFalse(HeightRange.EMPTY.intersects(0, 10));
+        assertEquals(new HeightRange(0, 10), range.union(new HeightRange(0, 1)));
+        assertEquals(range, range.union(HeightRange.EMPTY));
+    }
+
+    @Test
+    public void testVerticalClipping() {
+        BlockMapBrush brush = new BlockMapBrush(new Rectangle(0, 0, 16, 16), 0, 16);
+
+        brush.fillRect(new Rectangle(0, 0, 2, 2), -100, 100, BlockTypes.AIR);
+        brush.draw(HeightMaps.constant(-50), HeightMaps.constant(50), 5, 5, 5, 5, BlockTypes.AIR);
+
+        // no calls outside of [0..16)
+        assertEquals(4 * 16 + 16, brush.getWriteCount());
+    }
+}
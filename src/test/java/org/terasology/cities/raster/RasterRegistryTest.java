@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.cities.raster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Rectangle;
+
+import org.junit.Test;
+import org.terasology.cities.BlockTypes;
+import org.terasology.cities.heightmap.HeightMaps;
+
+/**
+ * Tests {@link RasterRegistry}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class RasterRegistryTest {
+
+    private static class Marker implements Rasterizer<Object> {
+        private final BlockTypes type;
+
+        Marker(BlockTypes type) {
+            this.type = type;
+        }
+
+        @Override
+        public void raster(Brush brush, TerrainInfo ti, Object element) {
+            brush.setBlock(0, 0, 0, type);
+        }
+    }
+
+    @Test
+    public void testDispatch() {
+        RasterRegistry registry = new RasterRegistry();
+        BlockMapBrush brush = new BlockMapBrush(new Rectangle(0, 0, 1, 1), 0, 1);
+        TerrainInfo ti = new TerrainInfo(HeightMaps.constant(0));
+
+        Marker strings = new Marker(BlockTypes.FENCE);
+        registry.register(String.class, strings);
+
+        registry.rasterize(brush, ti, "text");
+        assertEquals(BlockTypes.FENCE, brush.getBlock(0, 0, 0));
+        assertSame(strings, registry.getRasterizer("text").get());
+
+        // unregistered types are skipped
+        registry.rasterize(brush, ti, Integer.valueOf(4));
+        registry.rasterize(brush, ti, null);
+        assertFalse(registry.getRasterizer(Integer.class).isPresent());
+        assertEquals(1, brush.getWriteCount());
+
+        // registering after the first lookup must override the cached entry
+        registry.register(String.class, new Marker(BlockTypes.AIR));
+        registry.rasterize(brush, ti, "text");
+        assertEquals(BlockTypes.AIR, brush.getBlock(0, 0, 0));
+    }
+}
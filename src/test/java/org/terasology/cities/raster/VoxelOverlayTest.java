@@ -0,0 +1,95 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.cities.raster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Rectangle;
+
+import org.junit.Test;
+import org.terasology.cities.BlockTypes;
+
+/**
+ * Tests {@link VoxelOverlay} and {@link OverlayBrush}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class VoxelOverlayTest {
+
+    @Test
+    public void testRoundTrip() {
+        Rectangle area = new Rectangle(-5, -5, 20, 20);
+        OverlayBrush recorder = new OverlayBrush(area);
+        BlockMapBrush direct = new BlockMapBrush(area, -100, 100);
+
+        draw(recorder);
+        draw(direct);
+
+        VoxelOverlay overlay = recorder.build();
+        BlockMapBrush copy = new BlockMapBrush(area, -100, 100);
+        overlay.copyTo(copy);
+
+        assertEquals(direct.getBlocks(), copy.getBlocks());
+        assertEquals(BlockTypes.BUILDING_FLOOR, copy.getBlock(0, 4, 0));
+        assertEquals(BlockTypes.AIR, copy.getBlock(0, 5, 0));
+        assertEquals(BlockTypes.ROOF_FLAT, copy.getBlock(2, -3, 3));
+        assertNull(copy.getBlock(14, 4, 14));
+    }
+
+    @Test
+    public void testClipping() {
+        Rectangle area = new Rectangle(-5, -5, 20, 20);
+        OverlayBrush recorder = new OverlayBrush(area);
+        draw(recorder);
+        VoxelOverlay overlay = recorder.build();
+
+        Rectangle chunkArea = new Rectangle(0, 0, 4, 4);
+        BlockMapBrush chunk = new BlockMapBrush(chunkArea, 0, 6);
+        overlay.copyTo(chunk);
+
+        BlockMapBrush direct = new BlockMapBrush(chunkArea, 0, 6);
+        draw(direct);
+
+        assertEquals(direct.getBlocks(), chunk.getBlocks());
+        assertNull(chunk.getBlock(2, -3, 3));
+    }
+
+    @Test
+    public void testMarkCopied() {
+        OverlayBrush recorder = new OverlayBrush(new Rectangle(-2, -2, 4, 4));
+        recorder.fillRect(new Rectangle(-2, -2, 4, 4), 0, 1, BlockTypes.LOT_EMPTY);
+        VoxelOverlay overlay = recorder.build();
+
+        // the overlay spans 2x2 chunks of size 16 and a single chunk in y direction
+        assertFalse(overlay.markCopied(new BlockMapBrush(new Rectangle(-16, -16, 16, 16), 0, 16)));
+        assertFalse(overlay.markCopied(new BlockMapBrush(new Rectangle(0, -16, 16, 16), 0, 16)));
+        assertFalse(overlay.markCopied(new BlockMapBrush(new Rectangle(0, -16, 16, 16), 0, 16)));
+        assertFalse(overlay.markCopied(new BlockMapBrush(new Rectangle(-16, 0, 16, 16), 0, 16)));
+        assertTrue(overlay.markCopied(new BlockMapBrush(new Rectangle(0, 0, 16, 16), 0, 16)));
+    }
+
+    private static void draw(Brush brush) {
+        brush.fillRect(new Rectangle(-2, -2, 10, 10), -1, 5, BlockTypes.BUILDING_FOUNDATION);
+        brush.fillRect(new Rectangle(-2, -2, 10, 10), 5, 8, BlockTypes.AIR);
+        brush.fillRect(new Rectangle(-1, -1, 8, 8), 4, 5, BlockTypes.BUILDING_FLOOR);
+        brush.frame(new Rectangle(-1, -1, 8, 8), 5, 8, BlockTypes.BUILDING_WALL);
+        brush.fillRect(new Rectangle(2, 3, 1, 1), -3, -2, BlockTypes.ROOF_FLAT);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.cities.raster;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Rectangle;
+
+import org.junit.Test;
+import org.terasology.cities.BlockTypes;
+
+/**
+ * Tests {@link WriteCombiningBrush}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class WriteCombiningBrushTest {
+
+    @Test
+    public void testLastWriterWins() {
+        BlockMapBrush target = new BlockMapBrush(new Rectangle(16, 32, 16, 16), 0, 64);
+        WriteCombiningBrush brush = new WriteCombiningBrush(target);
+
+        Rectangle rc = new Rectangle(10, 30, 10, 10);
+        brush.fillRect(rc, 0, 10, BlockTypes.AIR);
+        brush.fillRect(rc, 4, 5, BlockTypes.BUILDING_FLOOR);
+        brush.fillRect(rc, 0, 4, BlockTypes.BUILDING_FOUNDATION);
+        brush.setBlock(17, 100, 33, BlockTypes.ROOF_FLAT);
+
+        assertEquals(0, target.getWriteCount());
+
+        brush.flush();
+
+        // 4 x 8 columns are inside the target area
+        int blocks = 4 * 8 * 10;
+        assertEquals(blocks, target.getWriteCount());
+        assertEquals(blocks, brush.getBlockCount());
+        assertEquals(4 * 8 * 15, brush.getWriteCount());
+        assertEquals(1.5, brush.getOverdrawFactor(), 0.001);
+
+        assertEquals(BlockTypes.BUILDING_FOUNDATION, target.getBlock(16, 3, 32));
+        assertEquals(BlockTypes.BUILDING_FLOOR, target.getBlock(19, 4, 39));
+        assertEquals(BlockTypes.AIR, target.getBlock(19, 5, 39));
+    }
+
+    @Test
+    public void testFlushClearsBuffer() {
+        BlockMapBrush target = new BlockMapBrush(new Rectangle(0, 0, 4, 4), 0, 4);
+        WriteCombiningBrush brush = new WriteCombiningBrush(target);
+
+        brush.setBlock(1, 1, 1, BlockTypes.FENCE);
+        brush.flush();
+        brush.flush();
+
+        assertEquals(1, target.getWriteCount());
+        assertEquals(0, brush.getBlockCount());
+    }
+
+    @Test
+    public void testFlushColumn() {
+        BlockMapBrush target = new BlockMapBrush(new Rectangle(0, 0, 4, 4), 0, 4);
+        WriteCombiningBrush brush = new WriteCombiningBrush(target);
+
+        brush.fillRect(new Rectangle(1, 1, 2, 1), 0, 2, BlockTypes.BUILDING_WALL);
+
+        assertEquals(BlockCodes.encode(BlockTypes.BUILDING_WALL), brush.getCode(1, 1, 1));
+        assertEquals(BlockCodes.EMPTY, brush.getCode(1, 2, 1));
+
+        brush.flushColumn(1, 1);
+
+        assertEquals(2, target.getWriteCount());
+        assertEquals(BlockCodes.EMPTY, brush.getCode(1, 1, 1));
+
+        brush.flush();
+
+        assertEquals(4, target.getWriteCount());
+        assertEquals(4, brush.getBlockCount());
+        assertEquals(4, brush.getWriteCount());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.raster.standard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Rectangle;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+import org.terasology.cities.AreaInfo;
+import org.terasology.cities.CityTerrainComponent;
+import org.terasology.cities.generator.DefaultTownWallGenerator;
+import org.terasology.cities.generator.LotGeneratorRandom;
+import org.terasology.cities.generator.SimpleChurchGenerator;
+import org.terasology.cities.generator.SimpleFenceGenerator;
+import org.terasology.cities.generator.SimpleHousingGenerator;
+import org.terasology.cities.heightmap.HeightMap;
+import org.terasology.cities.heightmap.HeightMapAdapter;
+import org.terasology.cities.model.MedievalTown;
+import org.terasology.cities.model.SimpleLot;
+import org.terasology.cities.model.bldg.SimpleBuilding;
+import org.terasology.cities.raster.BlockMapBrush;
+import org.terasology.cities.raster.OverlayBrush;
+import org.terasology.cities.raster.TerrainInfo;
+import org.terasology.cities.raster.VoxelOverlay;
+
+/**
+ * Tests {@link CityRasterizer}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class CityRasterizerTest {
+
+    private final CityTerrainComponent config = new CityTerrainComponent();
+
+    private final HeightMap heightMap = new HeightMapAdapter() {
+
+        @Override
+        public int apply(int x, int z) {
+            return config.getSeaLevel() + 5 + Math.abs(x + 2 * z) % 4;
+        }
+    };
+
+    /**
+     * The overlay of a town covers only the city bounds, so all blocks of the town must be inside
+     */
+    @Test
+    public void testOverlayMatchesDirect() {
+        MedievalTown town = createTown("seed", new Point2i(300, -200), 90);
+
+        assertTrue(town.getTownWall().isPresent());
+        assertFalse(town.getLots().isEmpty());
+
+        TerrainInfo ti = new TerrainInfo(heightMap);
+        Rectangle area = town.getBounds();
+        area.grow(64, 64);
+
+        BlockMapBrush direct = new BlockMapBrush(area, 0, 256);
+        StandardRegistry.getInstance().rasterize(direct, ti, town);
+
+        OverlayBrush recorder = new OverlayBrush(town.getBounds());
+        StandardRegistry.getInstance().rasterize(recorder, ti, town);
+        VoxelOverlay overlay = recorder.build();
+
+        BlockMapBrush copy = new BlockMapBrush(area, 0, 256);
+        overlay.copyTo(copy);
+
+        assertFalse(direct.getBlocks().isEmpty());
+        assertEquals(direct.getBlocks(), copy.getBlocks());
+    }
+
+    /**
+     * Assembles a town the same way as the world facade does
+     */
+    private MedievalTown createTown(String seed, Point2i pos, int radius) {
+        AreaInfo si = new AreaInfo(config, heightMap);
+        MedievalTown town = new MedievalTown("town", pos, radius);
+        town.setTownWall(new DefaultTownWallGenerator(seed, heightMap).generate(town, si));
+
+        SimpleLot churchLot = new LotGeneratorRandom(seed, 25d, 40d, 1, 100).generate(town, si).iterator().next();
+        churchLot.addBuilding(new SimpleChurchGenerator(seed, heightMap).generate(churchLot));
+        town.add(churchLot);
+
+        SimpleHousingGenerator housing = new SimpleHousingGenerator(seed, heightMap);
+        SimpleFenceGenerator fences = new SimpleFenceGenerator(seed);
+        for (SimpleLot lot : new LotGeneratorRandom(seed).generate(town, si)) {
+            for (SimpleBuilding bldg : housing.apply(lot)) {
+                lot.addBuilding(bldg);
+                lot.setFence(fences.createFence(town, lot.getShape()));
+            }
+            town.add(lot);
+        }
+
+        return town;
+    }
+}
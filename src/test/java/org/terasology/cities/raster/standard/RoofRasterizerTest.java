@@ -0,0 +1,449 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.raster.standard;
+
+import static org.junit.Assert.assertEquals;
+import static org.terasology.cities.common.Orientation.EAST;
+import static org.terasology.cities.common.Orientation.WEST;
+
+import java.awt.Rectangle;
+import java.awt.geom.Ellipse2D;
+import java.util.Random;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+import org.terasology.cities.BlockTypes;
+import org.terasology.cities.common.Orientation;
+import org.terasology.cities.common.Rectangles;
+import org.terasology.cities.heightmap.HeightMap;
+import org.terasology.cities.heightmap.HeightMapAdapter;
+import org.terasology.cities.heightmap.HeightMaps;
+import org.terasology.cities.model.roof.BattlementRoof;
+import org.terasology.cities.model.roof.ConicRoof;
+import org.terasology.cities.model.roof.DomeRoof;
+import org.terasology.cities.model.roof.FlatRoof;
+import org.terasology.cities.model.roof.HipRoof;
+import org.terasology.cities.model.roof.PentRoof;
+import org.terasology.cities.model.roof.SaddleRoof;
+import org.terasology.cities.raster.BlockMapBrush;
+import org.terasology.cities.raster.Brush;
+import org.terasology.cities.raster.TerrainInfo;
+import org.terasology.math.TeraMath;
+import org.terasology.math.Vector2i;
+
+/**
+ * Tests the roof rasterizers against a per-column evaluation of the roof geometry
+ * through height maps, which is how the rasterizers worked before the height profiles were introduced.
+ * The brush is smaller than the roof area and height range to cover the clipping, too.
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class RoofRasterizerTest {
+
+    private static final int CONFIGS = 300;
+
+    private final TerrainInfo ti = new TerrainInfo(HeightMaps.constant(0));
+
+    private final Orientation[] sides = new Orientation[] {Orientation.NORTH, Orientation.EAST, Orientation.SOUTH, Orientation.WEST};
+
+    @Test
+    public void testHipRoof() {
+        Random r = new Random(1234);
+        HipRoofRasterizer rasterizer = new HipRoofRasterizer();
+
+        for (int i = 0; i < CONFIGS; i++) {
+            int base = r.nextInt(20);
+            HipRoof roof = new HipRoof(randomRect(r), base, 0.5 + r.nextInt(4) * 0.5, base + 1 + r.nextInt(10));
+
+            BlockMapBrush actual = createBrush();
+            rasterizer.raster(actual, ti, roof);
+
+            BlockMapBrush expected = createBrush();
+            rasterHip(expected, roof);
+
+            assertEquals(expected.getBlocks(), actual.getBlocks());
+        }
+    }
+
+    @Test
+    public void testSaddleRoof() {
+        Random r = new Random(2345);
+        SaddleRoofRasterizer rasterizer = new SaddleRoofRasterizer();
+
+        for (int i = 0; i < CONFIGS; i++) {
+            Orientation o = sides[r.nextInt(sides.length)];
+            SaddleRoof roof = new SaddleRoof(randomRect(r), r.nextInt(20), o, 0.5 + r.nextInt(4) * 0.5);
+
+            BlockMapBrush actual = createBrush();
+            rasterizer.raster(actual, ti, roof);
+
+            BlockMapBrush expected = createBrush();
+            rasterSaddle(expected, roof);
+
+            assertEquals(expected.getBlocks(), actual.getBlocks());
+        }
+    }
+
+    @Test
+    public void testPentRoof() {
+        Random r = new Random(3456);
+        PentRoofRasterizer rasterizer = new PentRoofRasterizer();
+
+        for (int i = 0; i < CONFIGS; i++) {
+            Orientation o = sides[r.nextInt(sides.length)];
+            PentRoof roof = new PentRoof(randomRect(r), r.nextInt(20), o, 0.25 + r.nextInt(6) * 0.25);
+
+            BlockMapBrush actual = createBrush();
+            rasterizer.raster(actual, ti, roof);
+
+            BlockMapBrush expected = createBrush();
+            rasterPent(expected, roof);
+
+            assertEquals(expected.getBlocks(), actual.getBlocks());
+        }
+    }
+
+    @Test
+    public void testFlatRoof() {
+        Random r = new Random(4567);
+        FlatRoofRasterizer rasterizer = new FlatRoofRasterizer();
+
+        for (int i = 0; i < CONFIGS; i++) {
+            Rectangle rc = randomRect(r);
+            int base = r.nextInt(20);
+            int border = r.nextInt(4);
+            FlatRoof roof = r.nextBoolean() ? new FlatRoof(rc, base, border) : new BattlementRoof(rc, base, border);
+
+            BlockMapBrush actual = createBrush();
+            rasterizer.raster(actual, ti, roof);
+
+            BlockMapBrush expected = createBrush();
+            rasterFlat(expected, roof);
+
+            assertEquals(expected.getBlocks(), actual.getBlocks());
+        }
+    }
+
+    @Test
+    public void testDomeRoof() {
+        Random r = new Random(5678);
+        DomeRoofRasterizer rasterizer = new DomeRoofRasterizer();
+
+        for (int i = 0; i < CONFIGS; i++) {
+            DomeRoof roof = new DomeRoof(randomRect(r), r.nextInt(20), 1 + r.nextInt(12));
+
+            BlockMapBrush actual = createBrush();
+            rasterizer.raster(actual, ti, roof);
+
+            BlockMapBrush expected = createBrush();
+            rasterDome(expected, roof);
+
+            assertEquals(expected.getBlocks(), actual.getBlocks());
+        }
+    }
+
+    @Test
+    public void testConicRoof() {
+        Random r = new Random(6789);
+        ConicRoofRasterizer rasterizer = new ConicRoofRasterizer();
+
+        for (int i = 0; i < CONFIGS; i++) {
+            Point2i center = new Point2i(r.nextInt(64), r.nextInt(64));
+            ConicRoof roof = new ConicRoof(center, 1 + r.nextInt(10), r.nextInt(20), 1 + r.nextInt(3));
+
+            BlockMapBrush actual = createBrush();
+            rasterizer.raster(actual, ti, roof);
+
+            BlockMapBrush expected = createBrush();
+            rasterConic(expected, roof);
+
+            assertEquals(expected.getBlocks(), actual.getBlocks());
+        }
+    }
+
+    private static BlockMapBrush createBrush() {
+        return new BlockMapBrush(new Rectangle(8, 8, 48, 48), 4, 24);
+    }
+
+    private static Rectangle randomRect(Random r) {
+        return new Rectangle(r.nextInt(64) - 4, r.nextInt(64) - 4, 3 + r.nextInt(16), 3 + r.nextInt(16));
+    }
+
+    private static void rasterHip(Brush brush, final HipRoof roof) {
+        final Rectangle area = roof.getArea();
+
+        if (!brush.affects(area)) {
+            return;
+        }
+
+        HeightMap hm = new HeightMapAdapter() {
+
+            @Override
+            public int apply(int x, int z) {
+                int rx = x - area.x;
+                int rz = z - area.y;
+
+                // distance to border of the roof
+                int borderDistX = Math.min(rx, area.width - 1 - rx);
+                int borderDistZ = Math.min(rz, area.height - 1 - rz);
+
+                int dist = Math.min(borderDistX, borderDistZ);
+
+                int y = TeraMath.floorToInt(roof.getBaseHeight() + dist * roof.getPitch());
+                return Math.min(y, roof.getMaxHeight());
+            }
+        };
+
+        brush.fillRect(area, hm, HeightMaps.offset(hm, (int) roof.getPitch()), BlockTypes.ROOF_HIP);
+    }
+
+    private static void rasterSaddle(Brush brush, final SaddleRoof roof) {
+        final Rectangle area = roof.getArea();
+
+        if (!brush.affects(area)) {
+            return;
+        }
+        final boolean alongX = roof.getOrientation() == EAST || roof.getOrientation() == WEST;
+
+        final HeightMap topHm = new HeightMapAdapter() {
+
+            @Override
+            public int apply(int x, int z) {
+                int rx = x - area.x;
+                int rz = z - area.y;
+
+                int y = roof.getBaseHeight();
+
+                // distance to border of the roof
+                int borderDistX = Math.min(rx, area.width - 1 - rx);
+                int borderDistZ = Math.min(rz, area.height - 1 - rz);
+
+                if (alongX) {
+                    y += borderDistZ / roof.getPitch();
+                } else {
+                    y += borderDistX / roof.getPitch();
+                }
+
+                return y;
+            }
+        };
+
+        final HeightMap bottomHm = HeightMaps.offset(topHm, -1);
+
+        brush.fillRect(area, bottomHm, topHm, BlockTypes.ROOF_SADDLE);
+
+        HeightMap gableBottomHm = new HeightMapAdapter() {
+
+            @Override
+            public int apply(int x, int z) {
+                int h0 = roof.getBaseHeight();
+                if (alongX) {
+                    if (x == area.x + 1 || x == area.x + area.width - 2) {
+                        return h0;
+                    }
+                } else {
+                    if (z == area.y + 1 || z == area.y + area.height - 2) {
+                        return h0;
+                    }
+                }
+
+                return bottomHm.apply(x, z);
+            }
+        };
+
+        brush.fillRect(area, gableBottomHm, bottomHm, BlockTypes.ROOF_GABLE);
+    }
+
+    private static void rasterPent(Brush brush, final PentRoof roof) {
+        final Rectangle area = roof.getArea();
+
+        if (!brush.affects(area)) {
+            return;
+        }
+
+        final HeightMap bottomHm = new HeightMapAdapter() {
+
+            @Override
+            public int apply(int x, int z) {
+                int rx = x - area.x;
+                int rz = z - area.y;
+
+                Vector2i dir = roof.getOrientation().getDir();
+
+                if (dir.x < 0) {
+                    rx -= area.width;
+                }
+
+                if (dir.y < 0) {
+                    rz -= area.height;
+                }
+
+                int hx = rx * dir.x;
+                int hz = rz * dir.y;
+
+                int h = TeraMath.floorToInt(Math.max(hx, hz) * roof.getPitch());
+
+                return roof.getBaseHeight() + h;
+            }
+        };
+
+        int thickness = TeraMath.ceilToInt(roof.getPitch());
+        brush.fillRect(area, bottomHm, HeightMaps.offset(bottomHm, thickness), BlockTypes.ROOF_HIP);
+
+        final Rectangle wallRect = Rectangles.expandRect(roof.getArea(), -1);
+
+        HeightMap gableBottomHm = new HeightMapAdapter() {
+
+            @Override
+            public int apply(int x, int z) {
+                int h0 = roof.getBaseHeight();
+
+                boolean onZ = (x == wallRect.x || x == wallRect.x + wallRect.width - 1);
+                boolean zOk = (z >= wallRect.y && z <= wallRect.y + wallRect.height - 1);
+
+                if (onZ && zOk) {
+                    return h0;
+                }
+
+                boolean onX = (z == wallRect.y || z == wallRect.y + wallRect.height - 1);
+                boolean xOk = (x >= wallRect.x && x <= wallRect.x + wallRect.width - 1);
+
+                if (onX && xOk) {
+                    return h0;
+                }
+
+                return bottomHm.apply(x, z);
+            }
+        };
+
+        brush.fillRect(area, gableBottomHm, bottomHm, BlockTypes.ROOF_GABLE);
+    }
+
+    private static void rasterFlat(Brush brush, final FlatRoof roof) {
+        final Rectangle area = roof.getArea();
+
+        if (!brush.affects(area)) {
+            return;
+        }
+
+        HeightMap topHm = new HeightMapAdapter() {
+
+            @Override
+            public int apply(int x, int z) {
+                int rx = x - area.x;
+                int rz = z - area.y;
+
+                int y = roof.getBaseHeight() + 1;       // at least one block thick
+
+                // distance to border of the roof
+                int borderDistX = Math.min(rx, area.width - 1 - rx);
+                int borderDistZ = Math.min(rz, area.height - 1 - rz);
+
+                int dist = Math.min(borderDistX, borderDistZ);
+
+                if (dist == 0) {
+                    y += roof.getBorderHeight(rx, rz);
+                }
+
+                return y;
+            }
+        };
+
+        brush.fillRect(area, HeightMaps.constant(roof.getBaseHeight()), topHm, BlockTypes.ROOF_FLAT);
+    }
+
+    private static void rasterDome(Brush brush, final DomeRoof roof) {
+        final Rectangle area = roof.getArea();
+
+        if (!brush.affects(area)) {
+            return;
+        }
+
+        HeightMap topHm = new HeightMapAdapter() {
+
+            @Override
+            public int apply(int rx, int rz) {
+                double y = getDomeY(area, roof.getHeight(), rx + 0.5, rz + 0.5);
+                return roof.getBaseHeight() + (int) Math.max(1, y);
+            }
+        };
+
+        HeightMap bottomHm = new HeightMapAdapter() {
+
+            @Override
+            public int apply(int rx, int rz) {
+                int baseHeight = roof.getBaseHeight();
+
+                if (rx == area.x || rz == area.y) {
+                    return baseHeight;
+                }
+
+                if (rx == area.x + area.getWidth() - 1 || rz == area.y + area.getHeight() - 1) {
+                    return baseHeight;
+                }
+
+                double y = getDomeY(area, roof.getHeight(), rx + 0.5, rz + 0.5);
+                return baseHeight + (int) Math.max(0, y - 2);
+            }
+        };
+
+        brush.fillRect(area, bottomHm, topHm, BlockTypes.ROOF_FLAT);
+    }
+
+    private static double getDomeY(Rectangle area, int height, double rx, double rz) {
+        double x = rx - area.x - area.width * 0.5;   // distance from the center
+        double z = rz - area.y - area.height * 0.5;
+
+        double a = area.width * 0.5;
+        double b = height;
+        double c = area.height * 0.5;
+
+        double y2 = b * b * (1 - (x * x) / (a * a) - (z * z) / (c * c));
+
+        return Math.sqrt(y2);
+    }
+
+    private static void rasterConic(Brush brush, final ConicRoof roof) {
+        Ellipse2D area = roof.getArea();
+
+        if (!brush.affects(area)) {
+            return;
+        }
+
+        final int centerX = (int) (area.getCenterX() + 0.5);
+        final int centerY = (int) (area.getCenterY() + 0.5);
+        final int rad = (int) (area.getWidth() * 0.5);
+
+        HeightMap hm = new HeightMapAdapter() {
+
+            @Override
+            public int apply(int x, int z) {
+                int rx = x - centerX;
+                int rz = z - centerY;
+
+                // relative distance to border of the roof
+                double dist = rad - Math.sqrt(rx * rx + rz * rz);
+
+                return TeraMath.floorToInt(roof.getBaseHeight() + dist * roof.getPitch());
+            }
+        };
+
+        brush.fillCircle(centerX, centerY, rad, hm, BlockTypes.ROOF_HIP);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.cities.raster.standard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Rectangle;
+import java.util.List;
+
+import org.junit.Test;
+import org.terasology.cities.common.Orientation;
+import org.terasology.cities.heightmap.HeightMapAdapter;
+import org.terasology.cities.model.bldg.SimpleDoor;
+import org.terasology.cities.model.bldg.SimpleHome;
+import org.terasology.cities.model.bldg.SimpleWindow;
+import org.terasology.cities.model.roof.SaddleRoof;
+import org.terasology.cities.raster.BlockMapBrush;
+import org.terasology.cities.raster.TerrainInfo;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests {@link SimpleHomeRasterizer} and {@link HomeTemplateKey}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class SimpleHomeRasterizerTest {
+
+    private final TerrainInfo ti = new TerrainInfo(new HeightMapAdapter() {
+
+        @Override
+        public int apply(int x, int z) {
+            return 5 + (x + z) % 4;
+        }
+    });
+
+    @Test
+    public void testTemplateMatchesDirect() {
+        SimpleHomeRasterizer rasterizer = new SimpleHomeRasterizer(StandardRegistry.getInstance());
+
+        // the translated copy reuses the first template, the others must not
+        List<SimpleHome> homes = ImmutableList.of(
+                createHome(10, 20, 10, Orientation.NORTH, Orientation.NORTH),
+                createHome(40, 60, 14, Orientation.NORTH, Orientation.NORTH),
+                createHome(40, 60, 14, Orientation.SOUTH, Orientation.NORTH),
+                createHome(40, 60, 14, Orientation.NORTH, Orientation.EAST));
+
+        for (SimpleHome home : homes) {
+            BlockMapBrush template = createBrush();
+            rasterizer.raster(template, ti, home);
+
+            BlockMapBrush direct = createBrush();
+            rasterizer.rasterDirect(direct, ti, home);
+
+            assertFalse(direct.getBlocks().isEmpty());
+            assertEquals(direct.getBlocks(), template.getBlocks());
+        }
+    }
+
+    @Test
+    public void testKeys() {
+        SimpleHome home = createHome(10, 20, 10, Orientation.NORTH, Orientation.NORTH);
+        SimpleHome moved = createHome(40, 60, 14, Orientation.NORTH, Orientation.NORTH);
+        SimpleHome door = createHome(10, 20, 10, Orientation.SOUTH, Orientation.NORTH);
+        SimpleHome roof = createHome(10, 20, 10, Orientation.NORTH, Orientation.EAST);
+
+        HomeTemplateKey key = HomeTemplateKey.create(home).get();
+        assertTrue(key.equals(HomeTemplateKey.create(moved).get()));
+        assertEquals(key.hashCode(), HomeTemplateKey.create(moved).get().hashCode());
+        assertFalse(key.equals(HomeTemplateKey.create(door).get()));
+        assertFalse(key.equals(HomeTemplateKey.create(roof).get()));
+    }
+
+    private static BlockMapBrush createBrush() {
+        return new BlockMapBrush(new Rectangle(0, 0, 100, 100), 0, 64);
+    }
+
+    private static SimpleHome createHome(int x, int z, int base, Orientation doorSide, Orientation roofDir) {
+        Rectangle layout = new Rectangle(x, z, 12, 9);
+        int doorZ = (doorSide == Orientation.NORTH) ? z : z + layout.height - 1;
+        SimpleDoor door = new SimpleDoor(doorSide, new Rectangle(x + 5, doorZ, 1, 1), base, base + 3);
+
+        Rectangle roofArea = new Rectangle(x - 1, z - 1, layout.width + 2, layout.height + 2);
+        SaddleRoof roof = new SaddleRoof(roofArea, base + 4, roofDir, 1.0);
+
+        SimpleHome home = new SimpleHome(layout, roof, base, 4, door);
+        home.addWindow(new SimpleWindow(Orientation.EAST, new Rectangle(x + 11, z + 4, 1, 1), base + 1, base + 3));
+        return home;
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.symmetry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.Ellipse2D;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+import javax.vecmath.Vector2d;
+
+import org.junit.Test;
+import org.terasology.cities.common.Orientation;
+import org.terasology.cities.contour.Contour;
+import org.terasology.cities.generator.JunctionRegistry;
+import org.terasology.cities.generator.RoundHouseGenerator;
+import org.terasology.cities.generator.SimpleChurchGenerator;
+import org.terasology.cities.heightmap.HeightMaps;
+import org.terasology.cities.model.City;
+import org.terasology.cities.model.Junction;
+import org.terasology.cities.model.Lake;
+import org.terasology.cities.model.Lot;
+import org.terasology.cities.model.Road;
+import org.terasology.cities.model.Sector;
+import org.terasology.cities.model.Sectors;
+import org.terasology.cities.model.SimpleLot;
+import org.terasology.cities.model.bldg.Building;
+import org.terasology.cities.model.bldg.BuildingPart;
+import org.terasology.cities.model.bldg.RoundHouse;
+import org.terasology.cities.model.bldg.SimpleChurch;
+import org.terasology.cities.model.bldg.SimpleDoor;
+import org.terasology.cities.model.bldg.SimpleHome;
+import org.terasology.cities.model.roof.ConicRoof;
+import org.terasology.cities.model.roof.SaddleRoof;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+
+/**
+ * Tests {@link ModelMirror} and {@link SymmetricSectorFunction}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class ModelMirrorTest {
+
+    private final Symmetry symmetry = Symmetries.alongNegativeDiagonal();
+    private final ModelMirror mirror = new ModelMirror(symmetry);
+
+    @Test
+    public void testRectangles() {
+        Rectangle rc = new Rectangle(10, -30, 7, 3);
+        Rectangle mirrored = mirror.mirror(rc);
+
+        assertEquals(rc.width, mirrored.height);
+        assertEquals(rc.height, mirrored.width);
+        assertEquals(rc, mirror.mirror(mirrored));
+
+        // every block of the area must be mirrored into the mirrored area
+        for (int z = rc.y; z < rc.y + rc.height; z++) {
+            for (int x = rc.x; x < rc.x + rc.width; x++) {
+                Point2i pt = symmetry.getMirrored(x, z);
+                assertTrue(mirrored.contains(pt.x, pt.y));
+            }
+        }
+    }
+
+    @Test
+    public void testOrientations() {
+        assertEquals(Orientation.NORTH, mirror.mirror(Orientation.EAST));
+        assertEquals(Orientation.WEST, mirror.mirror(Orientation.SOUTH));
+        assertEquals(Orientation.NORTHEAST, mirror.mirror(Orientation.NORTHEAST));
+        assertEquals(Orientation.NORTHWEST, mirror.mirror(Orientation.SOUTHEAST));
+
+        for (Orientation o : Orientation.values()) {
+            assertEquals(o, mirror.mirror(mirror.mirror(o)));
+        }
+    }
+
+    @Test
+    public void testRoad() {
+        List<Point2i> pts = ImmutableList.of(new Point2i(20, 30), new Point2i(40, 35));
+        Road road = new Road(new Junction(new Point2i(0, 0)), new Junction(new Point2i(50, 60)), pts, 3);
+        JunctionRegistry junctions = new JunctionRegistry();
+        Road mirrored = mirror.mirror(road, junctions);
+
+        // the mirrored road uses the registered junctions
+        assertSame(junctions.apply(new Point2i(-1, -1)), mirrored.getStart());
+        assertEquals(2, junctions.size());
+        assertEquals(new Point2i(-1, -1), mirrored.getStart().getCoords());
+        assertEquals(new Point2i(-61, -51), mirrored.getEnd().getCoords());
+        assertEquals(symmetry.getMirrored(pts.get(1)), mirrored.getPoints().get(1));
+        assertEquals(road.getPath().getLength(), mirrored.getPath().getLength(), 0.0001);
+    }
+
+    @Test
+    public void testLake() {
+        Lake lake = new Lake(square(0, 0, 64), "Lake");
+        lake.addIsland(square(16, 24, 16));
+        Lake mirrored = mirror.mirror(lake);
+
+        assertEquals(1, mirrored.getIslandContours().size());
+        assertTrue(mirrored.contains(new Vector2d(-10, -50)));
+        assertFalse(mirrored.contains(new Vector2d(-30, -20)));
+        assertFalse(mirrored.contains(new Vector2d(10, 50)));
+    }
+
+    @Test
+    public void testCity() {
+        City city = new City("Town", new Point2i(200, 100), 60);
+        Rectangle layout = new Rectangle(190, 90, 10, 6);
+        SimpleLot lot = new SimpleLot(new Rectangle(188, 88, 14, 10));
+        SaddleRoof roof = new SaddleRoof(new Rectangle(189, 89, 12, 8), 14, Orientation.EAST, 1);
+        SimpleDoor door = new SimpleDoor(Orientation.SOUTH, new Rectangle(194, 95, 1, 1), 10, 12);
+        lot.addBuilding(new SimpleHome(layout, roof, 10, 4, door));
+        city.add(lot);
+
+        City mirrored = mirror.mirror(city);
+        assertEquals(symmetry.getMirrored(city.getPos()), mirrored.getPos());
+        assertEquals(city.getRadius(), mirrored.getRadius(), 0.0);
+
+        Lot mirrLot = mirrored.getLots().iterator().next();
+        assertEquals(mirror.mirror(lot.getShape()), mirrLot.getShape());
+
+        Building bldg = mirrLot.getBuildings().iterator().next();
+        SimpleHome home = (SimpleHome) bldg;
+        assertEquals(mirror.mirror(layout), home.getLayout());
+        assertEquals(Orientation.WEST, home.getDoor().getOrientation());
+
+        SaddleRoof mirrRoof = (SaddleRoof) home.getRoof();
+        assertEquals(Orientation.NORTH, mirrRoof.getOrientation());
+        assertEquals(mirror.mirror(roof.getArea()), mirrRoof.getArea());
+    }
+
+    @Test
+    public void testChurch() {
+        SimpleChurchGenerator generator = new SimpleChurchGenerator("seed", HeightMaps.constant(10));
+        SimpleChurch church = generator.generate(new SimpleLot(new Rectangle(100, 50, 40, 30)));
+        SimpleChurch mirrored = (SimpleChurch) mirror.mirror(church);
+
+        assertEquals(4, church.getParts().size());
+        assertEquals(church.getParts().size(), mirrored.getParts().size());
+        assertEquals(mirror.mirror(church.getNave().getLayout()), mirrored.getNave().getLayout());
+        assertEquals(mirror.mirror(church.getTower().getLayout()), mirrored.getTower().getLayout());
+
+        Set<Rectangle> expected = Sets.newHashSet();
+        for (BuildingPart part : church.getParts()) {
+            expected.add(mirror.mirror((Rectangle) part.getLayout()));
+        }
+
+        Set<Rectangle> actual = Sets.newHashSet();
+        for (BuildingPart part : mirrored.getParts()) {
+            actual.add((Rectangle) part.getLayout());
+        }
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testRoundHouse() {
+        RoundHouseGenerator generator = new RoundHouseGenerator(HeightMaps.constant(10));
+        RoundHouse house = generator.generate(new SimpleLot(new Rectangle(100, 50, 13, 13)));
+        RoundHouse mirrored = (RoundHouse) mirror.mirror(house);
+
+        // the door must have the same distance to the center of the wall
+        double dist = getDistance(house.getLayout(), house.getDoor().getRect());
+        assertEquals(dist, getDistance(mirrored.getLayout(), mirrored.getDoor().getRect()), 0.0001);
+
+        ConicRoof roof = (ConicRoof) house.getRoof();
+        ConicRoof mirrRoof = (ConicRoof) mirrored.getRoof();
+        assertEquals(mirrored.getLayout().getCenterX(), mirrRoof.getArea().getCenterX(), 0.0);
+        assertEquals(mirrored.getLayout().getCenterY(), mirrRoof.getArea().getCenterY(), 0.0);
+        assertEquals(roof.getArea().getWidth(), mirrRoof.getArea().getWidth(), 0.0);
+    }
+
+    @Test
+    public void testSectorFunction() {
+        Function<Sector, Set<Point2i>> base = new Function<Sector, Set<Point2i>>() {
+
+            @Override
+            public Set<Point2i> apply(Sector sector) {
+                return Collections.singleton(sector.getCoords());
+            }
+        };
+
+        Function<Object, Set<Point2i>> marker = Functions.constant(Collections.<Point2i>emptySet());
+        SymmetricSectorFunction<Set<Point2i>> func = new SymmetricSectorFunction<Set<Point2i>>(base, symmetry, marker);
+
+        // canonical and self-mirrored sectors are generated
+        assertEquals(Collections.singleton(new Point2i(2, 3)), func.apply(Sectors.getSector(2, 3)));
+        assertEquals(Collections.singleton(new Point2i(-3, 2)), func.apply(Sectors.getSector(-3, 2)));
+
+        // mirrored sectors are transformed
+        assertSame(marker.apply(null), func.apply(Sectors.getSector(-4, -3)));
+    }
+
+    private static double getDistance(Ellipse2D layout, Rectangle rc) {
+        double dx = rc.getCenterX() - layout.getCenterX();
+        double dy = rc.getCenterY() - layout.getCenterY();
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private static Contour square(int x, int y, int size) {
+        Contour contour = new Contour();
+        contour.addPoint(new Point(x, y));
+        contour.addPoint(new Point(x + size, y));
+        contour.addPoint(new Point(x + size, y + size));
+        contour.addPoint(new Point(x, y + size));
+        return contour;
+    }
+}
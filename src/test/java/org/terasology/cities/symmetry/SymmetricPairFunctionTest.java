@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.terasology.cities.symmetry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.vecmath.Point2i;
+
+import org.junit.Test;
+import org.terasology.cities.generator.JunctionRegistry;
+import org.terasology.cities.model.Junction;
+import org.terasology.cities.model.Road;
+import org.terasology.cities.model.Site;
+import org.terasology.cities.model.SitePair;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Tests {@link SymmetricPairFunction}
+ * @author Martin Steiger
+ */
+@SuppressWarnings("javadoc")
+public class SymmetricPairFunctionTest {
+
+    private final Symmetry symmetry = Symmetries.alongNegativeDiagonal();
+    private final ModelMirror mirror = new ModelMirror(symmetry);
+
+    @Test
+    public void testAcrossSeam() {
+        final List<SitePair> calls = Lists.newArrayList();
+
+        // the route depends on the direction, just like a real router with tie-breaking
+        Function<SitePair, Road> router = new Function<SitePair, Road>() {
+
+            @Override
+            public Road apply(SitePair pair) {
+                calls.add(pair);
+                Point2i start = pair.getA().getPos();
+                Point2i end = pair.getB().getPos();
+                Point2i bend = new Point2i(start.x + 10, start.y);
+                return new Road(new Junction(start), new Junction(end), Collections.singletonList(bend), 3);
+            }
+        };
+
+        // the connection crosses the symmetry axis (x + z = -1)
+        SitePair pair = new SitePair(new Site(100, 50, 30), new Site(-300, -200, 40));
+        SymmetricPairFunction<Road> func = new SymmetricPairFunction<Road>(router, symmetry, mirror.roads(new JunctionRegistry()));
+        SitePair mirrPair = func.getMirrored(pair);
+        assertFalse(pair.equals(mirrPair));
+
+        Road road = func.apply(pair);
+        Road mirrRoad = func.apply(mirrPair);
+        assertTrue(func.isCanonical(pair) != func.isCanonical(mirrPair));
+
+        // only one of the two pairs is routed
+        assertEquals(2, calls.size());
+        assertEquals(calls.get(0), calls.get(1));
+
+        Set<Point2i> expected = Sets.newHashSet();
+        for (Point2i pt : road.getPath().asList()) {
+            expected.add(symmetry.getMirrored(pt));
+        }
+
+        assertEquals(expected, Sets.newHashSet(mirrRoad.getPath().asList()));
+        assertEquals(road.getPath().getLength(), mirrRoad.getPath().getLength(), 0.0001);
+
+        // the sectors on both sides of the axis request the same pair
+        assertEquals(road.getPath(), func.apply(pair).getPath());
+        assertEquals(mirrRoad.getPath(), func.apply(mirrPair).getPath());
+    }
+}